@@ -0,0 +1,185 @@
+package cn.jackwhliu.rvadapter.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import cn.jackwhliu.rvadapter.lib.BaseRVAdapter;
+
+/**
+ * {@link BaseRVAdapter}数据操作的耗时和内存分配，通知由{@link NotifySink}接收，不需要设备。
+ * 每个基准测试执行后条目数量不变，保证各次迭代的条件相同。
+ *
+ * @author lwh
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AdapterBenchmark {
+
+    /**
+     * 批量操作的条目数。
+     */
+    private static final int BATCH_SIZE = 100;
+
+    /**
+     * {@link #getData()}轮流读取的位置数，必须是2的幂。
+     */
+    private static final int POSITION_COUNT = 1024;
+
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    @Param({"ArrayList", "ChunkedList"})
+    public String storage;
+
+    private BenchAdapter mAdapter;
+
+    private NotifySink mSink;
+
+    private List<Integer> mBatch;
+
+    private int[] mPositions;
+
+    private int mNextPosition;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        mAdapter = new BenchAdapter();
+        if ("ChunkedList".equals(storage)) {
+            mAdapter.useChunkedStorage();
+        }
+        ArrayList<Integer> datas = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            datas.add(i);
+        }
+        mAdapter.addItems(datas);
+        mSink = new NotifySink();
+        mAdapter.registerAdapterDataObserver(mSink);
+
+        mBatch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            mBatch.add(-i);
+        }
+        Random random = new Random(size);
+        mPositions = new int[POSITION_COUNT];
+        for (int i = 0; i < POSITION_COUNT; i++) {
+            mPositions[i] = random.nextInt(size);
+        }
+    }
+
+    /**
+     * 在末尾追加一批条目，再整段移除恢复原状。
+     */
+    @Benchmark
+    public int addItems() {
+        mAdapter.addItems(mBatch);
+        mAdapter.removeItem(size, BATCH_SIZE);
+        return mSink.mEvents;
+    }
+
+    /**
+     * 从中间整段移除一批条目，再不发通知地放回去。
+     */
+    @Benchmark
+    public int removeItemRange() {
+        int start = size / 2;
+        mAdapter.removeItem(start, BATCH_SIZE);
+        mAdapter.getDatas().addAll(start, mBatch);
+        return mSink.mEvents;
+    }
+
+    @Benchmark
+    public int setItems(Replacement replacement) {
+        mAdapter.setItems(replacement.mDatas);
+        return mSink.mEvents;
+    }
+
+    @Benchmark
+    public int stickItem() {
+        mAdapter.stickItem(0);
+        return mSink.mEvents;
+    }
+
+    @Benchmark
+    public int reverseItems() {
+        mAdapter.reverseItems();
+        return mSink.mEvents;
+    }
+
+    @Benchmark
+    public Integer getData() {
+        int position = mPositions[mNextPosition++ & (POSITION_COUNT - 1)];
+        return mAdapter.getData(position);
+    }
+
+    /**
+     * {@link BaseRVAdapter#setItems(ArrayList)}的新数据，单独作为状态，参数只影响这一个基准测试。
+     */
+    @State(Scope.Thread)
+    public static class Replacement {
+
+        /**
+         * 新数据和已有数据的数量关系，分别对应数量相等时直接覆盖和{@link BaseRVAdapter.ReplacePolicy}的两个分支。
+         */
+        @Param({"SAME_SIZE", "OUT_OF_RANGE", "NOT_UP_TO_CAPACITY"})
+        public String replace;
+
+        private ArrayList<Integer> mDatas;
+
+        @Setup(Level.Iteration)
+        public void setUp(AdapterBenchmark benchmark) {
+            int size = benchmark.size;
+            if ("OUT_OF_RANGE".equals(replace)) {
+                size += BATCH_SIZE;
+            } else if ("NOT_UP_TO_CAPACITY".equals(replace)) {
+                size -= BATCH_SIZE;
+            }
+            mDatas = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                mDatas.add(benchmark.size - i);
+            }
+        }
+    }
+
+    /**
+     * 只用来操作数据的适配器，不创建和绑定View。
+     */
+    static class BenchAdapter extends BaseRVAdapter<Integer> {
+
+        BenchAdapter() {
+            super(null);
+        }
+
+        @Override
+        public void onBindViewHolder(ViewHolder holder, int position, Integer data) {
+        }
+
+        @Override
+        protected int[] getItemViewIds() {
+            return null;
+        }
+
+        @Override
+        protected int getItemId() {
+            return 0;
+        }
+    }
+}
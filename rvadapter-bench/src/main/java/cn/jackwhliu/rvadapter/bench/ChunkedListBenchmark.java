@@ -0,0 +1,75 @@
+package cn.jackwhliu.rvadapter.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import cn.jackwhliu.rvadapter.lib.collection.ChunkedList;
+
+/**
+ * 对比{@link ArrayList}和{@link ChunkedList}在头部、中间插入删除以及移动时的耗时。
+ *
+ * @author lwh
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChunkedListBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int size;
+
+    @Param({"ArrayList", "ChunkedList"})
+    public String storage;
+
+    private List<Integer> mList;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        mList = "ArrayList".equals(storage) ? new ArrayList<Integer>(size) : new ChunkedList<Integer>();
+        for (int i = 0; i < size; i++) {
+            mList.add(i);
+        }
+    }
+
+    @Benchmark
+    public Integer insertRemoveHead() {
+        mList.add(0, -1);
+        return mList.remove(0);
+    }
+
+    @Benchmark
+    public Integer insertRemoveMiddle() {
+        int middle = mList.size() / 2;
+        mList.add(middle, -1);
+        return mList.remove(middle);
+    }
+
+    @Benchmark
+    public Integer moveToHead() {
+        Integer item = mList.remove(mList.size() - 1);
+        mList.add(0, item);
+        return item;
+    }
+
+    @Benchmark
+    public Integer getMiddle() {
+        return mList.get(mList.size() / 2);
+    }
+}
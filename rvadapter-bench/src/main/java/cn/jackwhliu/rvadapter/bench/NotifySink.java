@@ -0,0 +1,50 @@
+package cn.jackwhliu.rvadapter.bench;
+
+import android.support.v7.widget.RecyclerView;
+
+/**
+ * 代替RecyclerView接收适配器的通知，只记录通知的次数和涉及的条目数，避免通知被JIT当作无用代码消除。
+ *
+ * @author lwh
+ */
+public class NotifySink extends RecyclerView.AdapterDataObserver {
+
+    /**
+     * 收到的通知次数。
+     */
+    public int mEvents;
+
+    /**
+     * 通知涉及的条目总数，数据集变化记为0。
+     */
+    public long mItems;
+
+    @Override
+    public void onChanged() {
+        mEvents++;
+    }
+
+    @Override
+    public void onItemRangeChanged(int positionStart, int itemCount) {
+        mEvents++;
+        mItems += itemCount;
+    }
+
+    @Override
+    public void onItemRangeInserted(int positionStart, int itemCount) {
+        mEvents++;
+        mItems += itemCount;
+    }
+
+    @Override
+    public void onItemRangeRemoved(int positionStart, int itemCount) {
+        mEvents++;
+        mItems += itemCount;
+    }
+
+    @Override
+    public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+        mEvents++;
+        mItems += itemCount;
+    }
+}
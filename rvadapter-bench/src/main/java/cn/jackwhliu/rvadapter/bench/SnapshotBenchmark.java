@@ -0,0 +1,188 @@
+package cn.jackwhliu.rvadapter.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import cn.jackwhliu.rvadapter.lib.AdapterSnapshot;
+import cn.jackwhliu.rvadapter.lib.BaseRVAdapter;
+
+/**
+ * 冷启动时从快照恢复和重新转换全部原始数据的对比，两者都在恢复后读取首屏的条目。
+ * 重新转换只计算了解析文本的耗时，实际还要加上请求数据的时间，所以这里是它的下限。
+ *
+ * @author lwh
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnapshotBenchmark {
+
+    /**
+     * 首屏显示的条目数。
+     */
+    private static final int SCREEN_SIZE = 20;
+
+    private static final BaseRVAdapter.SnapshotCodec<Item> CODEC = new BaseRVAdapter.SnapshotCodec<Item>() {
+
+        @Override
+        public int getVersion() {
+            return 1;
+        }
+
+        @Override
+        public void encode(Item data, DataOutput out) throws IOException {
+            out.writeLong(data.mId);
+            out.writeUTF(data.mTitle);
+            out.writeUTF(data.mSubtitle);
+            out.writeInt(data.mLikes);
+        }
+
+        @Override
+        public Item decode(DataInput in) throws IOException {
+            return new Item(in.readLong(), in.readUTF(), in.readUTF(), in.readInt());
+        }
+    };
+
+    /**
+     * 把每行“id\t标题\t副标题\t点赞数”的原始数据解析成条目。
+     */
+    private static final BaseRVAdapter.DataConverter<List<String>, Item> CONVERTER =
+            new BaseRVAdapter.DataConverter<List<String>, Item>() {
+
+                @Override
+                public ArrayList<Item> convertDatas(List<String> datas) {
+                    ArrayList<Item> items = new ArrayList<>(datas.size());
+                    for (int i = 0, size = datas.size(); i < size; i++) {
+                        String[] fields = datas.get(i).split("\t");
+                        items.add(new Item(Long.parseLong(fields[0]), fields[1], fields[2],
+                                Integer.parseInt(fields[3])));
+                    }
+                    return items;
+                }
+            };
+
+    @Param({"10000", "100000"})
+    public int size;
+
+    private List<String> mOrigin;
+
+    private File mFile;
+
+    private File mSaveFile;
+
+    private ItemAdapter mAdapter;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        mOrigin = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            mOrigin.add(i + "\tItem " + i + "\tSubtitle of item " + i + "\t" + (i * 31 % 1000));
+        }
+        mFile = File.createTempFile("rvadapter", ".snapshot");
+        mSaveFile = File.createTempFile("rvadapter", ".snapshot");
+        mAdapter = new ItemAdapter(mOrigin);
+        mAdapter.saveSnapshot(mFile, CODEC, 0, 0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        mFile.delete();
+        mSaveFile.delete();
+    }
+
+    /**
+     * 从快照恢复并读取首屏，只有首屏的条目被解码。
+     */
+    @Benchmark
+    public int restoreSnapshot() throws IOException {
+        AdapterSnapshot<Item> snapshot = mAdapter.restoreSnapshot(mFile, CODEC);
+        int likes = 0;
+        for (int i = 0; i < SCREEN_SIZE; i++) {
+            likes += mAdapter.getData(i).mLikes;
+        }
+        return likes + snapshot.getDecodedCount();
+    }
+
+    /**
+     * 重新转换全部原始数据并读取首屏。
+     */
+    @Benchmark
+    public int reconvert() {
+        ItemAdapter adapter = new ItemAdapter(mOrigin);
+        int likes = 0;
+        for (int i = 0; i < SCREEN_SIZE; i++) {
+            likes += adapter.getData(i).mLikes;
+        }
+        return likes;
+    }
+
+    /**
+     * 保存快照的耗时，包括编码全部条目和同步到磁盘。
+     */
+    @Benchmark
+    public long saveSnapshot() throws IOException {
+        mAdapter.saveSnapshot(mSaveFile, CODEC, 0, 0);
+        return mSaveFile.length();
+    }
+
+    static class Item {
+
+        final long mId;
+        final String mTitle;
+        final String mSubtitle;
+        final int mLikes;
+
+        Item(long id, String title, String subtitle, int likes) {
+            this.mId = id;
+            this.mTitle = title;
+            this.mSubtitle = subtitle;
+            this.mLikes = likes;
+        }
+    }
+
+    /**
+     * 只用来恢复和转换数据的适配器，不创建和绑定View。
+     */
+    static class ItemAdapter extends BaseRVAdapter<Item> {
+
+        ItemAdapter(List<String> origin) {
+            super(null, origin, CONVERTER);
+        }
+
+        @Override
+        public void onBindViewHolder(ViewHolder holder, int position, Item data) {
+        }
+
+        @Override
+        protected int[] getItemViewIds() {
+            return null;
+        }
+
+        @Override
+        protected int getItemId() {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package android.content.res;
+
+import android.util.DisplayMetrics;
+
+/**
+ * 基准测试和单元测试在JVM上运行时使用的替身，只保留库编译需要的签名。测试用到的方法按android.jar中的行为实现，
+ * 其他方法和android.jar一样抛出异常。
+ */
+public class Resources {
+
+    private final DisplayMetrics mMetrics = new DisplayMetrics();
+
+    public DisplayMetrics getDisplayMetrics() {
+        return mMetrics;
+    }
+}
@@ -0,0 +1,55 @@
+package android.graphics;
+
+/**
+ * 基准测试和单元测试在JVM上运行时使用的替身，只保留库编译需要的签名。测试用到的方法按android.jar中的行为实现，
+ * 其他方法和android.jar一样抛出异常。
+ */
+public final class Bitmap {
+
+    private final int mWidth;
+
+    private final int mHeight;
+
+    private final Config mConfig;
+
+    public enum Config {
+        ALPHA_8(1),
+        RGB_565(2),
+        ARGB_8888(4);
+
+        final int mBytesPerPixel;
+
+        Config(int bytesPerPixel) {
+            mBytesPerPixel = bytesPerPixel;
+        }
+    }
+
+    private Bitmap(int width, int height, Config config) {
+        mWidth = width;
+        mHeight = height;
+        mConfig = config;
+    }
+
+    public static Bitmap createBitmap(int width, int height, Config config) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("width and height must be > 0");
+        }
+        return new Bitmap(width, height, config);
+    }
+
+    public int getWidth() {
+        return mWidth;
+    }
+
+    public int getHeight() {
+        return mHeight;
+    }
+
+    public Config getConfig() {
+        return mConfig;
+    }
+
+    public int getByteCount() {
+        return mWidth * mHeight * mConfig.mBytesPerPixel;
+    }
+}
@@ -0,0 +1,67 @@
+package android.graphics;
+
+import android.content.res.Resources;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+/**
+ * 基准测试和单元测试在JVM上运行时使用的替身，只保留库编译需要的签名。测试用到的方法按android.jar中的行为实现，
+ * 其他方法和android.jar一样抛出异常。
+ */
+public class BitmapFactory {
+
+    public static class Options {
+
+        public boolean inJustDecodeBounds;
+
+        public int inSampleSize;
+
+        public int outWidth;
+
+        public int outHeight;
+    }
+
+    public static Bitmap decodeFile(String pathName, Options opts) {
+        throw new RuntimeException("Stub!");
+    }
+
+    /**
+     * 用ImageIO解码，和android.jar一样只设置边界时返回null，降采样时宽高按inSampleSize整除。
+     */
+    public static Bitmap decodeByteArray(byte[] data, int offset, int length, Options opts) {
+        BufferedImage image;
+        try {
+            image = ImageIO.read(new ByteArrayInputStream(data, offset, length));
+        } catch (IOException e) {
+            image = null;
+        }
+        if (image == null) {
+            if (opts != null) {
+                opts.outWidth = -1;
+                opts.outHeight = -1;
+            }
+            return null;
+        }
+        if (opts != null && opts.inJustDecodeBounds) {
+            opts.outWidth = image.getWidth();
+            opts.outHeight = image.getHeight();
+            return null;
+        }
+        int sampleSize = opts != null && opts.inSampleSize > 1 ? opts.inSampleSize : 1;
+        int width = Math.max(1, image.getWidth() / sampleSize);
+        int height = Math.max(1, image.getHeight() / sampleSize);
+        if (opts != null) {
+            opts.outWidth = width;
+            opts.outHeight = height;
+        }
+        return Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+    }
+
+    public static Bitmap decodeResource(Resources res, int id, Options opts) {
+        throw new RuntimeException("Stub!");
+    }
+}
@@ -0,0 +1,68 @@
+package android.graphics;
+
+/**
+ * 基准测试和单元测试在JVM上运行时使用的替身，只保留库编译需要的签名。测试用到的方法按android.jar中的行为实现，
+ * 其他方法和android.jar一样抛出异常。
+ */
+public class Paint {
+
+    public static final int ANTI_ALIAS_FLAG = 1;
+
+    public enum Style {
+        FILL,
+        STROKE,
+        FILL_AND_STROKE
+    }
+
+    public enum Cap {
+        BUTT,
+        ROUND,
+        SQUARE
+    }
+
+    private final int mFlags;
+    private int mColor;
+    private Style mStyle = Style.FILL;
+    private Cap mStrokeCap = Cap.BUTT;
+    private float mStrokeWidth;
+
+    public Paint(int flags) {
+        mFlags = flags;
+    }
+
+    public int getFlags() {
+        return mFlags;
+    }
+
+    public void setColor(int color) {
+        mColor = color;
+    }
+
+    public int getColor() {
+        return mColor;
+    }
+
+    public void setStyle(Style style) {
+        mStyle = style;
+    }
+
+    public Style getStyle() {
+        return mStyle;
+    }
+
+    public void setStrokeCap(Cap cap) {
+        mStrokeCap = cap;
+    }
+
+    public Cap getStrokeCap() {
+        return mStrokeCap;
+    }
+
+    public void setStrokeWidth(float width) {
+        mStrokeWidth = width;
+    }
+
+    public float getStrokeWidth() {
+        return mStrokeWidth;
+    }
+}
@@ -0,0 +1,36 @@
+package android.os;
+
+/**
+ * 基准测试和单元测试在JVM上运行时使用的替身，只保留库编译需要的签名。测试用到的方法按android.jar中的行为实现，
+ * 其他方法和android.jar一样抛出异常。
+ */
+public class Handler {
+
+    private final Looper mLooper;
+
+    private final MessageQueue mQueue;
+
+    public Handler(Looper looper) {
+        mLooper = looper;
+        mQueue = looper.mQueue;
+    }
+
+    public final Looper getLooper() {
+        return mLooper;
+    }
+
+    public final boolean post(Runnable r) {
+        return postDelayed(r, 0);
+    }
+
+    public final boolean postDelayed(Runnable r, long delayMillis) {
+        if (delayMillis < 0) {
+            delayMillis = 0;
+        }
+        return mQueue.enqueue(this, r, MessageQueue.uptimeMillis() + delayMillis);
+    }
+
+    public final void removeCallbacks(Runnable r) {
+        mQueue.remove(this, r);
+    }
+}
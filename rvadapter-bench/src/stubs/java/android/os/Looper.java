@@ -0,0 +1,96 @@
+package android.os;
+
+/**
+ * 基准测试和单元测试在JVM上运行时使用的替身，只保留库编译需要的签名。测试用到的方法按android.jar中的行为实现，
+ * 其他方法和android.jar一样抛出异常。
+ */
+public final class Looper {
+
+    private static final ThreadLocal<Looper> sThreadLocal = new ThreadLocal<>();
+
+    /**
+     * JVM上没有主线程，主线程的Looper一开始就存在，库的静态初始化可以完成。
+     * 调用{@link #prepareMainLooper()}的线程成为主线程，之后在该线程调用{@link #loop()}处理投递的任务。
+     */
+    private static final Looper sMainLooper = new Looper();
+
+    final MessageQueue mQueue = new MessageQueue();
+
+    private Thread mThread;
+
+    private Looper() {
+    }
+
+    public static void prepare() {
+        if (sThreadLocal.get() != null) {
+            throw new RuntimeException("Only one Looper may be created per thread");
+        }
+        Looper looper = new Looper();
+        looper.mThread = Thread.currentThread();
+        sThreadLocal.set(looper);
+    }
+
+    public static void prepareMainLooper() {
+        synchronized (Looper.class) {
+            if (sMainLooper.mThread != null) {
+                throw new IllegalStateException("The main Looper has already been prepared.");
+            }
+            if (sThreadLocal.get() != null) {
+                throw new RuntimeException("Only one Looper may be created per thread");
+            }
+            sMainLooper.mThread = Thread.currentThread();
+            sThreadLocal.set(sMainLooper);
+        }
+    }
+
+    public static Looper getMainLooper() {
+        return sMainLooper;
+    }
+
+    public static Looper myLooper() {
+        return sThreadLocal.get();
+    }
+
+    public static MessageQueue myQueue() {
+        return myLooper().mQueue;
+    }
+
+    /**
+     * 依次执行到期的任务，直到{@link #quit()}。任务抛出的异常和android.jar一样直接抛出。
+     */
+    public static void loop() {
+        Looper me = myLooper();
+        if (me == null) {
+            throw new RuntimeException("No Looper; Looper.prepare() wasn't called on this thread.");
+        }
+        for (;;) {
+            Runnable task = me.mQueue.next();
+            if (task == null) {
+                return;
+            }
+            task.run();
+        }
+    }
+
+    public void quit() {
+        if (this == sMainLooper) {
+            throw new IllegalStateException("Main thread not allowed to quit.");
+        }
+        mQueue.quit(false);
+    }
+
+    public void quitSafely() {
+        if (this == sMainLooper) {
+            throw new IllegalStateException("Main thread not allowed to quit.");
+        }
+        mQueue.quit(true);
+    }
+
+    public Thread getThread() {
+        return mThread;
+    }
+
+    public MessageQueue getQueue() {
+        return mQueue;
+    }
+}
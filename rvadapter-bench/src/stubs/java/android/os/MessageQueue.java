@@ -0,0 +1,145 @@
+package android.os;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * 基准测试和单元测试在JVM上运行时使用的替身，只保留库编译需要的签名。测试用到的方法按android.jar中的行为实现，
+ * 其他方法和android.jar一样抛出异常。
+ */
+public final class MessageQueue {
+
+    private final PriorityQueue<Message> mMessages = new PriorityQueue<>();
+
+    private final List<IdleHandler> mIdleHandlers = new ArrayList<>();
+
+    private long mSequence;
+
+    private boolean mQuitting;
+
+    public interface IdleHandler {
+        boolean queueIdle();
+    }
+
+    MessageQueue() {
+    }
+
+    static long uptimeMillis() {
+        return System.nanoTime() / 1000000L;
+    }
+
+    public void addIdleHandler(IdleHandler handler) {
+        if (handler == null) {
+            throw new NullPointerException("Can't add a null IdleHandler");
+        }
+        synchronized (this) {
+            mIdleHandlers.add(handler);
+        }
+    }
+
+    public void removeIdleHandler(IdleHandler handler) {
+        synchronized (this) {
+            mIdleHandlers.remove(handler);
+        }
+    }
+
+    synchronized boolean enqueue(Handler target, Runnable callback, long when) {
+        if (mQuitting) {
+            return false;
+        }
+        mMessages.add(new Message(target, callback, when, mSequence++));
+        notifyAll();
+        return true;
+    }
+
+    synchronized void remove(Handler target, Runnable callback) {
+        Iterator<Message> it = mMessages.iterator();
+        while (it.hasNext()) {
+            Message message = it.next();
+            if (message.mTarget == target && message.mCallback == callback) {
+                it.remove();
+            }
+        }
+    }
+
+    synchronized void quit(boolean safe) {
+        if (mQuitting) {
+            return;
+        }
+        mQuitting = true;
+        if (safe) {
+            long now = uptimeMillis();
+            Iterator<Message> it = mMessages.iterator();
+            while (it.hasNext()) {
+                if (it.next().mWhen > now) {
+                    it.remove();
+                }
+            }
+        } else {
+            mMessages.clear();
+        }
+        notifyAll();
+    }
+
+    /**
+     * 取出下一个到期的任务，没有到期的任务时先执行一次IdleHandler，再等待，退出后返回null。
+     */
+    Runnable next() {
+        boolean idleHandled = false;
+        for (;;) {
+            IdleHandler[] idleHandlers;
+            synchronized (this) {
+                long now = uptimeMillis();
+                Message message = mMessages.peek();
+                if (message != null && message.mWhen <= now) {
+                    mMessages.poll();
+                    return message.mCallback;
+                }
+                if (mQuitting && message == null) {
+                    return null;
+                }
+                if (idleHandled || mIdleHandlers.isEmpty()) {
+                    try {
+                        wait(message == null ? 0 : message.mWhen - now);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return null;
+                    }
+                    continue;
+                }
+                idleHandlers = mIdleHandlers.toArray(new IdleHandler[mIdleHandlers.size()]);
+            }
+            for (IdleHandler handler : idleHandlers) {
+                if (!handler.queueIdle()) {
+                    removeIdleHandler(handler);
+                }
+            }
+            idleHandled = true;
+        }
+    }
+
+    private static final class Message implements Comparable<Message> {
+
+        final Handler mTarget;
+        final Runnable mCallback;
+        final long mWhen;
+        final long mSequence;
+
+        Message(Handler target, Runnable callback, long when, long sequence) {
+            mTarget = target;
+            mCallback = callback;
+            mWhen = when;
+            mSequence = sequence;
+        }
+
+        @Override
+        public int compareTo(Message other) {
+            if (mWhen != other.mWhen) {
+                return mWhen < other.mWhen ? -1 : 1;
+            }
+            return mSequence < other.mSequence ? -1 : mSequence == other.mSequence ? 0 : 1;
+        }
+    }
+}
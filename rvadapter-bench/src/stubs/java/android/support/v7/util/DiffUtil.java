@@ -0,0 +1,95 @@
+package android.support.v7.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基准测试和单元测试在JVM上运行时使用的替身，只保留库编译需要的签名。差异用最长公共子序列算出，
+ * 不检测移动，得到的插入、删除和修改和支持库的结果等价，但不一定是同样的几次通知。
+ */
+public class DiffUtil {
+
+    public static DiffResult calculateDiff(Callback cb) {
+        return calculateDiff(cb, true);
+    }
+
+    public static DiffResult calculateDiff(Callback cb, boolean detectMoves) {
+        int oldSize = cb.getOldListSize();
+        int newSize = cb.getNewListSize();
+        int[][] lcs = new int[oldSize + 1][newSize + 1];
+        for (int i = oldSize - 1; i >= 0; i--) {
+            for (int j = newSize - 1; j >= 0; j--) {
+                lcs[i][j] = cb.areItemsTheSame(i, j) ? lcs[i + 1][j + 1] + 1
+                        : Math.max(lcs[i + 1][j], lcs[i][j + 1]);
+            }
+        }
+        DiffResult result = new DiffResult();
+        int position = 0;
+        int i = 0;
+        int j = 0;
+        while (i < oldSize || j < newSize) {
+            if (i < oldSize && j < newSize && cb.areItemsTheSame(i, j) && lcs[i][j] == lcs[i + 1][j + 1] + 1) {
+                if (!cb.areContentsTheSame(i, j)) {
+                    result.add(DiffResult.CHANGE, position, cb.getChangePayload(i, j));
+                }
+                position++;
+                i++;
+                j++;
+            } else if (j < newSize && (i == oldSize || lcs[i][j + 1] >= lcs[i + 1][j])) {
+                result.add(DiffResult.INSERT, position++, null);
+                j++;
+            } else {
+                result.add(DiffResult.REMOVE, position, null);
+                i++;
+            }
+        }
+        return result;
+    }
+
+    public abstract static class Callback {
+
+        public abstract int getOldListSize();
+
+        public abstract int getNewListSize();
+
+        public abstract boolean areItemsTheSame(int oldItemPosition, int newItemPosition);
+
+        public abstract boolean areContentsTheSame(int oldItemPosition, int newItemPosition);
+
+        public Object getChangePayload(int oldItemPosition, int newItemPosition) {
+            return null;
+        }
+    }
+
+    public static class DiffResult {
+
+        static final int INSERT = 0;
+        static final int REMOVE = 1;
+        static final int CHANGE = 2;
+
+        private final List<Object[]> mOps = new ArrayList<>();
+
+        void add(int type, int position, Object payload) {
+            mOps.add(new Object[]{type, position, payload});
+        }
+
+        public void dispatchUpdatesTo(ListUpdateCallback updateCallback) {
+            BatchingListUpdateCallback callback = new BatchingListUpdateCallback(updateCallback);
+            for (Object[] op : mOps) {
+                int position = (Integer) op[1];
+                switch ((Integer) op[0]) {
+                    case INSERT:
+                        callback.onInserted(position, 1);
+                        break;
+                    case REMOVE:
+                        callback.onRemoved(position, 1);
+                        break;
+                    default:
+                        callback.onChanged(position, 1, op[2]);
+                        break;
+                }
+            }
+            callback.dispatchLastEvent();
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package android.support.v7.util;
+
+/**
+ * 基准测试在JVM上运行时使用的替身，只保留库编译需要的签名，基准测试不会用到的方法和android.jar一样抛出异常。
+ */
+public interface ListUpdateCallback {
+
+    void onInserted(int position, int count);
+
+    void onRemoved(int position, int count);
+
+    void onMoved(int fromPosition, int toPosition);
+
+    void onChanged(int position, int count, Object payload);
+}
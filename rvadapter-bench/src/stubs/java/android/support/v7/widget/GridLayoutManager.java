@@ -0,0 +1,56 @@
+package android.support.v7.widget;
+
+import android.content.Context;
+
+/**
+ * 基准测试和单元测试在JVM上运行时使用的替身，只保留库编译需要的签名。测试用到的方法按android.jar中的行为实现，
+ * 其他方法和android.jar一样抛出异常。
+ */
+public class GridLayoutManager extends LinearLayoutManager {
+
+    private int mSpanCount;
+
+    private SpanSizeLookup mSpanSizeLookup = new DefaultSpanSizeLookup();
+
+    public GridLayoutManager(Context context, int spanCount) {
+        super(context);
+        setSpanCount(spanCount);
+    }
+
+    public GridLayoutManager(Context context, int spanCount, int orientation, boolean reverseLayout) {
+        super(context, orientation, reverseLayout);
+        setSpanCount(spanCount);
+    }
+
+    public void setSpanCount(int spanCount) {
+        if (spanCount < 1) {
+            throw new IllegalArgumentException("Span count should be at least 1. Provided " + spanCount);
+        }
+        mSpanCount = spanCount;
+    }
+
+    public int getSpanCount() {
+        return mSpanCount;
+    }
+
+    public void setSpanSizeLookup(SpanSizeLookup spanSizeLookup) {
+        mSpanSizeLookup = spanSizeLookup;
+    }
+
+    public SpanSizeLookup getSpanSizeLookup() {
+        return mSpanSizeLookup;
+    }
+
+    public abstract static class SpanSizeLookup {
+
+        public abstract int getSpanSize(int position);
+    }
+
+    public static final class DefaultSpanSizeLookup extends SpanSizeLookup {
+
+        @Override
+        public int getSpanSize(int position) {
+            return 1;
+        }
+    }
+}
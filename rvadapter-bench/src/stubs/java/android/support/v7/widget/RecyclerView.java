@@ -0,0 +1,276 @@
+package android.support.v7.widget;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Rect;
+import android.view.View;
+import android.view.ViewGroup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基准测试和单元测试在JVM上运行时使用的替身。{@link Adapter}的通知方法和真实实现一样分发给注册的
+ * {@link AdapterDataObserver}，测试通过注册观察者接收通知；{@link Adapter#createViewHolder(ViewGroup, int)}和
+ * {@link Adapter#bindViewHolder(ViewHolder, int)}和真实实现一样记录ViewHolder的viewType和位置，
+ * {@link RecycledViewPool}按viewType保存ViewHolder。其它方法和android.jar一样抛出异常。
+ */
+public abstract class RecyclerView extends ViewGroup {
+
+    public static final int NO_POSITION = -1;
+    public static final long NO_ID = -1;
+    public static final int INVALID_TYPE = -1;
+
+    private LayoutManager mLayout;
+
+    private Adapter mAdapter;
+
+    public RecyclerView(Context context) {
+        super(context);
+    }
+
+    public void setLayoutManager(LayoutManager layout) {
+        mLayout = layout;
+    }
+
+    public LayoutManager getLayoutManager() {
+        return mLayout;
+    }
+
+    public void setAdapter(Adapter adapter) {
+        mAdapter = adapter;
+    }
+
+    public Adapter getAdapter() {
+        return mAdapter;
+    }
+
+    public int getChildAdapterPosition(View child) {
+        throw new RuntimeException("Stub!");
+    }
+
+    public int getChildLayoutPosition(View child) {
+        throw new RuntimeException("Stub!");
+    }
+
+    public void setRecycledViewPool(RecycledViewPool pool) {
+        throw new RuntimeException("Stub!");
+    }
+
+    public RecycledViewPool getRecycledViewPool() {
+        throw new RuntimeException("Stub!");
+    }
+
+    public abstract static class ViewHolder {
+
+        public final View itemView;
+
+        int mPosition = NO_POSITION;
+
+        int mItemViewType = INVALID_TYPE;
+
+        public ViewHolder(View itemView) {
+            if (itemView == null) {
+                throw new IllegalArgumentException("itemView may not be null");
+            }
+            this.itemView = itemView;
+        }
+
+        public final int getAdapterPosition() {
+            return mPosition;
+        }
+
+        public final int getItemViewType() {
+            return mItemViewType;
+        }
+    }
+
+    public abstract static class LayoutManager {
+    }
+
+    public static class State {
+    }
+
+    public static class LayoutParams extends ViewGroup.MarginLayoutParams {
+    }
+
+    public abstract static class ItemDecoration {
+
+        public void onDraw(Canvas c, RecyclerView parent, State state) {
+        }
+
+        public void getItemOffsets(Rect outRect, View view, RecyclerView parent, State state) {
+            outRect.set(0, 0, 0, 0);
+        }
+    }
+
+    /**
+     * 和真实实现一样按viewType分组保存ViewHolder，每种最多保存5个。
+     */
+    public static class RecycledViewPool {
+
+        private static final int DEFAULT_MAX_SCRAP = 5;
+
+        private final Map<Integer, List<ViewHolder>> mScrap = new HashMap<>();
+
+        private final Map<Integer, Integer> mMaxScrap = new HashMap<>();
+
+        public void setMaxRecycledViews(int viewType, int max) {
+            mMaxScrap.put(viewType, max);
+        }
+
+        public ViewHolder getRecycledView(int viewType) {
+            List<ViewHolder> scrap = mScrap.get(viewType);
+            return scrap != null && !scrap.isEmpty() ? scrap.remove(scrap.size() - 1) : null;
+        }
+
+        public void putRecycledView(ViewHolder scrap) {
+            int viewType = scrap.getItemViewType();
+            List<ViewHolder> holders = mScrap.get(viewType);
+            if (holders == null) {
+                holders = new ArrayList<>();
+                mScrap.put(viewType, holders);
+            }
+            Integer max = mMaxScrap.get(viewType);
+            if (holders.size() < (max != null ? max : DEFAULT_MAX_SCRAP)) {
+                scrap.mPosition = NO_POSITION;
+                holders.add(scrap);
+            }
+        }
+    }
+
+    public abstract static class AdapterDataObserver {
+
+        public void onChanged() {
+        }
+
+        public void onItemRangeChanged(int positionStart, int itemCount) {
+        }
+
+        public void onItemRangeChanged(int positionStart, int itemCount, Object payload) {
+            onItemRangeChanged(positionStart, itemCount);
+        }
+
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+        }
+
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+        }
+
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+        }
+    }
+
+    public abstract static class Adapter<VH extends ViewHolder> {
+
+        private final List<AdapterDataObserver> mObservers = new ArrayList<>();
+        private boolean mHasStableIds;
+
+        public abstract VH onCreateViewHolder(ViewGroup parent, int viewType);
+
+        public abstract void onBindViewHolder(VH holder, int position);
+
+        public final VH createViewHolder(ViewGroup parent, int viewType) {
+            VH holder = onCreateViewHolder(parent, viewType);
+            holder.mItemViewType = viewType;
+            return holder;
+        }
+
+        public final void bindViewHolder(VH holder, int position) {
+            holder.mPosition = position;
+            onBindViewHolder(holder, position, Collections.<Object>emptyList());
+        }
+
+        public void onBindViewHolder(VH holder, int position, List<Object> payloads) {
+            onBindViewHolder(holder, position);
+        }
+
+        public int getItemViewType(int position) {
+            return 0;
+        }
+
+        public long getItemId(int position) {
+            return NO_ID;
+        }
+
+        public abstract int getItemCount();
+
+        public void setHasStableIds(boolean hasStableIds) {
+            mHasStableIds = hasStableIds;
+        }
+
+        public final boolean hasStableIds() {
+            return mHasStableIds;
+        }
+
+        public void onAttachedToRecyclerView(RecyclerView recyclerView) {
+        }
+
+        public void onDetachedFromRecyclerView(RecyclerView recyclerView) {
+        }
+
+        public void onViewRecycled(VH holder) {
+        }
+
+        public void registerAdapterDataObserver(AdapterDataObserver observer) {
+            mObservers.add(observer);
+        }
+
+        public void unregisterAdapterDataObserver(AdapterDataObserver observer) {
+            mObservers.remove(observer);
+        }
+
+        public final void notifyDataSetChanged() {
+            for (int i = mObservers.size() - 1; i >= 0; i--) {
+                mObservers.get(i).onChanged();
+            }
+        }
+
+        public final void notifyItemChanged(int position) {
+            notifyItemRangeChanged(position, 1, null);
+        }
+
+        public final void notifyItemChanged(int position, Object payload) {
+            notifyItemRangeChanged(position, 1, payload);
+        }
+
+        public final void notifyItemRangeChanged(int positionStart, int itemCount) {
+            notifyItemRangeChanged(positionStart, itemCount, null);
+        }
+
+        public final void notifyItemRangeChanged(int positionStart, int itemCount, Object payload) {
+            for (int i = mObservers.size() - 1; i >= 0; i--) {
+                mObservers.get(i).onItemRangeChanged(positionStart, itemCount, payload);
+            }
+        }
+
+        public final void notifyItemInserted(int position) {
+            notifyItemRangeInserted(position, 1);
+        }
+
+        public final void notifyItemRangeInserted(int positionStart, int itemCount) {
+            for (int i = mObservers.size() - 1; i >= 0; i--) {
+                mObservers.get(i).onItemRangeInserted(positionStart, itemCount);
+            }
+        }
+
+        public final void notifyItemRemoved(int position) {
+            notifyItemRangeRemoved(position, 1);
+        }
+
+        public final void notifyItemRangeRemoved(int positionStart, int itemCount) {
+            for (int i = mObservers.size() - 1; i >= 0; i--) {
+                mObservers.get(i).onItemRangeRemoved(positionStart, itemCount);
+            }
+        }
+
+        public final void notifyItemMoved(int fromPosition, int toPosition) {
+            for (int i = mObservers.size() - 1; i >= 0; i--) {
+                mObservers.get(i).onItemRangeMoved(fromPosition, toPosition, 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package android.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 基准测试和单元测试在JVM上运行时使用的替身，只保留库编译需要的签名。测试用到的方法按android.jar中的行为实现，
+ * 其他方法和android.jar一样抛出异常。
+ */
+public class LruCache<K, V> {
+
+    private final LinkedHashMap<K, V> mMap;
+
+    private int mSize;
+
+    private int mMaxSize;
+
+    public LruCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize <= 0");
+        }
+        mMaxSize = maxSize;
+        mMap = new LinkedHashMap<>(0, 0.75f, true);
+    }
+
+    protected int sizeOf(K key, V value) {
+        return 1;
+    }
+
+    public final V get(K key) {
+        if (key == null) {
+            throw new NullPointerException("key == null");
+        }
+        synchronized (this) {
+            return mMap.get(key);
+        }
+    }
+
+    public final V put(K key, V value) {
+        if (key == null || value == null) {
+            throw new NullPointerException("key == null || value == null");
+        }
+        V previous;
+        synchronized (this) {
+            mSize += sizeOf(key, value);
+            previous = mMap.put(key, value);
+            if (previous != null) {
+                mSize -= sizeOf(key, previous);
+            }
+        }
+        trimToSize(mMaxSize);
+        return previous;
+    }
+
+    public void trimToSize(int maxSize) {
+        synchronized (this) {
+            Iterator<Map.Entry<K, V>> it = mMap.entrySet().iterator();
+            while (mSize > maxSize && it.hasNext()) {
+                Map.Entry<K, V> eldest = it.next();
+                it.remove();
+                mSize -= sizeOf(eldest.getKey(), eldest.getValue());
+            }
+        }
+    }
+
+    public final void evictAll() {
+        trimToSize(-1);
+    }
+
+    public final synchronized int size() {
+        return mSize;
+    }
+
+    public final synchronized int maxSize() {
+        return mMaxSize;
+    }
+}
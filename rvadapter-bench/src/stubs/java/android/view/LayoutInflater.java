@@ -0,0 +1,22 @@
+package android.view;
+
+import android.content.Context;
+
+/**
+ * 基准测试在JVM上运行时使用的替身，只保留库编译需要的签名，基准测试不会用到的方法和android.jar一样抛出异常。
+ */
+public abstract class LayoutInflater {
+
+    /**
+     * 基准测试不创建View，返回null让适配器可以构造出来。
+     */
+    public static LayoutInflater from(Context context) {
+        return null;
+    }
+
+    public abstract LayoutInflater cloneInContext(Context newContext);
+
+    public View inflate(int resource, ViewGroup root, boolean attachToRoot) {
+        throw new RuntimeException("Stub!");
+    }
+}
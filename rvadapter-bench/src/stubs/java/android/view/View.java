@@ -0,0 +1,221 @@
+package android.view;
+
+import android.content.Context;
+import android.content.res.Resources;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基准测试和单元测试在JVM上运行时使用的替身，只保留库编译需要的签名。测试用到的方法按android.jar中的行为实现，
+ * 其他方法和android.jar一样抛出异常。
+ */
+public class View {
+
+    public static final int NO_ID = -1;
+
+    public static final int VISIBLE = 0x00000000;
+
+    public static final int INVISIBLE = 0x00000004;
+
+    public static final int GONE = 0x00000008;
+
+    private final Context mContext;
+
+    private int mId = NO_ID;
+
+    private int mVisibility = VISIBLE;
+
+    private boolean mEnabled = true;
+
+    private int mLeft;
+
+    private int mTop;
+
+    private int mRight;
+
+    private int mBottom;
+
+    private ViewGroup.LayoutParams mLayoutParams;
+
+    private ViewTreeObserver mFloatingTreeObserver;
+
+    private OnClickListener mOnClickListener;
+
+    private OnLongClickListener mOnLongClickListener;
+
+    private final List<OnAttachStateChangeListener> mOnAttachStateChangeListeners = new ArrayList<>();
+
+    public View(Context context) {
+        mContext = context;
+    }
+
+    public interface OnClickListener {
+        void onClick(View v);
+    }
+
+    public interface OnLongClickListener {
+        boolean onLongClick(View v);
+    }
+
+    public interface OnAttachStateChangeListener {
+        void onViewAttachedToWindow(View v);
+
+        void onViewDetachedFromWindow(View v);
+    }
+
+    public Context getContext() {
+        return mContext;
+    }
+
+    public Resources getResources() {
+        return mContext != null ? mContext.getResources() : null;
+    }
+
+    public void layout(int l, int t, int r, int b) {
+        mLeft = l;
+        mTop = t;
+        mRight = r;
+        mBottom = b;
+    }
+
+    public final int getWidth() {
+        return mRight - mLeft;
+    }
+
+    public final int getHeight() {
+        return mBottom - mTop;
+    }
+
+    public final int getLeft() {
+        return mLeft;
+    }
+
+    public final int getTop() {
+        return mTop;
+    }
+
+    public final int getRight() {
+        return mRight;
+    }
+
+    public final int getBottom() {
+        return mBottom;
+    }
+
+    public final int getMeasuredWidth() {
+        throw new RuntimeException("Stub!");
+    }
+
+    public final int getMeasuredHeight() {
+        throw new RuntimeException("Stub!");
+    }
+
+    public int getPaddingLeft() {
+        throw new RuntimeException("Stub!");
+    }
+
+    public int getPaddingTop() {
+        throw new RuntimeException("Stub!");
+    }
+
+    public int getPaddingRight() {
+        throw new RuntimeException("Stub!");
+    }
+
+    public int getPaddingBottom() {
+        throw new RuntimeException("Stub!");
+    }
+
+    public ViewGroup.LayoutParams getLayoutParams() {
+        return mLayoutParams;
+    }
+
+    public void setLayoutParams(ViewGroup.LayoutParams params) {
+        if (params == null) {
+            throw new NullPointerException("Layout parameters cannot be null");
+        }
+        mLayoutParams = params;
+    }
+
+    /**
+     * 没有挂到窗口上，和android.jar中未挂载的控件一样返回自己的观察者。
+     */
+    public ViewTreeObserver getViewTreeObserver() {
+        if (mFloatingTreeObserver == null) {
+            mFloatingTreeObserver = new ViewTreeObserver();
+        }
+        return mFloatingTreeObserver;
+    }
+
+    public void setId(int id) {
+        mId = id;
+    }
+
+    public int getId() {
+        return mId;
+    }
+
+    public final View findViewById(int id) {
+        if (id == NO_ID) {
+            return null;
+        }
+        return findViewTraversal(id);
+    }
+
+    protected View findViewTraversal(int id) {
+        return id == mId ? this : null;
+    }
+
+    public void setOnClickListener(OnClickListener l) {
+        mOnClickListener = l;
+    }
+
+    public void setOnLongClickListener(OnLongClickListener l) {
+        mOnLongClickListener = l;
+    }
+
+    public boolean performClick() {
+        if (mOnClickListener == null) {
+            return false;
+        }
+        mOnClickListener.onClick(this);
+        return true;
+    }
+
+    public boolean performLongClick() {
+        return mOnLongClickListener != null && mOnLongClickListener.onLongClick(this);
+    }
+
+    public void addOnAttachStateChangeListener(OnAttachStateChangeListener listener) {
+        mOnAttachStateChangeListeners.add(listener);
+    }
+
+    public void removeOnAttachStateChangeListener(OnAttachStateChangeListener listener) {
+        mOnAttachStateChangeListeners.remove(listener);
+    }
+
+    public boolean post(Runnable action) {
+        throw new RuntimeException("Stub!");
+    }
+
+    public boolean removeCallbacks(Runnable action) {
+        throw new RuntimeException("Stub!");
+    }
+
+    public void setVisibility(int visibility) {
+        mVisibility = visibility;
+    }
+
+    public int getVisibility() {
+        return mVisibility;
+    }
+
+    public void setEnabled(boolean enabled) {
+        mEnabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return mEnabled;
+    }
+}
@@ -0,0 +1,67 @@
+package android.view;
+
+import android.content.Context;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基准测试和单元测试在JVM上运行时使用的替身，只保留库编译需要的签名。测试用到的方法按android.jar中的行为实现，
+ * 其他方法和android.jar一样抛出异常。
+ */
+public abstract class ViewGroup extends View {
+
+    private final List<View> mChildren = new ArrayList<>();
+
+    public ViewGroup(Context context) {
+        super(context);
+    }
+
+    public void addView(View child) {
+        mChildren.add(child);
+    }
+
+    public int getChildCount() {
+        return mChildren.size();
+    }
+
+    public View getChildAt(int index) {
+        return mChildren.get(index);
+    }
+
+    @Override
+    protected View findViewTraversal(int id) {
+        if (id == getId()) {
+            return this;
+        }
+        for (int i = 0, size = mChildren.size(); i < size; i++) {
+            View view = mChildren.get(i).findViewTraversal(id);
+            if (view != null) {
+                return view;
+            }
+        }
+        return null;
+    }
+
+    public static class LayoutParams {
+
+        public static final int MATCH_PARENT = -1;
+
+        public static final int WRAP_CONTENT = -2;
+
+        public int width;
+
+        public int height;
+    }
+
+    public static class MarginLayoutParams extends LayoutParams {
+
+        public int leftMargin;
+
+        public int topMargin;
+
+        public int rightMargin;
+
+        public int bottomMargin;
+    }
+}
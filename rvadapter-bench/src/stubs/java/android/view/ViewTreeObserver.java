@@ -0,0 +1,44 @@
+package android.view;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 基准测试和单元测试在JVM上运行时使用的替身，只保留库编译需要的签名。测试用到的方法按android.jar中的行为实现，
+ * 其他方法和android.jar一样抛出异常。
+ */
+public final class ViewTreeObserver {
+
+    private final CopyOnWriteArrayList<OnPreDrawListener> mOnPreDrawListeners = new CopyOnWriteArrayList<>();
+
+    public interface OnPreDrawListener {
+        boolean onPreDraw();
+    }
+
+    ViewTreeObserver() {
+    }
+
+    public void addOnPreDrawListener(OnPreDrawListener listener) {
+        mOnPreDrawListeners.add(listener);
+    }
+
+    public void removeOnPreDrawListener(OnPreDrawListener victim) {
+        mOnPreDrawListeners.remove(victim);
+    }
+
+    public boolean isAlive() {
+        return true;
+    }
+
+    /**
+     * 通知所有的{@link OnPreDrawListener}，回调中可以移除自己。
+     *
+     * @return 是否有监听器取消了这次绘制。
+     */
+    public final boolean dispatchOnPreDraw() {
+        boolean cancelDraw = false;
+        for (OnPreDrawListener listener : mOnPreDrawListeners) {
+            cancelDraw |= !listener.onPreDraw();
+        }
+        return cancelDraw;
+    }
+}
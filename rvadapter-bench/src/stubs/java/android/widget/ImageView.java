@@ -0,0 +1,29 @@
+package android.widget;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.drawable.Drawable;
+import android.view.View;
+
+/**
+ * 基准测试和单元测试在JVM上运行时使用的替身，只保留库编译需要的签名。测试用到的方法按android.jar中的行为实现，
+ * 其他方法和android.jar一样抛出异常。
+ */
+public class ImageView extends View {
+
+    public ImageView(Context context) {
+        super(context);
+    }
+
+    public void setImageResource(int resId) {
+        throw new RuntimeException("Stub!");
+    }
+
+    public void setImageBitmap(Bitmap bm) {
+        throw new RuntimeException("Stub!");
+    }
+
+    public void setImageDrawable(Drawable drawable) {
+        throw new RuntimeException("Stub!");
+    }
+}
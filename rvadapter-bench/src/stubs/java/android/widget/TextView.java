@@ -0,0 +1,35 @@
+package android.widget;
+
+import android.content.Context;
+import android.view.View;
+
+/**
+ * 基准测试和单元测试在JVM上运行时使用的替身，只保留库编译需要的签名。测试用到的方法按android.jar中的行为实现，
+ * 其他方法和android.jar一样抛出异常。
+ */
+public class TextView extends View {
+
+    public TextView(Context context) {
+        super(context);
+    }
+
+    private CharSequence mText = "";
+
+    private int mCurTextColor;
+
+    public final void setText(CharSequence text) {
+        mText = text != null ? text : "";
+    }
+
+    public CharSequence getText() {
+        return mText;
+    }
+
+    public void setTextColor(int color) {
+        mCurTextColor = color;
+    }
+
+    public final int getCurrentTextColor() {
+        return mCurTextColor;
+    }
+}
@@ -0,0 +1,122 @@
+package cn.jackwhliu.rvadapter.lib;
+
+import android.content.Context;
+import android.view.View;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link AdapterMetrics}按viewType统计创建和绑定的次数、百分位数、缓存命中率和超时次数。
+ *
+ * @author lwh
+ */
+public class AdapterMetricsTest {
+
+    private static final int LAYOUT = 0x7f0d0001;
+
+    private static final long MICROS = 1000L;
+
+    @Test
+    public void percentilesAreWithinBucketError() {
+        AdapterMetrics metrics = new AdapterMetrics();
+        for (int i = 1; i <= 1000; i++) {
+            metrics.recordBind(1, i * MICROS);
+        }
+        AdapterMetrics.ViewTypeStats stats = metrics.snapshot().get(0);
+        assertEquals(1, stats.getViewType());
+        assertEquals(1000, stats.getBindCount());
+        assertEquals(0, stats.getCreateCount());
+        assertEquals(1000 * MICROS, stats.getMaxBindNanos());
+        assertWithin(500 * MICROS, stats.getBindNanos(50));
+        assertWithin(900 * MICROS, stats.getBindNanos(90));
+        assertWithin(990 * MICROS, stats.getBindNanos(99));
+    }
+
+    @Test
+    public void overrunsAreCountedAndReported() {
+        AdapterMetrics metrics = new AdapterMetrics(1000 * MICROS);
+        final List<String> overruns = new ArrayList<>();
+        metrics.setOnFrameBudgetOverrunListener(new AdapterMetrics.OnFrameBudgetOverrunListener() {
+
+            @Override
+            public void onFrameBudgetOverrun(int viewType, int phase, long nanos, long budgetNanos) {
+                overruns.add(viewType + ":" + phase + ":" + nanos);
+            }
+        });
+        metrics.recordBind(2, 500 * MICROS);
+        metrics.recordBind(2, 2000 * MICROS);
+        metrics.recordCreate(3, 3000 * MICROS, false);
+        assertEquals(2, overruns.size());
+        assertEquals("2:" + AdapterMetrics.PHASE_BIND + ":" + 2000 * MICROS, overruns.get(0));
+        assertEquals("3:" + AdapterMetrics.PHASE_CREATE + ":" + 3000 * MICROS, overruns.get(1));
+        List<AdapterMetrics.ViewTypeStats> stats = metrics.snapshot();
+        assertEquals(1, stats.get(0).getBindOverruns());
+        assertEquals(1, stats.get(1).getCreateOverruns());
+
+        metrics.reset();
+        assertEquals(0, metrics.snapshot().get(0).getBindCount());
+        assertEquals(0, metrics.snapshot().get(1).getCreateOverruns());
+    }
+
+    @Test
+    public void adapterRecordsCreatesAndBinds() {
+        MainThread.prepare();
+        TestAdapter adapter = new TestAdapter();
+        AdapterMetrics metrics = new AdapterMetrics();
+        adapter.setMetrics(metrics);
+        int viewType = adapter.getItemViewType(0);
+        List<BaseRVAdapter.ViewHolder> holders = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            adapter.getPreInflatePool().put(viewType, new View(null));
+            holders.add(adapter.createViewHolder(null, viewType));
+        }
+        for (int position = 0; position < 4; position++) {
+            adapter.bindViewHolder(holders.get(position % 2), position);
+        }
+        AdapterMetrics.ViewTypeStats stats = metrics.snapshot().get(0);
+        assertEquals(LAYOUT, stats.getViewType());
+        assertEquals(2, stats.getCreateCount());
+        assertEquals(4, stats.getBindCount());
+        assertEquals(1f, stats.getPreInflateHitRate(), 0f);
+        assertEquals(0.5f, stats.getHolderReuseRate(), 0f);
+
+        // 关闭后不再记录
+        adapter.setMetrics(null);
+        adapter.bindViewHolder(holders.get(0), 0);
+        assertEquals(4, metrics.snapshot().get(0).getBindCount());
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue("expected ~" + expected + " but was " + actual,
+                Math.abs(actual - expected) <= expected / 8);
+    }
+
+    private static class TestAdapter extends BaseRVAdapter<String> {
+
+        TestAdapter() {
+            super((Context) null);
+            addItems(Arrays.asList("a", "b", "c", "d"));
+        }
+
+        @Override
+        public void onBindViewHolder(ViewHolder holder, int position, String data) {
+        }
+
+        @Override
+        protected int[] getItemViewIds() {
+            return null;
+        }
+
+        @Override
+        protected int getItemId() {
+            return LAYOUT;
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package cn.jackwhliu.rvadapter.lib;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 从快照恢复的数据和重新转换原始数据的结果相同，恢复后的修改不会解码其他条目。
+ *
+ * @author lwh
+ */
+public class AdapterSnapshotTest {
+
+    private static final int SIZE = 1000;
+
+    /**
+     * 标题按行写入，用{@link DataInput#readLine()}读取，副标题用UTF写入。
+     */
+    private static final BaseRVAdapter.SnapshotCodec<Item> CODEC = new BaseRVAdapter.SnapshotCodec<Item>() {
+
+        @Override
+        public int getVersion() {
+            return 1;
+        }
+
+        @Override
+        public void encode(Item data, DataOutput out) throws IOException {
+            out.writeLong(data.mId);
+            out.writeBytes(data.mTitle + "\r\n");
+            out.writeUTF(data.mSubtitle);
+        }
+
+        @Override
+        public Item decode(DataInput in) throws IOException {
+            return new Item(in.readLong(), in.readLine(), in.readUTF());
+        }
+    };
+
+    private static final BaseRVAdapter.DataConverter<List<String>, Item> CONVERTER =
+            new BaseRVAdapter.DataConverter<List<String>, Item>() {
+
+                @Override
+                public ArrayList<Item> convertDatas(List<String> datas) {
+                    ArrayList<Item> items = new ArrayList<>(datas.size());
+                    for (int i = 0, size = datas.size(); i < size; i++) {
+                        String[] fields = datas.get(i).split("\t");
+                        items.add(new Item(Long.parseLong(fields[0]), fields[1], fields[2]));
+                    }
+                    return items;
+                }
+            };
+
+    private List<String> mOrigin;
+
+    private File mFile;
+
+    @Before
+    public void setUp() throws IOException {
+        MainThread.prepare();
+        mOrigin = new ArrayList<>(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            mOrigin.add(i + "\tItem " + i + "\t副标题 " + i);
+        }
+        mFile = File.createTempFile("rvadapter", ".snapshot");
+        new ItemAdapter(mOrigin).saveSnapshot(mFile, CODEC, 3, 7);
+    }
+
+    @After
+    public void tearDown() {
+        mFile.delete();
+    }
+
+    @Test
+    public void restoreMatchesReconvert() throws IOException {
+        ItemAdapter restored = new ItemAdapter(new ArrayList<String>());
+        AdapterSnapshot<Item> snapshot = restored.restoreSnapshot(mFile, CODEC);
+        assertEquals(0, snapshot.getDecodedCount());
+        assertEquals(3, snapshot.getAnchorPosition());
+        assertEquals(7, snapshot.getAnchorOffset());
+        assertEquals(new ItemAdapter(mOrigin).getDatas(), restored.getDatas());
+        assertEquals(SIZE, snapshot.getDecodedCount());
+    }
+
+    @Test
+    public void countAndSingleGetDecodeOneEntry() throws IOException {
+        ItemAdapter adapter = new ItemAdapter(new ArrayList<String>());
+        AdapterSnapshot<Item> snapshot = adapter.restoreSnapshot(mFile, CODEC);
+        assertEquals(SIZE, adapter.getItemCount());
+        assertEquals(0, snapshot.getDecodedCount());
+        Item item = adapter.getData(SIZE / 2);
+        assertEquals(new ItemAdapter(mOrigin).getData(SIZE / 2), item);
+        assertEquals(1, snapshot.getDecodedCount());
+        // 再次读取同一条不会重新解码
+        assertSame(item, adapter.getData(SIZE / 2));
+        assertEquals(1, snapshot.getDecodedCount());
+    }
+
+    @Test
+    public void mutationsDecodeLazily() throws IOException {
+        ItemAdapter adapter = new ItemAdapter(new ArrayList<String>());
+        AdapterSnapshot<Item> snapshot = adapter.restoreSnapshot(mFile, CODEC);
+        List<Item> expected = new ItemAdapter(mOrigin).getDatas();
+        for (int i = 0; i < 10; i++) {
+            assertEquals(expected.get(i), adapter.getData(i));
+        }
+        Item added = new Item(-1, "new", "item");
+        adapter.addItem(added, 0);
+        expected.add(0, added);
+        adapter.removeItem(500, 100);
+        expected.subList(500, 600).clear();
+        adapter.moveItem(3, 700);
+        expected.add(700, expected.remove(3));
+        adapter.setItem(1, added);
+        expected.set(1, added);
+        // 只有首屏、被移动和被替换的条目解码过
+        assertTrue(snapshot.getDecodedCount() <= 12);
+        assertTrue(adapter.getDatas() instanceof SnapshotList);
+
+        assertEquals(expected, adapter.getDatas());
+        adapter.addItem(added);
+        expected.add(added);
+        // 全部解码后换成普通的列表
+        assertFalse(adapter.getDatas() instanceof SnapshotList);
+        assertEquals(expected, adapter.getDatas());
+    }
+
+    @Test
+    public void readLineMatchesDataInputStream() throws IOException {
+        byte[] bytes = "a\nbc\r\nd\re".getBytes("ISO-8859-1");
+        ByteBufferInput input = new ByteBufferInput(ByteBuffer.wrap(bytes));
+        input.reset(0, bytes.length);
+        assertEquals("a", input.readLine());
+        assertEquals("bc", input.readLine());
+        assertEquals("d", input.readLine());
+        assertEquals("e", input.readLine());
+        assertEquals(null, input.readLine());
+    }
+
+    static class Item {
+
+        final long mId;
+        final String mTitle;
+        final String mSubtitle;
+
+        Item(long id, String title, String subtitle) {
+            this.mId = id;
+            this.mTitle = title;
+            this.mSubtitle = subtitle;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Item)) {
+                return false;
+            }
+            Item item = (Item) o;
+            return mId == item.mId && mTitle.equals(item.mTitle) && mSubtitle.equals(item.mSubtitle);
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) mId;
+        }
+    }
+
+    static class ItemAdapter extends BaseRVAdapter<Item> {
+
+        ItemAdapter(List<String> origin) {
+            super(null, origin, CONVERTER);
+        }
+
+        @Override
+        public void onBindViewHolder(ViewHolder holder, int position, Item data) {
+        }
+
+        @Override
+        protected int[] getItemViewIds() {
+            return null;
+        }
+
+        @Override
+        protected int getItemId() {
+            return 0;
+        }
+    }
+}
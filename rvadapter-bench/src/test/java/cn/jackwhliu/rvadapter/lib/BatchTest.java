@@ -0,0 +1,143 @@
+package cn.jackwhliu.rvadapter.lib;
+
+import android.content.Context;
+import android.support.v7.widget.RecyclerView;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * {@link BaseRVAdapter#beginBatch()}和{@link BaseRVAdapter#commit()}之间的修改发出的通知。
+ *
+ * @author lwh
+ */
+public class BatchTest {
+
+    private TestAdapter mAdapter;
+
+    /**
+     * 收到的通知，I为插入，R为删除，C为刷新。
+     */
+    private final List<String> mEvents = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        MainThread.prepare();
+        mAdapter = new TestAdapter();
+        mAdapter.addItems(Arrays.asList("a", "b", "c"));
+        mAdapter.registerAdapterDataObserver(new RecyclerView.AdapterDataObserver() {
+
+            @Override
+            public void onItemRangeInserted(int positionStart, int itemCount) {
+                mEvents.add("I" + positionStart + "+" + itemCount);
+            }
+
+            @Override
+            public void onItemRangeRemoved(int positionStart, int itemCount) {
+                mEvents.add("R" + positionStart + "+" + itemCount);
+            }
+
+            @Override
+            public void onItemRangeChanged(int positionStart, int itemCount, Object payload) {
+                mEvents.add("C" + positionStart + "+" + itemCount);
+            }
+        });
+    }
+
+    @Test
+    public void adjacentInsertsMerge() {
+        mAdapter.beginBatch();
+        mAdapter.addItem("x");
+        mAdapter.addItem("y");
+        mAdapter.addItem("z");
+        assertEquals(Collections.<String>emptyList(), mEvents);
+        mAdapter.commit();
+        assertEquals(Arrays.asList("I3+3"), mEvents);
+    }
+
+    @Test
+    public void mixedInsertsAndRemovesKeepOrder() {
+        mAdapter.beginBatch();
+        mAdapter.addItem("x", 0);
+        mAdapter.addItem("y", 1);
+        // 类型变化时前面合并好的插入立即发出
+        mAdapter.removeItem(4);
+        assertEquals(Arrays.asList("I0+2"), mEvents);
+        mAdapter.removeItem(3);
+        mAdapter.addItem("z");
+        mAdapter.commit();
+        assertEquals(Arrays.asList("I0+2", "R3+2", "I3+1"), mEvents);
+        assertEquals(Arrays.asList("x", "y", "a", "z"), mAdapter.getDatas());
+    }
+
+    @Test
+    public void nonAdjacentInsertsAreNotMerged() {
+        mAdapter.beginBatch();
+        mAdapter.addItem("x", 0);
+        mAdapter.addItem("y", 3);
+        mAdapter.commit();
+        assertEquals(Arrays.asList("I0+1", "I3+1"), mEvents);
+    }
+
+    @Test
+    public void onlyOutermostCommitDispatches() {
+        mAdapter.beginBatch();
+        mAdapter.addItem("x");
+        mAdapter.beginBatch();
+        mAdapter.addItem("y");
+        mAdapter.commit();
+        assertEquals(Collections.<String>emptyList(), mEvents);
+        mAdapter.addItem("z");
+        mAdapter.commit();
+        assertEquals(Arrays.asList("I3+3"), mEvents);
+        // 多提交一次什么也不做
+        mAdapter.commit();
+        assertEquals(Arrays.asList("I3+3"), mEvents);
+    }
+
+    @Test
+    public void commitInFinallyEndsBatchAfterException() {
+        try {
+            mAdapter.beginBatch();
+            try {
+                mAdapter.addItem("x");
+                mAdapter.removeItem(10);
+            } finally {
+                mAdapter.commit();
+            }
+        } catch (IndexOutOfBoundsException expected) {
+        }
+        assertEquals(Arrays.asList("I3+1"), mEvents);
+        // 之后的修改不再被攒着
+        mAdapter.addItem("y");
+        assertEquals(Arrays.asList("I3+1", "I4+1"), mEvents);
+    }
+
+    private static class TestAdapter extends BaseRVAdapter<String> {
+
+        TestAdapter() {
+            super((Context) null);
+        }
+
+        @Override
+        public void onBindViewHolder(ViewHolder holder, int position, String data) {
+        }
+
+        @Override
+        protected int[] getItemViewIds() {
+            return null;
+        }
+
+        @Override
+        protected int getItemId() {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package cn.jackwhliu.rvadapter.lib;
+
+import android.content.Context;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * ViewHolder的设置方法和上次设置的值相同时不再修改控件，并计入跳过的次数；
+ * 同一个控件的不同属性分开记录，忘记之后下次设置一定会修改控件。
+ *
+ * @author lwh
+ */
+public class BindMemoTest {
+
+    private static final int TITLE = 0x7f0a0001;
+
+    /**
+     * 高位为1的id，检查和属性拼成键时不会和其他id冲突。
+     */
+    private static final int BADGE = 0xff0a0002;
+
+    private TestAdapter mAdapter;
+
+    private BaseRVAdapter.ViewHolder mHolder;
+
+    private TextView mTitle;
+
+    private View mBadge;
+
+    @Before
+    public void setUp() {
+        mAdapter = new TestAdapter();
+        ViewGroup root = new ViewGroup(null) {
+        };
+        mTitle = new TextView(null);
+        mTitle.setId(TITLE);
+        mBadge = new View(null);
+        mBadge.setId(BADGE);
+        root.addView(mTitle);
+        root.addView(mBadge);
+        mHolder = mAdapter.new ViewHolder(root, new int[]{TITLE, BADGE});
+    }
+
+    @Test
+    public void sameTextIsSkipped() {
+        mHolder.setText(TITLE, "title");
+        mHolder.setText(TITLE, new String("title"));
+        assertEquals(1, mAdapter.getAppliedViewUpdates());
+        assertEquals(1, mAdapter.getSkippedViewUpdates());
+
+        mHolder.setText(TITLE, "other");
+        assertEquals("other", mTitle.getText());
+        assertEquals(2, mAdapter.getAppliedViewUpdates());
+    }
+
+    @Test
+    public void mutableTextIsAlwaysSet() {
+        mHolder.setText(TITLE, "title");
+        StringBuilder text = new StringBuilder("title");
+        mHolder.setText(TITLE, text);
+        text.append('!');
+        mHolder.setText(TITLE, text);
+        assertEquals(3, mAdapter.getAppliedViewUpdates());
+        assertEquals(0, mAdapter.getSkippedViewUpdates());
+        // 设置过非String的文字后，上次的String不再有效
+        mHolder.setText(TITLE, "title");
+        assertEquals("title", mTitle.getText());
+        assertEquals(4, mAdapter.getAppliedViewUpdates());
+    }
+
+    @Test
+    public void propertiesAreRecordedSeparately() {
+        mHolder.setVisibility(BADGE, View.GONE);
+        mHolder.setEnabled(BADGE, false);
+        mHolder.setVisibility(TITLE, View.GONE);
+        mHolder.setTextColor(TITLE, 0xFF000000);
+        assertEquals(4, mAdapter.getAppliedViewUpdates());
+
+        mHolder.setVisibility(BADGE, View.GONE);
+        mHolder.setEnabled(BADGE, false);
+        mHolder.setVisibility(TITLE, View.GONE);
+        mHolder.setTextColor(TITLE, 0xFF000000);
+        assertEquals(4, mAdapter.getAppliedViewUpdates());
+        assertEquals(4, mAdapter.getSkippedViewUpdates());
+
+        mHolder.setVisibility(BADGE, View.VISIBLE);
+        mHolder.setTextColor(TITLE, 0xFFFFFFFF);
+        assertEquals(View.VISIBLE, mBadge.getVisibility());
+        assertFalse(mBadge.isEnabled());
+        assertEquals(View.GONE, mTitle.getVisibility());
+        assertEquals(0xFFFFFFFF, mTitle.getCurrentTextColor());
+        assertEquals(6, mAdapter.getAppliedViewUpdates());
+    }
+
+    @Test
+    public void forgetAfterDirectChange() {
+        mHolder.setText(TITLE, "title");
+        mHolder.setVisibility(TITLE, View.VISIBLE);
+        // 直接修改控件后，记住的值已经不对，设置会被跳过
+        mTitle.setText("changed");
+        mTitle.setVisibility(View.GONE);
+        mHolder.setText(TITLE, "title");
+        assertEquals("changed", mTitle.getText());
+
+        mHolder.forgetBoundValues(TITLE);
+        mHolder.setText(TITLE, "title");
+        mHolder.setVisibility(TITLE, View.VISIBLE);
+        assertEquals("title", mTitle.getText());
+        assertEquals(View.VISIBLE, mTitle.getVisibility());
+    }
+
+    @Test
+    public void clearForgetsAllViews() {
+        mHolder.setText(TITLE, "title");
+        mHolder.setEnabled(BADGE, false);
+        mHolder.clearBoundValues();
+        mAdapter.resetViewUpdateCounters();
+        mHolder.setText(TITLE, "title");
+        mHolder.setEnabled(BADGE, false);
+        assertEquals(2, mAdapter.getAppliedViewUpdates());
+        assertEquals(0, mAdapter.getSkippedViewUpdates());
+    }
+
+    private static class TestAdapter extends BaseRVAdapter<String> {
+
+        TestAdapter() {
+            super((Context) null);
+        }
+
+        @Override
+        public void onBindViewHolder(ViewHolder holder, int position, String data) {
+        }
+
+        @Override
+        protected int[] getItemViewIds() {
+            return null;
+        }
+
+        @Override
+        protected int getItemId() {
+            return 0;
+        }
+    }
+}
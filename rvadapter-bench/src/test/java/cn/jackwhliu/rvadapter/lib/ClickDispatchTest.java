@@ -0,0 +1,227 @@
+package cn.jackwhliu.rvadapter.lib;
+
+import android.content.Context;
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * 点击和长按事件只在创建ViewHolder时挂载一次，点击时才取位置，绑定数据时不创建任何对象。
+ *
+ * @author lwh
+ */
+public class ClickDispatchTest {
+
+    private static final int TITLE = 0x7f0b0001;
+    private static final int ICON = 0x7f0b0002;
+
+    private static final int BINDS = 100000;
+
+    private TestAdapter mAdapter;
+
+    private ItemLayout mItemView;
+
+    private BaseRVAdapter.ViewHolder mHolder;
+
+    private int mClickedPosition = -1;
+
+    private View mClickedView;
+
+    @Before
+    public void setUp() {
+        mAdapter = new TestAdapter();
+        List<Integer> datas = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            datas.add(i);
+        }
+        mAdapter.addItems(datas);
+        mItemView = new ItemLayout();
+        mHolder = mAdapter.new ViewHolder(mItemView, new int[]{TITLE, ICON});
+    }
+
+    @Test
+    public void clickResolvesPositionAtClickTime() {
+        mAdapter.setOnItemClickListener(new BaseRVAdapter.OnItemClickListener() {
+
+            @Override
+            public void onItemClick(ViewGroup parent, int pos) {
+                mClickedPosition = pos;
+            }
+        });
+        mAdapter.setOnItemChildClickListener(TITLE, new BaseRVAdapter.OnItemChildClickListener() {
+
+            @Override
+            public void onItemChildClick(ViewGroup parent, View view, int pos) {
+                mClickedView = view;
+                mClickedPosition = pos;
+            }
+        });
+        mAdapter.bindViewHolder(mHolder, 3);
+        assertTrue(mItemView.performClick());
+        assertEquals(3, mClickedPosition);
+
+        // 复用后点击收到新的位置，不需要重新挂载
+        mAdapter.bindViewHolder(mHolder, 42);
+        mItemView.performClick();
+        assertEquals(42, mClickedPosition);
+
+        mItemView.getChildAt(0).performClick();
+        assertSame(mItemView.getChildAt(0), mClickedView);
+        assertEquals(42, mClickedPosition);
+        assertEquals(1, mItemView.mClickListenerSets);
+    }
+
+    @Test
+    public void longClickReturnsListenerResult() {
+        mAdapter.setOnItemLongClickListener(new BaseRVAdapter.OnItemLongClickListener() {
+
+            @Override
+            public boolean onItemLongClick(ViewGroup parent, int pos) {
+                mClickedPosition = pos;
+                return true;
+            }
+        });
+        mAdapter.setOnItemChildLongClickListener(ICON, new BaseRVAdapter.OnItemChildLongClickListener() {
+
+            @Override
+            public boolean onItemChildLongClick(ViewGroup parent, View view, int pos) {
+                return false;
+            }
+        });
+        mAdapter.bindViewHolder(mHolder, 7);
+        assertTrue(mItemView.performLongClick());
+        assertEquals(7, mClickedPosition);
+        assertFalse(mItemView.getChildAt(1).performLongClick());
+    }
+
+    @Test
+    public void listenersAreReattachedOnlyAfterTheyChange() {
+        mAdapter.setOnItemClickListener(new BaseRVAdapter.OnItemClickListener() {
+
+            @Override
+            public void onItemClick(ViewGroup parent, int pos) {
+            }
+        });
+        for (int i = 0; i < 10; i++) {
+            mAdapter.bindViewHolder(mHolder, i);
+        }
+        assertEquals(1, mItemView.mClickListenerSets);
+
+        mAdapter.setOnItemChildClickListener(TITLE, new BaseRVAdapter.OnItemChildClickListener() {
+
+            @Override
+            public void onItemChildClick(ViewGroup parent, View view, int pos) {
+                mClickedPosition = pos;
+            }
+        });
+        mAdapter.bindViewHolder(mHolder, 5);
+        mAdapter.bindViewHolder(mHolder, 6);
+        assertEquals(2, mItemView.mClickListenerSets);
+        mItemView.getChildAt(0).performClick();
+        assertEquals(6, mClickedPosition);
+    }
+
+    @Test
+    public void bindAllocatesNothing() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        mAdapter.setOnItemClickListener(new BaseRVAdapter.OnItemClickListener() {
+
+            @Override
+            public void onItemClick(ViewGroup parent, int pos) {
+            }
+        });
+        mAdapter.setOnItemLongClickListener(new BaseRVAdapter.OnItemLongClickListener() {
+
+            @Override
+            public boolean onItemLongClick(ViewGroup parent, int pos) {
+                return false;
+            }
+        });
+        mAdapter.setOnItemChildClickListener(TITLE, new BaseRVAdapter.OnItemChildClickListener() {
+
+            @Override
+            public void onItemChildClick(ViewGroup parent, View view, int pos) {
+            }
+        });
+        // 第一次绑定挂载监听器，之后的绑定不应该再创建对象
+        bind(1000);
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        bind(BINDS);
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+        // 每次绑定哪怕只创建一个对象也至少有16字节，平均不到1字节的只是计数和JIT编译本身的开销
+        assertTrue("bind allocated " + allocated + " bytes", allocated < BINDS);
+        assertEquals(1, mItemView.mClickListenerSets);
+    }
+
+    private void bind(int times) {
+        int size = mAdapter.getItemCount();
+        for (int i = 0; i < times; i++) {
+            mAdapter.bindViewHolder(mHolder, i % size);
+        }
+    }
+
+    private static class TestAdapter extends BaseRVAdapter<Integer> {
+
+        long mBound;
+
+        TestAdapter() {
+            super((Context) null);
+        }
+
+        @Override
+        public void onBindViewHolder(ViewHolder holder, int position, Integer data) {
+            mBound += data;
+        }
+
+        @Override
+        protected int[] getItemViewIds() {
+            return new int[]{TITLE, ICON};
+        }
+
+        @Override
+        protected int getItemId() {
+            return 0;
+        }
+    }
+
+    /**
+     * 条目布局，记录挂载点击监听的次数。
+     */
+    private static class ItemLayout extends ViewGroup {
+
+        int mClickListenerSets;
+
+        ItemLayout() {
+            super(null);
+            View title = new View(null);
+            title.setId(TITLE);
+            addView(title);
+            View icon = new View(null);
+            icon.setId(ICON);
+            addView(icon);
+        }
+
+        @Override
+        public void setOnClickListener(OnClickListener l) {
+            mClickListenerSets++;
+            super.setOnClickListener(l);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package cn.jackwhliu.rvadapter.lib;
+
+import android.content.Context;
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 自己创建ViewHolder的子适配器使用单独分配的viewType，绑定时仍然交给对应的{@link ItemViewDelegate}，
+ * 子适配器的通知换算成整个列表中的位置。
+ *
+ * @author lwh
+ */
+public class ConcatRVAdapterTest {
+
+    private static final int LAYOUT_A = 0x7f0a0001;
+    private static final int LAYOUT_B = 0x7f0a0002;
+
+    private ConcatRVAdapter mConcat;
+
+    private DelegateAdapter mChild;
+
+    /**
+     * 每次绑定使用的条目类型和位置。
+     */
+    private final List<String> mBinds = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        PlainAdapter first = new PlainAdapter();
+        first.addItems(Arrays.asList("x", "y"));
+        mChild = new DelegateAdapter();
+        mChild.addItemViewDelegate(new TestDelegate("A", LAYOUT_A, true));
+        mChild.addItemViewDelegate(new TestDelegate("B", LAYOUT_B, false));
+        mChild.addItems(Arrays.asList("a1", "b1", "a2"));
+        mConcat = new ConcatRVAdapter();
+        mConcat.addAdapter(first);
+        mConcat.addAdapter(mChild);
+    }
+
+    @Test
+    public void isolatedViewTypesBindThroughDelegates() {
+        for (int position = 2; position < 5; position++) {
+            int viewType = mConcat.getItemViewType(position);
+            assertTrue(viewType < 0);
+            BaseRVAdapter.ViewHolder holder = mConcat.createViewHolder(null, viewType);
+            mConcat.bindViewHolder(holder, position);
+        }
+        assertEquals(Arrays.asList("A@0", "B@1", "A@2"), mBinds);
+    }
+
+    @Test
+    public void moveIsOffsetByPrecedingAdapters() {
+        final List<int[]> moves = new ArrayList<>();
+        mConcat.registerAdapterDataObserver(new RecyclerView.AdapterDataObserver() {
+
+            @Override
+            public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+                moves.add(new int[]{fromPosition, toPosition, itemCount});
+            }
+        });
+        mChild.moveItem(0, 2);
+        assertEquals(1, moves.size());
+        assertEquals(2, moves.get(0)[0]);
+        assertEquals(4, moves.get(0)[1]);
+        assertEquals(1, moves.get(0)[2]);
+    }
+
+    private class TestDelegate implements ItemViewDelegate<String> {
+
+        private final String mName;
+
+        private final int mLayoutId;
+
+        private final boolean mStartsWithA;
+
+        TestDelegate(String name, int layoutId, boolean startsWithA) {
+            this.mName = name;
+            this.mLayoutId = layoutId;
+            this.mStartsWithA = startsWithA;
+        }
+
+        @Override
+        public boolean isForViewType(String data, int position) {
+            return data.startsWith("a") == mStartsWithA;
+        }
+
+        @Override
+        public int getItemId() {
+            return mLayoutId;
+        }
+
+        @Override
+        public int[] getItemViewIds() {
+            return null;
+        }
+
+        @Override
+        public void onBindViewHolder(BaseRVAdapter.ViewHolder holder, int position, String data) {
+            mBinds.add(mName + "@" + position);
+        }
+    }
+
+    /**
+     * 自己创建ViewHolder，{@link ConcatRVAdapter}无法得知布局，viewType单独分配。
+     */
+    private static class DelegateAdapter extends PlainAdapter {
+
+        @Override
+        public ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+            return new ViewHolder(new View(null), null);
+        }
+    }
+
+    private static class PlainAdapter extends BaseRVAdapter<String> {
+
+        PlainAdapter() {
+            super((Context) null);
+        }
+
+        @Override
+        public void onBindViewHolder(ViewHolder holder, int position, String data) {
+        }
+
+        @Override
+        protected int[] getItemViewIds() {
+            return null;
+        }
+
+        @Override
+        protected int getItemId() {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package cn.jackwhliu.rvadapter.lib;
+
+import android.content.Context;
+import android.view.View;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 延迟绑定在主线程空闲时执行，ViewHolder被回收或重新绑定后，之前安排的延迟绑定不再执行，
+ * 局部刷新使用新数据但不重新安排。
+ *
+ * @author lwh
+ */
+public class DeferredBindTest {
+
+    private TestAdapter mAdapter;
+
+    private BaseRVAdapter.ViewHolder mHolder;
+
+    @Before
+    public void setUp() {
+        MainThread.prepare();
+        mAdapter = new TestAdapter();
+        mAdapter.addItems(Arrays.asList("a", "b", "c"));
+        mAdapter.setDeferredBindEnabled(true);
+        mHolder = mAdapter.new ViewHolder(new View(null), null);
+    }
+
+    @After
+    public void tearDown() {
+        mAdapter.setDeferredBindEnabled(false);
+    }
+
+    @Test
+    public void runsWhenIdle() {
+        mAdapter.bindViewHolder(mHolder, 0);
+        assertTrue(mAdapter.mDeferred.isEmpty());
+        MainThread.runIdle();
+        assertEquals(Collections.singletonList("a@0"), mAdapter.mDeferred);
+        MainThread.runIdle();
+        assertEquals(1, mAdapter.mDeferred.size());
+    }
+
+    @Test
+    public void recycleCancels() {
+        mAdapter.bindViewHolder(mHolder, 0);
+        mAdapter.onViewRecycled(mHolder);
+        MainThread.runIdle();
+        assertTrue(mAdapter.mDeferred.isEmpty());
+    }
+
+    @Test
+    public void rebindReplacesPendingBind() {
+        mAdapter.bindViewHolder(mHolder, 0);
+        mAdapter.bindViewHolder(mHolder, 2);
+        MainThread.runIdle();
+        assertEquals(Collections.singletonList("c@2"), mAdapter.mDeferred);
+    }
+
+    @Test
+    public void payloadBindUpdatesPendingData() {
+        mAdapter.bindViewHolder(mHolder, 1);
+        mAdapter.setItem(1, "b2");
+        mAdapter.onBindViewHolder(mHolder, 1, Collections.<Object>singletonList("payload"));
+        MainThread.runIdle();
+        assertEquals(Collections.singletonList("b2@1"), mAdapter.mDeferred);
+
+        // 延迟绑定执行过之后，局部刷新不会再安排一次
+        mAdapter.onBindViewHolder(mHolder, 1, Collections.<Object>singletonList("payload"));
+        MainThread.runIdle();
+        assertEquals(1, mAdapter.mDeferred.size());
+    }
+
+    @Test
+    public void disablingCancelsAll() {
+        BaseRVAdapter.ViewHolder other = mAdapter.new ViewHolder(new View(null), null);
+        mAdapter.bindViewHolder(mHolder, 0);
+        mAdapter.bindViewHolder(other, 1);
+        mAdapter.setDeferredBindEnabled(false);
+        MainThread.runIdle();
+        assertTrue(mAdapter.mDeferred.isEmpty());
+    }
+
+    private static class TestAdapter extends BaseRVAdapter<String> {
+
+        /**
+         * 每次延迟绑定的数据和位置。
+         */
+        final List<String> mDeferred = new ArrayList<>();
+
+        TestAdapter() {
+            super((Context) null);
+        }
+
+        @Override
+        public void onBindViewHolder(ViewHolder holder, int position, String data) {
+        }
+
+        /**
+         * 只做局部刷新，默认实现会退回完整绑定。
+         */
+        @Override
+        public void onBindViewHolder(ViewHolder holder, int position, String data, List<Object> payloads) {
+        }
+
+        @Override
+        protected void onBindViewHolderDeferred(ViewHolder holder, int position, String data) {
+            mDeferred.add(data + "@" + position);
+        }
+
+        @Override
+        protected int[] getItemViewIds() {
+            return null;
+        }
+
+        @Override
+        protected int getItemId() {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package cn.jackwhliu.rvadapter.lib;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.drawable.Drawable;
+import android.view.ViewGroup;
+import android.widget.ImageView;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import javax.imageio.ImageIO;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 控件还没有大小时等到绘制前再按实际大小加载，等待和正在进行的加载在ViewHolder被回收或重新绑定时取消，
+ * 过期的图片不会显示；解码按控件大小降采样，结果放入缓存，之后直接显示。
+ *
+ * @author lwh
+ */
+public class ImageBindTest {
+
+    private static final int IMAGE = 0x7f0a0001;
+
+    /**
+     * 图片的边长，控件的4倍。
+     */
+    private static final int IMAGE_SIZE = 400;
+
+    private static final int VIEW_SIZE = 100;
+
+    private static byte[] sPng;
+
+    /**
+     * 解码线程收到的任务，由测试决定什么时候执行。
+     */
+    private final List<Runnable> mDecodes = new ArrayList<>();
+
+    private ImageLoader mLoader;
+
+    private TestAdapter mAdapter;
+
+    private BaseRVAdapter.ViewHolder mHolder;
+
+    private RecordingImageView mImage;
+
+    @Before
+    public void setUp() throws IOException {
+        MainThread.prepare();
+        if (sPng == null) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            ImageIO.write(new BufferedImage(IMAGE_SIZE, IMAGE_SIZE, BufferedImage.TYPE_INT_ARGB), "png", out);
+            sPng = out.toByteArray();
+        }
+        mLoader = new ImageLoader(1 << 20, new Executor() {
+
+            @Override
+            public void execute(Runnable command) {
+                mDecodes.add(command);
+            }
+        });
+        mAdapter = new TestAdapter();
+        mAdapter.setImageLoader(mLoader);
+        mAdapter.addItems(Arrays.asList("a", "b"));
+        mHolder = newHolder();
+        mImage = (RecordingImageView) mHolder.findViewById(IMAGE);
+    }
+
+    @Test
+    public void waitsForSizeThenLoadsDownsampled() {
+        mAdapter.bindViewHolder(mHolder, 0);
+        assertTrue(mDecodes.isEmpty());
+        assertEquals(1, mImage.mClears);
+
+        mImage.layout(0, 0, VIEW_SIZE, VIEW_SIZE);
+        mImage.getViewTreeObserver().dispatchOnPreDraw();
+        assertEquals(1, mDecodes.size());
+        runDecodes();
+        MainThread.runPending();
+        assertEquals(VIEW_SIZE, mImage.mBitmap.getWidth());
+        assertEquals(VIEW_SIZE, mImage.mBitmap.getHeight());
+        assertEquals(mImage.mBitmap.getByteCount(), mLoader.getCacheSize());
+    }
+
+    @Test
+    public void rebindCancelsSizeWait() {
+        mAdapter.bindViewHolder(mHolder, 0);
+        mAdapter.bindViewHolder(mHolder, 1);
+        mImage.layout(0, 0, VIEW_SIZE, VIEW_SIZE);
+        mImage.getViewTreeObserver().dispatchOnPreDraw();
+        // 只有重新绑定的图片开始加载
+        assertEquals(1, mDecodes.size());
+        assertTrue(((ImageLoader.Request) mDecodes.get(0)).mCacheKey.startsWith("bytes:b@"));
+    }
+
+    @Test
+    public void recycleCancelsSizeWait() {
+        mAdapter.bindViewHolder(mHolder, 0);
+        mAdapter.onViewRecycled(mHolder);
+        mImage.layout(0, 0, VIEW_SIZE, VIEW_SIZE);
+        mImage.getViewTreeObserver().dispatchOnPreDraw();
+        assertTrue(mDecodes.isEmpty());
+    }
+
+    @Test
+    public void recycleCancelsQueuedDecode() {
+        mImage.layout(0, 0, VIEW_SIZE, VIEW_SIZE);
+        mAdapter.bindViewHolder(mHolder, 0);
+        assertEquals(1, mDecodes.size());
+        mAdapter.onViewRecycled(mHolder);
+        runDecodes();
+        MainThread.runPending();
+        // 回收后还在排队的不再解码
+        assertEquals(0, mLoader.getCacheSize());
+        assertNull(mImage.mBitmap);
+    }
+
+    @Test
+    public void rebindDropsDecodedStaleImage() {
+        mImage.layout(0, 0, VIEW_SIZE, VIEW_SIZE);
+        mAdapter.bindViewHolder(mHolder, 0);
+        // 解码完成，显示的任务还没有在主线程执行时重新绑定
+        runDecodes();
+        mAdapter.bindViewHolder(mHolder, 1);
+        MainThread.runPending();
+        assertNull(mImage.mBitmap);
+
+        runDecodes();
+        MainThread.runPending();
+        assertEquals(VIEW_SIZE, mImage.mBitmap.getWidth());
+        assertEquals(1, mImage.mBitmaps);
+    }
+
+    @Test
+    public void cachedImageIsShownImmediately() {
+        mImage.layout(0, 0, VIEW_SIZE, VIEW_SIZE);
+        mAdapter.bindViewHolder(mHolder, 0);
+        runDecodes();
+        MainThread.runPending();
+        Bitmap bitmap = mImage.mBitmap;
+
+        BaseRVAdapter.ViewHolder other = newHolder();
+        RecordingImageView otherImage = (RecordingImageView) other.findViewById(IMAGE);
+        otherImage.layout(0, 0, VIEW_SIZE, VIEW_SIZE);
+        mAdapter.bindViewHolder(other, 0);
+        assertTrue(mDecodes.isEmpty());
+        assertSame(bitmap, otherImage.mBitmap);
+
+        // 同一个ViewHolder重新绑定同一张图片时不再设置
+        long skipped = mAdapter.getSkippedViewUpdates();
+        mAdapter.bindViewHolder(mHolder, 0);
+        assertEquals(1, mImage.mBitmaps);
+        assertEquals(skipped + 1, mAdapter.getSkippedViewUpdates());
+    }
+
+    private BaseRVAdapter.ViewHolder newHolder() {
+        Context context = new TestContext();
+        ViewGroup root = new ViewGroup(context) {
+        };
+        RecordingImageView image = new RecordingImageView(context);
+        image.setId(IMAGE);
+        root.addView(image);
+        return mAdapter.new ViewHolder(root, new int[]{IMAGE});
+    }
+
+    private void runDecodes() {
+        List<Runnable> decodes = new ArrayList<>(mDecodes);
+        mDecodes.clear();
+        for (Runnable decode : decodes) {
+            decode.run();
+        }
+    }
+
+    private static class TestContext extends Context {
+
+        private final Resources mResources = new Resources();
+
+        TestContext() {
+            mResources.getDisplayMetrics().widthPixels = 1080;
+            mResources.getDisplayMetrics().heightPixels = 1920;
+        }
+
+        @Override
+        public Resources getResources() {
+            return mResources;
+        }
+    }
+
+    /**
+     * 记录设置的图片。
+     */
+    private static class RecordingImageView extends ImageView {
+
+        Bitmap mBitmap;
+
+        /**
+         * 设置Bitmap的次数。
+         */
+        int mBitmaps;
+
+        /**
+         * 清空图片的次数。
+         */
+        int mClears;
+
+        RecordingImageView(Context context) {
+            super(context);
+        }
+
+        @Override
+        public void setImageBitmap(Bitmap bm) {
+            mBitmap = bm;
+            mBitmaps++;
+        }
+
+        @Override
+        public void setImageDrawable(Drawable drawable) {
+            mBitmap = null;
+            if (drawable == null) {
+                mClears++;
+            }
+        }
+    }
+
+    private static class TestAdapter extends BaseRVAdapter<String> {
+
+        TestAdapter() {
+            super((Context) null);
+        }
+
+        @Override
+        public void onBindViewHolder(ViewHolder holder, int position, String data) {
+            holder.setImageBytes(IMAGE, data, sPng);
+        }
+
+        @Override
+        protected int[] getItemViewIds() {
+            return null;
+        }
+
+        @Override
+        protected int getItemId() {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,394 @@
+package cn.jackwhliu.rvadapter.lib;
+
+import android.content.Context;
+import android.support.v7.widget.RecyclerView;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 筛选出部分条目时修改数据写入全部数据，显示的条目始终是全部数据中包含查询的那些，异步的修改不会在主线程抛出异常。
+ *
+ * @author lwh
+ */
+public class ItemFilterTest {
+
+    private static final String QUERY = "ab";
+
+    private static final int OPERATIONS = 2000;
+
+    private TestAdapter mAdapter;
+
+    /**
+     * 没有筛选的适配器，做同样的修改作为对照。
+     */
+    private TestAdapter mReference;
+
+    /**
+     * 按收到的通知重放的显示列表，新插入的位置为null。
+     */
+    private List<String> mMirror;
+
+    private Random mRandom;
+
+    @Before
+    public void setUp() {
+        MainThread.prepare();
+        mAdapter = new TestAdapter();
+        mReference = new TestAdapter();
+        mRandom = new Random(18);
+        mAdapter.setFilterTextExtractor(new BaseRVAdapter.TextExtractor<String>() {
+
+            @Override
+            public CharSequence getText(String data) {
+                return data;
+            }
+        });
+    }
+
+    @Test
+    public void positionalMutationsWriteThroughToSource() {
+        populate();
+        for (int i = 0; i < OPERATIONS; i++) {
+            List<Integer> shown = shownIndices();
+            int size = shown.size();
+            switch (mRandom.nextInt(8)) {
+                case 0: {
+                    String word = randomWord();
+                    mAdapter.addItem(word);
+                    mReference.addItem(word);
+                    break;
+                }
+                case 1: {
+                    String word = randomWord();
+                    int position = mRandom.nextInt(size + 1);
+                    mAdapter.addItem(word, position);
+                    mReference.addItem(word, position < size ? shown.get(position) : mReference.getItemCount());
+                    break;
+                }
+                case 2: {
+                    List<String> words = randomWords(mRandom.nextInt(5));
+                    mAdapter.addItems(words);
+                    mReference.addItems(words);
+                    break;
+                }
+                case 3: {
+                    if (size == 0) {
+                        break;
+                    }
+                    int start = mRandom.nextInt(size);
+                    int count = 1 + mRandom.nextInt(Math.min(3, size - start));
+                    mAdapter.removeItem(start, count);
+                    for (int j = start + count - 1; j >= start; j--) {
+                        mReference.removeItem((int) shown.get(j));
+                    }
+                    break;
+                }
+                case 4:
+                case 5: {
+                    if (size == 0) {
+                        break;
+                    }
+                    int position = mRandom.nextInt(size);
+                    String word = randomWord();
+                    mAdapter.setItem(position, word);
+                    mReference.setItem(shown.get(position), word);
+                    break;
+                }
+                case 6: {
+                    if (size == 0) {
+                        break;
+                    }
+                    int from = mRandom.nextInt(size);
+                    int to = mRandom.nextInt(size);
+                    mAdapter.moveItem(from, to);
+                    mReference.moveItem(shown.get(from), shown.get(to));
+                    break;
+                }
+                default:
+                    if (mRandom.nextInt(20) == 0) {
+                        mAdapter.reverseItems();
+                        mReference.reverseItems();
+                    }
+                    break;
+            }
+            verify();
+        }
+        mAdapter.clearFilter();
+        assertEquals(mReference.getDatas(), mAdapter.getDatas());
+    }
+
+    @Test
+    public void sortedMutationsKeepSourceSorted() {
+        mAdapter.setComparator(Collections.<String>reverseOrder());
+        mReference.setComparator(Collections.<String>reverseOrder());
+        populate();
+        for (int i = 0; i < OPERATIONS; i++) {
+            List<Integer> shown = shownIndices();
+            int size = shown.size();
+            switch (mRandom.nextInt(4)) {
+                case 0: {
+                    String word = randomWord();
+                    mAdapter.addItem(word);
+                    mReference.addItem(word);
+                    break;
+                }
+                case 1: {
+                    List<String> words = randomWords(mRandom.nextInt(8));
+                    mAdapter.addItems(words);
+                    mReference.addItems(words);
+                    break;
+                }
+                case 2: {
+                    if (size == 0) {
+                        break;
+                    }
+                    int position = mRandom.nextInt(size);
+                    mAdapter.removeItem(position);
+                    mReference.removeItem((int) shown.get(position));
+                    break;
+                }
+                default: {
+                    if (size == 0) {
+                        break;
+                    }
+                    int position = mRandom.nextInt(size);
+                    String word = randomWord();
+                    mAdapter.setItem(position, word);
+                    mReference.setItem(shown.get(position), word);
+                    break;
+                }
+            }
+            verify();
+        }
+        mAdapter.clearFilter();
+        assertEquals(mReference.getDatas(), mAdapter.getDatas());
+    }
+
+    @Test
+    public void postedMutationsRunWhileFiltered() {
+        populate();
+        final String word = "xabx";
+        mAdapter.postAddItem(word);
+        mAdapter.postAddItem("xyz");
+        MainThread.runUntil(new MainThread.Condition() {
+
+            @Override
+            public boolean isMet() {
+                return mAdapter.getDatas().contains(word);
+            }
+        }, 5000);
+        assertFalse(mAdapter.getDatas().contains("xyz"));
+        mAdapter.clearFilter();
+        assertEquals("xyz", mAdapter.getData(mAdapter.getItemCount() - 1));
+    }
+
+    @Test
+    public void submitListWhileFilteredDiffsShownItems() {
+        populate();
+        final List<String> datas = randomWords(300);
+        mAdapter.submitList(datas);
+        MainThread.runUntil(new MainThread.Condition() {
+
+            @Override
+            public boolean isMet() {
+                return mAdapter.getDatas().equals(matching(datas));
+            }
+        }, 5000);
+        checkMirror();
+        mAdapter.clearFilter();
+        assertEquals(datas, mAdapter.getDatas());
+    }
+
+    @Test
+    public void submitListDeliveredAfterFilterStarts() {
+        final List<Runnable> diffs = new ArrayList<>();
+        mAdapter.setDiffExecutor(new Executor() {
+
+            @Override
+            public void execute(Runnable command) {
+                diffs.add(command);
+            }
+        });
+        mAdapter.addItems(randomWords(100));
+        List<String> datas = randomWords(200);
+        mAdapter.submitList(datas);
+        // 差异还没算完就开始筛选，结果送达时不能抛出异常
+        mAdapter.filter(QUERY);
+        waitForFilter();
+        assertEquals(1, diffs.size());
+        diffs.get(0).run();
+        MainThread.runPending();
+        assertTrue(mAdapter.isFiltered());
+        assertEquals(matching(datas), mAdapter.getDatas());
+        mAdapter.clearFilter();
+        assertEquals(datas, mAdapter.getDatas());
+    }
+
+    @Test
+    public void pagedModeRejectsPostsAtSubmitTime() {
+        mAdapter.postAddItem("abc");
+        mAdapter.setDataSource(new PagedDataSource<String>() {
+
+            @Override
+            public int getCount() {
+                return 0;
+            }
+
+            @Override
+            public List<String> loadPage(int start, int count) {
+                return new ArrayList<>();
+            }
+        }, 10, 3);
+        // 切换前提交的修改被取消，不会在主线程抛出异常
+        MainThread.runPending();
+        try {
+            mAdapter.postAddItem("abd");
+            fail("Posting in paged mode should be rejected");
+        } catch (IllegalStateException expected) {
+        }
+    }
+
+    /**
+     * 两个适配器放入同样的数据，开始筛选并记录通知。
+     */
+    private void populate() {
+        List<String> datas = randomWords(200);
+        mAdapter.addItems(datas);
+        mReference.addItems(datas);
+        mAdapter.filter(QUERY);
+        waitForFilter();
+        mMirror = new ArrayList<>(mAdapter.getDatas());
+        mAdapter.registerAdapterDataObserver(new RecyclerView.AdapterDataObserver() {
+
+            @Override
+            public void onChanged() {
+                mMirror = new ArrayList<>(mAdapter.getDatas());
+            }
+
+            @Override
+            public void onItemRangeInserted(int positionStart, int itemCount) {
+                mMirror.addAll(positionStart, Collections.<String>nCopies(itemCount, null));
+            }
+
+            @Override
+            public void onItemRangeRemoved(int positionStart, int itemCount) {
+                mMirror.subList(positionStart, positionStart + itemCount).clear();
+            }
+
+            @Override
+            public void onItemRangeChanged(int positionStart, int itemCount, Object payload) {
+                for (int i = positionStart; i < positionStart + itemCount; i++) {
+                    mMirror.set(i, null);
+                }
+            }
+
+            @Override
+            public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+                assertEquals(1, itemCount);
+                mMirror.add(toPosition, mMirror.remove(fromPosition));
+            }
+        });
+    }
+
+    private void waitForFilter() {
+        MainThread.runUntil(new MainThread.Condition() {
+
+            @Override
+            public boolean isMet() {
+                return mAdapter.isFiltered();
+            }
+        }, 5000);
+    }
+
+    /**
+     * 显示的条目就是对照中包含查询的条目，通知和数据一致。
+     */
+    private void verify() {
+        assertEquals(matching(mReference.getDatas()), mAdapter.getDatas());
+        checkMirror();
+    }
+
+    private void checkMirror() {
+        List<String> datas = mAdapter.getDatas();
+        assertEquals(datas.size(), mMirror.size());
+        for (int i = 0; i < datas.size(); i++) {
+            if (mMirror.get(i) == null) {
+                mMirror.set(i, datas.get(i));
+            }
+            assertEquals(datas.get(i), mMirror.get(i));
+        }
+    }
+
+    /**
+     * @return 对照中显示的条目的位置。
+     */
+    private List<Integer> shownIndices() {
+        List<String> datas = mReference.getDatas();
+        List<Integer> indices = new ArrayList<>();
+        for (int i = 0; i < datas.size(); i++) {
+            if (datas.get(i).contains(QUERY)) {
+                indices.add(i);
+            }
+        }
+        return indices;
+    }
+
+    private static List<String> matching(List<String> datas) {
+        List<String> matches = new ArrayList<>();
+        for (String data : datas) {
+            if (data.contains(QUERY)) {
+                matches.add(data);
+            }
+        }
+        return matches;
+    }
+
+    private List<String> randomWords(int count) {
+        List<String> words = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            words.add(randomWord());
+        }
+        return words;
+    }
+
+    private String randomWord() {
+        char[] chars = new char[3];
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = (char) ('a' + mRandom.nextInt(3));
+        }
+        return new String(chars);
+    }
+
+    private static class TestAdapter extends BaseRVAdapter<String> {
+
+        TestAdapter() {
+            super((Context) null);
+        }
+
+        @Override
+        public void onBindViewHolder(ViewHolder holder, int position, String data) {
+        }
+
+        @Override
+        protected int[] getItemViewIds() {
+            return null;
+        }
+
+        @Override
+        protected int getItemId() {
+            return 0;
+        }
+    }
+}
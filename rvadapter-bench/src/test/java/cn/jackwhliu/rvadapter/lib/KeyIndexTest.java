@@ -0,0 +1,187 @@
+package cn.jackwhliu.rvadapter.lib;
+
+import android.content.Context;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 按id查找条目的位置。
+ *
+ * @author lwh
+ */
+public class KeyIndexTest {
+
+    private TestAdapter mAdapter;
+
+    private CountingKeyExtractor mKeyExtractor;
+
+    private long mNextKey;
+
+    @Before
+    public void setUp() {
+        mAdapter = new TestAdapter();
+        mKeyExtractor = new CountingKeyExtractor();
+        mAdapter.setKeyExtractor(mKeyExtractor);
+    }
+
+    @Test
+    public void positionsFollowRandomMutations() {
+        mAdapter.addItems(newItems(200));
+        Random random = new Random(42);
+        for (int round = 0; round < 2000; round++) {
+            int size = mAdapter.getItemCount();
+            switch (random.nextInt(5)) {
+                case 0:
+                    mAdapter.addItem(newItem(), random.nextInt(size + 1));
+                    break;
+                case 1:
+                    if (size > 0) {
+                        mAdapter.removeItem(random.nextInt(size));
+                    }
+                    break;
+                case 2:
+                    if (size > 1) {
+                        mAdapter.moveItem(random.nextInt(size), random.nextInt(size));
+                    }
+                    break;
+                case 3:
+                    if (size > 0) {
+                        mAdapter.setItem(random.nextInt(size), newItem());
+                    }
+                    break;
+                default:
+                    if (size > 3) {
+                        int start = random.nextInt(size - 3);
+                        mAdapter.removeItem(start, 3);
+                    }
+                    break;
+            }
+            if (round % 7 == 0) {
+                assertPositions();
+            }
+        }
+        assertPositions();
+    }
+
+    @Test
+    public void removedIdsAreNotFound() {
+        mAdapter.addItems(newItems(10));
+        long id = mAdapter.getData(3).mKey;
+        assertTrue(mAdapter.removeById(id));
+        assertEquals(-1, mAdapter.positionOf(id));
+        assertFalse(mAdapter.removeById(id));
+        assertEquals(-1, mAdapter.positionOf(-1));
+        assertPositions();
+    }
+
+    @Test
+    public void reorderingAllItemsRebuildsTheIndex() {
+        mAdapter.addItems(newItems(10));
+        assertEquals(0, mAdapter.positionOf(0));
+        mAdapter.reverseItems();
+        assertEquals(9, mAdapter.positionOf(0));
+        assertPositions();
+    }
+
+    @Test
+    public void repeatedHeadRemovalIsNotQuadratic() {
+        int count = 20000;
+        mAdapter.useChunkedStorage();
+        mAdapter.addItems(newItems(count));
+        mKeyExtractor.mCalls = 0;
+        for (int i = 0; i < count; i++) {
+            assertTrue(mAdapter.removeById(i));
+        }
+        assertEquals(0, mAdapter.getItemCount());
+        // 每次都重建删除位置之后的索引需要n*n/2次，约2亿次
+        assertTrue("getKey called " + mKeyExtractor.mCalls + " times",
+                mKeyExtractor.mCalls < 4L * count * (long) Math.sqrt(count));
+    }
+
+    @Test
+    public void lookupDoesNotRequireMutableData() {
+        mAdapter.addItems(newItems(10));
+        mAdapter.setDataSource(new PagedDataSource<Item>() {
+
+            @Override
+            public int getCount() {
+                return 100;
+            }
+
+            @Override
+            public List<Item> loadPage(int start, int count) {
+                return new ArrayList<>();
+            }
+        }, 10, 3);
+        // 分页模式下不能修改数据，但可以在已加载的页中查找
+        assertEquals(-1, mAdapter.positionOf(3));
+    }
+
+    private void assertPositions() {
+        for (int i = 0; i < mAdapter.getItemCount(); i++) {
+            assertEquals(i, mAdapter.positionOf(mAdapter.getData(i).mKey));
+        }
+    }
+
+    private Item newItem() {
+        return new Item(mNextKey++);
+    }
+
+    private List<Item> newItems(int count) {
+        List<Item> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(newItem());
+        }
+        return items;
+    }
+
+    private static final class Item {
+
+        final long mKey;
+
+        Item(long key) {
+            this.mKey = key;
+        }
+    }
+
+    private static final class CountingKeyExtractor implements BaseRVAdapter.KeyExtractor<Item> {
+
+        long mCalls;
+
+        @Override
+        public long getKey(Item data) {
+            mCalls++;
+            return data.mKey;
+        }
+    }
+
+    private static class TestAdapter extends BaseRVAdapter<Item> {
+
+        TestAdapter() {
+            super((Context) null);
+        }
+
+        @Override
+        public void onBindViewHolder(ViewHolder holder, int position, Item data) {
+        }
+
+        @Override
+        protected int[] getItemViewIds() {
+            return null;
+        }
+
+        @Override
+        protected int getItemId() {
+            return 0;
+        }
+    }
+}
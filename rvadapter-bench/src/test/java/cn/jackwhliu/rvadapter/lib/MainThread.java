@@ -0,0 +1,110 @@
+package cn.jackwhliu.rvadapter.lib;
+
+import android.os.Handler;
+import android.os.Looper;
+
+/**
+ * 把测试线程当作主线程，在测试线程上执行投递到主线程的任务。
+ *
+ * @author lwh
+ */
+final class MainThread {
+
+    /**
+     * 在主线程抛出它来跳出{@link Looper#loop()}，主线程的Looper不允许退出。
+     */
+    private static final Stop STOP = new Stop();
+
+    /**
+     * {@link #runIdle()}让消息队列空闲的时间。
+     */
+    private static final long IDLE_MILLIS = 20;
+
+    private MainThread() {
+    }
+
+    /**
+     * 让当前线程成为主线程，可以重复调用。
+     */
+    static void prepare() {
+        if (Looper.myLooper() == null) {
+            Looper.prepareMainLooper();
+        }
+    }
+
+    /**
+     * 执行已经投递并且到期的任务，执行过程中新投递的任务留在队列中。
+     */
+    static void runPending() {
+        prepare();
+        AdapterExecutors.mainHandler().post(STOP);
+        loop();
+    }
+
+    /**
+     * 执行已经到期的任务，然后让消息队列空闲一段时间，注册的IdleHandler至少执行一次。
+     */
+    static void runIdle() {
+        prepare();
+        AdapterExecutors.mainHandler().postDelayed(STOP, IDLE_MILLIS);
+        loop();
+    }
+
+    /**
+     * 执行主线程的任务，包括延时的任务，直到条件满足。
+     *
+     * @param condition 每执行完一批任务检查一次的条件。
+     * @param timeoutMillis 超时时间，超时后抛出{@link AssertionError}。
+     */
+    static void runUntil(final Condition condition, long timeoutMillis) {
+        prepare();
+        final long deadline = System.currentTimeMillis() + timeoutMillis;
+        final Handler handler = AdapterExecutors.mainHandler();
+        Runnable check = new Runnable() {
+
+            @Override
+            public void run() {
+                if (condition.isMet()) {
+                    throw STOP;
+                }
+                if (System.currentTimeMillis() > deadline) {
+                    throw new AssertionError("Condition not met in time");
+                }
+                handler.postDelayed(this, 1);
+            }
+        };
+        handler.post(check);
+        try {
+            loop();
+        } finally {
+            handler.removeCallbacks(check);
+        }
+    }
+
+    private static void loop() {
+        try {
+            Looper.loop();
+        } catch (Stop expected) {
+        }
+    }
+
+    /**
+     * 等待的条件，在主线程检查。
+     */
+    interface Condition {
+
+        boolean isMet();
+    }
+
+    private static final class Stop extends RuntimeException implements Runnable {
+
+        Stop() {
+            super(null, null, false, false);
+        }
+
+        @Override
+        public void run() {
+            throw this;
+        }
+    }
+}
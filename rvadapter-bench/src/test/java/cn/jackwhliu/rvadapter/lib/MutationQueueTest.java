@@ -0,0 +1,149 @@
+package cn.jackwhliu.rvadapter.lib;
+
+import android.content.Context;
+import android.support.v7.widget.RecyclerView;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 从其他线程提交的修改在主线程按顺序执行。
+ *
+ * @author lwh
+ */
+public class MutationQueueTest {
+
+    private static final int PRODUCERS = 8;
+    private static final int MUTATIONS_PER_PRODUCER = 5000;
+
+    private TestAdapter mAdapter;
+
+    private int mInserted;
+
+    private int mInsertEvents;
+
+    @Before
+    public void setUp() {
+        MainThread.prepare();
+        mAdapter = new TestAdapter();
+        mAdapter.registerAdapterDataObserver(new RecyclerView.AdapterDataObserver() {
+
+            @Override
+            public void onItemRangeInserted(int positionStart, int itemCount) {
+                mInserted += itemCount;
+                mInsertEvents++;
+            }
+        });
+    }
+
+    @Test
+    public void concurrentProducersLoseNothing() throws InterruptedException {
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] producers = new Thread[PRODUCERS];
+        for (int i = 0; i < PRODUCERS; i++) {
+            final int producer = i;
+            producers[i] = new Thread(new Runnable() {
+
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int seq = 0; seq < MUTATIONS_PER_PRODUCER; seq++) {
+                        mAdapter.postAddItem(new long[]{producer, seq});
+                        if (seq % 100 == 0) {
+                            Thread.yield();
+                        }
+                    }
+                }
+            });
+            producers[i].start();
+        }
+        start.countDown();
+        final int total = PRODUCERS * MUTATIONS_PER_PRODUCER;
+        MainThread.runUntil(new MainThread.Condition() {
+
+            @Override
+            public boolean isMet() {
+                return mAdapter.getItemCount() == total;
+            }
+        }, 30000);
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        // 每个生产者提交的修改按提交顺序执行
+        int[] next = new int[PRODUCERS];
+        for (int i = 0; i < total; i++) {
+            long[] item = mAdapter.getData(i);
+            assertEquals(next[(int) item[0]]++, item[1]);
+        }
+        for (int count : next) {
+            assertEquals(MUTATIONS_PER_PRODUCER, count);
+        }
+        assertEquals(total, mInserted);
+        // 同一帧执行的修改合并成一次通知
+        assertTrue("insert events: " + mInsertEvents, mInsertEvents < total);
+    }
+
+    @Test
+    public void throwingMutationDoesNotStallQueue() {
+        mAdapter.post(new BaseRVAdapter.Mutation<long[]>() {
+
+            @Override
+            public void apply(BaseRVAdapter<long[]> adapter) {
+                throw new IllegalStateException("broken mutation");
+            }
+        });
+        mAdapter.postAddItem(new long[]{0, 0});
+        try {
+            MainThread.runPending();
+            fail("The exception was swallowed");
+        } catch (IllegalStateException expected) {
+            assertEquals("broken mutation", expected.getMessage());
+        }
+        // 剩下的修改已经重新安排
+        waitForItems(1);
+        // 之后提交的修改也会执行
+        mAdapter.postAddItem(new long[]{0, 1});
+        waitForItems(2);
+    }
+
+    private void waitForItems(final int count) {
+        MainThread.runUntil(new MainThread.Condition() {
+
+            @Override
+            public boolean isMet() {
+                return mAdapter.getItemCount() == count;
+            }
+        }, 5000);
+    }
+
+    private static class TestAdapter extends BaseRVAdapter<long[]> {
+
+        TestAdapter() {
+            super((Context) null);
+        }
+
+        @Override
+        public void onBindViewHolder(ViewHolder holder, int position, long[] data) {
+        }
+
+        @Override
+        protected int[] getItemViewIds() {
+            return null;
+        }
+
+        @Override
+        protected int getItemId() {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package cn.jackwhliu.rvadapter.lib;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 分页列表按需加载，内存中只保留有限的页。
+ *
+ * @author lwh
+ */
+public class PagedListTest {
+
+    private static final int ROWS = 1000000;
+    private static final int PAGE_SIZE = 50;
+    private static final int MAX_PAGES = 5;
+
+    /**
+     * 每条数据的大小，全部留在内存中需要1GB。
+     */
+    private static final int ROW_BYTES = 1024;
+
+    /**
+     * 在调用线程上直接加载，加载完成的回调仍然投递到主线程。
+     */
+    private static final Executor INLINE = new Executor() {
+
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    private int mLoadedPages;
+
+    private PagedList<Row> mList;
+
+    @Before
+    public void setUp() {
+        MainThread.prepare();
+        mList = new PagedList<>(new RowSource(), PAGE_SIZE, MAX_PAGES, INLINE, new PagedList.Callback() {
+
+            @Override
+            public void onPageLoaded(int start, int count) {
+                mLoadedPages++;
+            }
+        });
+    }
+
+    @Test
+    public void placeholderUntilPageIsDelivered() {
+        assertEquals(ROWS, mList.size());
+        assertNull(mList.get(PAGE_SIZE * 10));
+        assertNull(mList.get(PAGE_SIZE * 10));
+        MainThread.runPending();
+        // 靠近页的开头，同时预加载了前一页
+        assertEquals(2, mLoadedPages);
+        assertEquals(PAGE_SIZE * 10, mList.get(PAGE_SIZE * 10).mIndex);
+        assertTrue(mList.isLoaded(PAGE_SIZE * 10 - 1));
+    }
+
+    @Test
+    public void scanningMillionRowsKeepsMemoryFlat() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        int checkpoint = ROWS / 10;
+        List<Long> used = new ArrayList<>();
+        for (int i = 0; i < ROWS; i++) {
+            Row row = mList.get(i);
+            if (row == null) {
+                MainThread.runPending();
+                row = mList.get(i);
+            }
+            assertNotNull(row);
+            assertEquals(i, row.mIndex);
+            assertTrue(mList.getLoadedPageCount() <= MAX_PAGES);
+            if (i % checkpoint == checkpoint - 1) {
+                System.gc();
+                used.add(memory.getHeapMemoryUsage().getUsed());
+            }
+        }
+        assertEquals(ROWS / PAGE_SIZE, mLoadedPages);
+        // 扫过了1GB的数据，堆的占用只能在几页数据和GC的误差范围内波动
+        long growth = used.get(used.size() - 1) - used.get(0);
+        assertTrue("heap grew by " + growth + " bytes", growth < 32L * 1024 * 1024);
+    }
+
+    private static final class Row {
+
+        final int mIndex;
+
+        final byte[] mPayload = new byte[ROW_BYTES];
+
+        Row(int index) {
+            this.mIndex = index;
+        }
+    }
+
+    private static final class RowSource implements PagedDataSource<Row> {
+
+        @Override
+        public int getCount() {
+            return ROWS;
+        }
+
+        @Override
+        public List<Row> loadPage(int start, int count) {
+            List<Row> rows = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                rows.add(new Row(start + i));
+            }
+            return rows;
+        }
+    }
+}
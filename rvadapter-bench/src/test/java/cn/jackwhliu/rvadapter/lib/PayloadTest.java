@@ -0,0 +1,130 @@
+package cn.jackwhliu.rvadapter.lib;
+
+import android.content.Context;
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * {@link BaseRVAdapter.PayloadCallback}算出的变化字段作为payload通知，带payload的绑定只更新变化的字段。
+ *
+ * @author lwh
+ */
+public class PayloadTest {
+
+    private static final int TITLE = 1;
+    private static final int LIKES = 1 << 1;
+
+    private PostAdapter mAdapter;
+
+    private final List<Object> mPayloads = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        MainThread.prepare();
+        mAdapter = new PostAdapter();
+        mAdapter.setPayloadCallback(new BaseRVAdapter.PayloadCallback<Post>() {
+
+            @Override
+            public Object getChangePayload(Post oldItem, Post newItem) {
+                int fields = 0;
+                if (!oldItem.mTitle.equals(newItem.mTitle)) {
+                    fields |= TITLE;
+                }
+                if (oldItem.mLikes != newItem.mLikes) {
+                    fields |= LIKES;
+                }
+                return fields;
+            }
+        });
+        mAdapter.addItems(Arrays.asList(new Post("a", 0), new Post("b", 0)));
+        mAdapter.registerAdapterDataObserver(new RecyclerView.AdapterDataObserver() {
+
+            @Override
+            public void onItemRangeChanged(int positionStart, int itemCount, Object payload) {
+                mPayloads.add(payload);
+            }
+        });
+    }
+
+    @Test
+    public void setItemNotifiesChangedFields() {
+        mAdapter.setItem(1, new Post("b", 5));
+        mAdapter.setItem(0, new Post("c", 1));
+        assertEquals(Arrays.<Object>asList(LIKES, TITLE | LIKES), mPayloads);
+    }
+
+    @Test
+    public void payloadBindUpdatesOnlyChangedFields() {
+        BaseRVAdapter.ViewHolder holder = mAdapter.new ViewHolder(new View(null), null);
+        mAdapter.onBindViewHolder(holder, 1, Collections.<Object>emptyList());
+        assertEquals(Arrays.asList("full b"), mAdapter.mBinds);
+
+        mAdapter.setItem(1, new Post("b", 5));
+        mAdapter.onBindViewHolder(holder, 1, mPayloads);
+        assertEquals(Arrays.asList("full b", "likes 5"), mAdapter.mBinds);
+    }
+
+    @Test
+    public void changedFieldsAreMerged() {
+        assertEquals(TITLE | LIKES, BaseRVAdapter.getChangedFields(Arrays.<Object>asList(TITLE, LIKES)));
+        // 不是字段标志位的payload要求完整刷新
+        assertEquals(-1, BaseRVAdapter.getChangedFields(Arrays.<Object>asList(TITLE, "x")));
+    }
+
+    static class Post {
+
+        final String mTitle;
+        final int mLikes;
+
+        Post(String title, int likes) {
+            this.mTitle = title;
+            this.mLikes = likes;
+        }
+    }
+
+    private static class PostAdapter extends BaseRVAdapter<Post> {
+
+        final List<String> mBinds = new ArrayList<>();
+
+        PostAdapter() {
+            super((Context) null);
+        }
+
+        @Override
+        public void onBindViewHolder(ViewHolder holder, int position, Post data) {
+            mBinds.add("full " + data.mTitle);
+        }
+
+        @Override
+        public void onBindViewHolder(ViewHolder holder, int position, Post data, List<Object> payloads) {
+            int fields = getChangedFields(payloads);
+            if (fields == -1 || (fields & TITLE) != 0) {
+                super.onBindViewHolder(holder, position, data, payloads);
+                return;
+            }
+            if ((fields & LIKES) != 0) {
+                mBinds.add("likes " + data.mLikes);
+            }
+        }
+
+        @Override
+        protected int[] getItemViewIds() {
+            return null;
+        }
+
+        @Override
+        protected int getItemId() {
+            return 0;
+        }
+    }
+}
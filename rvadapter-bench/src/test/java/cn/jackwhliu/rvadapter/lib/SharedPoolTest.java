@@ -0,0 +1,85 @@
+package cn.jackwhliu.rvadapter.lib;
+
+import android.content.Context;
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * 没有{@link ItemViewDelegate}的适配器以布局文件的id作为viewType，布局不同的适配器共用缓存池时不会复用对方的ViewHolder。
+ *
+ * @author lwh
+ */
+public class SharedPoolTest {
+
+    private static final int LAYOUT_A = 0x7f0c0001;
+    private static final int LAYOUT_B = 0x7f0c0002;
+
+    @Test
+    public void differentLayoutsDoNotShareViewHolders() {
+        LayoutAdapter a = new LayoutAdapter(LAYOUT_A);
+        LayoutAdapter b = new LayoutAdapter(LAYOUT_B);
+        RecyclerView.RecycledViewPool pool = new RecyclerView.RecycledViewPool();
+        a.setRecycledViewPool(pool);
+        b.setRecycledViewPool(pool);
+        assertEquals(LAYOUT_A, a.getItemViewType(0));
+        assertEquals(LAYOUT_B, b.getItemViewType(0));
+
+        BaseRVAdapter.ViewHolder holder = createViewHolder(a);
+        assertEquals(LAYOUT_A, holder.getItemViewType());
+        pool.putRecycledView(holder);
+        assertNull(pool.getRecycledView(b.getItemViewType(0)));
+        assertSame(holder, pool.getRecycledView(a.getItemViewType(0)));
+    }
+
+    @Test
+    public void preInflatedViewsAreKeyedByLayout() {
+        LayoutAdapter a = new LayoutAdapter(LAYOUT_A);
+        View view = new View(null);
+        // warmUp(parent, count)按同样的viewType放入预加载的布局
+        a.getPreInflatePool().put(LAYOUT_A, view);
+        BaseRVAdapter.ViewHolder holder = createViewHolder(a);
+        assertSame(view, holder.itemView);
+        assertEquals(1, a.getPreInflatePool().getHitCount());
+        assertEquals(0, a.getPreInflatePool().getAvailableCount(LAYOUT_A));
+    }
+
+    private static BaseRVAdapter.ViewHolder createViewHolder(LayoutAdapter adapter) {
+        if (adapter.getPreInflatePool().getAvailableCount(adapter.getItemViewType(0)) == 0) {
+            adapter.getPreInflatePool().put(adapter.getItemViewType(0), new View(null));
+        }
+        return adapter.createViewHolder(null, adapter.getItemViewType(0));
+    }
+
+    private static class LayoutAdapter extends BaseRVAdapter<String> {
+
+        private final int mLayoutId;
+
+        LayoutAdapter(int layoutId) {
+            super((Context) null);
+            this.mLayoutId = layoutId;
+            addItems(Arrays.asList("a", "b"));
+        }
+
+        @Override
+        public void onBindViewHolder(ViewHolder holder, int position, String data) {
+        }
+
+        @Override
+        protected int[] getItemViewIds() {
+            return null;
+        }
+
+        @Override
+        protected int getItemId() {
+            return mLayoutId;
+        }
+    }
+}
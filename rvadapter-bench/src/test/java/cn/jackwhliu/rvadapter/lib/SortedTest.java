@@ -0,0 +1,167 @@
+package cn.jackwhliu.rvadapter.lib;
+
+import android.content.Context;
+import android.support.v7.widget.RecyclerView;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * 排序模式下新条目用二分查找插入，相等的条目保持加入的先后顺序；修改后顺序变化的条目用移动通知换到新位置；
+ * 批量添加和已有条目归并，每段连续插入的条目通知一次。
+ *
+ * @author lwh
+ */
+public class SortedTest {
+
+    /**
+     * 只比较首字母，后面的字符用来区分相等的条目。
+     */
+    private static final Comparator<String> FIRST_LETTER = new Comparator<String>() {
+
+        @Override
+        public int compare(String lhs, String rhs) {
+            return lhs.charAt(0) - rhs.charAt(0);
+        }
+    };
+
+    private TestAdapter mAdapter;
+
+    /**
+     * 收到的通知，依次记录。
+     */
+    private final List<String> mEvents = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        MainThread.prepare();
+        mAdapter = new TestAdapter();
+        mAdapter.addItems(Arrays.asList("b", "d", "f"));
+        mAdapter.setComparator(FIRST_LETTER);
+        mAdapter.registerAdapterDataObserver(new RecyclerView.AdapterDataObserver() {
+
+            @Override
+            public void onChanged() {
+                mEvents.add("all");
+            }
+
+            @Override
+            public void onItemRangeChanged(int positionStart, int itemCount, Object payload) {
+                mEvents.add("change " + positionStart + "+" + itemCount);
+            }
+
+            @Override
+            public void onItemRangeInserted(int positionStart, int itemCount) {
+                mEvents.add("insert " + positionStart + "+" + itemCount);
+            }
+
+            @Override
+            public void onItemRangeRemoved(int positionStart, int itemCount) {
+                mEvents.add("remove " + positionStart + "+" + itemCount);
+            }
+
+            @Override
+            public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+                mEvents.add("move " + fromPosition + "->" + toPosition);
+            }
+        });
+    }
+
+    @Test
+    public void addItemInsertsAfterEqualItems() {
+        mAdapter.addItem("a");
+        mAdapter.addItem("d2");
+        mAdapter.addItem("g");
+        assertEquals(Arrays.asList("a", "b", "d", "d2", "f", "g"), mAdapter.getDatas());
+        assertEquals(Arrays.asList("insert 0+1", "insert 3+1", "insert 5+1"), mEvents);
+    }
+
+    @Test
+    public void unsortedDataIsSortedOnce() {
+        TestAdapter adapter = new TestAdapter();
+        adapter.addItems(Arrays.asList("c", "a2", "b", "a1"));
+        adapter.setComparator(FIRST_LETTER);
+        // 稳定排序，相等的条目保持原来的顺序
+        assertEquals(Arrays.asList("a2", "a1", "b", "c"), adapter.getDatas());
+    }
+
+    @Test
+    public void setItemMovesForward() {
+        mAdapter.setItem(0, "e");
+        assertEquals(Arrays.asList("d", "e", "f"), mAdapter.getDatas());
+        assertEquals(Arrays.asList("change 0+1", "move 0->1"), mEvents);
+    }
+
+    @Test
+    public void setItemMovesBackwardAfterEqualItems() {
+        mAdapter.setItem(2, "b2");
+        assertEquals(Arrays.asList("b", "b2", "d"), mAdapter.getDatas());
+        assertEquals(Arrays.asList("change 2+1", "move 2->1"), mEvents);
+    }
+
+    @Test
+    public void setItemInPlaceDoesNotMove() {
+        mAdapter.setItem(1, "e");
+        assertEquals(Arrays.asList("b", "e", "f"), mAdapter.getDatas());
+        assertEquals(Arrays.asList("change 1+1"), mEvents);
+    }
+
+    @Test
+    public void addItemsMergesWithExisting() {
+        mAdapter.addItems(Arrays.asList("g", "a", "c", "e"));
+        assertEquals(Arrays.asList("a", "b", "c", "d", "e", "f", "g"), mAdapter.getDatas());
+        assertEquals(Arrays.asList("insert 0+1", "insert 2+1", "insert 4+1", "insert 6+1"), mEvents);
+    }
+
+    @Test
+    public void addItemsNotifiesEachRunOnce() {
+        mAdapter.addItems(Arrays.asList("c", "a", "a2", "h", "g", "c2"));
+        assertEquals(Arrays.asList("a", "a2", "b", "c", "c2", "d", "f", "g", "h"), mAdapter.getDatas());
+        assertEquals(Arrays.asList("insert 0+2", "insert 3+2", "insert 7+2"), mEvents);
+    }
+
+    @Test
+    public void positionalChangesAreRejected() {
+        try {
+            mAdapter.addItem("c", 0);
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+        try {
+            mAdapter.moveItem(0, 2);
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+        assertEquals(Arrays.asList("b", "d", "f"), mAdapter.getDatas());
+        assertEquals(0, mEvents.size());
+    }
+
+    private static class TestAdapter extends BaseRVAdapter<String> {
+
+        TestAdapter() {
+            super((Context) null);
+        }
+
+        @Override
+        public void onBindViewHolder(ViewHolder holder, int position, String data) {
+        }
+
+        @Override
+        protected int[] getItemViewIds() {
+            return null;
+        }
+
+        @Override
+        protected int getItemId() {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package cn.jackwhliu.rvadapter.lib;
+
+import android.content.Context;
+import android.support.v7.widget.RecyclerView;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link BaseRVAdapter#convertDatasAsync(Object, BaseRVAdapter.StreamDataConverter)}在后台转换，
+ * 按顺序分块追加，取消后不再追加，结束或取消时关闭迭代器。
+ *
+ * @author lwh
+ */
+public class StreamConvertTest {
+
+    private static final int SIZE = 5000;
+
+    private TestAdapter mAdapter;
+
+    /**
+     * 第一次收到插入通知时的条目数。
+     */
+    private int mFirstInsertCount = -1;
+
+    @Before
+    public void setUp() {
+        MainThread.prepare();
+        mAdapter = new TestAdapter();
+        mAdapter.registerAdapterDataObserver(new RecyclerView.AdapterDataObserver() {
+
+            @Override
+            public void onItemRangeInserted(int positionStart, int itemCount) {
+                if (mFirstInsertCount == -1) {
+                    mFirstInsertCount = itemCount;
+                }
+            }
+        });
+    }
+
+    @Test
+    public void appendsEverythingInOrder() throws InterruptedException {
+        // 转换完第一块后停下来，确认首屏不用等全部转换完
+        final RangeIterator iterator = new RangeIterator(SIZE, 32);
+        mAdapter.convertDatasAsync(SIZE, new Converter(iterator));
+        waitForCount(32);
+        assertEquals(32, mFirstInsertCount);
+        iterator.mResume.countDown();
+        waitForCount(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            assertEquals(Integer.valueOf(i), mAdapter.getData(i));
+        }
+        assertTrue(iterator.mClosed.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void cancelStopsAppending() throws InterruptedException {
+        // 转换完第一块后停下来，等测试取消
+        final RangeIterator iterator = new RangeIterator(SIZE, 32);
+        mAdapter.convertDatasAsync(SIZE, new Converter(iterator));
+        waitForCount(32);
+        mAdapter.cancelConversion();
+        iterator.mResume.countDown();
+        assertTrue(iterator.mClosed.await(10, TimeUnit.SECONDS));
+        MainThread.runPending();
+        assertEquals(32, mAdapter.getItemCount());
+        assertTrue(iterator.mNext < SIZE);
+    }
+
+    private void waitForCount(final int count) {
+        MainThread.runUntil(new MainThread.Condition() {
+
+            @Override
+            public boolean isMet() {
+                return mAdapter.getItemCount() == count;
+            }
+        }, 10000);
+    }
+
+    private static class Converter implements BaseRVAdapter.StreamDataConverter<Integer, Integer> {
+
+        private final RangeIterator mIterator;
+
+        Converter(RangeIterator iterator) {
+            this.mIterator = iterator;
+        }
+
+        @Override
+        public Iterator<Integer> convertDatas(Integer datas) {
+            return mIterator;
+        }
+    }
+
+    /**
+     * 依次产生0到size-1，产生pauseAt个之后等待{@link #mResume}。
+     */
+    private static class RangeIterator implements Iterator<Integer>, Closeable {
+
+        final CountDownLatch mResume = new CountDownLatch(1);
+
+        final CountDownLatch mClosed = new CountDownLatch(1);
+
+        private final int mSize;
+
+        private final int mPauseAt;
+
+        volatile int mNext;
+
+        RangeIterator(int size, int pauseAt) {
+            this.mSize = size;
+            this.mPauseAt = pauseAt;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (mNext == mPauseAt) {
+                try {
+                    mResume.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return mNext < mSize;
+        }
+
+        @Override
+        public Integer next() {
+            return mNext++;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close() {
+            mClosed.countDown();
+        }
+    }
+
+    private static class TestAdapter extends BaseRVAdapter<Integer> {
+
+        TestAdapter() {
+            super((Context) null);
+        }
+
+        @Override
+        public void onBindViewHolder(ViewHolder holder, int position, Integer data) {
+        }
+
+        @Override
+        protected int[] getItemViewIds() {
+            return null;
+        }
+
+        @Override
+        protected int getItemId() {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package cn.jackwhliu.rvadapter.lib;
+
+import android.content.Context;
+import android.support.v7.widget.RecyclerView;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link BaseRVAdapter#submitList(List)}只发出增删改的通知，计算期间提交了新数据时丢弃旧的结果。
+ *
+ * @author lwh
+ */
+public class SubmitListTest {
+
+    private TestAdapter mAdapter;
+
+    /**
+     * 差异计算的任务，由测试决定执行的顺序。
+     */
+    private final List<Runnable> mDiffs = new ArrayList<>();
+
+    /**
+     * 收到的通知，I为插入，R为删除，C为刷新，M为移动，D为整体刷新。
+     */
+    private final List<String> mEvents = new ArrayList<>();
+
+    @Before
+    public void setUp() {
+        MainThread.prepare();
+        mAdapter = new TestAdapter();
+        mAdapter.setDiffExecutor(new Executor() {
+
+            @Override
+            public void execute(Runnable command) {
+                mDiffs.add(command);
+            }
+        });
+        mAdapter.addItems(Arrays.asList("a", "b", "c", "d"));
+        mAdapter.registerAdapterDataObserver(new RecyclerView.AdapterDataObserver() {
+
+            @Override
+            public void onChanged() {
+                mEvents.add("D");
+            }
+
+            @Override
+            public void onItemRangeInserted(int positionStart, int itemCount) {
+                mEvents.add("I" + positionStart + "+" + itemCount);
+            }
+
+            @Override
+            public void onItemRangeRemoved(int positionStart, int itemCount) {
+                mEvents.add("R" + positionStart + "+" + itemCount);
+            }
+
+            @Override
+            public void onItemRangeChanged(int positionStart, int itemCount, Object payload) {
+                mEvents.add("C" + positionStart + "+" + itemCount);
+            }
+
+            @Override
+            public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+                mEvents.add("M" + fromPosition + ">" + toPosition);
+            }
+        });
+    }
+
+    @Test
+    public void dispatchesOnlyTheDifference() {
+        mAdapter.submitList(Arrays.asList("a", "c", "d", "e"));
+        // 结果回到主线程之前数据不变
+        runDiff(0);
+        assertEquals(Arrays.asList("a", "b", "c", "d"), mAdapter.getDatas());
+        MainThread.runPending();
+        assertEquals(Arrays.asList("a", "c", "d", "e"), mAdapter.getDatas());
+        assertEquals(2, mEvents.size());
+        assertTrue(mEvents.contains("R1+1"));
+        assertTrue(mEvents.contains("I3+1"));
+    }
+
+    @Test
+    public void staleDiffIsDropped() {
+        mAdapter.submitList(Arrays.asList("x"));
+        mAdapter.submitList(Arrays.asList("a", "b", "c", "d", "e"));
+        // 新的先算完
+        runDiff(1);
+        MainThread.runPending();
+        assertEquals(Arrays.asList("a", "b", "c", "d", "e"), mAdapter.getDatas());
+        assertEquals(Arrays.asList("I4+1"), mEvents);
+        // 旧的后算完，结果被丢弃
+        runDiff(0);
+        MainThread.runPending();
+        assertEquals(Arrays.asList("a", "b", "c", "d", "e"), mAdapter.getDatas());
+        assertEquals(Arrays.asList("I4+1"), mEvents);
+    }
+
+    @Test
+    public void clearCancelsPendingDiff() {
+        mAdapter.submitList(Arrays.asList("a", "b"));
+        mAdapter.submitList(null);
+        assertEquals(0, mAdapter.getItemCount());
+        runDiff(0);
+        MainThread.runPending();
+        assertEquals(0, mAdapter.getItemCount());
+        assertEquals(Arrays.asList("R0+4"), mEvents);
+    }
+
+    @Test
+    public void unchangedContentsDispatchNothing() {
+        mAdapter.submitList(new ArrayList<>(Arrays.asList("a", "b", "c", "d")));
+        runDiff(0);
+        MainThread.runPending();
+        assertEquals(0, mEvents.size());
+    }
+
+    private void runDiff(int index) {
+        mDiffs.get(index).run();
+    }
+
+    private static class TestAdapter extends BaseRVAdapter<String> {
+
+        TestAdapter() {
+            super((Context) null);
+        }
+
+        @Override
+        public void onBindViewHolder(ViewHolder holder, int position, String data) {
+        }
+
+        @Override
+        protected int[] getItemViewIds() {
+            return null;
+        }
+
+        @Override
+        protected int getItemId() {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package cn.jackwhliu.rvadapter.lib;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * 随机插入、删除、展开和折叠节点，位置和节点之间的换算始终和逐个展开整棵树的结果一致。
+ *
+ * @author lwh
+ */
+public class TreeListTest {
+
+    private static final int OPERATIONS = 3000;
+
+    private final TreeList<Integer> mTree = new TreeList<>();
+
+    /**
+     * 树中所有的节点，包括折叠的。
+     */
+    private final List<TreeNode<Integer>> mNodes = new ArrayList<>();
+
+    private final Random mRandom = new Random(22);
+
+    @Test
+    public void randomOperationsMatchFlattenedTree() {
+        int next = 0;
+        for (int i = 0; i < OPERATIONS; i++) {
+            int op = mRandom.nextInt(10);
+            if (op < 5 || mNodes.isEmpty()) {
+                TreeNode<Integer> parent = mNodes.isEmpty() || mRandom.nextInt(4) == 0 ? null
+                        : mNodes.get(mRandom.nextInt(mNodes.size()));
+                int count = parent != null ? parent.getChildCount() : mTree.getRoot().getChildCount();
+                mNodes.add(mTree.addNode(parent, mRandom.nextInt(count + 1), next++));
+            } else if (op < 6) {
+                TreeNode<Integer> node = mNodes.get(mRandom.nextInt(mNodes.size()));
+                mTree.removeNode(node);
+                forget(node);
+            } else if (op < 8) {
+                mTree.expand(mNodes.get(mRandom.nextInt(mNodes.size())));
+            } else {
+                mTree.collapse(mNodes.get(mRandom.nextInt(mNodes.size())));
+            }
+            verify();
+        }
+    }
+
+    @Test
+    public void insertAtFrontKeepsSiblingPositions() {
+        TreeNode<Integer> parent = mTree.addNode(null, 0, -1);
+        mTree.expand(parent);
+        List<TreeNode<Integer>> children = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            children.add(0, mTree.addNode(parent, 0, i));
+        }
+        for (int i = 0; i < children.size(); i++) {
+            assertSame(children.get(i), parent.getChild(i));
+            assertEquals(i + 1, mTree.positionOf(children.get(i)));
+        }
+    }
+
+    private void forget(TreeNode<Integer> node) {
+        mNodes.remove(node);
+        for (int i = 0; i < node.getChildCount(); i++) {
+            forget(node.getChild(i));
+        }
+    }
+
+    private void verify() {
+        List<TreeNode<Integer>> visible = new ArrayList<>();
+        flatten(mTree.getRoot(), visible);
+        assertEquals(visible.size(), mTree.size());
+        for (int i = 0; i < visible.size(); i++) {
+            assertSame(visible.get(i), mTree.nodeAt(i));
+            assertEquals(i, mTree.positionOf(visible.get(i)));
+        }
+    }
+
+    private static void flatten(TreeNode<Integer> node, List<TreeNode<Integer>> out) {
+        if (!node.isExpanded()) {
+            return;
+        }
+        for (int i = 0; i < node.getChildCount(); i++) {
+            TreeNode<Integer> child = node.getChild(i);
+            out.add(child);
+            flatten(child, out);
+        }
+    }
+}
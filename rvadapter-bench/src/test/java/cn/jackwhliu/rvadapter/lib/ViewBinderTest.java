@@ -0,0 +1,241 @@
+package cn.jackwhliu.rvadapter.lib;
+
+import android.content.Context;
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.junit.Test;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * rvadapter-compiler生成的绑定器和ViewHolder。
+ *
+ * @author lwh
+ */
+public class ViewBinderTest {
+
+    private static final int LAYOUT = 0x7f030001;
+    private static final int TITLE = 0x7f0b0001;
+    private static final int ICON = 0x7f0b0002;
+    private static final int OTHER = 0x7f0b0003;
+
+    /**
+     * 只有反射读取注解时才会用到的类，生成的代码不应该加载它们。
+     */
+    private static final String[] REFLECTION_CLASSES = {
+            BaseRVAdapter.class.getName() + "$ItemId",
+            BaseRVAdapter.class.getName() + "$ItemViewIds",
+            ViewBinders.class.getName() + "$AnnotationViewBinder"
+    };
+
+    @Test
+    public void findsGeneratedBinder() {
+        ViewBinder binder = ViewBinders.find(GeneratedAdapter.class);
+        assertEquals(GeneratedAdapter.class.getName() + ViewBinders.SUFFIX, binder.getClass().getName());
+        assertEquals(LAYOUT, binder.getItemId());
+        assertTrue(Arrays.equals(new int[]{TITLE, ICON}, binder.getItemViewIds()));
+        assertSame(binder, ViewBinders.find(GeneratedAdapter.class));
+    }
+
+    @Test
+    public void generatedHolderKeepsViewsInFields() {
+        CountingLayout itemView = newItemView();
+        BaseRVAdapter.ViewHolder holder = ViewBinders.find(GeneratedAdapter.class)
+                .createViewHolder(new GeneratedAdapter(), itemView);
+        assertTrue(holder.getClass().getName().startsWith(GeneratedAdapter.class.getName() + ViewBinders.SUFFIX));
+        // 创建时每个声明的控件查找一次
+        assertEquals(2, itemView.mLookups);
+        View title = itemView.getChildAt(0);
+        View icon = itemView.getChildAt(1);
+        for (int i = 0; i < 100; i++) {
+            assertSame(title, holder.findViewById(TITLE));
+            assertSame(icon, holder.findViewById(ICON));
+        }
+        assertEquals(2, itemView.mLookups);
+        // 没有声明的控件交给父类查找并缓存
+        assertSame(itemView.getChildAt(2), holder.findViewById(OTHER));
+        assertSame(itemView.getChildAt(2), holder.findViewById(OTHER));
+        assertEquals(3, itemView.mLookups);
+    }
+
+    @Test
+    public void generatedPathMakesNoReflectiveCalls() throws Exception {
+        // 反射读取注解需要加载注解类和后备的绑定器，加载不到时生成的代码仍然可以正常创建ViewHolder
+        run(GeneratedPath.class, REFLECTION_CLASSES);
+    }
+
+    @Test
+    public void adapterCreatesHolderWithGeneratedBinder() throws Exception {
+        // 经过onCreateViewHolder创建时同样使用生成的绑定器，不会加载后备的绑定器
+        run(AdapterPath.class, REFLECTION_CLASSES);
+    }
+
+    @Test
+    public void reflectiveFallbackIsDetected() throws Exception {
+        // 找不到生成的绑定器时会退回到反射，同样的类加载器能发现这一点，说明上面的测试是有效的
+        String[] hidden = Arrays.copyOf(REFLECTION_CLASSES, REFLECTION_CLASSES.length + 1);
+        hidden[REFLECTION_CLASSES.length] = FallbackAdapter.class.getName() + ViewBinders.SUFFIX;
+        try {
+            run(FallbackPath.class, hidden);
+            fail("The reflective fallback was not detected");
+        } catch (NoClassDefFoundError expected) {
+        }
+    }
+
+    private static void run(Class<? extends Runnable> task, String[] hidden) throws Exception {
+        IsolatedClassLoader loader = new IsolatedClassLoader(new HashSet<>(Arrays.asList(hidden)));
+        ((Runnable) loader.loadClass(task.getName()).newInstance()).run();
+    }
+
+    static CountingLayout newItemView() {
+        CountingLayout itemView = new CountingLayout();
+        int[] ids = {TITLE, ICON, OTHER};
+        for (int id : ids) {
+            View child = new View(null);
+            child.setId(id);
+            itemView.addView(child);
+        }
+        return itemView;
+    }
+
+    /**
+     * 记录查找控件次数的条目布局。
+     */
+    static class CountingLayout extends ViewGroup {
+
+        int mLookups;
+
+        CountingLayout() {
+            super(null);
+        }
+
+        @Override
+        protected View findViewTraversal(int id) {
+            mLookups++;
+            return super.findViewTraversal(id);
+        }
+    }
+
+    @BaseRVAdapter.ItemId(LAYOUT)
+    @BaseRVAdapter.ItemViewIds({TITLE, ICON})
+    public static class GeneratedAdapter extends BaseRVAdapter<String> {
+
+        public GeneratedAdapter() {
+            super((Context) null);
+        }
+
+        @Override
+        public void onBindViewHolder(ViewHolder holder, int position, String data) {
+        }
+
+        @Override
+        protected int[] getItemViewIds() {
+            return null;
+        }
+
+        @Override
+        protected int getItemId() {
+            return 0;
+        }
+    }
+
+    @BaseRVAdapter.ItemId(LAYOUT)
+    @BaseRVAdapter.ItemViewIds({TITLE, ICON})
+    public static class FallbackAdapter extends GeneratedAdapter {
+    }
+
+    /**
+     * 在{@link IsolatedClassLoader}中创建ViewHolder。
+     */
+    public static class GeneratedPath implements Runnable {
+
+        @Override
+        public void run() {
+            GeneratedAdapter adapter = new GeneratedAdapter();
+            ViewBinder binder = ViewBinders.find(GeneratedAdapter.class);
+            for (int i = 0; i < 100; i++) {
+                CountingLayout itemView = newItemView();
+                BaseRVAdapter.ViewHolder holder = binder.createViewHolder(adapter, itemView);
+                assertSame(itemView.getChildAt(0), holder.findViewById(TITLE));
+                assertNotNull(holder.findViewById(ICON));
+            }
+        }
+    }
+
+    /**
+     * 在{@link IsolatedClassLoader}中通过适配器创建ViewHolder。
+     */
+    public static class AdapterPath implements Runnable {
+
+        @Override
+        public void run() {
+            GeneratedAdapter adapter = new GeneratedAdapter();
+            int viewType = adapter.getItemViewType(0);
+            assertEquals(LAYOUT, viewType);
+            CountingLayout itemView = newItemView();
+            adapter.getPreInflatePool().put(viewType, itemView);
+            BaseRVAdapter.ViewHolder holder = adapter.createViewHolder(null, viewType);
+            assertSame(itemView, holder.itemView);
+            assertTrue(holder.getClass().getName().startsWith(GeneratedAdapter.class.getName() + ViewBinders.SUFFIX));
+            assertSame(itemView.getChildAt(1), holder.findViewById(ICON));
+            assertEquals(2, itemView.mLookups);
+        }
+    }
+
+    public static class FallbackPath implements Runnable {
+
+        @Override
+        public void run() {
+            ViewBinders.find(FallbackAdapter.class).createViewHolder(new FallbackAdapter(), newItemView());
+        }
+    }
+
+    /**
+     * 自己加载库、替身和测试的类，其中hidden中的类加载不到。
+     */
+    private static final class IsolatedClassLoader extends URLClassLoader {
+
+        private final Set<String> mHidden;
+
+        IsolatedClassLoader(Set<String> hidden) {
+            super(new URL[]{location(BaseRVAdapter.class), location(ViewBinderTest.class)},
+                    ViewBinderTest.class.getClassLoader());
+            this.mHidden = hidden;
+        }
+
+        private static URL location(Class<?> c) {
+            return c.getProtectionDomain().getCodeSource().getLocation();
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (!name.startsWith("cn.jackwhliu.") && !name.startsWith("android.")) {
+                return super.loadClass(name, resolve);
+            }
+            if (mHidden.contains(name)) {
+                throw new ClassNotFoundException(name);
+            }
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> c = findLoadedClass(name);
+                if (c == null) {
+                    c = findClass(name);
+                }
+                if (resolve) {
+                    resolveClass(c);
+                }
+                return c;
+            }
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package cn.jackwhliu.rvadapter.lib.collection;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * 随机修改{@link ChunkedList}和{@link ArrayList}，两者的内容始终相同。块的容量取得很小，修改经常跨越块的边界。
+ *
+ * @author lwh
+ */
+public class ChunkedListTest {
+
+    private static final int OPERATIONS = 20000;
+
+    @Test
+    public void randomOperationsMatchArrayList() {
+        for (int capacity : new int[]{4, 7, 64}) {
+            run(new Random(capacity), new ChunkedList<Integer>(capacity), new ArrayList<Integer>());
+        }
+    }
+
+    @Test
+    public void defaultCapacityMatchesArrayList() {
+        run(new Random(8), new ChunkedList<Integer>(), new ArrayList<Integer>());
+    }
+
+    @Test
+    public void emptyList() {
+        ChunkedList<Integer> list = new ChunkedList<>(4);
+        assertEquals(0, list.size());
+        assertTrue(list.isEmpty());
+        assertEquals(false, list.iterator().hasNext());
+        list.subList(0, 0).clear();
+        assertEquals(0, list.size());
+        try {
+            list.get(0);
+            fail();
+        } catch (IndexOutOfBoundsException expected) {
+        }
+        try {
+            list.remove(0);
+            fail();
+        } catch (IndexOutOfBoundsException expected) {
+        }
+        list.add(0, 1);
+        list.remove(0);
+        assertEquals(0, list.size());
+        list.addAll(Arrays.asList(1, 2));
+        assertEquals(Arrays.asList(1, 2), list);
+    }
+
+    @Test
+    public void singleChunk() {
+        ChunkedList<Integer> list = new ChunkedList<>(8);
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            list.add(0, i);
+            expected.add(0, i);
+        }
+        assertEquals(expected, list);
+        list.move(0, 7);
+        expected.add(7, expected.remove(0));
+        assertEquals(expected, list);
+        list.subList(2, 6).clear();
+        expected.subList(2, 6).clear();
+        assertEquals(expected, list);
+        // 满了之后再插入会拆分
+        list.addAll(2, Arrays.asList(10, 11, 12, 13, 14, 15, 16));
+        expected.addAll(2, Arrays.asList(10, 11, 12, 13, 14, 15, 16));
+        assertEquals(expected, list);
+    }
+
+    private static void run(Random random, ChunkedList<Integer> list, List<Integer> expected) {
+        int next = 0;
+        for (int i = 0; i < OPERATIONS; i++) {
+            int size = expected.size();
+            int op = random.nextInt(10);
+            // 数据少时多插入，多时多删除，大小在0和几千之间来回变化
+            boolean grow = random.nextInt(4000) >= size;
+            if (op < 3 && (grow || size == 0)) {
+                int index = random.nextInt(size + 1);
+                list.add(index, next);
+                expected.add(index, next);
+                next++;
+            } else if (op < 4 && grow) {
+                int index = random.nextInt(size + 1);
+                List<Integer> batch = new ArrayList<>();
+                for (int n = random.nextInt(40); n > 0; n--) {
+                    batch.add(next++);
+                }
+                assertEquals(expected.addAll(index, batch), list.addAll(index, batch));
+            } else if (op < 5 && grow) {
+                list.add(next);
+                expected.add(next);
+                next++;
+            } else if (op < 6 && size > 0) {
+                int index = random.nextInt(size);
+                assertEquals(expected.remove(index), list.remove(index));
+            } else if (op < 7 && size > 0) {
+                int from = random.nextInt(size + 1);
+                int to = Math.min(size, from + random.nextInt(60));
+                list.subList(from, to).clear();
+                expected.subList(from, to).clear();
+            } else if (op < 8 && size > 0) {
+                int index = random.nextInt(size);
+                assertEquals(expected.set(index, next), list.set(index, next));
+                next++;
+            } else if (op < 9 && size > 0) {
+                int from = random.nextInt(size);
+                int to = random.nextInt(size);
+                list.move(from, to);
+                expected.add(to, expected.remove(from));
+            } else if (size > 0) {
+                // 用迭代器删除一段中每隔几个的元素
+                int start = random.nextInt(size);
+                int step = 1 + random.nextInt(5);
+                removeEvery(list.listIterator(start), step, 30);
+                removeEvery(expected.listIterator(start), step, 30);
+            }
+            verify(random, list, expected);
+        }
+        assertEquals(expected, list);
+    }
+
+    private static void removeEvery(Iterator<Integer> iterator, int step, int limit) {
+        for (int i = 0; i < limit && iterator.hasNext(); i++) {
+            iterator.next();
+            if (i % step == 0) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private static void verify(Random random, ChunkedList<Integer> list, List<Integer> expected) {
+        int size = expected.size();
+        assertEquals(size, list.size());
+        if (size == 0) {
+            return;
+        }
+        // 每次抽查一些位置，偶尔比较全部内容
+        for (int i = 0; i < 8; i++) {
+            int index = random.nextInt(size);
+            assertEquals(expected.get(index), list.get(index));
+        }
+        assertEquals(expected.get(0), list.get(0));
+        assertEquals(expected.get(size - 1), list.get(size - 1));
+        if (random.nextInt(50) == 0) {
+            assertEquals(expected, list);
+        }
+    }
+}
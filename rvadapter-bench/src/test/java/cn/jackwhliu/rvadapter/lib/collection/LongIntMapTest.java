@@ -0,0 +1,91 @@
+package cn.jackwhliu.rvadapter.lib.collection;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 随机放入和移除键，结果始终和{@link HashMap}一致，移除后同一探测链上的键仍然能找到。
+ *
+ * @author lwh
+ */
+public class LongIntMapTest {
+
+    private static final int OPERATIONS = 20000;
+
+    private static final int MISSING = Integer.MIN_VALUE;
+
+    private final Random mRandom = new Random(20);
+
+    @Test
+    public void randomOperationsMatchHashMap() {
+        LongIntMap map = new LongIntMap();
+        Map<Long, Integer> expected = new HashMap<>();
+        List<Long> keys = new ArrayList<>();
+        for (int i = 0; i < OPERATIONS; i++) {
+            int op = mRandom.nextInt(10);
+            if (op < 5 || keys.isEmpty()) {
+                // 键的范围不大，经常覆盖已有的键
+                long key = (mRandom.nextInt(512) - 256) * 0x100000001L;
+                int value = mRandom.nextInt();
+                map.put(key, value);
+                if (expected.put(key, value) == null) {
+                    keys.add(key);
+                }
+            } else if (op < 8) {
+                Long key = keys.remove(mRandom.nextInt(keys.size()));
+                assertTrue(map.remove(key));
+                expected.remove(key);
+            } else {
+                assertFalse(map.remove((mRandom.nextInt(512) + 1024) * 0x100000001L));
+            }
+            assertEquals(expected.size(), map.size());
+            if (i % 100 == 0) {
+                for (Map.Entry<Long, Integer> entry : expected.entrySet()) {
+                    assertEquals((int) entry.getValue(), map.get(entry.getKey(), MISSING));
+                }
+            }
+        }
+    }
+
+    /**
+     * 小表中的键连成探测链，移除链中间的键后，后面的键要前移到空出的槽位。
+     */
+    @Test
+    public void removeKeepsProbeChains() {
+        LongIntMap map = new LongIntMap(4);
+        for (long key = 0; key < 6; key++) {
+            map.put(key << 32, (int) key);
+        }
+        assertTrue(map.remove(2L << 32));
+        assertTrue(map.remove(0));
+        for (long key = 0; key < 6; key++) {
+            int expected = key == 0 || key == 2 ? MISSING : (int) key;
+            assertEquals(expected, map.get(key << 32, MISSING));
+        }
+        map.put(0, 10);
+        assertEquals(10, map.get(0, MISSING));
+        assertEquals(5, map.size());
+    }
+
+    @Test
+    public void clearRemovesEverything() {
+        LongIntMap map = new LongIntMap();
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i);
+        }
+        map.clear();
+        assertEquals(0, map.size());
+        assertEquals(MISSING, map.get(50, MISSING));
+        map.put(50, 1);
+        assertEquals(1, map.get(50, MISSING));
+    }
+}
@@ -0,0 +1,131 @@
+package cn.jackwhliu.rvadapter.lib.decoration;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * 分割线的合并结果和缓冲区的复用。
+ *
+ * @author lwh
+ */
+public class DividerBatchTest {
+
+    private static final float THICKNESS = 2f;
+
+    private static final int FRAMES = 1000;
+
+    private DividerBatch mBatch;
+
+    @Before
+    public void setUp() {
+        mBatch = new DividerBatch();
+        mBatch.reset(THICKNESS);
+    }
+
+    @Test
+    public void emptyFrameDrawsNothing() {
+        assertEquals(0, mBatch.build());
+        mBatch.addRect(10, 10, 10, 12);
+        mBatch.addRect(10, 12, 20, 12);
+        assertEquals(0, mBatch.build());
+    }
+
+    @Test
+    public void mergesTouchingAndOverlappingSegments() {
+        // 同一条横线上相接、重叠和分开的线段，顺序打乱
+        mBatch.addRect(120, 10, 150, 12);
+        mBatch.addRect(50, 10, 100, 12);
+        mBatch.addRect(0, 10, 50, 12);
+        mBatch.addRect(90, 10, 110, 12);
+        // 另一条横线
+        mBatch.addRect(0, 30, 50, 32);
+        // 同一条竖线上相接的线段
+        mBatch.addRect(40, 10, 42, 30);
+        mBatch.addRect(40, 0, 42, 10);
+        assertLines(
+                0, 11, 110, 11,
+                120, 11, 150, 11,
+                0, 31, 50, 31,
+                41, 0, 41, 30);
+    }
+
+    @Test
+    public void gridOfCellsCollapsesToOneLinePerRowAndColumn() {
+        // 3x3的网格，每个格子画下边和右边的分割线
+        int cell = 100;
+        for (int row = 0; row < 3; row++) {
+            for (int column = 0; column < 3; column++) {
+                int left = column * (cell + 2);
+                int top = row * (cell + 2);
+                mBatch.addRect(left, top + cell, left + cell + 2, top + cell + 2);
+                mBatch.addRect(left + cell, top, left + cell + 2, top + cell);
+            }
+        }
+        // 横线包含了交叉处，每行连成一条；竖线在交叉处断开，每格一段
+        assertEquals(3 * 4 + 9 * 4, mBatch.build());
+        float[] lines = mBatch.getLines();
+        assertArrayEquals(new float[]{0, 101, 306, 101}, Arrays.copyOf(lines, 4), 0f);
+    }
+
+    @Test
+    public void resetStartsANewFrame() {
+        mBatch.addRect(0, 10, 50, 12);
+        assertEquals(4, mBatch.build());
+        mBatch.reset(THICKNESS);
+        mBatch.addRect(0, 20, 30, 22);
+        assertLines(0, 21, 30, 21);
+    }
+
+    @Test
+    public void reusedBuffersAllocateNothingPerFrame() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        // 第一帧把缓冲区扩到足够大
+        drawFrame();
+        float[] lines = mBatch.getLines();
+        for (int i = 0; i < 100; i++) {
+            drawFrame();
+        }
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < FRAMES; i++) {
+            drawFrame();
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+        assertTrue("frames allocated " + allocated + " bytes", allocated < FRAMES);
+        assertSame(lines, mBatch.getLines());
+    }
+
+    /**
+     * 模拟一帧中20x20的网格。
+     */
+    private void drawFrame() {
+        mBatch.reset(THICKNESS);
+        for (int row = 0; row < 20; row++) {
+            for (int column = 0; column < 20; column++) {
+                float left = column * 52;
+                float top = row * 52;
+                mBatch.addRect(left, top + 50, left + 52, top + 52);
+                mBatch.addRect(left + 50, top, left + 52, top + 50);
+            }
+        }
+        mBatch.build();
+    }
+
+    private void assertLines(float... expected) {
+        assertEquals(expected.length, mBatch.build());
+        assertArrayEquals(expected, Arrays.copyOf(mBatch.getLines(), expected.length), 0f);
+    }
+}
@@ -0,0 +1,230 @@
+package cn.jackwhliu.rvadapter.lib.decoration;
+
+import android.graphics.Rect;
+import android.support.v7.widget.GridLayoutManager;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import android.view.View;
+import android.view.ViewGroup;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 网格中每个位置的行列、边缘标志和留出的空间，以及数据变化后只重新计算需要的部分。
+ *
+ * @author lwh
+ */
+public class GridItemDecorationTest {
+
+    private static final int SPACE = 6;
+
+    private static final int FIRST_ROW = SpanLayoutCache.FIRST_ROW;
+    private static final int LAST_ROW = SpanLayoutCache.LAST_ROW;
+    private static final int FIRST_COLUMN = SpanLayoutCache.FIRST_COLUMN;
+    private static final int LAST_COLUMN = SpanLayoutCache.LAST_COLUMN;
+
+    @Test
+    public void variableSpanSizes() {
+        // 3列：[1 2] [3] [1 1 1] [2]
+        SpanLayoutCache cache = new SpanLayoutCache();
+        cache.ensure(7, 3, new Sizes(1, 2, 3, 1, 1, 1, 2));
+        assertEquals(4, cache.getRowCount());
+        int[] rows = {0, 0, 1, 2, 2, 2, 3};
+        int[] columns = {0, 1, 0, 0, 1, 2, 0};
+        int[] flags = {
+                FIRST_ROW | FIRST_COLUMN,
+                FIRST_ROW | LAST_COLUMN,
+                FIRST_COLUMN | LAST_COLUMN,
+                FIRST_COLUMN,
+                0,
+                LAST_COLUMN,
+                LAST_ROW | FIRST_COLUMN | LAST_COLUMN
+        };
+        for (int position = 0; position < 7; position++) {
+            assertEquals(rows[position], cache.getRow(position));
+            assertEquals(columns[position], cache.getColumn(position));
+            assertEquals(flags[position], cache.getFlags(position));
+        }
+    }
+
+    @Test
+    public void singleColumn() {
+        SpanLayoutCache cache = new SpanLayoutCache();
+        cache.ensure(3, 1, new GridLayoutManager.DefaultSpanSizeLookup());
+        assertEquals(FIRST_ROW | FIRST_COLUMN | LAST_COLUMN, cache.getFlags(0));
+        assertEquals(FIRST_COLUMN | LAST_COLUMN, cache.getFlags(1));
+        assertEquals(LAST_ROW | FIRST_COLUMN | LAST_COLUMN, cache.getFlags(2));
+    }
+
+    @Test
+    public void fullAndPartialLastRow() {
+        SpanLayoutCache cache = new SpanLayoutCache();
+        cache.ensure(4, 2, new GridLayoutManager.DefaultSpanSizeLookup());
+        assertEquals(LAST_ROW | FIRST_COLUMN, cache.getFlags(2));
+        assertEquals(LAST_ROW | LAST_COLUMN, cache.getFlags(3));
+
+        cache.ensure(4, 3, new GridLayoutManager.DefaultSpanSizeLookup());
+        assertEquals(FIRST_ROW | LAST_COLUMN, cache.getFlags(2));
+        assertEquals(LAST_ROW | FIRST_COLUMN | LAST_COLUMN, cache.getFlags(3));
+    }
+
+    @Test
+    public void gridOffsets() {
+        Harness grid = new Harness(new GridLayoutManager(null, 3), 4);
+        GridItemDecoration inner = new GridItemDecoration(SPACE);
+        assertEquals(new Rect(0, 0, 4, 6), grid.offsets(inner, 0));
+        assertEquals(new Rect(2, 0, 2, 6), grid.offsets(inner, 1));
+        assertEquals(new Rect(4, 0, 0, 6), grid.offsets(inner, 2));
+        assertEquals(new Rect(0, 0, 4, 0), grid.offsets(inner, 3));
+
+        GridItemDecoration full = new GridItemDecoration(SPACE, 0xff000000, 1);
+        assertEquals(new Rect(6, 6, 2, 6), grid.offsets(full, 0));
+        assertEquals(new Rect(4, 6, 4, 6), grid.offsets(full, 1));
+        assertEquals(new Rect(2, 6, 6, 6), grid.offsets(full, 2));
+        assertEquals(new Rect(6, 0, 2, 6), grid.offsets(full, 3));
+    }
+
+    @Test
+    public void wideItemOffsets() {
+        GridLayoutManager layoutManager = new GridLayoutManager(null, 2);
+        layoutManager.setSpanSizeLookup(new Sizes(2, 1, 1));
+        Harness grid = new Harness(layoutManager, 3);
+        GridItemDecoration inner = new GridItemDecoration(SPACE);
+        assertEquals(new Rect(0, 0, 0, 6), grid.offsets(inner, 0));
+        assertEquals(new Rect(0, 0, 3, 0), grid.offsets(inner, 1));
+        assertEquals(new Rect(3, 0, 0, 0), grid.offsets(inner, 2));
+    }
+
+    @Test
+    public void linearOffsets() {
+        Harness vertical = new Harness(new LinearLayoutManager(null), 3);
+        Harness horizontal = new Harness(new LinearLayoutManager(null, LinearLayoutManager.HORIZONTAL, false), 3);
+        GridItemDecoration decoration = new GridItemDecoration(SPACE);
+        // 默认每个条目前后都留出空间
+        for (int position = 0; position < 3; position++) {
+            assertEquals(new Rect(0, 6, 0, 6), vertical.offsets(decoration, position));
+            assertEquals(new Rect(6, 0, 6, 0), horizontal.offsets(decoration, position));
+        }
+        decoration.setLinearBetweenItemsOnly(true);
+        assertEquals(new Rect(0, 0, 0, 6), vertical.offsets(decoration, 1));
+        assertEquals(new Rect(0, 0, 0, 0), vertical.offsets(decoration, 2));
+        assertEquals(new Rect(0, 0, 6, 0), horizontal.offsets(decoration, 1));
+        assertEquals(new Rect(0, 0, 0, 0), horizontal.offsets(decoration, 2));
+    }
+
+    @Test
+    public void rangeChangesKeepTheCache() {
+        GridLayoutManager layoutManager = new GridLayoutManager(null, 3);
+        Sizes sizes = new Sizes();
+        layoutManager.setSpanSizeLookup(sizes);
+        Harness grid = new Harness(layoutManager, 100);
+        GridItemDecoration decoration = new GridItemDecoration(SPACE);
+        grid.offsets(decoration, 0);
+        assertEquals(100, sizes.mLookups);
+
+        // 局部刷新不重新计算
+        grid.mAdapter.notifyItemRangeChanged(10, 20, "payload");
+        grid.offsets(decoration, 0);
+        assertEquals(100, sizes.mLookups);
+
+        // 追加一页只计算新的条目
+        grid.mAdapter.append(50);
+        grid.offsets(decoration, 0);
+        assertEquals(150, sizes.mLookups);
+
+        // span数依赖数据时从刷新的位置开始重新计算
+        decoration.setSpanSizeDependsOnData(true);
+        grid.offsets(decoration, 0);
+        assertEquals(300, sizes.mLookups);
+        grid.mAdapter.notifyItemChanged(140);
+        grid.offsets(decoration, 0);
+        assertEquals(310, sizes.mLookups);
+    }
+
+    /**
+     * 按位置返回span数，超出范围的位置占1个span，并记录查询的次数。
+     */
+    private static class Sizes extends GridLayoutManager.SpanSizeLookup {
+
+        private final int[] mSizes;
+
+        int mLookups;
+
+        Sizes(int... sizes) {
+            this.mSizes = sizes;
+        }
+
+        @Override
+        public int getSpanSize(int position) {
+            mLookups++;
+            return position < mSizes.length ? mSizes[position] : 1;
+        }
+    }
+
+    /**
+     * 一个RV和它的条目，条目按下标对应适配器中的位置。
+     */
+    private static class Harness {
+
+        final CountAdapter mAdapter;
+
+        final List<View> mChildren = new ArrayList<>();
+
+        final RecyclerView mRecyclerView = new RecyclerView(null) {
+
+            @Override
+            public int getChildAdapterPosition(View child) {
+                return mChildren.indexOf(child);
+            }
+        };
+
+        final Rect mRect = new Rect();
+
+        Harness(RecyclerView.LayoutManager layoutManager, int itemCount) {
+            mAdapter = new CountAdapter(itemCount);
+            mRecyclerView.setLayoutManager(layoutManager);
+            mRecyclerView.setAdapter(mAdapter);
+        }
+
+        Rect offsets(GridItemDecoration decoration, int position) {
+            while (mChildren.size() <= position) {
+                mChildren.add(new View(null));
+            }
+            decoration.getItemOffsets(mRect, mChildren.get(position), mRecyclerView, new RecyclerView.State());
+            return new Rect(mRect.left, mRect.top, mRect.right, mRect.bottom);
+        }
+    }
+
+    private static class CountAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder> {
+
+        private int mCount;
+
+        CountAdapter(int count) {
+            this.mCount = count;
+        }
+
+        void append(int count) {
+            mCount += count;
+            notifyItemRangeInserted(mCount - count, count);
+        }
+
+        @Override
+        public RecyclerView.ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void onBindViewHolder(RecyclerView.ViewHolder holder, int position) {
+        }
+
+        @Override
+        public int getItemCount() {
+            return mCount;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package cn.jackwhliu.rvadapter.compiler;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * 在编译期读取适配器上的{@code @ItemId}和{@code @ItemViewIds}，为每个适配器生成
+ * “适配器类名_ViewBinder”，运行时就不再需要反射读取注解。
+ *
+ * @author lwh
+ */
+public class ViewBinderProcessor extends AbstractProcessor {
+
+    private static final String ADAPTER_CLASS = "cn.jackwhliu.rvadapter.lib.BaseRVAdapter";
+    private static final String ITEM_ID = ADAPTER_CLASS + ".ItemId";
+    private static final String ITEM_VIEW_IDS = ADAPTER_CLASS + ".ItemViewIds";
+    private static final String SUFFIX = "_ViewBinder";
+
+    private Elements mElements;
+    private Types mTypes;
+    private Filer mFiler;
+    private Messager mMessager;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        mElements = processingEnv.getElementUtils();
+        mTypes = processingEnv.getTypeUtils();
+        mFiler = processingEnv.getFiler();
+        mMessager = processingEnv.getMessager();
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        Set<String> types = new LinkedHashSet<>();
+        types.add(ITEM_ID);
+        types.add(ITEM_VIEW_IDS);
+        return types;
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement adapterType = mElements.getTypeElement(ADAPTER_CLASS);
+        if (adapterType == null) {
+            return false;
+        }
+        Set<TypeElement> adapters = new LinkedHashSet<>();
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() != ElementKind.CLASS || !mTypes.isSubtype(
+                        mTypes.erasure(element.asType()), mTypes.erasure(adapterType.asType()))) {
+                    mMessager.printMessage(Diagnostic.Kind.ERROR, "@" + annotation.getSimpleName()
+                            + " can only be used on subclasses of " + ADAPTER_CLASS, element);
+                    continue;
+                }
+                adapters.add((TypeElement) element);
+            }
+        }
+        for (TypeElement adapter : adapters) {
+            try {
+                writeBinder(adapter);
+            } catch (IOException e) {
+                mMessager.printMessage(Diagnostic.Kind.ERROR,
+                        "Unable to write view binder: " + e.getMessage(), adapter);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 生成一个适配器的绑定器和ViewHolder，控件保存在ViewHolder的字段中，查找逐个展开，不经过循环和数组。
+     *
+     * @param adapter 适配器的类型。
+     */
+    @SuppressWarnings("unchecked")
+    private void writeBinder(TypeElement adapter) throws IOException {
+        String packageName = mElements.getPackageOf(adapter).getQualifiedName().toString();
+        String qualifiedName = adapter.getQualifiedName().toString();
+        String binaryName = packageName.isEmpty() ? qualifiedName
+                : qualifiedName.substring(packageName.length() + 1);
+        String binderName = binaryName.replace('.', '$') + SUFFIX;
+        AnnotationValue itemId = findValue(adapter, ITEM_ID);
+        AnnotationValue itemViewIds = findValue(adapter, ITEM_VIEW_IDS);
+        List<String> viewIds = new ArrayList<>();
+        if (itemViewIds != null) {
+            for (AnnotationValue viewId : (List<? extends AnnotationValue>) itemViewIds.getValue()) {
+                String id = hex((Integer) viewId.getValue());
+                if (!viewIds.contains(id)) {
+                    viewIds.add(id);
+                }
+            }
+        }
+
+        StringBuilder code = new StringBuilder();
+        code.append("// Generated code from rvadapter-compiler. Do not modify!\n");
+        if (!packageName.isEmpty()) {
+            code.append("package ").append(packageName).append(";\n\n");
+        }
+        code.append("import android.view.View;\n\n")
+                .append("import cn.jackwhliu.rvadapter.lib.BaseRVAdapter;\n")
+                .append("import cn.jackwhliu.rvadapter.lib.ViewBinder;\n\n")
+                .append("public final class ").append(binderName).append(" implements ViewBinder {\n\n");
+        code.append("    private static final int ITEM_ID = ")
+                .append(itemId != null ? hex((Integer) itemId.getValue()) : "0").append(";\n\n");
+        if (itemViewIds != null) {
+            code.append("    private static final int[] ITEM_VIEW_IDS = {");
+            for (int i = 0; i < viewIds.size(); i++) {
+                code.append(i == 0 ? "" : ", ").append(viewIds.get(i));
+            }
+            code.append("};\n\n");
+        } else {
+            code.append("    private static final int[] ITEM_VIEW_IDS = null;\n\n");
+        }
+        code.append("    @Override\n")
+                .append("    public int getItemId() {\n")
+                .append("        return ITEM_ID;\n")
+                .append("    }\n\n")
+                .append("    @Override\n")
+                .append("    public int[] getItemViewIds() {\n")
+                .append("        return ITEM_VIEW_IDS;\n")
+                .append("    }\n\n")
+                .append("    @Override\n")
+                .append("    public BaseRVAdapter.ViewHolder createViewHolder(BaseRVAdapter<?> adapter, View itemView) {\n")
+                .append("        return new Holder(adapter, itemView);\n")
+                .append("    }\n\n");
+        writeHolder(code, viewIds);
+        code.append("}\n");
+
+        String fileName = packageName.isEmpty() ? binderName : packageName + "." + binderName;
+        JavaFileObject file = mFiler.createSourceFile(fileName, adapter);
+        Writer writer = file.openWriter();
+        try {
+            writer.write(code.toString());
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * 生成ViewHolder，每个控件一个字段，按id查找控件时用switch直接返回字段，其他id交给父类。
+     * 注解中只有控件的id，没有控件的类型，所以字段的类型都是View。
+     *
+     * @param code 生成的代码。
+     * @param viewIds 控件的id，已经去重。
+     */
+    private void writeHolder(StringBuilder code, List<String> viewIds) {
+        code.append("    @SuppressWarnings(\"unchecked\")\n")
+                .append("    static final class Holder extends BaseRVAdapter.ViewHolder {\n\n");
+        for (int i = 0; i < viewIds.size(); i++) {
+            code.append("        private final View mView").append(i).append(";\n");
+        }
+        if (!viewIds.isEmpty()) {
+            code.append("\n");
+        }
+        code.append("        Holder(BaseRVAdapter<?> adapter, View itemView) {\n")
+                .append("            adapter.super(itemView, null);\n");
+        for (int i = 0; i < viewIds.size(); i++) {
+            code.append("            mView").append(i).append(" = itemView.findViewById(")
+                    .append(viewIds.get(i)).append(");\n");
+        }
+        code.append("        }\n");
+        if (!viewIds.isEmpty()) {
+            code.append("\n")
+                    .append("        @Override\n")
+                    .append("        public View findViewById(int id) {\n")
+                    .append("            switch (id) {\n");
+            for (int i = 0; i < viewIds.size(); i++) {
+                code.append("                case ").append(viewIds.get(i)).append(":\n")
+                        .append("                    return mView").append(i).append(";\n");
+            }
+            code.append("                default:\n")
+                    .append("                    return super.findViewById(id);\n")
+                    .append("            }\n")
+                    .append("        }\n");
+        }
+        code.append("    }\n");
+    }
+
+    /**
+     * 读取类上某个注解的value。
+     *
+     * @param type 类。
+     * @param annotationName 注解的全名。
+     * @return 没有该注解时返回null。
+     */
+    private AnnotationValue findValue(TypeElement type, String annotationName) {
+        for (AnnotationMirror mirror : type.getAnnotationMirrors()) {
+            TypeElement annotation = (TypeElement) mirror.getAnnotationType().asElement();
+            if (!annotation.getQualifiedName().contentEquals(annotationName)) {
+                continue;
+            }
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                    : mirror.getElementValues().entrySet()) {
+                if (entry.getKey().getSimpleName().contentEquals("value")) {
+                    return entry.getValue();
+                }
+            }
+        }
+        return null;
+    }
+
+    private static String hex(int value) {
+        return "0x" + Integer.toHexString(value);
+    }
+}
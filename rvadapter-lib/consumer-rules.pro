@@ -0,0 +1,11 @@
+# rvadapter-compiler生成的绑定器是按类名查找的
+-keep class * implements cn.jackwhliu.rvadapter.lib.ViewBinder {
+    public <init>();
+}
+
+# 绑定器的类名由适配器的类名加后缀得到，使用了注解的适配器不能被混淆类名
+-keepnames @cn.jackwhliu.rvadapter.lib.BaseRVAdapter$ItemId class *
+-keepnames @cn.jackwhliu.rvadapter.lib.BaseRVAdapter$ItemViewIds class *
+
+# 没有生成绑定器时在运行时读取注解
+-keepattributes RuntimeVisibleAnnotations
@@ -0,0 +1,102 @@
+package cn.jackwhliu.rvadapter.lib;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 适配器共用的后台线程池和主线程。
+ *
+ * @author lwh
+ */
+final class AdapterExecutors {
+
+    /**
+     * 后台线程的数量。
+     */
+    private static final int THREAD_COUNT = 2;
+
+    private static final ExecutorService BACKGROUND = Executors.newFixedThreadPool(THREAD_COUNT,
+            new NamedThreadFactory("rvadapter-"));
+
+    /**
+     * 解码图片的线程池，和{@link #BACKGROUND}分开，图片较多时不会拖慢差异计算和数据加载。
+     */
+    private static final ExecutorService IMAGE_DECODER = Executors.newFixedThreadPool(THREAD_COUNT,
+            new NamedThreadFactory("rvadapter-image-"));
+
+    private static final Handler MAIN_HANDLER = new Handler(Looper.getMainLooper());
+
+    private static final Executor MAIN_THREAD = new Executor() {
+
+        @Override
+        public void execute(Runnable command) {
+            MAIN_HANDLER.post(command);
+        }
+    };
+
+    private AdapterExecutors() {
+    }
+
+    /**
+     * 用来计算差异、加载数据等耗时操作的线程池。
+     */
+    static Executor background() {
+        return BACKGROUND;
+    }
+
+    /**
+     * 解码图片的线程池。
+     */
+    static Executor imageDecoder() {
+        return IMAGE_DECODER;
+    }
+
+    /**
+     * 把任务投递到主线程。
+     */
+    static Executor mainThread() {
+        return MAIN_THREAD;
+    }
+
+    /**
+     * 主线程的Handler。
+     */
+    static Handler mainHandler() {
+        return MAIN_HANDLER;
+    }
+
+    /**
+     * 当前是否在主线程。
+     */
+    static boolean isMainThread() {
+        return Looper.myLooper() == Looper.getMainLooper();
+    }
+
+    /**
+     * 创建低优先级的守护线程。
+     */
+    private static final class NamedThreadFactory implements ThreadFactory {
+
+        private final String mPrefix;
+
+        private final AtomicInteger mCount = new AtomicInteger();
+
+        NamedThreadFactory(String prefix) {
+            this.mPrefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, mPrefix + mCount.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        }
+    }
+}
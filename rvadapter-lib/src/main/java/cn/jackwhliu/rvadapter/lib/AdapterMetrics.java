@@ -0,0 +1,315 @@
+package cn.jackwhliu.rvadapter.lib;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 按viewType统计创建和绑定ViewHolder的耗时，通过{@link BaseRVAdapter#setMetrics(AdapterMetrics)}启用。
+ * 创建的耗时包括加载布局和缓存控件，绑定的耗时只包括{@link BaseRVAdapter#onBindViewHolder(BaseRVAdapter.ViewHolder, int, Object)}。
+ * 记录时不加锁，可以随时在任何线程调用{@link #snapshot()}读取。
+ *
+ * @author lwh
+ */
+public class AdapterMetrics {
+
+    /**
+     * 创建ViewHolder。
+     */
+    public static final int PHASE_CREATE = 0;
+
+    /**
+     * 绑定数据。
+     */
+    public static final int PHASE_BIND = 1;
+
+    /**
+     * 默认的帧时间预算，60帧每秒。
+     */
+    public static final long DEFAULT_FRAME_BUDGET_NANOS = 16666667L;
+
+    private final long mFrameBudgetNanos;
+
+    private volatile OnFrameBudgetOverrunListener mOverrunListener;
+
+    /**
+     * 所有viewType的统计，只在出现新的viewType时整体替换。
+     */
+    private volatile ViewTypeMetrics[] mViewTypes = new ViewTypeMetrics[0];
+
+    /**
+     * 上次使用的统计，大多数列表只有一种或连续相同的viewType。
+     */
+    private volatile ViewTypeMetrics mLastViewType;
+
+    public AdapterMetrics() {
+        this(DEFAULT_FRAME_BUDGET_NANOS);
+    }
+
+    /**
+     * @param frameBudgetNanos 一帧的时间预算，单次创建或绑定超过它时计为一次超时。
+     */
+    public AdapterMetrics(long frameBudgetNanos) {
+        if (frameBudgetNanos <= 0) {
+            throw new IllegalArgumentException("frameBudgetNanos must be positive.");
+        }
+        this.mFrameBudgetNanos = frameBudgetNanos;
+    }
+
+    public long getFrameBudgetNanos() {
+        return mFrameBudgetNanos;
+    }
+
+    /**
+     * 设置单次创建或绑定超过帧时间预算时的监听，在发生的线程回调，通常是主线程。
+     *
+     * @param listener 超时的监听。
+     */
+    public void setOnFrameBudgetOverrunListener(OnFrameBudgetOverrunListener listener) {
+        this.mOverrunListener = listener;
+    }
+
+    /**
+     * 记录一次创建。
+     *
+     * @param viewType 条目的viewType。
+     * @param nanos 耗时。
+     * @param preInflated 是否使用了预加载的布局。
+     */
+    void recordCreate(int viewType, long nanos, boolean preInflated) {
+        ViewTypeMetrics metrics = obtain(viewType);
+        metrics.mCreate.record(nanos);
+        if (preInflated) {
+            metrics.mPreInflated.incrementAndGet();
+        }
+        if (nanos > mFrameBudgetNanos) {
+            metrics.mCreateOverruns.incrementAndGet();
+            dispatchOverrun(viewType, PHASE_CREATE, nanos);
+        }
+    }
+
+    /**
+     * 记录一次绑定。
+     *
+     * @param viewType 条目的viewType。
+     * @param nanos 耗时。
+     */
+    void recordBind(int viewType, long nanos) {
+        ViewTypeMetrics metrics = obtain(viewType);
+        metrics.mBind.record(nanos);
+        if (nanos > mFrameBudgetNanos) {
+            metrics.mBindOverruns.incrementAndGet();
+            dispatchOverrun(viewType, PHASE_BIND, nanos);
+        }
+    }
+
+    private void dispatchOverrun(int viewType, int phase, long nanos) {
+        OnFrameBudgetOverrunListener listener = mOverrunListener;
+        if (listener != null) {
+            listener.onFrameBudgetOverrun(viewType, phase, nanos, mFrameBudgetNanos);
+        }
+    }
+
+    private ViewTypeMetrics obtain(int viewType) {
+        ViewTypeMetrics metrics = mLastViewType;
+        if (metrics != null && metrics.mViewType == viewType) {
+            return metrics;
+        }
+        metrics = find(mViewTypes, viewType);
+        if (metrics == null) {
+            synchronized (this) {
+                ViewTypeMetrics[] viewTypes = mViewTypes;
+                metrics = find(viewTypes, viewType);
+                if (metrics == null) {
+                    metrics = new ViewTypeMetrics(viewType);
+                    ViewTypeMetrics[] newViewTypes = new ViewTypeMetrics[viewTypes.length + 1];
+                    System.arraycopy(viewTypes, 0, newViewTypes, 0, viewTypes.length);
+                    newViewTypes[viewTypes.length] = metrics;
+                    mViewTypes = newViewTypes;
+                }
+            }
+        }
+        mLastViewType = metrics;
+        return metrics;
+    }
+
+    private static ViewTypeMetrics find(ViewTypeMetrics[] viewTypes, int viewType) {
+        for (ViewTypeMetrics metrics : viewTypes) {
+            if (metrics.mViewType == viewType) {
+                return metrics;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 读取当前的统计。
+     *
+     * @return 每种viewType一项，按第一次出现的顺序排列。
+     */
+    public List<ViewTypeStats> snapshot() {
+        ViewTypeMetrics[] viewTypes = mViewTypes;
+        List<ViewTypeStats> stats = new ArrayList<>(viewTypes.length);
+        for (ViewTypeMetrics metrics : viewTypes) {
+            stats.add(new ViewTypeStats(metrics));
+        }
+        return Collections.unmodifiableList(stats);
+    }
+
+    /**
+     * 清空所有的统计。
+     */
+    public void reset() {
+        for (ViewTypeMetrics metrics : mViewTypes) {
+            metrics.mCreate.reset();
+            metrics.mBind.reset();
+            metrics.mPreInflated.set(0);
+            metrics.mCreateOverruns.set(0);
+            metrics.mBindOverruns.set(0);
+        }
+    }
+
+    /**
+     * 单次创建或绑定超过帧时间预算时的监听。
+     */
+    public interface OnFrameBudgetOverrunListener {
+
+        /**
+         * @param viewType 条目的viewType。
+         * @param phase {@link #PHASE_CREATE}或{@link #PHASE_BIND}。
+         * @param nanos 这次的耗时。
+         * @param budgetNanos 帧时间预算。
+         */
+        void onFrameBudgetOverrun(int viewType, int phase, long nanos, long budgetNanos);
+    }
+
+    /**
+     * 一种viewType的计数器。
+     */
+    private static class ViewTypeMetrics {
+
+        final int mViewType;
+        final LatencyHistogram mCreate = new LatencyHistogram();
+        final LatencyHistogram mBind = new LatencyHistogram();
+        final AtomicLong mPreInflated = new AtomicLong();
+        final AtomicLong mCreateOverruns = new AtomicLong();
+        final AtomicLong mBindOverruns = new AtomicLong();
+
+        ViewTypeMetrics(int viewType) {
+            this.mViewType = viewType;
+        }
+    }
+
+    /**
+     * 一种viewType在某一时刻的统计，不会再变化。
+     */
+    public static class ViewTypeStats {
+
+        private final int mViewType;
+        private final long[] mCreateCounts;
+        private final long mCreateCount;
+        private final long mMaxCreateNanos;
+        private final long[] mBindCounts;
+        private final long mBindCount;
+        private final long mMaxBindNanos;
+        private final long mPreInflatedCount;
+        private final long mCreateOverruns;
+        private final long mBindOverruns;
+
+        ViewTypeStats(ViewTypeMetrics metrics) {
+            mViewType = metrics.mViewType;
+            mCreateCounts = metrics.mCreate.snapshot();
+            mCreateCount = LatencyHistogram.sum(mCreateCounts);
+            mMaxCreateNanos = metrics.mCreate.getMax();
+            mBindCounts = metrics.mBind.snapshot();
+            mBindCount = LatencyHistogram.sum(mBindCounts);
+            mMaxBindNanos = metrics.mBind.getMax();
+            mPreInflatedCount = metrics.mPreInflated.get();
+            mCreateOverruns = metrics.mCreateOverruns.get();
+            mBindOverruns = metrics.mBindOverruns.get();
+        }
+
+        public int getViewType() {
+            return mViewType;
+        }
+
+        public long getCreateCount() {
+            return mCreateCount;
+        }
+
+        public long getBindCount() {
+            return mBindCount;
+        }
+
+        /**
+         * 创建耗时的百分位数，例如50、90、99。
+         *
+         * @param percentile 百分位，0到100。
+         * @return 纳秒，误差不超过12.5%。
+         */
+        public long getCreateNanos(double percentile) {
+            return LatencyHistogram.valueAt(mCreateCounts, mCreateCount, mMaxCreateNanos, percentile);
+        }
+
+        /**
+         * 绑定耗时的百分位数，例如50、90、99。
+         *
+         * @param percentile 百分位，0到100。
+         * @return 纳秒，误差不超过12.5%。
+         */
+        public long getBindNanos(double percentile) {
+            return LatencyHistogram.valueAt(mBindCounts, mBindCount, mMaxBindNanos, percentile);
+        }
+
+        public long getMaxCreateNanos() {
+            return mMaxCreateNanos;
+        }
+
+        public long getMaxBindNanos() {
+            return mMaxBindNanos;
+        }
+
+        /**
+         * 绑定时复用已有ViewHolder的比例，每次创建都意味着缓存中没有可用的ViewHolder。
+         */
+        public float getHolderReuseRate() {
+            if (mBindCount == 0) {
+                return 0f;
+            }
+            return Math.max(0f, (float) (mBindCount - mCreateCount) / mBindCount);
+        }
+
+        /**
+         * 创建时使用了{@link BaseRVAdapter#warmUp(android.view.ViewGroup, int, int)}预加载的布局的比例。
+         */
+        public float getPreInflateHitRate() {
+            return mCreateCount == 0 ? 0f : (float) mPreInflatedCount / mCreateCount;
+        }
+
+        /**
+         * 单次创建超过帧时间预算的次数。
+         */
+        public long getCreateOverruns() {
+            return mCreateOverruns;
+        }
+
+        /**
+         * 单次绑定超过帧时间预算的次数。
+         */
+        public long getBindOverruns() {
+            return mBindOverruns;
+        }
+
+        @Override
+        public String toString() {
+            return "ViewTypeStats{viewType=" + mViewType
+                    + ", create=" + mCreateCount + " p50/p90/p99=" + getCreateNanos(50) + "/"
+                    + getCreateNanos(90) + "/" + getCreateNanos(99) + "ns"
+                    + ", bind=" + mBindCount + " p50/p90/p99=" + getBindNanos(50) + "/"
+                    + getBindNanos(90) + "/" + getBindNanos(99) + "ns"
+                    + ", reuse=" + getHolderReuseRate()
+                    + ", overruns=" + mCreateOverruns + "/" + mBindOverruns + "}";
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package cn.jackwhliu.rvadapter.lib;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+
+/**
+ * 适配器数据的快照，保存到文件后可以在进程重启时直接恢复显示，不用重新请求和转换数据。
+ * 条目通过{@link BaseRVAdapter.SnapshotCodec}编码成紧凑的二进制格式，恢复时用内存映射打开文件，
+ * 只读取文件头，条目在{@link BaseRVAdapter#getData(int)}时才解码，恢复的耗时和条目数量无关。
+ * <p>
+ * 文件格式：文件头（魔数、格式版本、编码版本、条数、滚动位置、偏移表位置），依次排列的条目，
+ * 最后是条数加一个int的偏移表，第i个条目在[偏移表[i], 偏移表[i + 1])，数字都是大端序。
+ *
+ * @author lwh
+ * @param <BEAN> 适配的数据类型。
+ */
+public final class AdapterSnapshot<BEAN> {
+
+    private static final int MAGIC = 0x52565331;
+
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * 文件头的字节数。
+     */
+    static final int HEADER_SIZE = 28;
+
+    private final SnapshotList<BEAN> mDatas;
+
+    private final int mAnchorPosition;
+
+    private final int mAnchorOffset;
+
+    private AdapterSnapshot(SnapshotList<BEAN> datas, int anchorPosition, int anchorOffset) {
+        this.mDatas = datas;
+        this.mAnchorPosition = anchorPosition;
+        this.mAnchorOffset = anchorOffset;
+    }
+
+    /**
+     * 把数据写入快照文件，先写到临时文件再替换，写入失败时原来的快照不受影响。数据量大时应在后台线程调用，
+     * 调用期间数据不能被修改。
+     *
+     * @param file 快照文件。
+     * @param datas 要保存的数据。
+     * @param codec 条目的编码。
+     * @param anchorPosition 恢复后滚动到的位置，通常是第一个可见条目的位置。
+     * @param anchorOffset 该条目顶部相对RV顶部的偏移，用于{@code LinearLayoutManager#scrollToPositionWithOffset}。
+     */
+    public static <BEAN> void write(File file, List<BEAN> datas, BaseRVAdapter.SnapshotCodec<BEAN> codec,
+                                    int anchorPosition, int anchorOffset) throws IOException {
+        File temp = new File(file.getPath() + ".tmp");
+        int count = datas.size();
+        int[] offsets = new int[count + 1];
+        FileOutputStream fos = new FileOutputStream(temp);
+        boolean success = false;
+        try {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fos, 64 * 1024));
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(codec.getVersion());
+            out.writeInt(count);
+            out.writeInt(anchorPosition);
+            out.writeInt(anchorOffset);
+            // 偏移表的位置写完条目后再回填
+            out.writeInt(0);
+            for (int i = 0; i < count; i++) {
+                offsets[i] = out.size();
+                codec.encode(datas.get(i), out);
+            }
+            offsets[count] = out.size();
+            for (int i = 0; i <= count; i++) {
+                out.writeInt(offsets[i]);
+            }
+            out.flush();
+            if (out.size() == Integer.MAX_VALUE) {
+                // DataOutputStream的计数到上限后不再增加，偏移已经不可靠
+                throw new IOException("Snapshot exceeds 2GB");
+            }
+            ByteBuffer tableOffset = ByteBuffer.allocate(4);
+            tableOffset.putInt(0, offsets[count]);
+            fos.getChannel().write(tableOffset, HEADER_SIZE - 4);
+            fos.getFD().sync();
+            success = true;
+        } finally {
+            fos.close();
+            if (!success) {
+                temp.delete();
+            }
+        }
+        if (!temp.renameTo(file)) {
+            temp.delete();
+            throw new IOException("Failed to rename " + temp + " to " + file);
+        }
+    }
+
+    /**
+     * 用内存映射打开快照文件，只检查文件头，不解码任何条目。
+     *
+     * @param file 快照文件。
+     * @param codec 条目的编码，需要和写入时的版本相同。
+     * @return 快照，文件不存在或者编码版本不同时返回null。
+     * @throws IOException 文件损坏或者读取失败。
+     */
+    public static <BEAN> AdapterSnapshot<BEAN> read(File file, BaseRVAdapter.SnapshotCodec<BEAN> codec)
+            throws IOException {
+        if (!file.isFile()) {
+            return null;
+        }
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        MappedByteBuffer buffer;
+        try {
+            long length = raf.length();
+            if (length < HEADER_SIZE || length > Integer.MAX_VALUE) {
+                throw new IOException("Invalid snapshot length: " + length);
+            }
+            // 映射在关闭文件后仍然有效
+            buffer = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, length);
+        } finally {
+            raf.close();
+        }
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IOException("Not a snapshot file: " + file);
+        }
+        if (buffer.getInt(8) != codec.getVersion()) {
+            return null;
+        }
+        int count = buffer.getInt(12);
+        int tableOffset = buffer.getInt(24);
+        if (count < 0 || tableOffset < HEADER_SIZE
+                || (long) tableOffset + (count + 1L) * 4 != buffer.capacity()) {
+            throw new IOException("Corrupt snapshot header: " + file);
+        }
+        SnapshotList<BEAN> datas = new SnapshotList<>(buffer, codec, count, tableOffset);
+        return new AdapterSnapshot<>(datas, buffer.getInt(16), buffer.getInt(20));
+    }
+
+    /**
+     * 获取快照中的数据，只读，条目在第一次读取时解码。只能在主线程使用。
+     */
+    public List<BEAN> getDatas() {
+        return mDatas;
+    }
+
+    SnapshotList<BEAN> getSnapshotList() {
+        return mDatas;
+    }
+
+    public int size() {
+        return mDatas.size();
+    }
+
+    /**
+     * 已经解码的条目数量。
+     */
+    public int getDecodedCount() {
+        return mDatas.getDecodedCount();
+    }
+
+    /**
+     * @return 保存时的滚动位置，超出范围时已修正到最后一个条目，没有条目时为0。
+     */
+    public int getAnchorPosition() {
+        return Math.max(0, Math.min(mAnchorPosition, mDatas.size() - 1));
+    }
+
+    public int getAnchorOffset() {
+        return mAnchorOffset;
+    }
+}
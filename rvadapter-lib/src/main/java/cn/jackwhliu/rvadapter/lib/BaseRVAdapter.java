@@ -1,14 +1,29 @@
 package cn.jackwhliu.rvadapter.lib;
 
 import android.content.Context;
+import android.support.v7.util.BatchingListUpdateCallback;
+import android.support.v7.util.DiffUtil;
+import android.support.v7.util.ListUpdateCallback;
 import android.support.v7.widget.RecyclerView;
+import android.util.DisplayMetrics;
 import android.util.SparseArray;
 import android.view.LayoutInflater;
 import android.view.View;
+import android.graphics.Bitmap;
+import android.graphics.drawable.Drawable;
 import android.view.ViewGroup;
+import android.view.ViewTreeObserver;
 import android.widget.ImageView;
 import android.widget.TextView;
 
+import cn.jackwhliu.rvadapter.lib.collection.ChunkedList;
+import cn.jackwhliu.rvadapter.lib.collection.LongIntMap;
+
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
@@ -16,7 +31,11 @@ import java.lang.annotation.Target;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * 万能的{@link RecyclerView}适配器。
@@ -26,6 +45,24 @@ import java.util.List;
  */
 public abstract class BaseRVAdapter<BEAN> extends RecyclerView.Adapter<BaseRVAdapter.ViewHolder> {
 
+    /**
+     * 流式转换时第一块的条数。
+     */
+    private static final int STREAM_FIRST_CHUNK_SIZE = 32;
+
+    /**
+     * 流式转换时每块最多的条数。
+     */
+    private static final int STREAM_MAX_CHUNK_SIZE = 1024;
+
+    /**
+     * 记住的属性，和控件id一起组成{@link ViewHolder}中的key。
+     */
+    private static final int BOUND_TEXT_COLOR = 1;
+    private static final int BOUND_VISIBILITY = 2;
+    private static final int BOUND_ENABLED = 3;
+    private static final int BOUND_IMAGE_RESOURCE = 4;
+
     /**
      * 用来加载条目的布局。
      */
@@ -34,7 +71,7 @@ public abstract class BaseRVAdapter<BEAN> extends RecyclerView.Adapter<BaseRVAda
     /**
      * 数据。
      */
-    private volatile ArrayList<BEAN> mDatas;
+    private volatile List<BEAN> mDatas;
 
     /**
      * 上下文。
@@ -56,6 +93,208 @@ public abstract class BaseRVAdapter<BEAN> extends RecyclerView.Adapter<BaseRVAda
      */
     private OnItemLongClickListener mOnItemLongClickListener;
 
+    /**
+     * 条目子控件的点击事件，key为控件的id。
+     */
+    private final SparseArray<OnItemChildClickListener> mOnItemChildClickListeners = new SparseArray<>();
+
+    /**
+     * 条目子控件的长按事件，key为控件的id。
+     */
+    private final SparseArray<OnItemChildLongClickListener> mOnItemChildLongClickListeners =
+            new SparseArray<>();
+
+    /**
+     * 监听器的版本，每次设置监听器加一，ViewHolder据此判断是否需要重新挂载监听器。
+     */
+    private int mListenerVersion;
+
+    /**
+     * 多种条目类型的注册表。
+     */
+    private final ItemViewDelegateManager<BEAN> mDelegateManager = new ItemViewDelegateManager<>();
+
+    /**
+     * 共用的缓存池。
+     */
+    private RecyclerView.RecycledViewPool mRecycledViewPool;
+
+    /**
+     * 后台预加载的条目布局，调用{@link #warmUp(ViewGroup, int, int)}后才会创建。
+     */
+    private volatile PreInflatePool mPreInflatePool;
+
+    /**
+     * 分页模式下的数据，为null时使用{@link #mDatas}。
+     */
+    private PagedList<BEAN> mPagedList;
+
+    /**
+     * 直接通知RecyclerView的回调。
+     */
+    private final ListUpdateCallback mAdapterCallback = new ListUpdateCallback() {
+
+        @Override
+        public void onInserted(int position, int count) {
+            notifyItemRangeInserted(position, count);
+        }
+
+        @Override
+        public void onRemoved(int position, int count) {
+            notifyItemRangeRemoved(position, count);
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+            notifyItemMoved(fromPosition, toPosition);
+        }
+
+        @Override
+        public void onChanged(int position, int count, Object payload) {
+            notifyItemRangeChanged(position, count, payload);
+        }
+    };
+
+    /**
+     * 修改数据后使用的回调，先维护id索引再转给{@link #mBatchCallback}或{@link #mAdapterCallback}。
+     */
+    private final ListUpdateCallback mUpdateCallback = new ListUpdateCallback() {
+
+        @Override
+        public void onInserted(int position, int count) {
+            if (mKeyIndex != null) {
+                mKeyIndex.onInserted(position, count);
+            }
+            getNotifyCallback().onInserted(position, count);
+        }
+
+        @Override
+        public void onRemoved(int position, int count) {
+            if (mKeyIndex != null) {
+                mKeyIndex.onRemoved(position, count);
+            }
+            getNotifyCallback().onRemoved(position, count);
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+            if (mKeyIndex != null) {
+                mKeyIndex.onMoved(fromPosition, toPosition);
+            }
+            getNotifyCallback().onMoved(fromPosition, toPosition);
+        }
+
+        @Override
+        public void onChanged(int position, int count, Object payload) {
+            getNotifyCallback().onChanged(position, count, payload);
+        }
+    };
+
+    /**
+     * {@link #beginBatch()}之后记录并合并通知的回调。
+     */
+    private BatchingListUpdateCallback mBatchCallback;
+
+    /**
+     * {@link #beginBatch()}的嵌套层数。
+     */
+    private int mBatchDepth;
+
+    /**
+     * 条目布局和控件id的绑定器，第一次创建ViewHolder时查找。
+     */
+    private ViewBinder mViewBinder;
+
+    /**
+     * {@link #submitList(List)}用来比较条目的回调。
+     */
+    private ItemCallback<BEAN> mItemCallback;
+
+    /**
+     * 计算条目变化部分的回调。
+     */
+    private PayloadCallback<BEAN> mPayloadCallback;
+
+    /**
+     * 计算差异的线程池。
+     */
+    private Executor mDiffExecutor = AdapterExecutors.background();
+
+    /**
+     * 最近一次{@link #submitList(List)}的序号，用来丢弃过期的差异结果。
+     */
+    private int mMaxScheduledGeneration;
+
+    /**
+     * 获取条目id的方法，设置后启用稳定id。
+     */
+    private KeyExtractor<BEAN> mKeyExtractor;
+
+    /**
+     * 条目id到位置的索引。
+     */
+    private KeyIndex<BEAN> mKeyIndex;
+
+    /**
+     * 其他线程提交的修改。
+     */
+    private final MutationQueue<BEAN> mMutationQueue = new MutationQueue<>(this);
+
+    /**
+     * 流式转换的序号，加一后正在进行的转换都会停止。
+     */
+    private final AtomicInteger mStreamGeneration = new AtomicInteger();
+
+    /**
+     * 创建和绑定耗时的统计，为null时不计时。
+     */
+    private AdapterMetrics mMetrics;
+
+    /**
+     * 延迟绑定的调度，为null时不进行延迟绑定。
+     */
+    private DeferredBinder<BEAN> mDeferredBinder;
+
+    /**
+     * 文字筛选，为null时不能筛选。
+     */
+    private ItemFilter<BEAN> mItemFilter;
+
+    /**
+     * 排序模式的比较器，为null时不排序。
+     */
+    private Comparator<? super BEAN> mComparator;
+
+    /**
+     * ViewHolder的设置方法因为值没有变化而跳过的次数。
+     */
+    private long mSkippedViewUpdates;
+
+    /**
+     * ViewHolder的设置方法实际修改控件的次数。
+     */
+    private long mAppliedViewUpdates;
+
+    /**
+     * 加载图片用的加载器，为null时使用{@link ImageLoader#getDefault()}。
+     */
+    private ImageLoader mImageLoader;
+
+    /**
+     * 所在的组合适配器，为null时直接设置给了RecyclerView。
+     */
+    ConcatRVAdapter mConcatParent;
+
+    /**
+     * 作为条目适配器所在的分组适配器，为null时没有分组。
+     */
+    SectionedRVAdapter<?> mSectionedParent;
+
+    /**
+     * 树形模式下的数据，为null时不分层。
+     */
+    private TreeList<BEAN> mTreeList;
+
     @Target(ElementType.TYPE)
     @Retention(RetentionPolicy.RUNTIME)
     public @interface ItemViewIds {
@@ -97,6 +336,112 @@ public abstract class BaseRVAdapter<BEAN> extends RecyclerView.Adapter<BaseRVAda
         ArrayList<BEAN> convertDatas(T datas);
     }
 
+    /**
+     * 流式的数据转换，转换结果边产生边显示，适合从Cursor或JSON中转换大量数据。
+     *
+     * @param <T> 原始数据的类型。
+     * @param <BEAN> 适配的数据类型。
+     */
+    public interface StreamDataConverter<T, BEAN> {
+
+        /**
+         * 返回逐个产生转换结果的迭代器，迭代器在后台线程中使用，实现了{@link Closeable}时结束或取消后会被关闭。
+         *
+         * @param datas 原始数据。
+         * @return 转换结果的迭代器。
+         */
+        Iterator<BEAN> convertDatas(T datas);
+    }
+
+    /**
+     * 快照中条目的编码，用于{@link #saveSnapshot(File, SnapshotCodec, int, int)}和
+     * {@link #restoreSnapshot(File, SnapshotCodec)}。
+     *
+     * @param <BEAN> 数据模型对象。
+     */
+    public interface SnapshotCodec<BEAN> {
+
+        /**
+         * 编码格式的版本，格式变化时需要修改，版本不同的快照不会被恢复。
+         */
+        int getVersion();
+
+        /**
+         * 写入一个条目，推荐只写显示需要的字段。
+         */
+        void encode(BEAN data, DataOutput out) throws IOException;
+
+        /**
+         * 读取一个条目，在主线程调用，只能读到该条目写入的内容。
+         */
+        BEAN decode(DataInput in) throws IOException;
+    }
+
+    /**
+     * 用于{@link #submitList(List)}比较新旧两个条目。
+     *
+     * @param <BEAN> 数据模型对象。
+     */
+    public interface ItemCallback<BEAN> {
+
+        /**
+         * 是否是同一个条目，通常比较id。
+         */
+        boolean areItemsTheSame(BEAN oldItem, BEAN newItem);
+
+        /**
+         * 同一个条目的内容是否没有变化，为false时会刷新该条目。
+         */
+        boolean areContentsTheSame(BEAN oldItem, BEAN newItem);
+    }
+
+    /**
+     * 计算同一个条目新旧数据之间变化的部分，结果作为payload传给
+     * {@link #onBindViewHolder(ViewHolder, int, Object, List)}。
+     *
+     * @param <BEAN> 数据模型对象。
+     */
+    public interface PayloadCallback<BEAN> {
+
+        /**
+         * @return 变化的部分，推荐使用Integer表示的字段标志位，为null时完整刷新。
+         */
+        Object getChangePayload(BEAN oldItem, BEAN newItem);
+    }
+
+    /**
+     * 获取条目的id，用于稳定id和按id查找条目，不同条目的id不能相同。
+     *
+     * @param <BEAN> 数据模型对象。
+     */
+    public interface KeyExtractor<BEAN> {
+        long getKey(BEAN data);
+    }
+
+    /**
+     * 获取条目用于筛选的文字，在后台线程调用，只能读取条目本身。
+     *
+     * @param <BEAN> 数据模型对象。
+     */
+    public interface TextExtractor<BEAN> {
+        CharSequence getText(BEAN data);
+    }
+
+    /**
+     * 通过{@link #post(Mutation)}从其他线程提交的修改，在主线程执行。
+     *
+     * @param <BEAN> 数据模型对象。
+     */
+    public interface Mutation<BEAN> {
+
+        /**
+         * 在主线程执行修改，此时可以安全地读取位置并调用适配器的修改方法。
+         *
+         * @param adapter 适配器。
+         */
+        void apply(BaseRVAdapter<BEAN> adapter);
+    }
+
     public interface OnItemClickListener {
         void onItemClick(ViewGroup parent, int pos);
     }
@@ -105,12 +450,52 @@ public abstract class BaseRVAdapter<BEAN> extends RecyclerView.Adapter<BaseRVAda
         boolean onItemLongClick(ViewGroup parent, int pos);
     }
 
+    public interface OnItemChildClickListener {
+        void onItemChildClick(ViewGroup parent, View view, int pos);
+    }
+
+    public interface OnItemChildLongClickListener {
+        boolean onItemChildLongClick(ViewGroup parent, View view, int pos);
+    }
+
     public void setOnItemClickListener(OnItemClickListener l) {
         this.mOnItemClickListener = l;
+        mListenerVersion++;
     }
 
     public void setOnItemLongClickListener(OnItemLongClickListener l) {
         this.mOnItemLongClickListener = l;
+        mListenerVersion++;
+    }
+
+    /**
+     * 设置条目子控件的点击事件，控件id通常就是{@link ItemViewIds}中声明的id。
+     *
+     * @param viewId 子控件的id。
+     * @param l 点击事件，为null时移除。
+     */
+    public void setOnItemChildClickListener(int viewId, OnItemChildClickListener l) {
+        if (l != null) {
+            mOnItemChildClickListeners.put(viewId, l);
+        } else {
+            mOnItemChildClickListeners.remove(viewId);
+        }
+        mListenerVersion++;
+    }
+
+    /**
+     * 设置条目子控件的长按事件，控件id通常就是{@link ItemViewIds}中声明的id。
+     *
+     * @param viewId 子控件的id。
+     * @param l 长按事件，为null时移除。
+     */
+    public void setOnItemChildLongClickListener(int viewId, OnItemChildLongClickListener l) {
+        if (l != null) {
+            mOnItemChildLongClickListeners.put(viewId, l);
+        } else {
+            mOnItemChildLongClickListeners.remove(viewId);
+        }
+        mListenerVersion++;
     }
 
     /**
@@ -123,6 +508,7 @@ public abstract class BaseRVAdapter<BEAN> extends RecyclerView.Adapter<BaseRVAda
             mDatas.clear();
         }
         mDatas.addAll(datas);
+        invalidateKeyIndex();
         notifyDataSetChanged();
     }
 
@@ -142,277 +528,2343 @@ public abstract class BaseRVAdapter<BEAN> extends RecyclerView.Adapter<BaseRVAda
         return mContext;
     }
 
-    @Override
-    public ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
-        int id = getItemId();
-        int[] viewIds = getItemViewIds();
-        Class<? extends BaseRVAdapter> adapterClass = getClass();
-        ItemId itemId = adapterClass.getAnnotation(ItemId.class);
-        if (itemId != null) {
-            id = itemId.value();
-        }
-        ItemViewIds itemViewIds = adapterClass.getAnnotation(ItemViewIds.class);
-        if (itemViewIds != null) {
-            viewIds = itemViewIds.value();
-        }
-        View view = mInflater.inflate(id, parent, false);
-        return new ViewHolder(view, viewIds);
+    /**
+     * 注册一种条目类型，注册后{@link #getItemId()}、{@link #getItemViewIds()}和
+     * {@link #onBindViewHolder(ViewHolder, int, Object)}不再使用。
+     *
+     * @param delegate 条目类型。
+     */
+    public void addItemViewDelegate(ItemViewDelegate<BEAN> delegate) {
+        mDelegateManager.addDelegate(delegate);
     }
 
-    @Override
-    public void onBindViewHolder(ViewHolder holder, int position) {
-        BEAN data = getData(position);
-        onBindViewHolder(holder, position, data);
-        bindListeners(holder);
+    /**
+     * 注册一种条目类型，数据是beanClass的实例时使用。
+     *
+     * @param beanClass 数据的类型。
+     * @param delegate 条目类型。
+     */
+    public void addItemViewDelegate(Class<? extends BEAN> beanClass, ItemViewDelegate<BEAN> delegate) {
+        mDelegateManager.addDelegate(beanClass, delegate);
     }
 
     /**
-     * 在此处理数据的加载等。
+     * 注册一种条目类型，并指定缓存池中最多保留的该类型ViewHolder数量。
      *
-     * @param holder View缓存对象。
-     * @param position 条目在列表中的位置，从0开始。
-     * @param data 给条目加载数据的模型对象。
+     * @param beanClass 数据的类型，为null时由{@link ItemViewDelegate#isForViewType(Object, int)}决定。
+     * @param delegate 条目类型。
+     * @param maxRecycledViews 缓存池中最多保留的数量。
      */
-    public abstract void onBindViewHolder(ViewHolder holder, int position, BEAN data);
+    public void addItemViewDelegate(Class<? extends BEAN> beanClass, ItemViewDelegate<BEAN> delegate,
+                                    int maxRecycledViews) {
+        mDelegateManager.addDelegate(beanClass, delegate, maxRecycledViews);
+    }
 
     /**
-     * 绑定条目的点击事件和长按事件的监听。
+     * 设置共用的缓存池，多个页面的适配器使用同一个缓存池时，布局相同的条目可以直接复用而不用重新加载布局。
+     * 需要在设置给RecyclerView之前调用。
      *
-     * @param holder 缓存View的对象。
+     * @param pool 缓存池。
      */
-    private void bindListeners(final ViewHolder holder) {
-        if (mOnItemClickListener != null) {
-            holder.itemView.setOnClickListener(new View.OnClickListener() {
-                @Override
-                public void onClick(View view) {
-                    mOnItemClickListener.onItemClick((ViewGroup) holder.itemView,
-                            holder.getAdapterPosition());
-                }
-            });
+    public void setRecycledViewPool(RecyclerView.RecycledViewPool pool) {
+        this.mRecycledViewPool = pool;
+    }
+
+    @Override
+    public void onAttachedToRecyclerView(RecyclerView recyclerView) {
+        super.onAttachedToRecyclerView(recyclerView);
+        if (mRecycledViewPool != null) {
+            recyclerView.setRecycledViewPool(mRecycledViewPool);
         }
-        if (mOnItemLongClickListener != null) {
-            holder.itemView.setOnLongClickListener(new View.OnLongClickListener() {
-                @Override
-                public boolean onLongClick(View view) {
-                    return mOnItemLongClickListener.onItemLongClick((ViewGroup) holder.itemView,
-                            holder.getAdapterPosition());
-                }
-            });
+        mDelegateManager.applyTo(recyclerView.getRecycledViewPool());
+    }
+
+    @Override
+    public void onDetachedFromRecyclerView(RecyclerView recyclerView) {
+        super.onDetachedFromRecyclerView(recyclerView);
+        cancelConversion();
+        if (mDeferredBinder != null) {
+            mDeferredBinder.cancelAll();
         }
     }
 
     @Override
-    public int getItemCount() {
-        if (mDatas != null) {
-            return mDatas.size();
+    public void onViewRecycled(ViewHolder holder) {
+        super.onViewRecycled(holder);
+        holder.cancelImageRequests();
+        if (mDeferredBinder != null) {
+            mDeferredBinder.cancel(holder);
         }
-        return -1;
     }
 
     /**
-     * 条目控件的id。
-     *
-     * @return 例如R.id.btn_01,R.id.btn_02,btn_03
+     * 条目的viewType是其布局文件的id，和{@link ItemViewDelegate}的做法一样，这样多个适配器共用
+     * {@link #setRecycledViewPool(RecyclerView.RecycledViewPool)}时不同布局的ViewHolder不会混用。
      */
-    protected abstract int[] getItemViewIds();
+    @Override
+    public int getItemViewType(int position) {
+        if (mDelegateManager.isEmpty()) {
+            return getDefaultLayoutId();
+        }
+        return getItemViewType(getData(position), position);
+    }
 
     /**
-     * 条目布局文件的id。
-     *
-     * @return 例如item_example.xml
+     * 按数据获取条目的viewType，{@link SectionedRVAdapter}用它获取组内条目的viewType。
      */
-    protected abstract int getItemId();
+    int getItemViewType(BEAN data, int position) {
+        if (mDelegateManager.isEmpty()) {
+            return getDefaultLayoutId();
+        }
+        return mDelegateManager.getItemViewType(data, position);
+    }
+
+    /**
+     * 设置创建和绑定耗时的统计，多个适配器可以共用一个。设置为null时不再计时，没有任何额外开销。
+     *
+     * @param metrics 耗时的统计。
+     */
+    public void setMetrics(AdapterMetrics metrics) {
+        this.mMetrics = metrics;
+    }
+
+    public AdapterMetrics getMetrics() {
+        return mMetrics;
+    }
+
+    @Override
+    public ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+        AdapterMetrics metrics = mMetrics;
+        if (metrics == null) {
+            return newViewHolder(obtainItemView(parent, viewType), viewType);
+        }
+        long start = System.nanoTime();
+        View view = pollPreInflatedView(viewType);
+        boolean preInflated = view != null;
+        if (view == null) {
+            view = inflateItemView(parent, viewType);
+        }
+        ViewHolder holder = newViewHolder(view, viewType);
+        metrics.recordCreate(viewType, System.nanoTime() - start, preInflated);
+        return holder;
+    }
+
+    /**
+     * 创建ViewHolder并缓存控件、挂载监听。
+     *
+     * @param view 条目的布局。
+     * @param viewType 条目的viewType。
+     */
+    private ViewHolder newViewHolder(View view, int viewType) {
+        ViewHolder holder;
+        if (!mDelegateManager.isEmpty()) {
+            holder = new ViewHolder(view, mDelegateManager.getDelegate(viewType).getItemViewIds());
+        } else {
+            ViewBinder binder = getViewBinder();
+            if (binder.getItemViewIds() == null) {
+                holder = new ViewHolder(view, getItemViewIds());
+            } else {
+                holder = binder.createViewHolder(this, view);
+            }
+        }
+        bindListeners(holder);
+        return holder;
+    }
+
+    /**
+     * 获取条目的布局，优先使用预加载的，没有时才在当前线程加载。
+     *
+     * @param parent RV。
+     * @param viewType 条目的viewType。
+     * @return 条目的布局。
+     */
+    private View obtainItemView(ViewGroup parent, int viewType) {
+        View view = pollPreInflatedView(viewType);
+        return view != null ? view : inflateItemView(parent, viewType);
+    }
+
+    /**
+     * 取出预加载的布局。
+     *
+     * @return 没有可用的时返回null。
+     */
+    private View pollPreInflatedView(int viewType) {
+        PreInflatePool pool = mPreInflatePool;
+        return pool != null ? pool.poll(viewType) : null;
+    }
+
+    private View inflateItemView(ViewGroup parent, int viewType) {
+        return mInflater.inflate(getLayoutId(viewType), parent, false);
+    }
+
+    /**
+     * 获取viewType对应的布局文件id。
+     *
+     * @param viewType 条目的viewType。
+     * @return 布局文件的id。
+     */
+    int getLayoutId(int viewType) {
+        if (!mDelegateManager.isEmpty()) {
+            return mDelegateManager.getDelegate(viewType).getItemId();
+        }
+        return getDefaultLayoutId();
+    }
+
+    /**
+     * 没有{@link ItemViewDelegate}时条目的布局文件id，同时也是条目的viewType。
+     *
+     * @return {@link ItemId}或{@link #getItemId()}的布局文件id。
+     */
+    private int getDefaultLayoutId() {
+        int id = getViewBinder().getItemId();
+        return id != 0 ? id : getItemId();
+    }
+
+    /**
+     * 在后台线程预先加载只有一种条目类型时的布局，用来缩短首屏的时间。
+     *
+     * @param parent 条目将要加入的RV，仅用来生成布局参数。
+     * @param count 预加载的数量，通常是首屏可见的条目数。
+     */
+    public void warmUp(ViewGroup parent, int count) {
+        warmUp(parent, getDefaultLayoutId(), count);
+    }
+
+    /**
+     * 在后台线程预先加载指定类型的条目布局，{@link #onCreateViewHolder(ViewGroup, int)}会优先使用，
+     * 没有可用的时候才在主线程加载。布局中的控件需要能在非主线程中创建。
+     *
+     * @param parent 条目将要加入的RV，仅用来生成布局参数。
+     * @param viewType 条目的viewType，即其布局文件的id。
+     * @param count 预加载的数量。
+     */
+    public void warmUp(final ViewGroup parent, final int viewType, final int count) {
+        final int layoutId = getLayoutId(viewType);
+        final PreInflatePool pool = getPreInflatePool();
+        final LayoutInflater inflater = mInflater.cloneInContext(mContext);
+        AdapterExecutors.background().execute(new Runnable() {
+
+            @Override
+            public void run() {
+                for (int i = 0; i < count; i++) {
+                    pool.put(viewType, inflater.inflate(layoutId, parent, false));
+                }
+            }
+        });
+    }
+
+    /**
+     * 获取预加载的条目布局，可以从中读取命中和未命中的次数来调整预加载的数量。
+     *
+     * @return 预加载的条目布局。
+     */
+    public PreInflatePool getPreInflatePool() {
+        if (mPreInflatePool == null) {
+            synchronized (this) {
+                if (mPreInflatePool == null) {
+                    mPreInflatePool = new PreInflatePool();
+                }
+            }
+        }
+        return mPreInflatePool;
+    }
+
+    /**
+     * 获取{@link ItemId}和{@link ItemViewIds}的绑定器，优先使用rvadapter-compiler生成的。
+     *
+     * @return 绑定器。
+     */
+    private ViewBinder getViewBinder() {
+        if (mViewBinder == null) {
+            mViewBinder = ViewBinders.find(getClass());
+        }
+        return mViewBinder;
+    }
+
+    @Override
+    public void onBindViewHolder(ViewHolder holder, int position) {
+        bindItem(holder, position, getData(position), Collections.<Object>emptyList());
+    }
+
+    @Override
+    public void onBindViewHolder(ViewHolder holder, int position, List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+        bindItem(holder, position, getData(position), payloads);
+    }
+
+    /**
+     * 绑定条目的数据，payloads为空时完整绑定。{@link SectionedRVAdapter}用它绑定组内的条目。
+     */
+    void bindItem(ViewHolder holder, int position, BEAN data, List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            bindData(holder, position, data);
+        } else {
+            if (mDeferredBinder != null && mDeferredBinder.isPending(holder)) {
+                // 局部刷新不重新安排延迟绑定，但还没执行的要用新数据
+                holder.mDeferredData = data;
+            }
+            onBindViewHolder(holder, position, data, payloads);
+        }
+        ensureListeners(holder);
+    }
+
+    /**
+     * 创建组的头部或尾部，点击事件同样交给这个适配器的监听器。
+     *
+     * @param parent RV。
+     * @param layoutId 头部或尾部的布局文件id。
+     */
+    ViewHolder createDecorViewHolder(ViewGroup parent, int layoutId) {
+        ViewHolder holder = new ViewHolder(mInflater.inflate(layoutId, parent, false), null);
+        bindListeners(holder);
+        return holder;
+    }
+
+    /**
+     * ViewHolder从共用缓存池中被其他适配器复用过，或者监听器变化过时重新挂载。
+     */
+    void ensureListeners(ViewHolder holder) {
+        if (holder.mOwner != this || holder.mListenerVersion != mListenerVersion) {
+            bindListeners(holder);
+        }
+    }
+
+    /**
+     * 完整地绑定条目的数据。
+     */
+    private void bindData(ViewHolder holder, int position, BEAN data) {
+        // 上一条数据还没加载完的图片不能再显示
+        holder.cancelImageRequests();
+        // 在ConcatRVAdapter中ViewHolder记录的是换算后的全局viewType，单独分配时是负数，要按子适配器中的位置重新取得
+        int viewType = mConcatParent != null ? getItemViewType(position) : holder.getItemViewType();
+        AdapterMetrics metrics = mMetrics;
+        if (metrics == null) {
+            dispatchBind(holder, viewType, position, data);
+        } else {
+            long start = System.nanoTime();
+            dispatchBind(holder, viewType, position, data);
+            metrics.recordBind(viewType, System.nanoTime() - start);
+        }
+        if (mDeferredBinder != null) {
+            mDeferredBinder.schedule(holder, data);
+        }
+    }
+
+    /**
+     * @param viewType 条目在这个适配器中的viewType。
+     */
+    private void dispatchBind(ViewHolder holder, int viewType, int position, BEAN data) {
+        if (mDelegateManager.isEmpty()) {
+            onBindViewHolder(holder, position, data);
+        } else {
+            mDelegateManager.getDelegate(viewType).onBindViewHolder(holder, position, data);
+        }
+    }
+
+    /**
+     * 在此处理数据的加载等。
+     *
+     * @param holder View缓存对象。
+     * @param position 条目在列表中的位置，从0开始。
+     * @param data 给条目加载数据的模型对象。
+     */
+    public abstract void onBindViewHolder(ViewHolder holder, int position, BEAN data);
+
+    /**
+     * 延迟绑定，{@link #setDeferredBindEnabled(boolean)}开启后，每次完整绑定之后在主线程空闲时调用，
+     * 用来处理富文本、日期格式化等比较耗时但可以晚一帧显示的内容。
+     * 在执行之前ViewHolder被回收或者重新绑定，这次延迟绑定就会取消，所以不用检查数据是否过期。
+     * 使用{@link ItemViewDelegate}时同样调用这里。
+     *
+     * @param holder View缓存对象。
+     * @param position 条目当前的位置。
+     * @param data 完整绑定时的数据。
+     */
+    protected void onBindViewHolderDeferred(ViewHolder holder, int position, BEAN data) {
+    }
+
+    /**
+     * 开启或关闭延迟绑定，开启后{@link #onBindViewHolder(ViewHolder, int, Object)}只需要完成必须立即显示的部分，
+     * 其余的放到{@link #onBindViewHolderDeferred(ViewHolder, int, Object)}。需要在主线程调用。
+     *
+     * @param enabled 是否开启。
+     */
+    public void setDeferredBindEnabled(boolean enabled) {
+        if (enabled) {
+            if (mDeferredBinder == null) {
+                mDeferredBinder = new DeferredBinder<>(this);
+            }
+        } else if (mDeferredBinder != null) {
+            mDeferredBinder.cancelAll();
+            mDeferredBinder = null;
+        }
+    }
+
+    /**
+     * 条目带着payload刷新时调用，可以只更新payload中标明变化的控件，例如点赞数变化时只更新一个TextView。
+     * 默认完整地绑定数据。
+     *
+     * @param holder View缓存对象。
+     * @param position 条目在列表中的位置，从0开始。
+     * @param data 给条目加载数据的模型对象。
+     * @param payloads 上次绑定以来的所有payload，不会为空，可以用{@link #getChangedFields(List)}合并。
+     */
+    public void onBindViewHolder(ViewHolder holder, int position, BEAN data, List<Object> payloads) {
+        bindData(holder, position, data);
+    }
+
+    /**
+     * 把{@link PayloadCallback}返回的字段标志位合并起来。
+     *
+     * @param payloads 所有的payload。
+     * @return 所有变化的字段，只要有一个payload不是Integer就返回-1，表示需要完整刷新。
+     */
+    public static int getChangedFields(List<Object> payloads) {
+        int fields = 0;
+        for (int i = 0, size = payloads.size(); i < size; i++) {
+            Object payload = payloads.get(i);
+            if (!(payload instanceof Integer)) {
+                return -1;
+            }
+            fields |= (Integer) payload;
+        }
+        return fields;
+    }
+
+    /**
+     * 绑定条目的点击事件和长按事件的监听。ViewHolder本身就是监听器，点击时才去取位置，
+     * 所以只在创建ViewHolder、监听器变化或从共用缓存池中被其他适配器复用后挂载一次，绑定数据时不会创建任何对象。
+     *
+     * @param holder 缓存View的对象。
+     */
+    private void bindListeners(ViewHolder holder) {
+        if (mOnItemClickListener != null) {
+            holder.itemView.setOnClickListener(holder);
+        }
+        if (mOnItemLongClickListener != null) {
+            holder.itemView.setOnLongClickListener(holder);
+        }
+        for (int i = 0; i < mOnItemChildClickListeners.size(); i++) {
+            View child = holder.findViewById(mOnItemChildClickListeners.keyAt(i));
+            if (child != null) {
+                child.setOnClickListener(holder);
+            }
+        }
+        for (int i = 0; i < mOnItemChildLongClickListeners.size(); i++) {
+            View child = holder.findViewById(mOnItemChildLongClickListeners.keyAt(i));
+            if (child != null) {
+                child.setOnLongClickListener(holder);
+            }
+        }
+        holder.mOwner = this;
+        holder.mListenerVersion = mListenerVersion;
+    }
+
+    @Override
+    public int getItemCount() {
+        if (mPagedList != null) {
+            return mPagedList.size();
+        }
+        if (mTreeList != null) {
+            return mTreeList.size();
+        }
+        if (mDatas != null) {
+            return mDatas.size();
+        }
+        return -1;
+    }
+
+    /**
+     * 条目控件的id。
+     *
+     * @return 例如R.id.btn_01,R.id.btn_02,btn_03
+     */
+    protected abstract int[] getItemViewIds();
+
+    /**
+     * 条目布局文件的id。
+     *
+     * @return 例如item_example.xml
+     */
+    protected abstract int getItemId();
+
+    /**
+     * 主要用作控件的缓存优化。
+     *
+     * @param <VIEW> 要缓存的控件。
+     */
+    public class ViewHolder<VIEW extends View> extends RecyclerView.ViewHolder
+            implements View.OnClickListener, View.OnLongClickListener {
+
+        /**
+         * 缓存控件的稀疏数组，第一次查找没有声明的控件时才创建。
+         */
+        private SparseArray<VIEW> mViewCache;
+
+        /**
+         * 当前绑定该ViewHolder的适配器，使用共用缓存池时可能不是创建它的适配器。
+         */
+        private BaseRVAdapter<?> mOwner;
+
+        /**
+         * 已挂载的监听器版本。
+         */
+        private int mListenerVersion = -1;
+
+        /**
+         * 等待延迟绑定的数据。
+         */
+        Object mDeferredData;
+
+        /**
+         * 安排了还没执行的延迟绑定的调度，为null时没有。
+         */
+        DeferredBinder<?> mDeferredBinder;
+
+        /**
+         * 所在的延迟绑定队列，取消后仍可能留在队列中，执行时跳过。
+         */
+        DeferredBinder<?> mDeferredQueue;
+
+        /**
+         * 上次设置的int类型属性，key由属性和控件id组成。
+         */
+        private LongIntMap mBoundInts;
+
+        /**
+         * 上次设置的文字，key为控件id。
+         */
+        private SparseArray<String> mBoundTexts;
+
+        /**
+         * 上次设置的图片，key为控件id。
+         */
+        private SparseArray<Drawable> mBoundDrawables;
+
+        /**
+         * 上次显示的加载图片的缓存key，key为控件id。
+         */
+        private SparseArray<String> mBoundImageKeys;
+
+        /**
+         * 还没完成的图片加载，key为控件id。
+         */
+        private SparseArray<ImageLoader.Request> mImageRequests;
+
+        /**
+         * 等待控件测量完成后再开始的图片加载，key为控件id。
+         */
+        private SparseArray<SizeWaiter> mSizeWaiters;
+
+        public ViewHolder(View itemView, int[] itemViewIds) {
+            super(itemView);
+            if (itemViewIds != null && itemViewIds.length > 0) {
+                mViewCache = new SparseArray<>();
+                for (int id : itemViewIds) {
+                    mViewCache.put(id, findViewById(id));
+                }
+            }
+        }
+
+        /**
+         * 如果没有缓存，则创建一个以传入id为key的缓存控件；如果有缓存，则获取key等于传入id的缓存控件。
+         *
+         * @param id 用作缓存key的id。
+         * @return 缓存的控件。
+         */
+        public VIEW findViewById(int id) {
+            if (mViewCache == null) {
+                mViewCache = new SparseArray<>();
+            }
+            View view = mViewCache.get(id);
+            if (view == null){
+                view = itemView.findViewById(id);
+                mViewCache.put(id, (VIEW) view);
+            }
+            return (VIEW) view;
+        }
+
+        /**
+         * 最近绑定该ViewHolder的适配器。
+         */
+        BaseRVAdapter<?> getOwner() {
+            return mOwner;
+        }
+
+        @Override
+        public void onClick(View view) {
+            if (mOwner == null) {
+                return;
+            }
+            int position = mOwner.getLocalPosition(this);
+            if (position == RecyclerView.NO_POSITION) {
+                return;
+            }
+            if (view == itemView) {
+                if (mOwner.mOnItemClickListener != null) {
+                    mOwner.mOnItemClickListener.onItemClick((ViewGroup) itemView, position);
+                }
+            } else {
+                OnItemChildClickListener l = mOwner.mOnItemChildClickListeners.get(view.getId());
+                if (l != null) {
+                    l.onItemChildClick((ViewGroup) itemView, view, position);
+                }
+            }
+        }
+
+        @Override
+        public boolean onLongClick(View view) {
+            if (mOwner == null) {
+                return false;
+            }
+            int position = mOwner.getLocalPosition(this);
+            if (position == RecyclerView.NO_POSITION) {
+                return false;
+            }
+            if (view == itemView) {
+                return mOwner.mOnItemLongClickListener != null
+                        && mOwner.mOnItemLongClickListener.onItemLongClick((ViewGroup) itemView, position);
+            }
+            OnItemChildLongClickListener l = mOwner.mOnItemChildLongClickListeners.get(view.getId());
+            return l != null && l.onItemChildLongClick((ViewGroup) itemView, view, position);
+        }
+
+        /**
+         * 设置文字，和上次通过这里设置的相同时不再调用{@link TextView#setText(CharSequence)}，
+         * 避免重新测量和布局。以下的设置方法都会记住上次的值，只在控件没有被其他地方修改时才可靠，
+         * 直接修改过控件后需要调用{@link #forgetBoundValues(int)}。
+         *
+         * @param textViewId 控件的id。
+         * @param text 文字。
+         */
+        public void setText(int textViewId, String text) {
+            setText(textViewId, (CharSequence) text);
+        }
+
+        /**
+         * 设置文字，只有String会记住，其他可能可变或带样式的文字每次都会设置。
+         *
+         * @param textViewId 控件的id。
+         * @param text 文字。
+         */
+        public void setText(int textViewId, CharSequence text) {
+            if (mBoundTexts == null) {
+                mBoundTexts = new SparseArray<>();
+            }
+            String last = mBoundTexts.get(textViewId);
+            if (text instanceof String) {
+                if (last != null && last.equals(text)) {
+                    onViewUpdateSkipped();
+                    return;
+                }
+                mBoundTexts.put(textViewId, (String) text);
+            } else if (last != null) {
+                mBoundTexts.remove(textViewId);
+            }
+            ((TextView) findViewById(textViewId)).setText(text);
+            onViewUpdateApplied();
+        }
+
+        public void setTextColor(int textViewId, int color) {
+            if (!isBound(BOUND_TEXT_COLOR, textViewId, color)) {
+                ((TextView) findViewById(textViewId)).setTextColor(color);
+            }
+        }
+
+        /**
+         * @param viewId 控件的id。
+         * @param visibility {@link View#VISIBLE}、{@link View#INVISIBLE}或{@link View#GONE}。
+         */
+        public void setVisibility(int viewId, int visibility) {
+            if (!isBound(BOUND_VISIBILITY, viewId, visibility)) {
+                findViewById(viewId).setVisibility(visibility);
+            }
+        }
+
+        public void setEnabled(int viewId, boolean enabled) {
+            if (!isBound(BOUND_ENABLED, viewId, enabled ? 1 : 0)) {
+                findViewById(viewId).setEnabled(enabled);
+            }
+        }
+
+        public void setImageResource(int imageViewId, int resId) {
+            if (isBound(BOUND_IMAGE_RESOURCE, imageViewId, resId)) {
+                return;
+            }
+            cancelImageRequest(imageViewId);
+            if (mBoundDrawables != null) {
+                mBoundDrawables.remove(imageViewId);
+            }
+            if (mBoundImageKeys != null) {
+                mBoundImageKeys.remove(imageViewId);
+            }
+            ((ImageView) findViewById(imageViewId)).setImageResource(resId);
+        }
+
+        /**
+         * 设置图片，和上次设置的是同一个对象时跳过。
+         *
+         * @param imageViewId 控件的id。
+         * @param drawable 图片。
+         */
+        public void setImageDrawable(int imageViewId, Drawable drawable) {
+            if (mBoundDrawables == null) {
+                mBoundDrawables = new SparseArray<>();
+            }
+            if (drawable != null && mBoundDrawables.get(imageViewId) == drawable) {
+                onViewUpdateSkipped();
+                return;
+            }
+            cancelImageRequest(imageViewId);
+            forgetImage(imageViewId);
+            mBoundDrawables.put(imageViewId, drawable);
+            ((ImageView) findViewById(imageViewId)).setImageDrawable(drawable);
+            onViewUpdateApplied();
+        }
+
+        /**
+         * 在后台线程加载文件中的图片，按控件的大小降采样，解码后放入{@link ImageLoader}的缓存。
+         * 控件还没有测量时先清空，等到测量完成再按实际大小加载。
+         * 缓存中有时立即显示，没有时先清空控件，加载完成后再显示。ViewHolder被回收、重新绑定或者
+         * 给同一个控件设置了其他图片时，还没完成的加载自动取消，不会显示过期的图片。
+         *
+         * @param imageViewId 控件的id。
+         * @param file 图片文件。
+         */
+        public void setImageFile(int imageViewId, File file) {
+            loadImage(imageViewId, new ImageLoader.FileSource(file));
+        }
+
+        /**
+         * 在后台线程解码内存中的图片，和{@link #setImageFile(int, File)}相同。
+         *
+         * @param imageViewId 控件的id。
+         * @param key 区分不同图片的key，内容相同的图片使用相同的key时共用缓存。
+         * @param data 编码后的图片数据，解码前不能修改。
+         */
+        public void setImageBytes(int imageViewId, String key, byte[] data) {
+            loadImage(imageViewId, new ImageLoader.BytesSource(key, data));
+        }
+
+        /**
+         * 在后台线程解码图片资源，和{@link #setImageFile(int, File)}相同，适合比控件大得多的图片资源，
+         * 小图标直接用{@link #setImageResource(int, int)}即可。
+         *
+         * @param imageViewId 控件的id。
+         * @param resId 图片资源的id，只支持位图。
+         */
+        public void loadImageResource(int imageViewId, int resId) {
+            loadImage(imageViewId, new ImageLoader.ResourceSource(itemView.getResources(), resId));
+        }
+
+        /**
+         * 取消所有还没完成的图片加载，已经显示的图片不变。
+         */
+        public void cancelImageRequests() {
+            if (mSizeWaiters != null) {
+                for (int i = 0, size = mSizeWaiters.size(); i < size; i++) {
+                    mSizeWaiters.valueAt(i).cancel();
+                }
+                mSizeWaiters.clear();
+            }
+            if (mImageRequests == null) {
+                return;
+            }
+            for (int i = 0, size = mImageRequests.size(); i < size; i++) {
+                mImageRequests.valueAt(i).mCancelled = true;
+            }
+            mImageRequests.clear();
+        }
+
+        private void loadImage(int imageViewId, ImageLoader.Source source) {
+            ImageView view = (ImageView) findViewById(imageViewId);
+            ViewGroup.LayoutParams params = view.getLayoutParams();
+            DisplayMetrics metrics = view.getResources().getDisplayMetrics();
+            int width = ImageLoader.targetSize(view.getWidth(),
+                    params != null ? params.width : ViewGroup.LayoutParams.MATCH_PARENT, metrics.widthPixels);
+            int height = ImageLoader.targetSize(view.getHeight(),
+                    params != null ? params.height : ViewGroup.LayoutParams.MATCH_PARENT, metrics.heightPixels);
+            if (width <= 0 || height <= 0) {
+                waitForSize(imageViewId, view, source);
+                return;
+            }
+            String cacheKey = ImageLoader.cacheKey(source, width, height);
+            ImageLoader.Request pending = mImageRequests != null ? mImageRequests.get(imageViewId) : null;
+            if (pending != null && pending.mCacheKey.equals(cacheKey)) {
+                onViewUpdateSkipped();
+                return;
+            }
+            cancelImageRequest(imageViewId);
+            if (mBoundImageKeys != null && cacheKey.equals(mBoundImageKeys.get(imageViewId))) {
+                onViewUpdateSkipped();
+                return;
+            }
+            ImageLoader loader = getImageLoader();
+            Bitmap bitmap = loader.getCached(cacheKey);
+            if (bitmap != null) {
+                showImage(imageViewId, view, cacheKey, bitmap);
+                return;
+            }
+            forgetImage(imageViewId);
+            view.setImageDrawable(null);
+            ImageLoader.Request request = new ImageLoader.Request(loader, source, cacheKey, width, height,
+                    this, imageViewId);
+            if (mImageRequests == null) {
+                mImageRequests = new SparseArray<>();
+            }
+            mImageRequests.put(imageViewId, request);
+            loader.enqueue(request);
+        }
+
+        /**
+         * 控件还没有测量、大小又取决于布局时先清空控件，等测量完成后再按实际大小加载，
+         * 避免按屏幕大小解码。等待中再次设置同一张图片时跳过。
+         */
+        private void waitForSize(int imageViewId, ImageView view, ImageLoader.Source source) {
+            SizeWaiter waiter = mSizeWaiters != null ? mSizeWaiters.get(imageViewId) : null;
+            if (waiter != null && waiter.mSource.getKey().equals(source.getKey())) {
+                onViewUpdateSkipped();
+                return;
+            }
+            cancelImageRequest(imageViewId);
+            forgetImage(imageViewId);
+            view.setImageDrawable(null);
+            waiter = new SizeWaiter(imageViewId, view, source);
+            if (mSizeWaiters == null) {
+                mSizeWaiters = new SparseArray<>();
+            }
+            mSizeWaiters.put(imageViewId, waiter);
+            view.getViewTreeObserver().addOnPreDrawListener(waiter);
+        }
+
+        /**
+         * 控件第一次有了大小后开始加载图片，只触发一次，ViewHolder被回收、重新绑定或者给控件设置了其他图片时取消。
+         */
+        private final class SizeWaiter implements ViewTreeObserver.OnPreDrawListener {
+
+            private final int mViewId;
+
+            private final ImageView mView;
+
+            final ImageLoader.Source mSource;
+
+            private boolean mCancelled;
+
+            SizeWaiter(int viewId, ImageView view, ImageLoader.Source source) {
+                this.mViewId = viewId;
+                this.mView = view;
+                this.mSource = source;
+            }
+
+            @Override
+            public boolean onPreDraw() {
+                if (mCancelled) {
+                    removeListener();
+                    return true;
+                }
+                if (mView.getWidth() <= 0 && mView.getHeight() <= 0) {
+                    // 还没有布局，继续等待
+                    return true;
+                }
+                removeListener();
+                mSizeWaiters.remove(mViewId);
+                loadImage(mViewId, mSource);
+                return true;
+            }
+
+            void cancel() {
+                mCancelled = true;
+                removeListener();
+            }
+
+            /**
+             * 控件挂到窗口上后观察者会换成窗口的，取消时可能已经移除不掉，此时在下一次回调中移除。
+             */
+            private void removeListener() {
+                ViewTreeObserver observer = mView.getViewTreeObserver();
+                if (observer.isAlive()) {
+                    observer.removeOnPreDrawListener(this);
+                }
+            }
+        }
+
+        /**
+         * 图片加载完成，在主线程调用。
+         */
+        void onImageLoaded(ImageLoader.Request request, Bitmap bitmap) {
+            if (mImageRequests == null || mImageRequests.get(request.mViewId) != request) {
+                return;
+            }
+            mImageRequests.remove(request.mViewId);
+            showImage(request.mViewId, (ImageView) findViewById(request.mViewId), request.mCacheKey, bitmap);
+        }
+
+        private void showImage(int imageViewId, ImageView view, String cacheKey, Bitmap bitmap) {
+            forgetImage(imageViewId);
+            view.setImageBitmap(bitmap);
+            if (mBoundImageKeys == null) {
+                mBoundImageKeys = new SparseArray<>();
+            }
+            mBoundImageKeys.put(imageViewId, cacheKey);
+            onViewUpdateApplied();
+        }
+
+        /**
+         * 取消控件还没完成的图片加载，用在给控件设置其他图片之前。
+         */
+        private void cancelImageRequest(int imageViewId) {
+            if (mSizeWaiters != null) {
+                SizeWaiter waiter = mSizeWaiters.get(imageViewId);
+                if (waiter != null) {
+                    waiter.cancel();
+                    mSizeWaiters.remove(imageViewId);
+                }
+            }
+            if (mImageRequests == null) {
+                return;
+            }
+            ImageLoader.Request request = mImageRequests.get(imageViewId);
+            if (request != null) {
+                request.mCancelled = true;
+                mImageRequests.remove(imageViewId);
+            }
+        }
+
+        /**
+         * 忘记控件上次设置的图片，不管是通过哪个方法设置的。
+         */
+        private void forgetImage(int imageViewId) {
+            if (mBoundInts != null) {
+                mBoundInts.remove(boundKey(BOUND_IMAGE_RESOURCE, imageViewId));
+            }
+            if (mBoundDrawables != null) {
+                mBoundDrawables.remove(imageViewId);
+            }
+            if (mBoundImageKeys != null) {
+                mBoundImageKeys.remove(imageViewId);
+            }
+        }
+
+        /**
+         * 忘记控件上次设置的值，下次设置时一定会修改控件。
+         *
+         * @param viewId 控件的id。
+         */
+        public void forgetBoundValues(int viewId) {
+            if (mBoundInts != null) {
+                mBoundInts.remove(boundKey(BOUND_TEXT_COLOR, viewId));
+                mBoundInts.remove(boundKey(BOUND_VISIBILITY, viewId));
+                mBoundInts.remove(boundKey(BOUND_ENABLED, viewId));
+                mBoundInts.remove(boundKey(BOUND_IMAGE_RESOURCE, viewId));
+            }
+            if (mBoundTexts != null) {
+                mBoundTexts.remove(viewId);
+            }
+            if (mBoundDrawables != null) {
+                mBoundDrawables.remove(viewId);
+            }
+            if (mBoundImageKeys != null) {
+                mBoundImageKeys.remove(viewId);
+            }
+        }
+
+        /**
+         * 忘记所有控件上次设置的值。
+         */
+        public void clearBoundValues() {
+            if (mBoundInts != null) {
+                mBoundInts.clear();
+            }
+            if (mBoundTexts != null) {
+                mBoundTexts.clear();
+            }
+            if (mBoundDrawables != null) {
+                mBoundDrawables.clear();
+            }
+            if (mBoundImageKeys != null) {
+                mBoundImageKeys.clear();
+            }
+        }
+
+        /**
+         * 值和上次设置的相同时返回true，否则记住新的值并返回false。
+         */
+        private boolean isBound(int property, int viewId, int value) {
+            long key = boundKey(property, viewId);
+            if (mBoundInts == null) {
+                mBoundInts = new LongIntMap();
+            } else if (mBoundInts.get(key, ~value) == value) {
+                onViewUpdateSkipped();
+                return true;
+            }
+            mBoundInts.put(key, value);
+            onViewUpdateApplied();
+            return false;
+        }
+
+        private void onViewUpdateSkipped() {
+            mSkippedViewUpdates++;
+        }
+
+        private void onViewUpdateApplied() {
+            mAppliedViewUpdates++;
+        }
+    }
+
+    private static long boundKey(int property, int viewId) {
+        return ((long) property << 32) | (viewId & 0xFFFFFFFFL);
+    }
+
+    /**
+     * ViewHolder的设置方法因为值和上次相同而跳过的次数，用来评估刷新时有多少无用的控件修改。
+     */
+    public long getSkippedViewUpdates() {
+        return mSkippedViewUpdates;
+    }
+
+    /**
+     * ViewHolder的设置方法实际修改控件的次数。
+     */
+    public long getAppliedViewUpdates() {
+        return mAppliedViewUpdates;
+    }
+
+    public void resetViewUpdateCounters() {
+        mSkippedViewUpdates = 0;
+        mAppliedViewUpdates = 0;
+    }
+
+    /**
+     * 获取ViewHolder在本适配器中的位置，放在{@link ConcatRVAdapter}中时减去前面其他适配器的条目数。
+     *
+     * @param holder 本适配器绑定的ViewHolder。
+     * @return 位置，不在本适配器中时返回{@link RecyclerView#NO_POSITION}。
+     */
+    int getLocalPosition(RecyclerView.ViewHolder holder) {
+        int position = holder.getAdapterPosition();
+        if (mConcatParent == null || position == RecyclerView.NO_POSITION) {
+            return position;
+        }
+        return mConcatParent.getLocalPosition(this, position);
+    }
+
+    /**
+     * 设置加载图片用的加载器，默认所有适配器共用{@link ImageLoader#getDefault()}。
+     *
+     * @param loader 加载器，为null时使用默认的。
+     */
+    public void setImageLoader(ImageLoader loader) {
+        this.mImageLoader = loader;
+    }
+
+    public ImageLoader getImageLoader() {
+        return mImageLoader != null ? mImageLoader : ImageLoader.getDefault();
+    }
+
+    /**
+     * 添加条目，排序模式下插入到按顺序应在的位置。
+     *
+     * @param data 新的数据。
+     */
+    public void addItem(BEAN data) {
+        checkMutable();
+        if (isFiltered()) {
+            if (mComparator != null) {
+                mItemFilter.insertSorted(data, mComparator);
+            } else {
+                mItemFilter.insert(mDatas.size(), data);
+            }
+            return;
+        }
+        if (mComparator != null) {
+            int position = upperBound(data, 0, mDatas.size());
+            mDatas.add(position, data);
+            getUpdateCallback().onInserted(position, 1);
+            return;
+        }
+        mDatas.add(data);
+        int position = mDatas.size() - 1;
+        getUpdateCallback().onInserted(position, 1);
+    }
+
+    public void addItem(BEAN data, int index) {
+        checkMutable();
+        checkNotSorted();
+        if (isFiltered()) {
+            mItemFilter.insert(index, data);
+            return;
+        }
+        mDatas.add(index, data);
+        getUpdateCallback().onInserted(index, 1);
+    }
+
+    /**
+     * 在末尾添加条目，排序模式下先把新条目排好序，再和已有的条目归并，每段连续插入的条目只通知一次。
+     *
+     * @param datas 新的数据。
+     */
+    public void addItems(List<BEAN> datas) {
+        checkMutable();
+        if (mComparator != null) {
+            addItemsSorted(datas);
+            return;
+        }
+        if (isFiltered()) {
+            mItemFilter.addAll(datas);
+            return;
+        }
+        int lastSize = getItemCount();
+        int newSize = datas.size();
+        mDatas.addAll(datas);
+        getUpdateCallback().onInserted(lastSize, newSize);
+    }
+
+    /**
+     * 替换条目，设置了{@link PayloadCallback}时会计算出变化的字段作为payload，只刷新变化的部分。
+     *
+     * @param position 条目的位置。
+     * @param data 新的数据。
+     */
+    public void setItem(int position, BEAN data) {
+        checkMutable();
+        Object payload = null;
+        if (mPayloadCallback != null) {
+            payload = mPayloadCallback.getChangePayload(mDatas.get(position), data);
+        }
+        setItem(position, data, payload);
+    }
+
+    /**
+     * 替换条目。
+     *
+     * @param position 条目的位置。
+     * @param data 新的数据。
+     * @param payload 传给{@link #onBindViewHolder(ViewHolder, int, Object, List)}的payload，为null时完整刷新。
+     */
+    public void setItem(int position, BEAN data, Object payload) {
+        checkMutable();
+        BEAN old = mDatas.get(position);
+        if (mKeyExtractor != null) {
+            long oldKey = mKeyExtractor.getKey(old);
+            long newKey = mKeyExtractor.getKey(data);
+            if (oldKey != newKey) {
+                mKeyIndex.onKeyChanged(oldKey, newKey);
+            }
+        }
+        if (isFiltered()) {
+            mItemFilter.set(position, data, payload, mComparator);
+            return;
+        }
+        mDatas.set(position, data);
+        getUpdateCallback().onChanged(position, 1, payload);
+        if (mComparator != null) {
+            repositionSorted(position);
+        }
+    }
+
+    public void setItems(int start, ArrayList<BEAN> datas) {
+        setItems(start, datas, mDefaultPolicy);
+    }
+
+    public void setItems(ArrayList<BEAN> datas) {
+        setItems(0, datas);
+    }
+
+    public void setItems(int start, ArrayList<BEAN> datas, ReplacePolicy policy) {
+        checkMutable();
+        checkNotSorted();
+        flushBatch();
+        invalidateKeyIndex();
+        if (datas.size()+start == mDatas.size()) {
+            for (int i=start;i<getItemCount();i++) {
+                mDatas.set(i, datas.get(start+i));
+            }
+        }
+        if (datas.size() + start > mDatas.size()) {
+            policy.replaceIfOutOfRange(this, mDatas, start, datas);
+        }
+        if (datas.size() + start < mDatas.size()) {
+            policy.replaceIfNotUpToCapacity(this, mDatas, start, datas);
+        }
+        if (isFiltered()) {
+            mItemFilter.syncShown(start);
+        }
+    }
+
+    /**
+     * 设置{@link #submitList(List)}比较条目的回调，不设置时使用equals。
+     *
+     * @param callback 比较条目的回调。
+     */
+    public void setItemCallback(ItemCallback<BEAN> callback) {
+        this.mItemCallback = callback;
+    }
+
+    /**
+     * 设置计算条目变化部分的回调，用于{@link #setItem(int, Object)}、{@link #updateById(Object)}和
+     * {@link #submitList(List)}。
+     *
+     * @param callback 计算变化部分的回调。
+     */
+    public void setPayloadCallback(PayloadCallback<BEAN> callback) {
+        this.mPayloadCallback = callback;
+    }
+
+    /**
+     * 设置计算差异的线程池。
+     *
+     * @param executor 线程池。
+     */
+    public void setDiffExecutor(Executor executor) {
+        this.mDiffExecutor = executor;
+    }
+
+    /**
+     * 在后台线程计算新旧数据的差异，再回到主线程只刷新有变化的条目。如果计算期间又提交了新的数据，
+     * 旧的结果会被丢弃。只显示筛选出的部分条目时新数据成为全部数据，在后台先筛选一遍，只和显示的条目比较。
+     * 计算期间不要再用其他方法修改数据，需在主线程调用。
+     *
+     * @param datas 新的数据。
+     */
+    public void submitList(List<BEAN> datas) {
+        checkMutable();
+        final int runGeneration = ++mMaxScheduledGeneration;
+        if (datas == null || datas.isEmpty()) {
+            clear();
+            return;
+        }
+        final boolean filtered = isFiltered();
+        if (mDatas.isEmpty() && !filtered) {
+            addItems(datas);
+            return;
+        }
+        final List<BEAN> shownList = mDatas;
+        final List<BEAN> oldDatas = new ArrayList<>(mDatas);
+        final List<BEAN> newDatas = new ArrayList<>(datas);
+        if (mComparator != null) {
+            Collections.sort(newDatas, mComparator);
+        }
+        final ItemCallback<BEAN> callback = mItemCallback;
+        final PayloadCallback<BEAN> payloadCallback = mPayloadCallback;
+        final TextExtractor<BEAN> extractor = filtered ? mItemFilter.getExtractor() : null;
+        final String query = filtered ? mItemFilter.getQuery() : null;
+        mDiffExecutor.execute(new Runnable() {
+
+            @Override
+            public void run() {
+                final int[] shown;
+                final List<BEAN> shownDatas;
+                if (query != null) {
+                    shown = new int[newDatas.size()];
+                    shownDatas = new ArrayList<>();
+                    for (int i = 0; i < shown.length; i++) {
+                        BEAN data = newDatas.get(i);
+                        if (ItemFilter.matches(extractor, query, data)) {
+                            shown[shownDatas.size()] = i;
+                            shownDatas.add(data);
+                        }
+                    }
+                } else {
+                    shown = null;
+                    shownDatas = newDatas;
+                }
+                final DiffUtil.DiffResult result = DiffUtil.calculateDiff(new DiffUtil.Callback() {
+
+                    @Override
+                    public int getOldListSize() {
+                        return oldDatas.size();
+                    }
+
+                    @Override
+                    public int getNewListSize() {
+                        return shownDatas.size();
+                    }
+
+                    @Override
+                    public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+                        BEAN oldItem = oldDatas.get(oldItemPosition);
+                        BEAN newItem = shownDatas.get(newItemPosition);
+                        if (callback != null) {
+                            return callback.areItemsTheSame(oldItem, newItem);
+                        }
+                        return oldItem == null ? newItem == null : oldItem.equals(newItem);
+                    }
+
+                    @Override
+                    public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+                        if (callback != null) {
+                            return callback.areContentsTheSame(oldDatas.get(oldItemPosition),
+                                    shownDatas.get(newItemPosition));
+                        }
+                        return true;
+                    }
+
+                    @Override
+                    public Object getChangePayload(int oldItemPosition, int newItemPosition) {
+                        if (payloadCallback != null) {
+                            return payloadCallback.getChangePayload(oldDatas.get(oldItemPosition),
+                                    shownDatas.get(newItemPosition));
+                        }
+                        return null;
+                    }
+                });
+                AdapterExecutors.mainThread().execute(new Runnable() {
+
+                    @Override
+                    public void run() {
+                        if (mMaxScheduledGeneration == runGeneration) {
+                            deliverList(newDatas, shownList, query, shown, shownDatas, result);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * 在主线程应用{@link #submitList(List)}的结果。计算期间开始、改变或取消了筛选时差异已经不适用，
+     * 改为整体刷新，不会因为筛选状态变了而抛出异常。
+     *
+     * @param datas 新的全部数据。
+     * @param shownList 提交时显示的数据，差异是基于它算的。
+     * @param query 提交时的查询，没有筛选时为null。
+     * @param shown 筛选出的条目在新数据中的位置，没有筛选时为null。
+     * @param shownDatas 筛选出的条目，没有筛选时就是datas。
+     * @param result 提交时显示的数据到shownDatas的差异。
+     */
+    private void deliverList(List<BEAN> datas, List<BEAN> shownList, String query, int[] shown,
+                             List<BEAN> shownDatas, DiffUtil.DiffResult result) {
+        checkMutable();
+        if (isFiltered()) {
+            List<BEAN> source = isChunked(mItemFilter.getSource()) ? new ChunkedList<>(datas) : datas;
+            if (query != null && query.equals(mItemFilter.getQuery()) && mDatas == shownList) {
+                mItemFilter.replaceSource(source, shown, shownDatas, result);
+            } else {
+                mItemFilter.replaceSource(source);
+            }
+            return;
+        }
+        mDatas.clear();
+        mDatas.addAll(datas);
+        invalidateKeyIndex();
+        if (query != null) {
+            // 计算期间取消了筛选，差异是和筛选出的条目比较的
+            flushBatch();
+            notifyDataSetChanged();
+            return;
+        }
+        result.dispatchUpdatesTo(getUpdateCallback());
+    }
+
+    /**
+     * 用于确定条目的替换策略。
+     *
+     * @param <BEAN> 数据模型对象。
+     */
+    public interface ReplacePolicy<BEAN> {
+
+        /**
+         * 在给定条目数量超出已有条目的处理方式。
+         *
+         * @param adapter RV的适配器。
+         * @param dstDatas 目标数据。
+         * @param start 要替换的开始索引。
+         * @param srcDatas 原始数据。
+         */
+        void replaceIfOutOfRange(RecyclerView.Adapter adapter, List<BEAN> dstDatas, int start,
+                                 ArrayList<BEAN> srcDatas);
+
+        /**
+         * 在给定条目数量不足以覆盖所有已有条目的处理方式。
+         *
+         * @param adapter
+         * @param dstDatas
+         * @param start
+         * @param srcDatas
+         */
+        void replaceIfNotUpToCapacity(RecyclerView.Adapter adapter, List<BEAN> dstDatas,
+                                      int start, ArrayList<BEAN> srcDatas);
+    }
+
+    /**
+     * 用于自定义数据替换的策略。
+     *
+     * @param policy 替换数据的策略。
+     */
+    public void setReplacePolicy(ReplacePolicy policy) {
+        this.mDefaultPolicy = policy;
+    }
+
+    /**
+     * 默认的替换策略，超出将忽略超出的条目，不足将只覆盖数据，不会影响到超出范围的。
+     */
+    private class DefaultReplacePolicy implements ReplacePolicy<BEAN> {
+
+        @Override
+        public void replaceIfOutOfRange(RecyclerView.Adapter adapter, List<BEAN> dstDatas,
+                                        int start, ArrayList<BEAN> srcDatas) {
+            int leftSize = dstDatas.size() - start;
+            for (int i=start;i<leftSize;i++) {
+                dstDatas.set(i, srcDatas.get(i));
+            }
+            adapter.notifyItemRangeChanged(start, leftSize);
+        }
+
+        @Override
+        public void replaceIfNotUpToCapacity(RecyclerView.Adapter adapter,
+                                             List<BEAN> dstDatas, int start, ArrayList<BEAN> srcDatas) {
+            int srcSize = srcDatas.size();
+            for (int i=start;i<start+srcSize;i++) {
+                dstDatas.set(i, srcDatas.get(i));
+            }
+            adapter.notifyItemRangeChanged(start, srcSize);
+        }
+    }
+
+    /**
+     * 移除数据。
+     *
+     * @param position 要移除数据的下标。
+     */
+    public void removeItem(int position) {
+        checkMutable();
+        if (isFiltered()) {
+            mItemFilter.remove(position, 1);
+            return;
+        }
+        mDatas.remove(position);
+        getUpdateCallback().onRemoved(position, 1);
+    }
+
+    /**
+     * 移除数据，一次性移除整段，后面的数据只移动一次。
+     *
+     * @throws IndexOutOfBoundsException
+     * @param start 从哪条记录开始？
+     * @param count 移除数据的条数。
+     */
+    public void removeItem(int start, int count) {
+        checkMutable();
+        if (isFiltered()) {
+            mItemFilter.remove(start, count);
+            return;
+        }
+        mDatas.subList(start, start + count).clear();
+        getUpdateCallback().onRemoved(start, count);
+    }
+
+    /**
+     * 清空所有的条目。
+     */
+    public void clear() {
+        checkMutable();
+        if (isFiltered()) {
+            mItemFilter.clear();
+            return;
+        }
+        int dataSize = mDatas.size();
+        mDatas.clear();
+        getUpdateCallback().onRemoved(0, dataSize);
+    }
+
+    /**
+     * 开始批量修改。之后连续的同类修改如果位置相接或重叠会合并成一个通知，例如在同一处连续插入、
+     * 从同一处连续删除、用同一个payload刷新相邻的条目；其他修改仍然按顺序各自通知，只是最后一个通知会等到
+     * {@link #commit()}时才发出。可以嵌套，最外层的{@link #commit()}才会提交。
+     * 修改可能抛出异常时要在finally中提交，否则适配器会一直处于批量修改中：
+     * <pre>
+     * adapter.beginBatch();
+     * try {
+     *     ...
+     * } finally {
+     *     adapter.commit();
+     * }
+     * </pre>
+     */
+    public void beginBatch() {
+        if (mBatchDepth++ == 0) {
+            mBatchCallback = new BatchingListUpdateCallback(mAdapterCallback);
+        }
+    }
+
+    /**
+     * 提交批量修改，发出还没有发出的通知。不在批量修改中时什么也不做，多调用一次不会出错。
+     */
+    public void commit() {
+        if (mBatchDepth == 0) {
+            return;
+        }
+        if (--mBatchDepth == 0) {
+            mBatchCallback.dispatchLastEvent();
+            mBatchCallback = null;
+        }
+    }
+
+    /**
+     * 修改数据后通过它发出通知，批量修改时会先记录下来。
+     *
+     * @return 通知的回调。
+     */
+    private ListUpdateCallback getUpdateCallback() {
+        return mUpdateCallback;
+    }
+
+    /**
+     * 实际发出通知的回调。
+     */
+    private ListUpdateCallback getNotifyCallback() {
+        return mBatchCallback != null ? mBatchCallback : mAdapterCallback;
+    }
+
+    /**
+     * 先发出已记录的通知，用在不经过{@link #getUpdateCallback()}的通知之前，保证通知的顺序。
+     */
+    private void flushBatch() {
+        if (mBatchCallback != null) {
+            mBatchCallback.dispatchLastEvent();
+        }
+    }
+
+    /**
+     * 启用稳定id，{@link #getItemId(int)}返回keyExtractor给出的id，并维护id到位置的索引，
+     * 之后可以用{@link #positionOf(long)}、{@link #updateById(Object)}和{@link #removeById(long)}按id修改条目。
+     * 需要在设置给RecyclerView之前调用。
+     *
+     * @param keyExtractor 获取条目id的方法，为null时关闭稳定id。
+     */
+    public void setKeyExtractor(KeyExtractor<BEAN> keyExtractor) {
+        if (keyExtractor != null) {
+            checkNotTree();
+        }
+        this.mKeyExtractor = keyExtractor;
+        this.mKeyIndex = keyExtractor != null ? new KeyIndex<>(keyExtractor) : null;
+        setHasStableIds(keyExtractor != null);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        if (mKeyExtractor == null) {
+            return super.getItemId(position);
+        }
+        BEAN data = getData(position);
+        return data != null ? mKeyExtractor.getKey(data) : RecyclerView.NO_ID;
+    }
+
+    /**
+     * 按id查找条目的位置。插入、删除和移动记在索引的日志里，查找时换算出当前的位置，日志超过sqrt(n)条后重建索引，
+     * 所以即使反复在头部修改，每次修改和查找的均摊开销也只有O(sqrt(n))。分页模式下只在已加载的页中查找。
+     *
+     * @param id 条目的id。
+     * @return 条目的位置，不存在时返回-1。
+     */
+    public int positionOf(long id) {
+        checkKeyExtractor();
+        if (mPagedList != null) {
+            return mPagedList.positionOfLoaded(mKeyExtractor, id);
+        }
+        return mKeyIndex.positionOf(mDatas, id);
+    }
+
+    /**
+     * 用id相同的新数据替换条目。
+     *
+     * @param data 新的数据。
+     * @return 是否存在该id的条目。
+     */
+    public boolean updateById(BEAN data) {
+        checkKeyExtractor();
+        checkMutable();
+        int position = positionOf(mKeyExtractor.getKey(data));
+        if (position < 0) {
+            return false;
+        }
+        setItem(position, data);
+        return true;
+    }
+
+    /**
+     * 移除指定id的条目。
+     *
+     * @param id 条目的id。
+     * @return 是否存在该id的条目。
+     */
+    public boolean removeById(long id) {
+        checkKeyExtractor();
+        checkMutable();
+        int position = positionOf(id);
+        if (position < 0) {
+            return false;
+        }
+        removeItem(position);
+        return true;
+    }
+
+    /**
+     * 只检查是否设置了{@link KeyExtractor}，按id查找不修改数据，任何模式下都可以调用。
+     */
+    private void checkKeyExtractor() {
+        if (mKeyExtractor == null) {
+            throw new IllegalStateException("setKeyExtractor() must be called first");
+        }
+    }
+
+    /**
+     * 数据整个被替换后，下次按id查找时重建索引。
+     */
+    private void invalidateKeyIndex() {
+        if (mKeyIndex != null) {
+            mKeyIndex.invalidate();
+        }
+    }
+
+    /**
+     * 从任意线程提交修改，不会阻塞。修改按提交顺序在主线程执行，同一帧执行的修改会合并通知，
+     * 每帧执行修改的时间有上限。除此之外，修改数据的方法都只能在主线程调用。
+     *
+     * @param mutation 修改。
+     * @throws IllegalStateException 分页或树形模式下不能直接修改数据，在提交时就抛出，而不是在主线程执行时。
+     */
+    public void post(Mutation<BEAN> mutation) {
+        if (!mMutationQueue.enqueue(mutation)) {
+            throw new IllegalStateException("Items cannot be modified in paged or tree mode");
+        }
+    }
+
+    /**
+     * 从任意线程提交在末尾追加条目的修改。
+     *
+     * @param data 要追加的数据。
+     */
+    public void postAddItem(final BEAN data) {
+        post(new Mutation<BEAN>() {
+
+            @Override
+            public void apply(BaseRVAdapter<BEAN> adapter) {
+                adapter.addItem(data);
+            }
+        });
+    }
+
+    /**
+     * 从任意线程提交在末尾追加多个条目的修改。
+     *
+     * @param datas 要追加的数据，提交时会复制一份。
+     */
+    public void postAddItems(List<BEAN> datas) {
+        final List<BEAN> copy = new ArrayList<>(datas);
+        post(new Mutation<BEAN>() {
+
+            @Override
+            public void apply(BaseRVAdapter<BEAN> adapter) {
+                adapter.addItems(copy);
+            }
+        });
+    }
+
+    /**
+     * 从任意线程提交按id替换条目的修改，需要先{@link #setKeyExtractor(KeyExtractor)}。
+     *
+     * @param data 新的数据，不存在该id的条目时忽略。
+     */
+    public void postUpdateById(final BEAN data) {
+        post(new Mutation<BEAN>() {
+
+            @Override
+            public void apply(BaseRVAdapter<BEAN> adapter) {
+                adapter.updateById(data);
+            }
+        });
+    }
+
+    /**
+     * 从任意线程提交按id移除条目的修改，需要先{@link #setKeyExtractor(KeyExtractor)}。
+     *
+     * @param id 条目的id，不存在时忽略。
+     */
+    public void postRemoveById(final long id) {
+        post(new Mutation<BEAN>() {
+
+            @Override
+            public void apply(BaseRVAdapter<BEAN> adapter) {
+                adapter.removeById(id);
+            }
+        });
+    }
+
+    /**
+     * 从任意线程提交清空所有条目的修改。
+     */
+    public void postClear() {
+        post(new Mutation<BEAN>() {
+
+            @Override
+            public void apply(BaseRVAdapter<BEAN> adapter) {
+                adapter.clear();
+            }
+        });
+    }
+
+    /**
+     * 在后台线程流式地转换数据，并分块追加到末尾，第一块很小以便尽快显示首屏，之后逐渐增大。
+     * 追加通过{@link #post(Mutation)}在主线程按帧执行。适配器从RecyclerView上移除或调用
+     * {@link #cancelConversion()}时停止转换。
+     *
+     * @param datas 原始数据。
+     * @param converter 流式的数据转换。
+     */
+    public <ORIGIN> void convertDatasAsync(final ORIGIN datas,
+                                           final StreamDataConverter<ORIGIN, BEAN> converter) {
+        final int generation = mStreamGeneration.get();
+        AdapterExecutors.background().execute(new Runnable() {
+
+            @Override
+            public void run() {
+                Iterator<BEAN> iterator = converter.convertDatas(datas);
+                try {
+                    int chunkSize = STREAM_FIRST_CHUNK_SIZE;
+                    List<BEAN> chunk = new ArrayList<>(chunkSize);
+                    while (mStreamGeneration.get() == generation && iterator.hasNext()) {
+                        chunk.add(iterator.next());
+                        if (chunk.size() == chunkSize) {
+                            appendStreamChunk(generation, chunk);
+                            chunkSize = Math.min(chunkSize * 2, STREAM_MAX_CHUNK_SIZE);
+                            chunk = new ArrayList<>(chunkSize);
+                        }
+                    }
+                    if (!chunk.isEmpty()) {
+                        appendStreamChunk(generation, chunk);
+                    }
+                } finally {
+                    if (iterator instanceof Closeable) {
+                        try {
+                            ((Closeable) iterator).close();
+                        } catch (IOException ignored) {
+                        }
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * 停止正在进行的流式转换，已经追加的条目保留。
+     */
+    public void cancelConversion() {
+        mStreamGeneration.incrementAndGet();
+    }
+
+    private void appendStreamChunk(final int generation, final List<BEAN> chunk) {
+        // 切换到不能修改数据的模式时转换已经停止，提交失败直接丢弃
+        mMutationQueue.enqueue(new Mutation<BEAN>() {
+
+            @Override
+            public void apply(BaseRVAdapter<BEAN> adapter) {
+                if (mStreamGeneration.get() == generation) {
+                    adapter.addItems(chunk);
+                }
+            }
+        });
+    }
+
+    /**
+     * 把当前显示的数据保存为快照，进程重启后可以用{@link #restoreSnapshot(File, SnapshotCodec)}立即恢复。
+     * 在主线程编码所有条目，数据量大时可以复制{@link #getDatas()}后在后台调用
+     * {@link AdapterSnapshot#write(File, List, SnapshotCodec, int, int)}。分页和树形模式下不能保存。
+     *
+     * @param file 快照文件。
+     * @param codec 条目的编码。
+     * @param anchorPosition 恢复后滚动到的位置，通常是第一个可见条目的位置。
+     * @param anchorOffset 该条目顶部相对RV顶部的偏移。
+     */
+    public void saveSnapshot(File file, SnapshotCodec<BEAN> codec, int anchorPosition, int anchorOffset)
+            throws IOException {
+        checkNotPaged();
+        checkNotTree();
+        AdapterSnapshot.write(file, mDatas, codec, anchorPosition, anchorOffset);
+    }
+
+    /**
+     * 从快照恢复数据，替换当前的数据。文件通过内存映射打开，条目在绑定时才逐个解码，
+     * 恢复的耗时和条目数量无关。通过适配器修改数据时也不会解码其他条目，所有条目都解码后才换成普通的列表。
+     * 恢复后可以用返回值中的滚动位置恢复滚动。
+     * 排序模式下快照中的顺序需要和比较器一致。
+     *
+     * @param file 快照文件。
+     * @param codec 条目的编码，版本需要和保存时相同。
+     * @return 快照，文件不存在或者编码版本不同时返回null，数据不变。
+     * @throws IOException 文件损坏或者读取失败，数据不变。
+     */
+    public AdapterSnapshot<BEAN> restoreSnapshot(File file, SnapshotCodec<BEAN> codec) throws IOException {
+        // 数据整个被替换，不需要先解码上一次恢复的快照
+        checkNotPaged();
+        checkNotTree();
+        if (mItemFilter != null) {
+            mItemFilter.onDataChanged();
+        }
+        AdapterSnapshot<BEAN> snapshot = AdapterSnapshot.read(file, codec);
+        if (snapshot == null) {
+            return null;
+        }
+        SnapshotList<BEAN> datas = snapshot.getSnapshotList();
+        if (isFiltered()) {
+            // 筛选时快照成为全部数据，显示的条目要解码后重新检查
+            datas.mChunkedStorage = isChunked(mItemFilter.getSource());
+            mItemFilter.replaceSource(datas);
+            return snapshot;
+        }
+        datas.mChunkedStorage = isChunked(mDatas);
+        mDatas = datas;
+        invalidateKeyIndex();
+        flushBatch();
+        notifyDataSetChanged();
+        return snapshot;
+    }
+
+    /**
+     * 从快照恢复的数据在所有条目都解码后换成原来使用的列表，还有条目没解码时保持原样，修改不需要解码。
+     */
+    private void materializeSnapshot() {
+        mDatas = materialize(mDatas);
+        if (mItemFilter != null) {
+            mItemFilter.materializeSource();
+        }
+    }
+
+    static <BEAN> List<BEAN> materialize(List<BEAN> datas) {
+        if (datas instanceof SnapshotList) {
+            SnapshotList<BEAN> snapshot = (SnapshotList<BEAN>) datas;
+            if (!snapshot.isFullyDecoded()) {
+                return datas;
+            }
+            return snapshot.mChunkedStorage ? new ChunkedList<>(snapshot) : new ArrayList<>(snapshot);
+        }
+        return datas;
+    }
+
+    /**
+     * 数据是否用{@link ChunkedList}存储，包括之后会转成它的快照。
+     */
+    static boolean isChunked(List<?> datas) {
+        return datas instanceof ChunkedList
+                || (datas instanceof SnapshotList && ((SnapshotList<?>) datas).mChunkedStorage);
+    }
+
+    /**
+     * 改用{@link ChunkedList}存储数据，快照不解码，只改变之后使用的列表。
+     */
+    static <BEAN> List<BEAN> toChunked(List<BEAN> datas) {
+        if (datas instanceof SnapshotList) {
+            ((SnapshotList<BEAN>) datas).useChunkedStorage();
+            return datas;
+        }
+        return datas instanceof ChunkedList ? datas : new ChunkedList<>(datas);
+    }
 
     /**
-     * 主要用作控件的缓存优化。
+     * 切换到分页模式，数据按页从数据源加载，内存中最多只保留maxPages页。{@link #getItemCount()}返回数据的总条数，
+     * 还没有加载完成的条目绑定时数据为null，可以显示占位，加载完成后会自动刷新。分页模式下不能使用修改数据的方法。
      *
-     * @param <VIEW> 要缓存的控件。
+     * @param source 数据源，为null时退出分页模式。
+     * @param pageSize 每页的条数。
+     * @param maxPages 内存中最多保留的页数，至少为3。
      */
-    public class ViewHolder<VIEW extends View> extends RecyclerView.ViewHolder {
-
-        /**
-         * 缓存控件的稀疏数组。
-         */
-        private SparseArray<VIEW> mViewCache;
+    public void setDataSource(PagedDataSource<BEAN> source, int pageSize, int maxPages) {
+        if (source != null) {
+            checkNotTree();
+        }
+        if (source != null && mItemFilter != null) {
+            // 分页的数据不能筛选
+            mItemFilter.release();
+            mItemFilter = null;
+        }
+        if (mPagedList != null) {
+            mPagedList.detach();
+            mPagedList = null;
+        }
+        if (source != null) {
+            mPagedList = new PagedList<>(source, pageSize, maxPages, AdapterExecutors.background(),
+                    new PagedList.Callback() {
 
-        public ViewHolder(View itemView, int[] itemViewIds) {
-            super(itemView);
-            mViewCache = new SparseArray<>();
-            if (itemViewIds != null && itemViewIds.length > 0) {
-                for (int id : itemViewIds) {
-                    mViewCache.put(id, findViewById(id));
-                }
-            }
+                        @Override
+                        public void onPageLoaded(int start, int count) {
+                            notifyItemRangeChanged(start, count);
+                        }
+                    });
         }
+        updateReadOnlyMode();
+        notifyDataSetChanged();
+    }
 
-        /**
-         * 如果没有缓存，则创建一个以传入id为key的缓存控件；如果有缓存，则获取key等于传入id的缓存控件。
-         *
-         * @param id 用作缓存key的id。
-         * @return 缓存的控件。
-         */
-        public VIEW findViewById(int id) {
-            View view = mViewCache.get(id);
-            if (view == null){
-                view = itemView.findViewById(id);
-                mViewCache.put(id, (VIEW) view);
-            }
-            return (VIEW) view;
+    /**
+     * 进入或退出分页和树形模式后调用。这些模式下不能直接修改数据，还没完成的{@link #submitList(List)}、
+     * 流式转换和提交的修改都是基于原来的数据，在这里取消，之后从其他线程提交的修改在提交时就被拒绝。
+     */
+    private void updateReadOnlyMode() {
+        boolean readOnly = mPagedList != null || mTreeList != null;
+        if (readOnly) {
+            mMaxScheduledGeneration++;
+            mStreamGeneration.incrementAndGet();
         }
+        mMutationQueue.setRejecting(readOnly);
+    }
 
-        public void setText(int textViewId, String text) {
-            TextView textView = (TextView) findViewById(textViewId);
-            textView.setText(text);
+    /**
+     * 分页模式下不能直接修改数据。
+     */
+    private void checkNotPaged() {
+        if (mPagedList != null) {
+            throw new IllegalStateException("Items cannot be modified while a PagedDataSource is set");
         }
+    }
 
-        public void setImageResource(int imageViewId, int resId) {
-            ImageView imageView = (ImageView) findViewById(imageViewId);
-            imageView.setImageResource(resId);
+    /**
+     * 修改数据之前调用，分页模式和树形模式下不能修改，从快照恢复的数据在这里转成可修改的列表。
+     * 筛选出部分条目时修改方法中的位置都是显示的位置，由{@link ItemFilter}同时写入全部数据。
+     */
+    private void checkMutable() {
+        checkNotPaged();
+        checkNotTree();
+        if (mItemFilter != null) {
+            mItemFilter.onDataChanged();
         }
+        materializeSnapshot();
     }
 
-    public void addItem(BEAN data) {
-        mDatas.add(data);
-        int position = mDatas.size() - 1;
-        notifyItemInserted(position);
+    /**
+     * 排序模式下不能使用指定位置的修改方法。
+     */
+    private void checkNotSorted() {
+        if (mComparator != null) {
+            throw new IllegalStateException("Positional changes are not allowed while a comparator is set");
+        }
     }
 
-    public void addItem(BEAN data, int index) {
-        mDatas.add(index, data);
-        notifyItemChanged(index);
+    /**
+     * 开启排序模式，已有的数据只在没有排好序时排序一次。之后{@link #addItem(Object)}和{@link #addItems(List)}
+     * 用二分查找插入到应在的位置，{@link #setItem(int, Object)}修改后顺序变化时用{@link #notifyItemMoved(int, int)}
+     * 移到新的位置，不会再对整个列表排序。排序模式下不能使用指定位置插入、移动、倒序和{@link #setItems(ArrayList)}。
+     *
+     * @param comparator 条目的顺序，为null时关闭排序模式。
+     */
+    public void setComparator(Comparator<? super BEAN> comparator) {
+        checkMutable();
+        mComparator = comparator;
+        if (comparator == null) {
+            return;
+        }
+        List<BEAN> datas = isFiltered() ? mItemFilter.getSource() : mDatas;
+        for (int i = 1, size = datas.size(); i < size; i++) {
+            if (comparator.compare(datas.get(i - 1), datas.get(i)) > 0) {
+                if (isFiltered()) {
+                    mItemFilter.sort(comparator);
+                } else {
+                    Collections.sort(mDatas, comparator);
+                }
+                invalidateKeyIndex();
+                flushBatch();
+                notifyDataSetChanged();
+                return;
+            }
+        }
     }
 
-    public void addItems(List<BEAN> datas) {
-        int lastSize = getItemCount();
-        int newSize = datas.size();
-        mDatas.addAll(datas);
-        notifyItemRangeInserted(lastSize, newSize);
+    public Comparator<? super BEAN> getComparator() {
+        return mComparator;
     }
 
-    public void setItem(int position, BEAN data) {
-        mDatas.set(position, data);
-        notifyItemChanged(position);
+    private int upperBound(BEAN data, int start, int end) {
+        return upperBound(mDatas, data, start, end, mComparator);
     }
 
-    public void setItems(int start, ArrayList<BEAN> datas) {
-        setItems(start, datas, mDefaultPolicy);
+    /**
+     * 在[start, end)中二分查找第一个比data大的位置，相等的条目保持加入的先后顺序。
+     */
+    static <BEAN> int upperBound(List<BEAN> datas, BEAN data, int start, int end,
+                                 Comparator<? super BEAN> comparator) {
+        int low = start;
+        int high = end;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (comparator.compare(datas.get(middle), data) <= 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
     }
 
-    public void setItems(ArrayList<BEAN> datas) {
-        setItems(0, datas);
+    /**
+     * 条目修改后如果和相邻的条目顺序不对，移动到应在的位置。
+     */
+    private void repositionSorted(int position) {
+        BEAN data = mDatas.get(position);
+        int size = mDatas.size();
+        int target = position;
+        if (position > 0 && mComparator.compare(mDatas.get(position - 1), data) > 0) {
+            target = upperBound(data, 0, position);
+        } else if (position < size - 1 && mComparator.compare(data, mDatas.get(position + 1)) > 0) {
+            target = upperBound(data, position + 1, size) - 1;
+        }
+        if (target != position) {
+            move(position, target);
+        }
     }
 
-    public void setItems(int start, ArrayList<BEAN> datas, ReplacePolicy policy) {
-        if (datas.size()+start == mDatas.size()) {
-            for (int i=start;i<getItemCount();i++) {
-                mDatas.set(i, datas.get(start+i));
+    /**
+     * 新条目排序后和已有条目归并，耗时O(n + m log m)，连续插入的条目合并成一次通知。
+     */
+    private void addItemsSorted(List<BEAN> datas) {
+        int count = datas.size();
+        if (count == 0) {
+            return;
+        }
+        List<BEAN> added = new ArrayList<>(datas);
+        Collections.sort(added, mComparator);
+        if (isFiltered()) {
+            mItemFilter.addAllSorted(added, mComparator);
+            return;
+        }
+        int oldSize = mDatas.size();
+        List<BEAN> merged = new ArrayList<>(oldSize + count);
+        beginBatch();
+        try {
+            int i = 0;
+            int j = 0;
+            while (j < count) {
+                // 相等时已有的条目在前
+                while (i < oldSize && mComparator.compare(mDatas.get(i), added.get(j)) <= 0) {
+                    merged.add(mDatas.get(i++));
+                }
+                int start = merged.size();
+                while (j < count && (i == oldSize || mComparator.compare(added.get(j), mDatas.get(i)) < 0)) {
+                    merged.add(added.get(j++));
+                }
+                getUpdateCallback().onInserted(start, merged.size() - start);
+            }
+            while (i < oldSize) {
+                merged.add(mDatas.get(i++));
             }
+            mDatas.clear();
+            mDatas.addAll(merged);
+        } finally {
+            commit();
         }
-        if (datas.size() + start > mDatas.size()) {
-            policy.replaceIfOutOfRange(this, mDatas, start, datas);
+    }
+
+    /**
+     * 开启树形模式，按先序显示所有展开的节点。每个节点记录各个子节点展开时占用的条数，
+     * 位置和节点之间的换算、插入和删除节点、展开和折叠都只需要沿着祖先节点更新，耗时和层数成正比（每层期望O(log 子节点数)），
+     * 展开和折叠只通知受影响的那一段条目，不会重新展开整棵树。
+     * 树形模式下只能用{@link #addTreeNode(TreeNode, Object)}等树形的方法修改数据，
+     * 不能同时使用分页、排序、筛选和稳定id。绑定时可以用{@link #getTreeNode(int)}取得节点的层级。
+     */
+    public void enableTree() {
+        checkNotPaged();
+        if (mTreeList != null) {
+            throw new IllegalStateException("Tree mode is already enabled");
         }
-        if (datas.size() + start < mDatas.size()) {
-            policy.replaceIfNotUpToCapacity(this, mDatas, start, datas);
+        if (mComparator != null || mItemFilter != null || mKeyExtractor != null) {
+            throw new IllegalStateException("Tree mode cannot be combined with a comparator, a filter or stable ids");
+        }
+        if (!mDatas.isEmpty()) {
+            throw new IllegalStateException("Remove all items before enabling tree mode");
         }
+        mTreeList = new TreeList<>();
+        updateReadOnlyMode();
     }
 
     /**
-     * 用于确定条目的替换策略。
+     * 关闭树形模式，所有的节点都会被移除。
+     */
+    public void disableTree() {
+        if (mTreeList == null) {
+            return;
+        }
+        mTreeList = null;
+        updateReadOnlyMode();
+        flushBatch();
+        notifyDataSetChanged();
+    }
+
+    public boolean isTreeEnabled() {
+        return mTreeList != null;
+    }
+
+    /**
+     * 树形模式下不能使用不分层的修改方法。
+     */
+    private void checkNotTree() {
+        if (mTreeList != null) {
+            throw new IllegalStateException("Items must be modified through the tree methods while tree mode is enabled");
+        }
+    }
+
+    private void checkTree() {
+        if (mTreeList == null) {
+            throw new IllegalStateException("enableTree() must be called first");
+        }
+    }
+
+    /**
+     * 检查节点属于这个适配器的树，耗时和层数成正比。
      *
-     * @param <BEAN> 数据模型对象。
+     * @param node 节点，允许为null时表示第一层的父节点。
      */
-    public interface ReplacePolicy<BEAN> {
+    private void checkTreeNode(TreeNode<BEAN> node, boolean nullable) {
+        checkTree();
+        if (node == null ? !nullable : !mTreeList.contains(node)) {
+            throw new IllegalArgumentException("The node does not belong to this adapter: " + node);
+        }
+    }
 
-        /**
-         * 在给定条目数量超出已有条目的处理方式。
-         *
-         * @param adapter RV的适配器。
-         * @param dstDatas 目标数据。
-         * @param start 要替换的开始索引。
-         * @param srcDatas 原始数据。
-         */
-        void replaceIfOutOfRange(RecyclerView.Adapter adapter, ArrayList<BEAN> dstDatas, int start,
-                                 ArrayList<BEAN> srcDatas);
+    /**
+     * 在子节点的末尾添加节点，新节点默认折叠。
+     *
+     * @param parent 父节点，为null时添加到第一层。
+     * @param data 节点的数据。
+     * @return 新的节点。
+     */
+    public TreeNode<BEAN> addTreeNode(TreeNode<BEAN> parent, BEAN data) {
+        return addTreeNode(parent, parent != null ? parent.getChildCount() : getTopLevelTreeNodeCount(), data);
+    }
 
-        /**
-         * 在给定条目数量不足以覆盖所有已有条目的处理方式。
-         *
-         * @param adapter
-         * @param dstDatas
-         * @param start
-         * @param srcDatas
-         */
-        void replaceIfNotUpToCapacity(RecyclerView.Adapter adapter, ArrayList<BEAN> dstDatas,
-                                      int start, ArrayList<BEAN> srcDatas);
+    /**
+     * 插入节点，新节点默认折叠。父节点展开并且可见时通知插入，父节点从叶子变成非叶子时还会刷新父节点。
+     *
+     * @param parent 父节点，为null时添加到第一层。
+     * @param index 插入后在父节点的子节点中的位置。
+     * @param data 节点的数据。
+     * @return 新的节点。
+     */
+    public TreeNode<BEAN> addTreeNode(TreeNode<BEAN> parent, int index, BEAN data) {
+        checkTreeNode(parent, true);
+        TreeNode<BEAN> node = mTreeList.addNode(parent, index, data);
+        int position = mTreeList.positionOf(node);
+        if (position >= 0) {
+            getUpdateCallback().onInserted(position, 1);
+        }
+        if (parent != null && parent.getChildCount() == 1) {
+            notifyTreeNodeChanged(parent);
+        }
+        return node;
     }
 
     /**
-     * 用于自定义数据替换的策略。
+     * 在子节点的末尾添加多个节点，只通知一次。
      *
-     * @param policy 替换数据的策略。
+     * @param parent 父节点，为null时添加到第一层。
+     * @param datas 节点的数据。
+     * @return 新的节点。
      */
-    public void setReplacePolicy(ReplacePolicy policy) {
-        this.mDefaultPolicy = policy;
+    public List<TreeNode<BEAN>> addTreeNodes(TreeNode<BEAN> parent, List<BEAN> datas) {
+        checkTreeNode(parent, true);
+        List<TreeNode<BEAN>> nodes = new ArrayList<>(datas.size());
+        if (datas.isEmpty()) {
+            return nodes;
+        }
+        boolean wasLeaf = parent != null && parent.isLeaf();
+        TreeNode<BEAN> p = parent != null ? parent : mTreeList.getRoot();
+        for (int i = 0, size = datas.size(); i < size; i++) {
+            nodes.add(mTreeList.addNode(p, p.getChildCount(), datas.get(i)));
+        }
+        int position = mTreeList.positionOf(nodes.get(0));
+        if (position >= 0) {
+            getUpdateCallback().onInserted(position, nodes.size());
+        }
+        if (wasLeaf) {
+            notifyTreeNodeChanged(parent);
+        }
+        return nodes;
     }
 
     /**
-     * 默认的替换策略，超出将忽略超出的条目，不足将只覆盖数据，不会影响到超出范围的。
+     * 移除节点和它的所有子孙节点，可见时只通知一次。
+     *
+     * @param node 要移除的节点。
      */
-    private class DefaultReplacePolicy implements ReplacePolicy<BEAN> {
+    public void removeTreeNode(TreeNode<BEAN> node) {
+        checkTreeNode(node, false);
+        int position = mTreeList.positionOf(node);
+        TreeNode<BEAN> parent = node.getParent();
+        int count = mTreeList.removeNode(node);
+        if (position >= 0) {
+            getUpdateCallback().onRemoved(position, count);
+        }
+        if (parent != null && parent.isLeaf()) {
+            notifyTreeNodeChanged(parent);
+        }
+    }
 
-        @Override
-        public void replaceIfOutOfRange(RecyclerView.Adapter adapter, ArrayList<BEAN> dstDatas,
-                                        int start, ArrayList<BEAN> srcDatas) {
-            int leftSize = dstDatas.size() - start;
-            for (int i=start;i<leftSize;i++) {
-                dstDatas.set(i, srcDatas.get(i));
+    /**
+     * 替换节点的数据。
+     *
+     * @param node 节点。
+     * @param data 新的数据。
+     */
+    public void setTreeNodeData(TreeNode<BEAN> node, BEAN data) {
+        checkTreeNode(node, false);
+        node.mData = data;
+        notifyTreeNodeChanged(node);
+    }
+
+    /**
+     * 展开节点，可见时通知插入新显示的一段条目，子孙节点保持各自原来的展开状态，节点本身也会刷新以便更新箭头等。
+     *
+     * @param node 节点。
+     */
+    public void expandTreeNode(TreeNode<BEAN> node) {
+        checkTreeNode(node, false);
+        int position = mTreeList.positionOf(node);
+        boolean changed = !node.mExpanded;
+        int count = mTreeList.expand(node);
+        if (position >= 0 && changed) {
+            if (count > 0) {
+                getUpdateCallback().onInserted(position + 1, count);
             }
-            adapter.notifyItemRangeChanged(start, leftSize);
+            getUpdateCallback().onChanged(position, 1, null);
         }
+    }
 
-        @Override
-        public void replaceIfNotUpToCapacity(RecyclerView.Adapter adapter,
-                                             ArrayList<BEAN> dstDatas, int start, ArrayList<BEAN> srcDatas) {
-            int srcSize = srcDatas.size();
-            for (int i=start;i<start+srcSize;i++) {
-                dstDatas.set(i, srcDatas.get(i));
+    /**
+     * 折叠节点，可见时通知移除被隐藏的一段条目，节点本身也会刷新。
+     *
+     * @param node 节点。
+     */
+    public void collapseTreeNode(TreeNode<BEAN> node) {
+        checkTreeNode(node, false);
+        int position = mTreeList.positionOf(node);
+        boolean changed = node.mExpanded;
+        int count = mTreeList.collapse(node);
+        if (position >= 0 && changed) {
+            if (count > 0) {
+                getUpdateCallback().onRemoved(position + 1, count);
             }
-            adapter.notifyItemRangeChanged(start, srcSize);
+            getUpdateCallback().onChanged(position, 1, null);
         }
     }
 
     /**
-     * 移除数据。
+     * 展开折叠的节点，折叠展开的节点，通常在点击事件中调用。
      *
-     * @param position 要移除数据的下标。
+     * @param node 节点。
      */
-    public void removeItem(int position) {
-        mDatas.remove(position);
-        notifyItemRemoved(position);
+    public void toggleTreeNode(TreeNode<BEAN> node) {
+        if (node.isExpanded()) {
+            collapseTreeNode(node);
+        } else {
+            expandTreeNode(node);
+        }
     }
 
     /**
-     * 移除数据。
+     * 节点可见时刷新它。
+     */
+    private void notifyTreeNodeChanged(TreeNode<BEAN> node) {
+        int position = mTreeList.positionOf(node);
+        if (position >= 0) {
+            getUpdateCallback().onChanged(position, 1, null);
+        }
+    }
+
+    /**
+     * 获取位置上的节点，耗时和层数成正比。
      *
-     * @throws ArrayIndexOutOfBoundsException
-     * @param start 从哪条记录开始？
-     * @param count 移除数据的条数。
+     * @param position 条目的位置。
+     * @return 节点。
      */
-    public void removeItem(int start, int count) {
-        int end = start + count;
-        for (int i=start;i<end;i++) {
-            mDatas.remove(i);
+    public TreeNode<BEAN> getTreeNode(int position) {
+        checkTree();
+        return mTreeList.nodeAt(position);
+    }
+
+    /**
+     * 获取节点的位置，耗时和层数成正比。
+     *
+     * @param node 节点。
+     * @return 节点的位置，有祖先节点折叠时返回-1。
+     */
+    public int getTreeNodePosition(TreeNode<BEAN> node) {
+        checkTreeNode(node, false);
+        return mTreeList.positionOf(node);
+    }
+
+    /**
+     * @return 第一层节点的数量，不是树形模式时返回0。
+     */
+    public int getTopLevelTreeNodeCount() {
+        return mTreeList != null ? mTreeList.getRoot().getChildCount() : 0;
+    }
+
+    public TreeNode<BEAN> getTopLevelTreeNode(int index) {
+        checkTree();
+        return mTreeList.getRoot().getChild(index);
+    }
+
+    /**
+     * 启用文字筛选，之后可以用{@link #filter(CharSequence)}查找包含某段文字的条目。
+     * 索引和查询都在后台线程进行，不会阻塞输入。
+     *
+     * @param extractor 获取条目文字的方法，为null时关闭筛选并恢复显示全部条目。
+     */
+    public void setFilterTextExtractor(TextExtractor<BEAN> extractor) {
+        checkNotPaged();
+        if (extractor != null) {
+            checkNotTree();
+        }
+        if (mItemFilter != null) {
+            mItemFilter.release();
+            mItemFilter = null;
+        }
+        if (extractor != null) {
+            mItemFilter = new ItemFilter<>(this, extractor);
         }
-        notifyItemRangeRemoved(start, count);
     }
 
     /**
-     * 清空所有的条目。
+     * 只显示文字中包含query的条目，不区分大小写，结果在后台算好后再刷新，可以在每次输入时调用，
+     * 旧的查询会被取消。只显示部分条目时仍然可以修改数据，修改方法中的位置都是显示的位置，
+     * 修改同时写入全部数据，只对新增和替换的条目检查是否包含query，不包含的不显示，{@link #clear()}清空全部数据。
+     *
+     * @param query 要查找的文字，为空时显示全部条目。
+     * @throws IllegalStateException 没有调用{@link #setFilterTextExtractor(TextExtractor)}。
      */
-    public void clear() {
-        int dataSize = mDatas.size();
-        mDatas.clear();
-        notifyItemRangeRemoved(0, dataSize);
+    public void filter(CharSequence query) {
+        if (mItemFilter == null) {
+            throw new IllegalStateException("Call setFilterTextExtractor() before filter()");
+        }
+        mItemFilter.filter(query);
+    }
+
+    /**
+     * 取消筛选并立即显示全部条目。
+     */
+    public void clearFilter() {
+        if (mItemFilter != null) {
+            mItemFilter.filter(null);
+        }
+    }
+
+    /**
+     * 是否只显示了筛选出的部分条目。
+     */
+    public boolean isFiltered() {
+        return mItemFilter != null && mItemFilter.isFiltered();
+    }
+
+    /**
+     * 替换显示的数据，供{@link ItemFilter}使用，之后由它发出通知。
+     */
+    void setFilteredDatas(List<BEAN> datas) {
+        mDatas = datas;
+        invalidateKeyIndex();
+    }
+
+    ListUpdateCallback getFilterUpdateCallback() {
+        return getUpdateCallback();
     }
 
     /**
@@ -421,6 +2873,12 @@ public abstract class BaseRVAdapter<BEAN> extends RecyclerView.Adapter<BaseRVAda
      * @return Bean数据集合。
      */
     public List<BEAN> getDatas() {
+        if (mPagedList != null) {
+            return mPagedList;
+        }
+        if (mTreeList != null) {
+            return mTreeList;
+        }
         return mDatas;
     }
 
@@ -428,9 +2886,15 @@ public abstract class BaseRVAdapter<BEAN> extends RecyclerView.Adapter<BaseRVAda
      * 获取指定位置的Bean数据。
      *
      * @param position 要获取的Bean数据的位置。
-     * @return Bean数据。
+     * @return Bean数据，分页模式下所在的页还没有加载完成时返回null。
      */
     public BEAN getData(int position) {
+        if (mPagedList != null) {
+            return mPagedList.get(position);
+        }
+        if (mTreeList != null) {
+            return mTreeList.get(position);
+        }
         return mDatas.get(position);
     }
 
@@ -440,16 +2904,60 @@ public abstract class BaseRVAdapter<BEAN> extends RecyclerView.Adapter<BaseRVAda
      * @param position 需要置顶的条目的位置。
      */
     public void stickItem(int position) {
-        BEAN data = mDatas.get(position);
-        removeItem(position);
-        addItem(data);
+        moveItem(position, mDatas.size() - 1);
+    }
+
+    /**
+     * 移动条目。
+     *
+     * @param fromPosition 条目原来的位置。
+     * @param toPosition 条目移动后的位置。
+     */
+    public void moveItem(int fromPosition, int toPosition) {
+        checkMutable();
+        checkNotSorted();
+        if (isFiltered()) {
+            mItemFilter.move(fromPosition, toPosition);
+            return;
+        }
+        move(fromPosition, toPosition);
+    }
+
+    private void move(int fromPosition, int toPosition) {
+        if (mDatas instanceof ChunkedList) {
+            ((ChunkedList<BEAN>) mDatas).move(fromPosition, toPosition);
+        } else {
+            mDatas.add(toPosition, mDatas.remove(fromPosition));
+        }
+        getUpdateCallback().onMoved(fromPosition, toPosition);
+    }
+
+    /**
+     * 改用{@link ChunkedList}存储数据，在头部或中间插入、删除和移动条目时不再搬动后面所有的数据，
+     * 适合聊天等经常在头部插入或移动条目的列表。{@link #getDatas()}返回的列表随之改变。
+     */
+    public void useChunkedStorage() {
+        checkMutable();
+        if (isFiltered()) {
+            mItemFilter.useChunkedStorage();
+            return;
+        }
+        mDatas = toChunked(mDatas);
     }
 
     /**
      * 将条目的顺序倒过来。
      */
     public void reverseItems() {
-        Collections.reverse(mDatas);
+        checkMutable();
+        checkNotSorted();
+        if (isFiltered()) {
+            mItemFilter.reverse();
+        } else {
+            Collections.reverse(mDatas);
+        }
+        invalidateKeyIndex();
+        flushBatch();
         notifyDataSetChanged();
     }
 }
@@ -0,0 +1,147 @@
+package cn.jackwhliu.rvadapter.lib;
+
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * 从{@link ByteBuffer}中读取的{@link DataInput}，格式和{@link java.io.DataOutputStream}写入的相同，
+ * 用来直接解码内存映射的文件而不用先复制到数组。只能读取{@link #reset(int, int)}指定的范围。
+ *
+ * @author lwh
+ */
+final class ByteBufferInput implements DataInput {
+
+    private final ByteBuffer mBuffer;
+
+    /**
+     * @param buffer 数据，不会修改它的位置。
+     */
+    ByteBufferInput(ByteBuffer buffer) {
+        this.mBuffer = buffer.duplicate();
+    }
+
+    /**
+     * 之后从start开始读取，最多读到end。
+     */
+    void reset(int start, int end) {
+        mBuffer.limit(end);
+        mBuffer.position(start);
+    }
+
+    private void require(int count) throws EOFException {
+        if (mBuffer.remaining() < count) {
+            throw new EOFException("Need " + count + " bytes, " + mBuffer.remaining() + " left");
+        }
+    }
+
+    @Override
+    public void readFully(byte[] b) throws IOException {
+        readFully(b, 0, b.length);
+    }
+
+    @Override
+    public void readFully(byte[] b, int off, int len) throws IOException {
+        require(len);
+        mBuffer.get(b, off, len);
+    }
+
+    @Override
+    public int skipBytes(int n) {
+        int count = Math.max(0, Math.min(n, mBuffer.remaining()));
+        mBuffer.position(mBuffer.position() + count);
+        return count;
+    }
+
+    @Override
+    public boolean readBoolean() throws IOException {
+        return readByte() != 0;
+    }
+
+    @Override
+    public byte readByte() throws IOException {
+        require(1);
+        return mBuffer.get();
+    }
+
+    @Override
+    public int readUnsignedByte() throws IOException {
+        return readByte() & 0xFF;
+    }
+
+    @Override
+    public short readShort() throws IOException {
+        require(2);
+        return mBuffer.getShort();
+    }
+
+    @Override
+    public int readUnsignedShort() throws IOException {
+        return readShort() & 0xFFFF;
+    }
+
+    @Override
+    public char readChar() throws IOException {
+        require(2);
+        return mBuffer.getChar();
+    }
+
+    @Override
+    public int readInt() throws IOException {
+        require(4);
+        return mBuffer.getInt();
+    }
+
+    @Override
+    public long readLong() throws IOException {
+        require(8);
+        return mBuffer.getLong();
+    }
+
+    @Override
+    public float readFloat() throws IOException {
+        require(4);
+        return mBuffer.getFloat();
+    }
+
+    @Override
+    public double readDouble() throws IOException {
+        require(8);
+        return mBuffer.getDouble();
+    }
+
+    /**
+     * 和{@link DataInputStream#readLine()}相同，每个字节转成一个字符，读到\n、\r或\r\n为止。
+     * 快照中的文字推荐用{@link #readUTF()}读取。
+     *
+     * @return 一行，不包括换行符，已经读到末尾时返回null。
+     */
+    @Override
+    public String readLine() {
+        if (!mBuffer.hasRemaining()) {
+            return null;
+        }
+        StringBuilder line = new StringBuilder();
+        while (mBuffer.hasRemaining()) {
+            int c = mBuffer.get() & 0xFF;
+            if (c == '\n') {
+                break;
+            }
+            if (c == '\r') {
+                if (mBuffer.hasRemaining() && mBuffer.get(mBuffer.position()) == '\n') {
+                    mBuffer.get();
+                }
+                break;
+            }
+            line.append((char) c);
+        }
+        return line.toString();
+    }
+
+    @Override
+    public String readUTF() throws IOException {
+        return DataInputStream.readUTF(this);
+    }
+}
@@ -0,0 +1,391 @@
+package cn.jackwhliu.rvadapter.lib;
+
+import android.support.v7.widget.RecyclerView;
+import android.util.SparseArray;
+import android.util.SparseIntArray;
+import android.view.ViewGroup;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import cn.jackwhliu.rvadapter.lib.collection.FenwickTree;
+
+/**
+ * 把多个{@link BaseRVAdapter}依次拼接起来显示在同一个RecyclerView中，代替嵌套的RecyclerView，
+ * 所有条目共用一个缓存池和一次测量。各个子适配器的条目数保存在{@link FenwickTree}中，
+ * 位置换算是O(log n)，子适配器的通知换算成整个列表中的位置后转发。
+ * <p>
+ * 子适配器的viewType换算成布局文件的id，不同子适配器中布局相同的条目可以互相复用ViewHolder。
+ * 子适配器重写了{@link BaseRVAdapter#onCreateViewHolder(ViewGroup, int)}时无法得知布局，
+ * 它的viewType单独分配，不和其他子适配器共用，绑定时{@link RecyclerView.ViewHolder#getItemViewType()}
+ * 返回的是分配后的viewType，子适配器选择{@link ItemViewDelegate}时按自己的位置重新取得viewType。子适配器中的点击事件和延迟绑定收到的都是在子适配器中的位置。
+ * 只能在主线程使用，不支持稳定id。
+ *
+ * @author lwh
+ */
+public class ConcatRVAdapter extends RecyclerView.Adapter<BaseRVAdapter.ViewHolder> {
+
+    /**
+     * 单独分配的viewType从这里开始递减，布局文件的id都是正数，不会冲突。
+     */
+    private static final int FIRST_ISOLATED_VIEW_TYPE = -2;
+
+    private final List<Child> mChildren = new ArrayList<>();
+
+    /**
+     * 每个子适配器的条目数，和{@link #mChildren}一一对应。
+     */
+    private final FenwickTree mCounts = new FenwickTree();
+
+    /**
+     * 全局viewType对应的创建者。
+     */
+    private final SparseArray<ViewTypeOwner> mViewTypeOwners = new SparseArray<>();
+
+    private int mNextIsolatedViewType = FIRST_ISOLATED_VIEW_TYPE;
+
+    private RecyclerView mRecyclerView;
+
+    /**
+     * 全局viewType由哪个子适配器用哪个viewType创建。
+     */
+    private static final class ViewTypeOwner {
+
+        final BaseRVAdapter<?> mAdapter;
+
+        final int mLocalViewType;
+
+        ViewTypeOwner(BaseRVAdapter<?> adapter, int localViewType) {
+            this.mAdapter = adapter;
+            this.mLocalViewType = localViewType;
+        }
+    }
+
+    /**
+     * 一个子适配器，同时接收它的通知。
+     */
+    private final class Child extends RecyclerView.AdapterDataObserver {
+
+        final BaseRVAdapter<?> mAdapter;
+
+        /**
+         * 是否按布局换算viewType。
+         */
+        final boolean mShareViewTypes;
+
+        /**
+         * 子适配器的viewType到全局viewType的映射。
+         */
+        final SparseIntArray mViewTypes = new SparseIntArray();
+
+        /**
+         * 在{@link #mChildren}中的位置。
+         */
+        int mIndex;
+
+        Child(BaseRVAdapter<?> adapter) {
+            this.mAdapter = adapter;
+            this.mShareViewTypes = !overridesCreateViewHolder(adapter);
+        }
+
+        private int offset() {
+            return mCounts.prefixSum(mIndex);
+        }
+
+        @Override
+        public void onChanged() {
+            mCounts.set(mIndex, mAdapter.getItemCount());
+            notifyDataSetChanged();
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount) {
+            notifyItemRangeChanged(offset() + positionStart, itemCount);
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount, Object payload) {
+            notifyItemRangeChanged(offset() + positionStart, itemCount, payload);
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            // 按通知累加条目数，批量通知时子适配器的条目数已经是最终的值
+            mCounts.update(mIndex, itemCount);
+            notifyItemRangeInserted(offset() + positionStart, itemCount);
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            mCounts.update(mIndex, -itemCount);
+            notifyItemRangeRemoved(offset() + positionStart, itemCount);
+        }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            if (itemCount != 1) {
+                // RecyclerView只支持单个条目的移动，整段移动拆成逐个移动时中间的位置会错位
+                notifyDataSetChanged();
+                return;
+            }
+            int offset = offset();
+            notifyItemMoved(offset + fromPosition, offset + toPosition);
+        }
+    }
+
+    /**
+     * 在末尾添加子适配器。
+     *
+     * @param adapter 子适配器，同时只能加入一个组合适配器，也不能再直接设置给RecyclerView。
+     */
+    public void addAdapter(BaseRVAdapter<?> adapter) {
+        addAdapter(mChildren.size(), adapter);
+    }
+
+    /**
+     * 插入子适配器，不在末尾时需要按子适配器的数量重建位置表。
+     *
+     * @param index 插入后是第几个子适配器。
+     * @param adapter 子适配器，同时只能加入一个组合适配器，也不能再直接设置给RecyclerView。
+     */
+    public void addAdapter(int index, BaseRVAdapter<?> adapter) {
+        if (adapter.mConcatParent != null || adapter.mSectionedParent != null) {
+            throw new IllegalArgumentException("The adapter is already added to a ConcatRVAdapter or a SectionedRVAdapter");
+        }
+        Child child = new Child(adapter);
+        mChildren.add(index, child);
+        updateIndices(index);
+        int count = adapter.getItemCount();
+        mCounts.add(index, count);
+        adapter.mConcatParent = this;
+        adapter.registerAdapterDataObserver(child);
+        if (mRecyclerView != null) {
+            adapter.onAttachedToRecyclerView(mRecyclerView);
+        }
+        if (count > 0) {
+            notifyItemRangeInserted(mCounts.prefixSum(index), count);
+        }
+    }
+
+    /**
+     * 移除子适配器，它的条目只通知一次移除。
+     *
+     * @return 是否存在该子适配器。
+     */
+    public boolean removeAdapter(BaseRVAdapter<?> adapter) {
+        int index = indexOf(adapter);
+        if (index < 0) {
+            return false;
+        }
+        Child child = mChildren.remove(index);
+        int start = mCounts.prefixSum(index);
+        int count = mCounts.remove(index);
+        updateIndices(index);
+        adapter.unregisterAdapterDataObserver(child);
+        adapter.mConcatParent = null;
+        releaseViewTypes(adapter);
+        if (mRecyclerView != null) {
+            adapter.onDetachedFromRecyclerView(mRecyclerView);
+        }
+        if (count > 0) {
+            notifyItemRangeRemoved(start, count);
+        }
+        return true;
+    }
+
+    public int getAdapterCount() {
+        return mChildren.size();
+    }
+
+    public BaseRVAdapter<?> getAdapter(int index) {
+        return mChildren.get(index).mAdapter;
+    }
+
+    /**
+     * 获取子适配器的位置。
+     *
+     * @return 第几个子适配器，不存在时返回-1。
+     */
+    public int indexOf(BaseRVAdapter<?> adapter) {
+        for (int i = 0, size = mChildren.size(); i < size; i++) {
+            if (mChildren.get(i).mAdapter == adapter) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 获取位置所在的子适配器，O(log n)。
+     *
+     * @param position 整个列表中的位置。
+     * @return 子适配器。
+     */
+    public BaseRVAdapter<?> getAdapterForPosition(int position) {
+        return childAt(position).mAdapter;
+    }
+
+    /**
+     * 把整个列表中的位置换算成子适配器中的位置，O(log n)。
+     *
+     * @param adapter 子适配器。
+     * @param position 整个列表中的位置。
+     * @return 在子适配器中的位置，不属于该子适配器时返回{@link RecyclerView#NO_POSITION}。
+     */
+    public int getLocalPosition(BaseRVAdapter<?> adapter, int position) {
+        if (adapter.mConcatParent != this || position < 0 || position >= getItemCount()) {
+            return RecyclerView.NO_POSITION;
+        }
+        int index = mCounts.indexOf(position);
+        if (mChildren.get(index).mAdapter != adapter) {
+            return RecyclerView.NO_POSITION;
+        }
+        return position - mCounts.prefixSum(index);
+    }
+
+    /**
+     * 把子适配器中的位置换算成整个列表中的位置，用于滚动到子适配器中的某个条目等。
+     *
+     * @param adapter 子适配器。
+     * @param localPosition 在子适配器中的位置。
+     * @return 整个列表中的位置，不存在该子适配器时返回{@link RecyclerView#NO_POSITION}。
+     */
+    public int getGlobalPosition(BaseRVAdapter<?> adapter, int localPosition) {
+        int index = indexOf(adapter);
+        return index >= 0 ? mCounts.prefixSum(index) + localPosition : RecyclerView.NO_POSITION;
+    }
+
+    @Override
+    public int getItemCount() {
+        return mCounts.sum();
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        Child child = childAt(position);
+        int localViewType = child.mAdapter.getItemViewType(position - mCounts.prefixSum(child.mIndex));
+        int index = child.mViewTypes.indexOfKey(localViewType);
+        if (index >= 0) {
+            return child.mViewTypes.valueAt(index);
+        }
+        int viewType = registerViewType(child, localViewType);
+        child.mViewTypes.put(localViewType, viewType);
+        return viewType;
+    }
+
+    @Override
+    public BaseRVAdapter.ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+        ViewTypeOwner owner = mViewTypeOwners.get(viewType);
+        if (owner == null) {
+            throw new IllegalStateException("Unknown view type: " + viewType);
+        }
+        return owner.mAdapter.onCreateViewHolder(parent, owner.mLocalViewType);
+    }
+
+    @Override
+    public void onBindViewHolder(BaseRVAdapter.ViewHolder holder, int position) {
+        Child child = childAt(position);
+        child.mAdapter.onBindViewHolder(holder, position - mCounts.prefixSum(child.mIndex));
+    }
+
+    @Override
+    public void onBindViewHolder(BaseRVAdapter.ViewHolder holder, int position, List<Object> payloads) {
+        Child child = childAt(position);
+        child.mAdapter.onBindViewHolder(holder, position - mCounts.prefixSum(child.mIndex), payloads);
+    }
+
+    @Override
+    public void onViewRecycled(BaseRVAdapter.ViewHolder holder) {
+        super.onViewRecycled(holder);
+        BaseRVAdapter<?> owner = holder.getOwner();
+        if (owner != null && owner.mConcatParent == this) {
+            owner.onViewRecycled(holder);
+        }
+    }
+
+    @Override
+    public void onAttachedToRecyclerView(RecyclerView recyclerView) {
+        super.onAttachedToRecyclerView(recyclerView);
+        mRecyclerView = recyclerView;
+        for (int i = 0, size = mChildren.size(); i < size; i++) {
+            mChildren.get(i).mAdapter.onAttachedToRecyclerView(recyclerView);
+        }
+    }
+
+    @Override
+    public void onDetachedFromRecyclerView(RecyclerView recyclerView) {
+        super.onDetachedFromRecyclerView(recyclerView);
+        for (int i = 0, size = mChildren.size(); i < size; i++) {
+            mChildren.get(i).mAdapter.onDetachedFromRecyclerView(recyclerView);
+        }
+        mRecyclerView = null;
+    }
+
+    private Child childAt(int position) {
+        if (position < 0 || position >= getItemCount()) {
+            throw new IndexOutOfBoundsException("Index: " + position + ", Size: " + getItemCount());
+        }
+        return mChildren.get(mCounts.indexOf(position));
+    }
+
+    private void updateIndices(int start) {
+        for (int i = start, size = mChildren.size(); i < size; i++) {
+            mChildren.get(i).mIndex = i;
+        }
+    }
+
+    /**
+     * 给子适配器的viewType分配全局的viewType，布局相同的共用一个。
+     */
+    private int registerViewType(Child child, int localViewType) {
+        if (child.mShareViewTypes) {
+            int layoutId = child.mAdapter.getLayoutId(localViewType);
+            if (layoutId != 0) {
+                if (mViewTypeOwners.get(layoutId) == null) {
+                    mViewTypeOwners.put(layoutId, new ViewTypeOwner(child.mAdapter, localViewType));
+                }
+                return layoutId;
+            }
+        }
+        int viewType = mNextIsolatedViewType--;
+        mViewTypeOwners.put(viewType, new ViewTypeOwner(child.mAdapter, localViewType));
+        return viewType;
+    }
+
+    /**
+     * 子适配器被移除后，它创建的viewType交给其他使用同一布局的子适配器，没有时删除。
+     */
+    private void releaseViewTypes(BaseRVAdapter<?> adapter) {
+        for (int i = mViewTypeOwners.size() - 1; i >= 0; i--) {
+            if (mViewTypeOwners.valueAt(i).mAdapter != adapter) {
+                continue;
+            }
+            int viewType = mViewTypeOwners.keyAt(i);
+            ViewTypeOwner newOwner = null;
+            for (int j = 0, size = mChildren.size(); j < size && newOwner == null; j++) {
+                Child child = mChildren.get(j);
+                int index = child.mViewTypes.indexOfValue(viewType);
+                if (index >= 0) {
+                    newOwner = new ViewTypeOwner(child.mAdapter, child.mViewTypes.keyAt(index));
+                }
+            }
+            if (newOwner != null) {
+                mViewTypeOwners.setValueAt(i, newOwner);
+            } else {
+                mViewTypeOwners.removeAt(i);
+            }
+        }
+    }
+
+    /**
+     * 子适配器是否自己创建ViewHolder，这时无法得知viewType对应的布局。
+     */
+    private static boolean overridesCreateViewHolder(BaseRVAdapter<?> adapter) {
+        try {
+            return adapter.getClass().getMethod("onCreateViewHolder", ViewGroup.class, int.class)
+                    .getDeclaringClass() != BaseRVAdapter.class;
+        } catch (NoSuchMethodException e) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package cn.jackwhliu.rvadapter.lib;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.support.v7.widget.RecyclerView;
+
+import java.util.ArrayDeque;
+
+/**
+ * 延迟绑定的调度，只在主线程使用。主线程的消息队列空闲时才执行延迟绑定，每次最多占用一小段时间，
+ * 剩下的等处理完下一批消息（通常是下一帧的绘制）再次空闲时继续。
+ * ViewHolder被回收或重新绑定时，之前安排的延迟绑定自动取消。
+ *
+ * @author lwh
+ * @param <BEAN> 适配的数据类型。
+ */
+final class DeferredBinder<BEAN> implements MessageQueue.IdleHandler, Runnable {
+
+    /**
+     * 每次空闲时最多用来执行延迟绑定的时间。
+     */
+    private static final long IDLE_BUDGET_NANOS = 4000000L;
+
+    private final BaseRVAdapter<BEAN> mAdapter;
+
+    /**
+     * 等待延迟绑定的ViewHolder，每个最多出现一次。
+     */
+    private final ArrayDeque<BaseRVAdapter.ViewHolder> mPending = new ArrayDeque<>();
+
+    private final Handler mHandler = AdapterExecutors.mainHandler();
+
+    /**
+     * 是否已经注册了空闲回调。
+     */
+    private boolean mRegistered;
+
+    DeferredBinder(BaseRVAdapter<BEAN> adapter) {
+        this.mAdapter = adapter;
+    }
+
+    /**
+     * 安排一次延迟绑定，替换掉该ViewHolder还没有执行的延迟绑定。
+     *
+     * @param holder 刚完成即时绑定的ViewHolder。
+     * @param data 绑定的数据。
+     */
+    void schedule(BaseRVAdapter.ViewHolder holder, BEAN data) {
+        holder.mDeferredData = data;
+        holder.mDeferredBinder = this;
+        if (holder.mDeferredQueue != this) {
+            // 使用共用缓存池时可能还留在其他适配器的队列中，那边执行时会跳过
+            holder.mDeferredQueue = this;
+            mPending.offer(holder);
+        }
+        if (!mRegistered) {
+            mRegistered = true;
+            Looper.myQueue().addIdleHandler(this);
+        }
+    }
+
+    /**
+     * 取消该ViewHolder还没有执行的延迟绑定。
+     */
+    void cancel(BaseRVAdapter.ViewHolder holder) {
+        if (holder.mDeferredBinder == this) {
+            holder.mDeferredBinder = null;
+            holder.mDeferredData = null;
+        }
+    }
+
+    /**
+     * 该ViewHolder是否有还没执行的延迟绑定。
+     */
+    boolean isPending(BaseRVAdapter.ViewHolder holder) {
+        return holder.mDeferredBinder == this;
+    }
+
+    /**
+     * 取消所有还没有执行的延迟绑定。
+     */
+    void cancelAll() {
+        BaseRVAdapter.ViewHolder holder;
+        while ((holder = mPending.poll()) != null) {
+            dequeue(holder);
+            cancel(holder);
+        }
+        if (mRegistered) {
+            mRegistered = false;
+            Looper.myQueue().removeIdleHandler(this);
+            mHandler.removeCallbacks(this);
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean queueIdle() {
+        long deadline = System.nanoTime() + IDLE_BUDGET_NANOS;
+        BaseRVAdapter.ViewHolder holder;
+        while ((holder = mPending.poll()) != null) {
+            dequeue(holder);
+            if (!isPending(holder)) {
+                continue;
+            }
+            BEAN data = (BEAN) holder.mDeferredData;
+            cancel(holder);
+            int position = mAdapter.getLocalPosition(holder);
+            if (position != RecyclerView.NO_POSITION) {
+                mAdapter.onBindViewHolderDeferred(holder, position, data);
+            }
+            if (System.nanoTime() > deadline) {
+                break;
+            }
+        }
+        if (mPending.isEmpty()) {
+            mRegistered = false;
+            return false;
+        }
+        // 空闲回调只在队列再次变空时执行，发一个空消息让绘制等消息先处理，之后继续
+        mHandler.post(this);
+        return true;
+    }
+
+    private void dequeue(BaseRVAdapter.ViewHolder holder) {
+        if (holder.mDeferredQueue == this) {
+            holder.mDeferredQueue = null;
+        }
+    }
+
+    @Override
+    public void run() {
+    }
+}
@@ -0,0 +1,304 @@
+package cn.jackwhliu.rvadapter.lib;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.util.LruCache;
+import android.view.ViewGroup;
+
+import java.io.File;
+import java.util.concurrent.Executor;
+
+/**
+ * {@link BaseRVAdapter.ViewHolder}加载图片用的解码线程和内存缓存。图片在后台线程按控件的大小降采样解码，
+ * 解码后的Bitmap放在按字节数限制大小的LRU缓存中。默认所有适配器共用{@link #getDefault()}，
+ * 同一张图片在不同的列表中只解码一次。
+ *
+ * @author lwh
+ */
+public class ImageLoader {
+
+    /**
+     * 默认缓存占最大堆内存的比例的倒数。
+     */
+    private static final int DEFAULT_CACHE_DIVISOR = 8;
+
+    private static volatile ImageLoader sDefault;
+
+    private final LruCache<String, Bitmap> mCache;
+
+    private final Executor mExecutor;
+
+    /**
+     * 获取共用的加载器，缓存大小为最大堆内存的1/8。
+     */
+    public static ImageLoader getDefault() {
+        if (sDefault == null) {
+            synchronized (ImageLoader.class) {
+                if (sDefault == null) {
+                    long maxBytes = Runtime.getRuntime().maxMemory() / DEFAULT_CACHE_DIVISOR;
+                    sDefault = new ImageLoader((int) Math.min(maxBytes, Integer.MAX_VALUE));
+                }
+            }
+        }
+        return sDefault;
+    }
+
+    /**
+     * @param maxCacheBytes 缓存的Bitmap最多占用的字节数。
+     */
+    public ImageLoader(int maxCacheBytes) {
+        this(maxCacheBytes, AdapterExecutors.imageDecoder());
+    }
+
+    ImageLoader(int maxCacheBytes, Executor executor) {
+        if (maxCacheBytes <= 0) {
+            throw new IllegalArgumentException("maxCacheBytes must be positive: " + maxCacheBytes);
+        }
+        this.mCache = new LruCache<String, Bitmap>(maxCacheBytes) {
+
+            @Override
+            protected int sizeOf(String key, Bitmap value) {
+                return value.getByteCount();
+            }
+        };
+        this.mExecutor = executor;
+    }
+
+    /**
+     * 缓存中的Bitmap占用的字节数。
+     */
+    public int getCacheSize() {
+        return mCache.size();
+    }
+
+    public int getMaxCacheSize() {
+        return mCache.maxSize();
+    }
+
+    /**
+     * 清空缓存，例如在内存不足时调用。正在显示的Bitmap不受影响。
+     */
+    public void clearCache() {
+        mCache.evictAll();
+    }
+
+    /**
+     * 缓存的key，同一张图片按不同的大小解码时分开缓存。
+     */
+    static String cacheKey(Source source, int width, int height) {
+        return source.getKey() + '@' + width + 'x' + height;
+    }
+
+    Bitmap getCached(String cacheKey) {
+        return mCache.get(cacheKey);
+    }
+
+    /**
+     * 在解码线程中加载图片。
+     */
+    void enqueue(Request request) {
+        mExecutor.execute(request);
+    }
+
+    /**
+     * 在解码线程中执行，缓存中没有时解码并放入缓存。
+     *
+     * @return 解码失败时返回null。
+     */
+    Bitmap load(Request request) {
+        Bitmap bitmap = mCache.get(request.mCacheKey);
+        if (bitmap != null) {
+            return bitmap;
+        }
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        request.mSource.decode(options);
+        if (options.outWidth <= 0 || options.outHeight <= 0 || request.mCancelled) {
+            return null;
+        }
+        options.inSampleSize = calculateInSampleSize(options.outWidth, options.outHeight,
+                request.mWidth, request.mHeight);
+        options.inJustDecodeBounds = false;
+        try {
+            bitmap = request.mSource.decode(options);
+        } catch (OutOfMemoryError e) {
+            mCache.evictAll();
+            return null;
+        }
+        if (bitmap != null) {
+            // 已经取消也放入缓存，马上重新绑定同一张图片时可以直接使用
+            mCache.put(request.mCacheKey, bitmap);
+        }
+        return bitmap;
+    }
+
+    /**
+     * 解码的目标大小。
+     *
+     * @param measured 控件测量后的大小，还没测量时为0。
+     * @param param 布局参数中的大小。
+     * @param screen 屏幕的大小。
+     * @return 目标大小，要等布局完成才能确定时返回0。
+     */
+    static int targetSize(int measured, int param, int screen) {
+        if (measured > 0) {
+            return measured;
+        }
+        if (param > 0) {
+            return param;
+        }
+        // 包裹内容的控件没有图片时大小为0，只能按屏幕大小
+        return param == ViewGroup.LayoutParams.WRAP_CONTENT ? screen : 0;
+    }
+
+    /**
+     * 计算不小于目标大小的最大降采样倍数，只取2的幂，解码最快。
+     *
+     * @param width 图片的宽度。
+     * @param height 图片的高度。
+     * @param reqWidth 目标宽度。
+     * @param reqHeight 目标高度。
+     * @return 降采样倍数。
+     */
+    static int calculateInSampleSize(int width, int height, int reqWidth, int reqHeight) {
+        int sampleSize = 1;
+        while (width / (sampleSize * 2) >= reqWidth && height / (sampleSize * 2) >= reqHeight) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    /**
+     * 图片的来源。
+     */
+    abstract static class Source {
+
+        /**
+         * @return 区分不同图片的key。
+         */
+        abstract String getKey();
+
+        /**
+         * 解码图片，options.inJustDecodeBounds为true时只读取大小。
+         */
+        abstract Bitmap decode(BitmapFactory.Options options);
+    }
+
+    static final class FileSource extends Source {
+
+        private final String mPath;
+
+        FileSource(File file) {
+            this.mPath = file.getAbsolutePath();
+        }
+
+        @Override
+        String getKey() {
+            return "file:" + mPath;
+        }
+
+        @Override
+        Bitmap decode(BitmapFactory.Options options) {
+            return BitmapFactory.decodeFile(mPath, options);
+        }
+    }
+
+    static final class BytesSource extends Source {
+
+        private final String mKey;
+
+        private final byte[] mData;
+
+        BytesSource(String key, byte[] data) {
+            this.mKey = key;
+            this.mData = data;
+        }
+
+        @Override
+        String getKey() {
+            return "bytes:" + mKey;
+        }
+
+        @Override
+        Bitmap decode(BitmapFactory.Options options) {
+            return BitmapFactory.decodeByteArray(mData, 0, mData.length, options);
+        }
+    }
+
+    static final class ResourceSource extends Source {
+
+        private final Resources mResources;
+
+        private final int mResId;
+
+        ResourceSource(Resources resources, int resId) {
+            this.mResources = resources;
+            this.mResId = resId;
+        }
+
+        @Override
+        String getKey() {
+            return "res:" + mResId;
+        }
+
+        @Override
+        Bitmap decode(BitmapFactory.Options options) {
+            return BitmapFactory.decodeResource(mResources, mResId, options);
+        }
+    }
+
+    /**
+     * 一次加载，ViewHolder被回收、重新绑定或者给同一个控件设置了其他图片时取消。
+     * 取消后还在排队的不再解码，已经解码的不再显示。
+     */
+    static final class Request implements Runnable {
+
+        final ImageLoader mLoader;
+
+        final Source mSource;
+
+        final String mCacheKey;
+
+        final int mWidth;
+
+        final int mHeight;
+
+        final BaseRVAdapter.ViewHolder mHolder;
+
+        final int mViewId;
+
+        volatile boolean mCancelled;
+
+        Request(ImageLoader loader, Source source, String cacheKey, int width, int height,
+                BaseRVAdapter.ViewHolder holder, int viewId) {
+            this.mLoader = loader;
+            this.mSource = source;
+            this.mCacheKey = cacheKey;
+            this.mWidth = width;
+            this.mHeight = height;
+            this.mHolder = holder;
+            this.mViewId = viewId;
+        }
+
+        @Override
+        public void run() {
+            if (mCancelled) {
+                return;
+            }
+            final Bitmap bitmap = mLoader.load(this);
+            if (bitmap == null || mCancelled) {
+                return;
+            }
+            AdapterExecutors.mainThread().execute(new Runnable() {
+
+                @Override
+                public void run() {
+                    if (!mCancelled) {
+                        mHolder.onImageLoaded(Request.this, bitmap);
+                    }
+                }
+            });
+        }
+    }
+}
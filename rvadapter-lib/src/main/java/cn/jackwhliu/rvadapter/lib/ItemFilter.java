@@ -0,0 +1,793 @@
+package cn.jackwhliu.rvadapter.lib;
+
+import android.support.v7.util.DiffUtil;
+import android.support.v7.util.ListUpdateCallback;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import cn.jackwhliu.rvadapter.lib.collection.ChunkedList;
+
+/**
+ * 适配器的文字筛选。在后台线程为所有条目的文字建立{@link TextIndex}，查询也在后台执行，
+ * 新的查询会让还没完成的旧查询作废。查询是上一次查询的延伸时（例如继续输入），只在上一次的结果中查找。
+ * 结果在主线程替换适配器显示的数据，只对增加和减少的条目发出范围通知。
+ * 只显示部分条目时适配器的修改按显示的位置写入全部数据，只对新增和替换的条目在主线程检查是否包含查询，不会重新查询全部数据。
+ * 除了后台任务以外，所有方法都需要在主线程调用。
+ *
+ * @author lwh
+ * @param <BEAN> 适配的数据类型。
+ */
+final class ItemFilter<BEAN> {
+
+    /**
+     * 查询时每检查这么多条目确认一次是否已经作废。
+     */
+    private static final int CANCEL_CHECK_INTERVAL = 256;
+
+    private final BaseRVAdapter<BEAN> mAdapter;
+
+    private final BaseRVAdapter.TextExtractor<BEAN> mExtractor;
+
+    private final Executor mExecutor = AdapterExecutors.background();
+
+    /**
+     * 查询的序号，数据变化或有新的查询时加一，序号不是最新的查询结果会被丢弃。
+     */
+    private final AtomicInteger mGeneration = new AtomicInteger();
+
+    /**
+     * 还没开始的最新查询，更早的直接被替换掉。
+     */
+    private final AtomicReference<Request> mPendingRequest = new AtomicReference<>();
+
+    /**
+     * 需要重建索引的数据。
+     */
+    private final AtomicReference<List<BEAN>> mPendingSnapshot = new AtomicReference<>();
+
+    /**
+     * 后台任务是否在执行，保证查询按顺序执行。
+     */
+    private final AtomicBoolean mRunning = new AtomicBoolean();
+
+    /**
+     * 显示部分条目时保存的全部数据，显示全部时为null。
+     */
+    private List<BEAN> mSource;
+
+    /**
+     * 显示的条目在全部数据中的位置，升序，只有前{@link #mShownCount}个有效，显示全部时为null。
+     */
+    private int[] mShown;
+
+    private int mShownCount;
+
+    /**
+     * 显示的条目，和适配器当前的数据是同一个列表，显示全部时为null。
+     */
+    private List<BEAN> mShownDatas;
+
+    /**
+     * 数据变化后索引需要重建。
+     */
+    private boolean mIndexStale = true;
+
+    /**
+     * 最近一次的查询。
+     */
+    private String mQuery = "";
+
+    /**
+     * 最近一次的查询是否还没有结果。
+     */
+    private boolean mInFlight;
+
+    /**
+     * 是否已经安排了重新查询。
+     */
+    private boolean mRequeryPosted;
+
+    /**
+     * 以下只在后台任务中使用。
+     */
+    private TextIndex mIndex;
+    private List<BEAN> mIndexedDatas;
+    private String mLastQuery;
+    private int[] mLastMatches;
+
+    private final Runnable mWorker = new Runnable() {
+
+        @Override
+        public void run() {
+            do {
+                Request request;
+                while ((request = mPendingRequest.getAndSet(null)) != null) {
+                    process(request);
+                }
+                mRunning.set(false);
+            } while (mPendingRequest.get() != null && mRunning.compareAndSet(false, true));
+        }
+    };
+
+    private final Runnable mRequery = new Runnable() {
+
+        @Override
+        public void run() {
+            mRequeryPosted = false;
+            if (mInFlight) {
+                filter(mQuery);
+            }
+        }
+    };
+
+    ItemFilter(BaseRVAdapter<BEAN> adapter, BaseRVAdapter.TextExtractor<BEAN> extractor) {
+        this.mAdapter = adapter;
+        this.mExtractor = extractor;
+    }
+
+    /**
+     * 是否只显示了部分条目。
+     */
+    boolean isFiltered() {
+        return mShown != null;
+    }
+
+    /**
+     * 开始查询，空的查询立即显示全部条目。
+     *
+     * @param query 要查找的文字，不区分大小写。
+     */
+    void filter(CharSequence query) {
+        String normalized = TextIndex.normalize(query);
+        mQuery = normalized;
+        int generation = mGeneration.incrementAndGet();
+        if (normalized.isEmpty()) {
+            mInFlight = false;
+            apply(null, null);
+            return;
+        }
+        if (mIndexStale) {
+            mIndexStale = false;
+            mPendingSnapshot.set(new ArrayList<>(getSource()));
+        }
+        mInFlight = true;
+        mPendingRequest.set(new Request(generation, normalized));
+        if (mRunning.compareAndSet(false, true)) {
+            mExecutor.execute(mWorker);
+        }
+    }
+
+    /**
+     * 修改数据之前调用，索引需要重建。正在进行的查询基于旧的数据，修改完成后重新查询。
+     */
+    void onDataChanged() {
+        mIndexStale = true;
+        if (mInFlight) {
+            mGeneration.incrementAndGet();
+            if (!mRequeryPosted) {
+                mRequeryPosted = true;
+                AdapterExecutors.mainHandler().post(mRequery);
+            }
+        }
+    }
+
+    /**
+     * 停止查询并恢复显示全部条目。
+     */
+    void release() {
+        mGeneration.incrementAndGet();
+        mInFlight = false;
+        mPendingSnapshot.set(null);
+        AdapterExecutors.mainHandler().removeCallbacks(mRequery);
+        mRequeryPosted = false;
+        apply(null, null);
+    }
+
+    /**
+     * @return 全部数据，显示全部时就是适配器的数据。
+     */
+    List<BEAN> getSource() {
+        return mSource != null ? mSource : mAdapter.getDatas();
+    }
+
+    /**
+     * @return 最近一次的查询，已经转成小写。
+     */
+    String getQuery() {
+        return mQuery;
+    }
+
+    BaseRVAdapter.TextExtractor<BEAN> getExtractor() {
+        return mExtractor;
+    }
+
+    /**
+     * 条目的文字是否包含查询，可以在任意线程调用。
+     *
+     * @param query 用{@link TextIndex#normalize(CharSequence)}处理过的查询。
+     */
+    static <BEAN> boolean matches(BaseRVAdapter.TextExtractor<BEAN> extractor, String query, BEAN data) {
+        return TextIndex.normalize(extractor.getText(data)).contains(query);
+    }
+
+    private boolean matches(BEAN data) {
+        return matches(mExtractor, mQuery, data);
+    }
+
+    /**
+     * 从快照恢复的全部数据在所有条目都解码后换成普通的列表。
+     */
+    void materializeSource() {
+        if (mSource != null) {
+            mSource = BaseRVAdapter.materialize(mSource);
+        }
+    }
+
+    /**
+     * 在显示的位置插入条目。插入到全部数据中原来在该位置的条目前面，位置等于显示的条数时追加到全部数据的末尾。
+     * 新条目不包含查询时只加入全部数据，不显示。
+     *
+     * @param position 显示的位置。
+     * @param data 新的数据。
+     */
+    void insert(int position, BEAN data) {
+        if (position < 0 || position > mShownCount) {
+            throw new IndexOutOfBoundsException("Index: " + position + ", Size: " + mShownCount);
+        }
+        insertSource(position < mShownCount ? mShown[position] : mSource.size(), position, data);
+    }
+
+    /**
+     * 排序模式下插入条目，在全部数据中二分查找应在的位置。
+     */
+    void insertSorted(BEAN data, Comparator<? super BEAN> comparator) {
+        int index = BaseRVAdapter.upperBound(mSource, data, 0, mSource.size(), comparator);
+        insertSource(index, lowerBound(index), data);
+    }
+
+    private void insertSource(int index, int position, BEAN data) {
+        mSource.add(index, data);
+        for (int i = position; i < mShownCount; i++) {
+            mShown[i]++;
+        }
+        if (matches(data)) {
+            insertShown(position, index);
+            mShownDatas.add(position, data);
+            getCallback().onInserted(position, 1);
+        }
+    }
+
+    /**
+     * 在全部数据的末尾追加条目，包含查询的条目显示在最后，合并成一次通知。
+     */
+    void addAll(List<BEAN> datas) {
+        int start = mShownCount;
+        for (int i = 0, count = datas.size(); i < count; i++) {
+            BEAN data = datas.get(i);
+            if (matches(data)) {
+                insertShown(mShownCount, mSource.size());
+                mShownDatas.add(data);
+            }
+            mSource.add(data);
+        }
+        if (mShownCount > start) {
+            getCallback().onInserted(start, mShownCount - start);
+        }
+    }
+
+    /**
+     * 排序模式下和全部数据归并，耗时O(n + m)，显示出来的连续插入的条目合并成一次通知。
+     *
+     * @param added 排好序的新条目。
+     */
+    void addAllSorted(List<BEAN> added, Comparator<? super BEAN> comparator) {
+        List<BEAN> source = mSource;
+        int oldSize = source.size();
+        int count = added.size();
+        List<BEAN> merged = new ArrayList<>(oldSize + count);
+        List<BEAN> shownDatas = new ArrayList<>(mShownCount + count);
+        int[] shown = new int[mShownCount + count];
+        int shownCount = 0;
+        mAdapter.beginBatch();
+        try {
+            int i = 0;
+            int j = 0;
+            int k = 0;
+            while (i < oldSize || j < count) {
+                // 相等时已有的条目在前
+                while (i < oldSize && (j == count || comparator.compare(source.get(i), added.get(j)) <= 0)) {
+                    if (k < mShownCount && mShown[k] == i) {
+                        shown[shownCount++] = merged.size();
+                        shownDatas.add(source.get(i));
+                        k++;
+                    }
+                    merged.add(source.get(i++));
+                }
+                int start = shownCount;
+                while (j < count && (i == oldSize || comparator.compare(added.get(j), source.get(i)) < 0)) {
+                    BEAN data = added.get(j++);
+                    if (matches(data)) {
+                        shown[shownCount++] = merged.size();
+                        shownDatas.add(data);
+                    }
+                    merged.add(data);
+                }
+                if (shownCount > start) {
+                    getCallback().onInserted(start, shownCount - start);
+                }
+            }
+            source.clear();
+            source.addAll(merged);
+            mShownDatas.clear();
+            mShownDatas.addAll(shownDatas);
+            mShown = shown;
+            mShownCount = shownCount;
+        } finally {
+            mAdapter.commit();
+        }
+    }
+
+    /**
+     * 替换显示的条目，新数据不再包含查询时不再显示，但仍然留在全部数据中。
+     *
+     * @param position 显示的位置。
+     * @param data 新的数据。
+     * @param payload 变化的部分。
+     * @param comparator 排序模式下的比较器，顺序变化时在全部数据中移到应在的位置。
+     */
+    void set(int position, BEAN data, Object payload, Comparator<? super BEAN> comparator) {
+        int index = mShown[position];
+        mSource.set(index, data);
+        mShownDatas.set(position, data);
+        if (matches(data)) {
+            getCallback().onChanged(position, 1, payload);
+        } else {
+            removeShown(position, 1, 0);
+            mShownDatas.remove(position);
+            getCallback().onRemoved(position, 1);
+        }
+        if (comparator == null) {
+            return;
+        }
+        int size = mSource.size();
+        int target = index;
+        if (index > 0 && comparator.compare(mSource.get(index - 1), data) > 0) {
+            target = BaseRVAdapter.upperBound(mSource, data, 0, index, comparator);
+        } else if (index < size - 1 && comparator.compare(data, mSource.get(index + 1)) > 0) {
+            target = BaseRVAdapter.upperBound(mSource, data, index + 1, size, comparator) - 1;
+        }
+        if (target != index) {
+            moveSource(index, target);
+        }
+    }
+
+    /**
+     * 移除显示的一段条目，同时从全部数据中移除。
+     *
+     * @param position 第一条的显示位置。
+     * @param count 条数。
+     */
+    void remove(int position, int count) {
+        if (position < 0 || count < 0 || position + count > mShownCount) {
+            throw new IndexOutOfBoundsException("Range: [" + position + ", " + (position + count)
+                    + "), Size: " + mShownCount);
+        }
+        // 从后往前按全部数据中连续的段移除
+        int end = position + count;
+        while (end > position) {
+            int start = end - 1;
+            while (start > position && mShown[start - 1] == mShown[start] - 1) {
+                start--;
+            }
+            mSource.subList(mShown[start], mShown[end - 1] + 1).clear();
+            end = start;
+        }
+        removeShown(position, count, count);
+        mShownDatas.subList(position, position + count).clear();
+        getCallback().onRemoved(position, count);
+    }
+
+    /**
+     * 清空全部数据。
+     */
+    void clear() {
+        int count = mShownCount;
+        mSource.clear();
+        mShownCount = 0;
+        mShownDatas.clear();
+        getCallback().onRemoved(0, count);
+    }
+
+    /**
+     * 按显示的位置移动条目，在全部数据中移到原来在toPosition的条目的位置。
+     */
+    void move(int fromPosition, int toPosition) {
+        moveSource(mShown[fromPosition], mShown[toPosition]);
+    }
+
+    /**
+     * 在全部数据中移动条目，条目显示时同时移动显示的位置。
+     */
+    private void moveSource(int from, int to) {
+        if (mSource instanceof ChunkedList) {
+            ((ChunkedList<BEAN>) mSource).move(from, to);
+        } else {
+            mSource.add(to, mSource.remove(from));
+        }
+        int position = lowerBound(from);
+        boolean shown = position < mShownCount && mShown[position] == from;
+        int target;
+        if (from < to) {
+            // (from, to]中的条目前移一位
+            int end = lowerBound(to + 1);
+            for (int i = shown ? position + 1 : position; i < end; i++) {
+                mShown[i]--;
+            }
+            if (!shown) {
+                return;
+            }
+            target = end - 1;
+            System.arraycopy(mShown, position + 1, mShown, position, target - position);
+        } else {
+            // [to, from)中的条目后移一位
+            int start = lowerBound(to);
+            for (int i = start; i < position; i++) {
+                mShown[i]++;
+            }
+            if (!shown) {
+                return;
+            }
+            target = start;
+            System.arraycopy(mShown, target, mShown, target + 1, position - target);
+        }
+        mShown[target] = to;
+        if (target != position) {
+            mShownDatas.add(target, mShownDatas.remove(position));
+            getCallback().onMoved(position, target);
+        }
+    }
+
+    /**
+     * 倒转全部数据，显示的条目随之倒转，由适配器整体刷新。
+     */
+    void reverse() {
+        Collections.reverse(mSource);
+        int last = mSource.size() - 1;
+        for (int i = 0, j = mShownCount - 1; i <= j; i++, j--) {
+            int head = mShown[i];
+            mShown[i] = last - mShown[j];
+            mShown[j] = last - head;
+        }
+        Collections.reverse(mShownDatas);
+    }
+
+    /**
+     * 对全部数据稳定排序，显示的条目还是原来那些，由适配器整体刷新。
+     */
+    void sort(final Comparator<? super BEAN> comparator) {
+        final List<BEAN> source = mSource;
+        int size = source.size();
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+
+            @Override
+            public int compare(Integer lhs, Integer rhs) {
+                return comparator.compare(source.get(lhs), source.get(rhs));
+            }
+        });
+        boolean[] shown = new boolean[size];
+        for (int i = 0; i < mShownCount; i++) {
+            shown[mShown[i]] = true;
+        }
+        List<BEAN> sorted = new ArrayList<>(size);
+        int shownCount = 0;
+        mShownDatas.clear();
+        for (int i = 0; i < size; i++) {
+            BEAN data = source.get(order[i]);
+            sorted.add(data);
+            if (shown[order[i]]) {
+                mShown[shownCount++] = i;
+                mShownDatas.add(data);
+            }
+        }
+        source.clear();
+        source.addAll(sorted);
+    }
+
+    /**
+     * 全部数据改用{@link ChunkedList}存储，显示的条目不变。
+     */
+    void useChunkedStorage() {
+        mSource = BaseRVAdapter.toChunked(mSource);
+    }
+
+    /**
+     * 显示的条目被直接替换后调用，把新的数据写回全部数据，不再包含查询的条目不再显示。
+     *
+     * @param start 第一个被替换的显示位置。
+     */
+    void syncShown(int start) {
+        for (int i = mShownCount - 1; i >= start; i--) {
+            BEAN data = mShownDatas.get(i);
+            mSource.set(mShown[i], data);
+            if (!matches(data)) {
+                removeShown(i, 1, 0);
+                mShownDatas.remove(i);
+                getCallback().onRemoved(i, 1);
+            }
+        }
+    }
+
+    /**
+     * 整个替换全部数据，在主线程对所有条目检查查询，显示的条目整体刷新。
+     *
+     * @param datas 新的全部数据。
+     */
+    void replaceSource(List<BEAN> datas) {
+        int size = datas.size();
+        int[] shown = new int[size];
+        List<BEAN> shownDatas = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            BEAN data = datas.get(i);
+            if (matches(data)) {
+                shown[shownDatas.size()] = i;
+                shownDatas.add(data);
+            }
+        }
+        replaceSource(datas, shown, shownDatas, null);
+    }
+
+    /**
+     * 整个替换全部数据，显示的条目已经在后台筛选好。
+     *
+     * @param datas 新的全部数据。
+     * @param shown 显示的条目在新数据中的位置，长度可以比shownDatas长。
+     * @param shownDatas 显示的条目。
+     * @param result 原来显示的条目到shownDatas的差异，为null时整体刷新。
+     */
+    void replaceSource(List<BEAN> datas, int[] shown, List<BEAN> shownDatas, DiffUtil.DiffResult result) {
+        int oldCount = mShownCount;
+        mSource = datas;
+        mShown = shown;
+        mShownCount = shownDatas.size();
+        mShownDatas = shownDatas;
+        mAdapter.setFilteredDatas(shownDatas);
+        ListUpdateCallback callback = getCallback();
+        if (result != null) {
+            result.dispatchUpdatesTo(callback);
+            return;
+        }
+        if (oldCount > 0) {
+            callback.onRemoved(0, oldCount);
+        }
+        if (mShownCount > 0) {
+            callback.onInserted(0, mShownCount);
+        }
+    }
+
+    /**
+     * @return 第一个在全部数据中的位置不小于index的显示位置。
+     */
+    private int lowerBound(int index) {
+        int low = 0;
+        int high = mShownCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (mShown[middle] < index) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private void insertShown(int position, int index) {
+        if (mShownCount == mShown.length) {
+            mShown = Arrays.copyOf(mShown, Math.max(16, mShownCount * 2));
+        }
+        System.arraycopy(mShown, position, mShown, position + 1, mShownCount - position);
+        mShown[position] = index;
+        mShownCount++;
+    }
+
+    /**
+     * 移除一段显示位置。
+     *
+     * @param shift 后面的条目在全部数据中的位置要减去的数量，条目同时从全部数据中移除时为count，只是不再显示时为0。
+     */
+    private void removeShown(int position, int count, int shift) {
+        for (int i = position + count; i < mShownCount; i++) {
+            mShown[i - count] = mShown[i] - shift;
+        }
+        mShownCount -= count;
+    }
+
+    /**
+     * 在后台执行查询。
+     */
+    private void process(Request request) {
+        List<BEAN> snapshot = mPendingSnapshot.getAndSet(null);
+        if (snapshot != null) {
+            String[] texts = new String[snapshot.size()];
+            for (int i = 0; i < texts.length; i++) {
+                texts[i] = TextIndex.normalize(mExtractor.getText(snapshot.get(i)));
+            }
+            mIndex = new TextIndex(texts);
+            mIndexedDatas = snapshot;
+            mLastQuery = null;
+            mLastMatches = null;
+        }
+        if (request.mGeneration != mGeneration.get()) {
+            return;
+        }
+        final int[] matches = search(request);
+        if (matches == null) {
+            return;
+        }
+        final List<BEAN> datas = new ArrayList<>(matches.length);
+        for (int match : matches) {
+            datas.add(mIndexedDatas.get(match));
+        }
+        final int generation = request.mGeneration;
+        AdapterExecutors.mainThread().execute(new Runnable() {
+
+            @Override
+            public void run() {
+                if (mGeneration.get() == generation) {
+                    mInFlight = false;
+                    apply(matches, datas);
+                }
+            }
+        });
+    }
+
+    /**
+     * @return 包含查询文字的条目位置，作废时返回null。
+     */
+    private int[] search(Request request) {
+        String query = request.mQuery;
+        int[] candidates = null;
+        if (mLastQuery != null && query.contains(mLastQuery)) {
+            // 查询变长了，结果只会是上一次结果的子集
+            candidates = mLastMatches;
+        }
+        int[] indexed = mIndex.candidates(query);
+        if (indexed != null && (candidates == null || indexed.length < candidates.length)) {
+            candidates = indexed;
+        }
+        int count = candidates != null ? candidates.length : mIndex.size();
+        int[] matches = new int[count];
+        int size = 0;
+        for (int i = 0; i < count; i++) {
+            if (i % CANCEL_CHECK_INTERVAL == 0 && request.mGeneration != mGeneration.get()) {
+                return null;
+            }
+            int item = candidates != null ? candidates[i] : i;
+            if (mIndex.matches(item, query)) {
+                matches[size++] = item;
+            }
+        }
+        if (size < count) {
+            int[] trimmed = new int[size];
+            System.arraycopy(matches, 0, trimmed, 0, size);
+            matches = trimmed;
+        }
+        mLastQuery = query;
+        mLastMatches = matches;
+        return matches;
+    }
+
+    /**
+     * 替换显示的条目并发出通知。
+     *
+     * @param matches 显示的条目在全部数据中的位置，为null时显示全部。
+     * @param datas 显示的条目，显示全部时为null。
+     */
+    private void apply(int[] matches, List<BEAN> datas) {
+        int[] shown = mShown != null ? Arrays.copyOf(mShown, mShownCount) : null;
+        if (shown == null && matches == null) {
+            return;
+        }
+        List<BEAN> source = getSource();
+        int sourceSize = source.size();
+        if (matches == null) {
+            mSource = null;
+            mShown = null;
+            mShownCount = 0;
+            mShownDatas = null;
+            mAdapter.setFilteredDatas(source);
+        } else {
+            mSource = source;
+            // 后台还会用这个结果缩小下一次查询的范围，修改数据时不能改动它
+            mShown = Arrays.copyOf(matches, matches.length);
+            mShownCount = matches.length;
+            mShownDatas = datas;
+            mAdapter.setFilteredDatas(datas);
+        }
+        dispatchUpdates(shown, matches, sourceSize, getCallback());
+    }
+
+    private ListUpdateCallback getCallback() {
+        return mAdapter.getFilterUpdateCallback();
+    }
+
+    /**
+     * 两次显示的条目都是全部数据中按顺序的一部分，合并比较一遍就能得到最少的插入和删除范围。
+     *
+     * @param oldShown 原来显示的位置，null表示全部。
+     * @param newShown 新显示的位置，null表示全部。
+     * @param sourceSize 全部数据的数量。
+     * @param callback 接收通知。
+     */
+    static void dispatchUpdates(int[] oldShown, int[] newShown, int sourceSize, ListUpdateCallback callback) {
+        int oldSize = oldShown != null ? oldShown.length : sourceSize;
+        int newSize = newShown != null ? newShown.length : sourceSize;
+        int i = 0;
+        int j = 0;
+        int position = 0;
+        int removed = 0;
+        int inserted = 0;
+        while (i < oldSize || j < newSize) {
+            int oldItem = i < oldSize ? (oldShown != null ? oldShown[i] : i) : Integer.MAX_VALUE;
+            int newItem = j < newSize ? (newShown != null ? newShown[j] : j) : Integer.MAX_VALUE;
+            if (oldItem == newItem) {
+                if (removed > 0) {
+                    callback.onRemoved(position, removed);
+                    removed = 0;
+                }
+                if (inserted > 0) {
+                    callback.onInserted(position, inserted);
+                    position += inserted;
+                    inserted = 0;
+                }
+                position++;
+                i++;
+                j++;
+            } else if (oldItem < newItem) {
+                if (inserted > 0) {
+                    callback.onInserted(position, inserted);
+                    position += inserted;
+                    inserted = 0;
+                }
+                removed++;
+                i++;
+            } else {
+                if (removed > 0) {
+                    callback.onRemoved(position, removed);
+                    removed = 0;
+                }
+                inserted++;
+                j++;
+            }
+        }
+        if (removed > 0) {
+            callback.onRemoved(position, removed);
+        }
+        if (inserted > 0) {
+            callback.onInserted(position, inserted);
+        }
+    }
+
+    private static class Request {
+
+        final int mGeneration;
+        final String mQuery;
+
+        Request(int generation, String query) {
+            this.mGeneration = generation;
+            this.mQuery = query;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package cn.jackwhliu.rvadapter.lib;
+
+/**
+ * 一种条目类型的布局、控件和数据绑定，注册到{@link BaseRVAdapter}后即可在同一个列表中混排多种条目。
+ *
+ * @author lwh
+ * @param <BEAN> 适配的数据类型。
+ */
+public interface ItemViewDelegate<BEAN> {
+
+    /**
+     * 该条目是否由此类型处理，按注册顺序匹配，第一个返回true的生效。
+     *
+     * @param data 条目的数据。
+     * @param position 条目在列表中的位置。
+     * @return 是否处理该条目。
+     */
+    boolean isForViewType(BEAN data, int position);
+
+    /**
+     * 条目布局文件的id，同时用作viewType，因此不同适配器中布局相同的条目可以共用缓存。
+     *
+     * @return 例如item_example.xml
+     */
+    int getItemId();
+
+    /**
+     * 条目控件的id。
+     *
+     * @return 例如R.id.btn_01,R.id.btn_02,btn_03
+     */
+    int[] getItemViewIds();
+
+    /**
+     * 在此处理数据的加载等。
+     *
+     * @param holder View缓存对象。
+     * @param position 条目在列表中的位置，从0开始。
+     * @param data 给条目加载数据的模型对象。
+     */
+    void onBindViewHolder(BaseRVAdapter.ViewHolder holder, int position, BEAN data);
+}
@@ -0,0 +1,134 @@
+package cn.jackwhliu.rvadapter.lib;
+
+import android.support.v7.widget.RecyclerView;
+import android.util.SparseArray;
+import android.util.SparseIntArray;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 条目类型的注册表，按数据类型或{@link ItemViewDelegate#isForViewType(Object, int)}确定条目的viewType。
+ *
+ * @author lwh
+ * @param <BEAN> 适配的数据类型。
+ */
+public class ItemViewDelegateManager<BEAN> {
+
+    /**
+     * 按注册顺序保存的条目类型。
+     */
+    private final List<Entry<BEAN>> mEntries = new ArrayList<>();
+
+    /**
+     * viewType到条目类型的映射。
+     */
+    private final SparseArray<ItemViewDelegate<BEAN>> mDelegates = new SparseArray<>();
+
+    /**
+     * 每种viewType在缓存池中最多保留的ViewHolder数量。
+     */
+    private final SparseIntArray mMaxRecycledViews = new SparseIntArray();
+
+    /**
+     * 注册一种条目类型，由{@link ItemViewDelegate#isForViewType(Object, int)}决定是否匹配。
+     *
+     * @param delegate 条目类型。
+     */
+    public void addDelegate(ItemViewDelegate<BEAN> delegate) {
+        addDelegate(null, delegate, -1);
+    }
+
+    /**
+     * 注册一种条目类型，数据是beanClass的实例时匹配。
+     *
+     * @param beanClass 数据的类型。
+     * @param delegate 条目类型。
+     */
+    public void addDelegate(Class<? extends BEAN> beanClass, ItemViewDelegate<BEAN> delegate) {
+        addDelegate(beanClass, delegate, -1);
+    }
+
+    /**
+     * 注册一种条目类型。
+     *
+     * @param beanClass 数据的类型，为null时由{@link ItemViewDelegate#isForViewType(Object, int)}决定。
+     * @param delegate 条目类型。
+     * @param maxRecycledViews 缓存池中最多保留的该类型ViewHolder数量，小于0时使用RecyclerView的默认值。
+     */
+    public void addDelegate(Class<? extends BEAN> beanClass, ItemViewDelegate<BEAN> delegate,
+                            int maxRecycledViews) {
+        int viewType = delegate.getItemId();
+        if (mDelegates.get(viewType) != null) {
+            throw new IllegalArgumentException("An ItemViewDelegate is already registered for layout 0x"
+                    + Integer.toHexString(viewType));
+        }
+        mEntries.add(new Entry<>(beanClass, delegate));
+        mDelegates.put(viewType, delegate);
+        if (maxRecycledViews >= 0) {
+            mMaxRecycledViews.put(viewType, maxRecycledViews);
+        }
+    }
+
+    /**
+     * 是否注册过条目类型。
+     */
+    public boolean isEmpty() {
+        return mEntries.isEmpty();
+    }
+
+    /**
+     * 获取条目的viewType。
+     *
+     * @param data 条目的数据。
+     * @param position 条目在列表中的位置。
+     * @return viewType，即布局文件的id。
+     */
+    public int getItemViewType(BEAN data, int position) {
+        for (int i = 0, size = mEntries.size(); i < size; i++) {
+            Entry<BEAN> entry = mEntries.get(i);
+            if (entry.mBeanClass != null ? entry.mBeanClass.isInstance(data)
+                    : entry.mDelegate.isForViewType(data, position)) {
+                return entry.mDelegate.getItemId();
+            }
+        }
+        throw new IllegalStateException("No ItemViewDelegate matches the item at position " + position);
+    }
+
+    /**
+     * 获取viewType对应的条目类型。
+     *
+     * @param viewType 条目的viewType。
+     * @return 条目类型。
+     */
+    public ItemViewDelegate<BEAN> getDelegate(int viewType) {
+        ItemViewDelegate<BEAN> delegate = mDelegates.get(viewType);
+        if (delegate == null) {
+            throw new IllegalStateException("No ItemViewDelegate is registered for view type 0x"
+                    + Integer.toHexString(viewType));
+        }
+        return delegate;
+    }
+
+    /**
+     * 把每种viewType的缓存数量应用到缓存池。
+     *
+     * @param pool 缓存池，可以由多个适配器共用。
+     */
+    public void applyTo(RecyclerView.RecycledViewPool pool) {
+        for (int i = 0; i < mMaxRecycledViews.size(); i++) {
+            pool.setMaxRecycledViews(mMaxRecycledViews.keyAt(i), mMaxRecycledViews.valueAt(i));
+        }
+    }
+
+    private static final class Entry<BEAN> {
+
+        private final Class<? extends BEAN> mBeanClass;
+        private final ItemViewDelegate<BEAN> mDelegate;
+
+        Entry(Class<? extends BEAN> beanClass, ItemViewDelegate<BEAN> delegate) {
+            this.mBeanClass = beanClass;
+            this.mDelegate = delegate;
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package cn.jackwhliu.rvadapter.lib;
+
+import java.util.Arrays;
+import java.util.List;
+
+import cn.jackwhliu.rvadapter.lib.collection.LongIntMap;
+
+/**
+ * 条目id到位置的索引。索引中记的是条目在某一时刻的位置，之后的插入、删除和移动按顺序记在日志里，
+ * 查找时从记录的位置开始按日志换算出当前的位置，再用列表中的条目验证。日志的长度不超过sqrt(n)，
+ * 写满后在下次查找时重建索引，所以在头部反复插入、删除时每次修改和查找的均摊开销是O(sqrt(n))，
+ * 而不是每次都重建修改位置之后的索引。只在主线程使用。
+ *
+ * @author lwh
+ * @param <BEAN> 适配的数据类型。
+ */
+final class KeyIndex<BEAN> {
+
+    /**
+     * 日志长度的下限。
+     */
+    private static final int MIN_LOG_CAPACITY = 16;
+
+    private static final int OP_INSERT = 0;
+    private static final int OP_REMOVE = 1;
+    private static final int OP_MOVE = 2;
+
+    private final BaseRVAdapter.KeyExtractor<BEAN> mKeyExtractor;
+
+    /**
+     * id到记录编号的索引。
+     */
+    private final LongIntMap mRecords = new LongIntMap();
+
+    /**
+     * 每条记录中条目的位置。
+     */
+    private int[] mPositions = new int[16];
+
+    /**
+     * 每条记录对应的日志长度，换算时从这里开始应用日志。
+     */
+    private int[] mEpochs = new int[16];
+
+    private int mRecordCount;
+
+    /**
+     * 修改的日志，每条修改占三个int：类型和两个参数。
+     */
+    private int[] mOps = new int[MIN_LOG_CAPACITY * 3];
+
+    private int mOpCount;
+
+    /**
+     * 日志的容量，重建索引时按数据量计算。
+     */
+    private int mLogCapacity = MIN_LOG_CAPACITY;
+
+    /**
+     * 插入后还没有记录id的条目数量。
+     */
+    private int mPendingInserts;
+
+    /**
+     * 日志中前这么多条修改插入的条目已经有记录了。
+     */
+    private int mRecordedOps;
+
+    /**
+     * 为false时下次查找重建索引。
+     */
+    private boolean mValid;
+
+    KeyIndex(BaseRVAdapter.KeyExtractor<BEAN> keyExtractor) {
+        this.mKeyExtractor = keyExtractor;
+    }
+
+    /**
+     * 按id查找条目在列表中的位置。
+     *
+     * @param datas 当前的数据，和记录的修改一致。
+     * @param id 条目的id。
+     * @return 条目的位置，不存在时返回-1。
+     */
+    int positionOf(List<BEAN> datas, long id) {
+        if (!mValid || mPendingInserts > mLogCapacity) {
+            rebuild(datas);
+        } else if (mPendingInserts > 0) {
+            recordInserts(datas);
+        }
+        int record = mRecords.get(id, -1);
+        if (record < 0) {
+            return -1;
+        }
+        int position = transform(mPositions[record], mEpochs[record]);
+        if (position < 0) {
+            // 已经被移除的条目
+            mRecords.remove(id);
+            return -1;
+        }
+        if (position < datas.size() && mKeyExtractor.getKey(datas.get(position)) == id) {
+            return position;
+        }
+        // 数据没有经过这里被修改过，重建后再查一次
+        rebuild(datas);
+        record = mRecords.get(id, -1);
+        return record >= 0 ? mPositions[record] : -1;
+    }
+
+    /**
+     * 数据整个被替换，下次查找时重建索引。
+     */
+    void invalidate() {
+        mValid = false;
+    }
+
+    void onInserted(int position, int count) {
+        if (record(OP_INSERT, position, count)) {
+            mPendingInserts += count;
+        }
+    }
+
+    void onRemoved(int position, int count) {
+        record(OP_REMOVE, position, count);
+    }
+
+    void onMoved(int fromPosition, int toPosition) {
+        record(OP_MOVE, fromPosition, toPosition);
+    }
+
+    /**
+     * 条目被替换成另一个id的数据，位置不变。
+     */
+    void onKeyChanged(long oldKey, long newKey) {
+        if (!mValid) {
+            return;
+        }
+        int record = mRecords.get(oldKey, -1);
+        if (record < 0) {
+            mValid = false;
+            return;
+        }
+        mRecords.remove(oldKey);
+        mRecords.put(newKey, record);
+    }
+
+    /**
+     * 记录一次修改，日志写满后放弃索引。
+     *
+     * @return 是否记录了。
+     */
+    private boolean record(int type, int first, int second) {
+        if (!mValid) {
+            return false;
+        }
+        if (mOpCount == mLogCapacity) {
+            mValid = false;
+            return false;
+        }
+        int offset = mOpCount * 3;
+        mOps[offset] = type;
+        mOps[offset + 1] = first;
+        mOps[offset + 2] = second;
+        mOpCount++;
+        return true;
+    }
+
+    /**
+     * 把记录时的位置按之后的修改换算成当前的位置。
+     *
+     * @param position 记录时的位置。
+     * @param epoch 记录时的日志长度。
+     * @return 当前的位置，条目已经被移除时返回-1。
+     */
+    private int transform(int position, int epoch) {
+        for (int op = epoch; op < mOpCount; op++) {
+            int offset = op * 3;
+            int first = mOps[offset + 1];
+            int second = mOps[offset + 2];
+            switch (mOps[offset]) {
+                case OP_INSERT:
+                    if (position >= first) {
+                        position += second;
+                    }
+                    break;
+                case OP_REMOVE:
+                    if (position >= first + second) {
+                        position -= second;
+                    } else if (position >= first) {
+                        return -1;
+                    }
+                    break;
+                default:
+                    if (position == first) {
+                        position = second;
+                    } else if (first < second && position > first && position <= second) {
+                        position--;
+                    } else if (first > second && position >= second && position < first) {
+                        position++;
+                    }
+                    break;
+            }
+        }
+        return position;
+    }
+
+    /**
+     * 为插入的条目补上记录。插入时数据可能还没有和通知一致，所以等到查找时再读取id。
+     */
+    private void recordInserts(List<BEAN> datas) {
+        for (int op = mRecordedOps; op < mOpCount; op++) {
+            int offset = op * 3;
+            if (mOps[offset] != OP_INSERT) {
+                continue;
+            }
+            int start = mOps[offset + 1];
+            int count = mOps[offset + 2];
+            for (int i = 0; i < count; i++) {
+                int position = transform(start + i, op + 1);
+                if (position >= 0) {
+                    addRecord(mKeyExtractor.getKey(datas.get(position)), position, mOpCount);
+                }
+            }
+        }
+        mRecordedOps = mOpCount;
+        mPendingInserts = 0;
+    }
+
+    private void rebuild(List<BEAN> datas) {
+        int size = datas.size();
+        mRecords.clear();
+        mRecordCount = 0;
+        mOpCount = 0;
+        mRecordedOps = 0;
+        mPendingInserts = 0;
+        mLogCapacity = Math.max(MIN_LOG_CAPACITY, (int) Math.sqrt(size));
+        if (mOps.length < mLogCapacity * 3) {
+            mOps = new int[mLogCapacity * 3];
+        }
+        for (int i = 0; i < size; i++) {
+            addRecord(mKeyExtractor.getKey(datas.get(i)), i, 0);
+        }
+        mValid = true;
+    }
+
+    private void addRecord(long key, int position, int epoch) {
+        if (mRecordCount == mPositions.length) {
+            int capacity = mRecordCount * 2;
+            mPositions = Arrays.copyOf(mPositions, capacity);
+            mEpochs = Arrays.copyOf(mEpochs, capacity);
+        }
+        mPositions[mRecordCount] = position;
+        mEpochs[mRecordCount] = epoch;
+        mRecords.put(key, mRecordCount++);
+    }
+}
@@ -0,0 +1,117 @@
+package cn.jackwhliu.rvadapter.lib;
+
+import android.os.Handler;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 单写者的修改队列。任意线程都可以无锁地提交修改，修改只在主线程上按顺序执行，
+ * 每帧执行的修改放在同一个批量修改中合并通知，并且每帧的耗时有上限，剩下的留到下一帧。
+ *
+ * @author lwh
+ * @param <BEAN> 适配的数据类型。
+ */
+final class MutationQueue<BEAN> implements Runnable {
+
+    /**
+     * 每帧最多用来执行修改的时间。
+     */
+    private static final long FRAME_BUDGET_NANOS = 4000000L;
+
+    /**
+     * 一帧的时长。
+     */
+    private static final long FRAME_INTERVAL_MILLIS = 16L;
+
+    private final BaseRVAdapter<BEAN> mAdapter;
+
+    private final Queue<BaseRVAdapter.Mutation<BEAN>> mMutations = new ConcurrentLinkedQueue<>();
+
+    /**
+     * 是否已经安排了执行。
+     */
+    private final AtomicBoolean mScheduled = new AtomicBoolean();
+
+    private final Handler mHandler = AdapterExecutors.mainHandler();
+
+    /**
+     * 适配器是否处于不能直接修改数据的模式，此时拒绝提交。
+     */
+    private volatile boolean mRejecting;
+
+    MutationQueue(BaseRVAdapter<BEAN> adapter) {
+        this.mAdapter = adapter;
+    }
+
+    /**
+     * 提交一个修改，可以在任意线程调用，不会阻塞。
+     *
+     * @param mutation 修改。
+     * @return 是否提交了，适配器不能直接修改数据时返回false。
+     */
+    boolean enqueue(BaseRVAdapter.Mutation<BEAN> mutation) {
+        if (mRejecting) {
+            return false;
+        }
+        mMutations.offer(mutation);
+        if (mScheduled.compareAndSet(false, true)) {
+            mHandler.post(this);
+        }
+        return true;
+    }
+
+    /**
+     * 适配器进入或退出不能直接修改数据的模式时在主线程调用。进入时丢弃还没执行的修改，
+     * 它们执行时只会抛出异常，之后的提交直接失败。
+     */
+    void setRejecting(boolean rejecting) {
+        mRejecting = rejecting;
+        if (rejecting) {
+            mMutations.clear();
+        }
+    }
+
+    @Override
+    public void run() {
+        long deadline = System.nanoTime() + FRAME_BUDGET_NANOS;
+        mAdapter.beginBatch();
+        try {
+            BaseRVAdapter.Mutation<BEAN> mutation;
+            while ((mutation = mMutations.poll()) != null) {
+                if (mRejecting) {
+                    // 提交时还可以修改，执行前适配器切换了模式
+                    mMutations.clear();
+                    break;
+                }
+                mutation.apply(mAdapter);
+                if (System.nanoTime() > deadline) {
+                    break;
+                }
+            }
+        } finally {
+            try {
+                mAdapter.commit();
+            } finally {
+                // 修改抛出异常时也要安排剩下的修改，否则mScheduled一直为true，之后提交的修改都不会再执行
+                scheduleNext();
+            }
+        }
+    }
+
+    /**
+     * 还有修改时留到下一帧执行，没有了就清除标志。
+     */
+    private void scheduleNext() {
+        if (!mMutations.isEmpty()) {
+            mHandler.postDelayed(this, FRAME_INTERVAL_MILLIS);
+            return;
+        }
+        mScheduled.set(false);
+        // 清除标志前后可能有新的修改进来
+        if (!mMutations.isEmpty() && mScheduled.compareAndSet(false, true)) {
+            mHandler.post(this);
+        }
+    }
+}
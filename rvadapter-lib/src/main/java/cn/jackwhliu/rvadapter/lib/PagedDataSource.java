@@ -0,0 +1,29 @@
+package cn.jackwhliu.rvadapter.lib;
+
+import java.util.List;
+
+/**
+ * 分页的数据源，配合{@link BaseRVAdapter#setDataSource(PagedDataSource, int, int)}使用，
+ * 适配器只在内存中保留靠近可见区域的几页数据。
+ *
+ * @author lwh
+ * @param <BEAN> 适配的数据类型。
+ */
+public interface PagedDataSource<BEAN> {
+
+    /**
+     * 数据的总条数，在主线程调用。
+     *
+     * @return 总条数。
+     */
+    int getCount();
+
+    /**
+     * 加载一页数据，在后台线程调用。
+     *
+     * @param start 第一条数据的位置。
+     * @param count 要加载的条数。
+     * @return 加载到的数据，条数应该等于count。
+     */
+    List<BEAN> loadPage(int start, int count);
+}
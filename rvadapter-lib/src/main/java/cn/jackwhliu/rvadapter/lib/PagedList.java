@@ -0,0 +1,240 @@
+package cn.jackwhliu.rvadapter.lib;
+
+import android.util.SparseArray;
+import android.util.SparseBooleanArray;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.Executor;
+
+/**
+ * 按页加载的只读列表，{@link #size()}是数据的总条数，但内存中最多只保留指定数量的页。
+ * 访问到没有加载的位置时返回null作为占位，同时在后台加载该页，加载完成后通过{@link Callback}通知。
+ * 除了加载数据以外，所有方法都需要在主线程调用。
+ *
+ * @author lwh
+ * @param <BEAN> 适配的数据类型。
+ */
+public class PagedList<BEAN> extends AbstractList<BEAN> implements RandomAccess {
+
+    /**
+     * 数据源。
+     */
+    private final PagedDataSource<BEAN> mSource;
+
+    /**
+     * 每页的条数。
+     */
+    private final int mPageSize;
+
+    /**
+     * 内存中最多保留的页数。
+     */
+    private final int mMaxPages;
+
+    /**
+     * 距离页边界小于该条数时预加载相邻的页。
+     */
+    private final int mPrefetchDistance;
+
+    /**
+     * 数据的总条数。
+     */
+    private final int mSize;
+
+    /**
+     * 已加载的页，key为页码。
+     */
+    private final SparseArray<List<BEAN>> mPages = new SparseArray<>();
+
+    /**
+     * 正在加载的页。
+     */
+    private final SparseBooleanArray mLoadingPages = new SparseBooleanArray();
+
+    /**
+     * 加载数据的线程池。
+     */
+    private final Executor mExecutor;
+
+    /**
+     * 页加载完成的回调。
+     */
+    private final Callback mCallback;
+
+    /**
+     * 最近访问的页，淘汰时优先淘汰离它最远的页。
+     */
+    private int mLastPage;
+
+    /**
+     * 是否已经不再使用，之后加载完成的页会被丢弃。
+     */
+    private boolean mDetached;
+
+    /**
+     * 页加载完成的回调。
+     */
+    public interface Callback {
+
+        /**
+         * 一页数据加载完成，占位的条目需要刷新。
+         *
+         * @param start 第一条数据的位置。
+         * @param count 条数。
+         */
+        void onPageLoaded(int start, int count);
+    }
+
+    PagedList(PagedDataSource<BEAN> source, int pageSize, int maxPages, Executor executor,
+              Callback callback) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("pageSize must be positive: " + pageSize);
+        }
+        if (maxPages < 3) {
+            throw new IllegalArgumentException("maxPages must be at least 3: " + maxPages);
+        }
+        this.mSource = source;
+        this.mPageSize = pageSize;
+        this.mMaxPages = maxPages;
+        this.mPrefetchDistance = Math.max(1, pageSize / 2);
+        this.mSize = source.getCount();
+        this.mExecutor = executor;
+        this.mCallback = callback;
+    }
+
+    @Override
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * 获取指定位置的数据，并按需加载该页和相邻的页。
+     *
+     * @param position 数据的位置。
+     * @return 数据，所在的页还没有加载完成时返回null。
+     */
+    @Override
+    public BEAN get(int position) {
+        if (position < 0 || position >= mSize) {
+            throw new IndexOutOfBoundsException("Index: " + position + ", Size: " + mSize);
+        }
+        int page = position / mPageSize;
+        int offset = position - page * mPageSize;
+        mLastPage = page;
+        if (offset < mPrefetchDistance && page > 0) {
+            loadPage(page - 1);
+        } else if (offset >= mPageSize - mPrefetchDistance && (page + 1) * mPageSize < mSize) {
+            loadPage(page + 1);
+        }
+        List<BEAN> items = mPages.get(page);
+        if (items == null) {
+            loadPage(page);
+            return null;
+        }
+        return offset < items.size() ? items.get(offset) : null;
+    }
+
+    /**
+     * 指定位置的数据是否已经加载。
+     *
+     * @param position 数据的位置。
+     */
+    public boolean isLoaded(int position) {
+        return mPages.get(position / mPageSize) != null;
+    }
+
+    /**
+     * 内存中已加载的页数。
+     */
+    public int getLoadedPageCount() {
+        return mPages.size();
+    }
+
+    /**
+     * 在已加载的页中按id查找条目，最多检查maxPages页。
+     *
+     * @param keyExtractor 获取条目id的方法。
+     * @param id 条目的id。
+     * @return 条目的位置，不在已加载的页中时返回-1。
+     */
+    int positionOfLoaded(BaseRVAdapter.KeyExtractor<BEAN> keyExtractor, long id) {
+        for (int i = 0; i < mPages.size(); i++) {
+            List<BEAN> items = mPages.valueAt(i);
+            for (int j = 0; j < items.size(); j++) {
+                BEAN item = items.get(j);
+                if (item != null && keyExtractor.getKey(item) == id) {
+                    return mPages.keyAt(i) * mPageSize + j;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 不再使用该列表，之后加载完成的页会被丢弃。
+     */
+    void detach() {
+        mDetached = true;
+        mPages.clear();
+    }
+
+    private void loadPage(final int page) {
+        if (mDetached || mPages.get(page) != null || mLoadingPages.get(page)) {
+            return;
+        }
+        mLoadingPages.put(page, true);
+        final int start = page * mPageSize;
+        final int count = Math.min(mPageSize, mSize - start);
+        mExecutor.execute(new Runnable() {
+
+            @Override
+            public void run() {
+                List<BEAN> items = null;
+                try {
+                    items = mSource.loadPage(start, count);
+                } finally {
+                    final List<BEAN> result = items;
+                    AdapterExecutors.mainThread().execute(new Runnable() {
+
+                        @Override
+                        public void run() {
+                            onPageLoaded(page, start, result);
+                        }
+                    });
+                }
+            }
+        });
+    }
+
+    private void onPageLoaded(int page, int start, List<BEAN> items) {
+        mLoadingPages.delete(page);
+        if (mDetached || items == null) {
+            return;
+        }
+        mPages.put(page, items);
+        trimPages();
+        if (mPages.get(page) != null) {
+            mCallback.onPageLoaded(start, items.size());
+        }
+    }
+
+    /**
+     * 超出内存上限时淘汰离最近访问的页最远的页。
+     */
+    private void trimPages() {
+        while (mPages.size() > mMaxPages) {
+            int farthestIndex = 0;
+            int farthestDistance = -1;
+            for (int i = 0; i < mPages.size(); i++) {
+                int distance = Math.abs(mPages.keyAt(i) - mLastPage);
+                if (distance > farthestDistance) {
+                    farthestDistance = distance;
+                    farthestIndex = i;
+                }
+            }
+            mPages.removeAt(farthestIndex);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package cn.jackwhliu.rvadapter.lib;
+
+import android.view.View;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 在后台线程预先加载好的条目布局，按viewType存放，可以在多个线程中同时存取。
+ *
+ * @author lwh
+ */
+public class PreInflatePool {
+
+    /**
+     * 预加载的条目布局，key为viewType。
+     */
+    private final ConcurrentHashMap<Integer, Queue<View>> mViews = new ConcurrentHashMap<>();
+
+    /**
+     * 创建ViewHolder时命中预加载布局的次数。
+     */
+    private final AtomicInteger mHitCount = new AtomicInteger();
+
+    /**
+     * 创建ViewHolder时没有可用的预加载布局的次数。
+     */
+    private final AtomicInteger mMissCount = new AtomicInteger();
+
+    /**
+     * 放入一个预加载好的布局。
+     *
+     * @param viewType 条目的viewType。
+     * @param view 加载好的布局。
+     */
+    void put(int viewType, View view) {
+        Queue<View> views = mViews.get(viewType);
+        if (views == null) {
+            Queue<View> newViews = new ConcurrentLinkedQueue<>();
+            views = mViews.putIfAbsent(viewType, newViews);
+            if (views == null) {
+                views = newViews;
+            }
+        }
+        views.offer(view);
+    }
+
+    /**
+     * 取出一个预加载好的布局。
+     *
+     * @param viewType 条目的viewType。
+     * @return 没有可用的布局时返回null。
+     */
+    View poll(int viewType) {
+        Queue<View> views = mViews.get(viewType);
+        View view = views != null ? views.poll() : null;
+        if (view != null) {
+            mHitCount.incrementAndGet();
+        } else {
+            mMissCount.incrementAndGet();
+        }
+        return view;
+    }
+
+    /**
+     * 还没有被使用的预加载布局数量。
+     *
+     * @param viewType 条目的viewType。
+     */
+    public int getAvailableCount(int viewType) {
+        Queue<View> views = mViews.get(viewType);
+        return views != null ? views.size() : 0;
+    }
+
+    public int getHitCount() {
+        return mHitCount.get();
+    }
+
+    public int getMissCount() {
+        return mMissCount.get();
+    }
+
+    /**
+     * 丢弃所有没有被使用的预加载布局。
+     */
+    public void clear() {
+        mViews.clear();
+    }
+}
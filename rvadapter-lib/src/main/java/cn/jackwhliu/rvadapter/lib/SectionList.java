@@ -0,0 +1,247 @@
+package cn.jackwhliu.rvadapter.lib;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+
+import cn.jackwhliu.rvadapter.lib.collection.FenwickTree;
+
+/**
+ * {@link SectionedRVAdapter}中的只读列表，按顺序排列每一组的头部、条目和尾部。每组占用的条数保存在{@link FenwickTree}中，
+ * 位置和（组，组内位置）之间的换算以及在某一组中增删条目后更新后面所有组的偏移都是O(log n)。
+ * {@link #get(int)}在头部和尾部的位置返回null。只能在主线程使用。
+ *
+ * @author lwh
+ * @param <BEAN> 适配的数据类型。
+ */
+final class SectionList<BEAN> extends AbstractList<BEAN> implements RandomAccess {
+
+    /**
+     * 组内位置表示该组的头部。
+     */
+    static final int HEADER = -1;
+
+    /**
+     * 组内位置表示该组的尾部。
+     */
+    static final int FOOTER = -2;
+
+    private final List<Section<BEAN>> mSections = new ArrayList<>();
+
+    /**
+     * 每组占用的条数，包括头部和尾部。
+     */
+    private final FenwickTree mSizes = new FenwickTree();
+
+    private static final class Section<BEAN> {
+
+        Object mHeader;
+
+        final ArrayList<BEAN> mItems;
+
+        Object mFooter;
+
+        Section(Object header, List<BEAN> items, Object footer) {
+            this.mHeader = header;
+            this.mItems = items != null ? new ArrayList<>(items) : new ArrayList<BEAN>();
+            this.mFooter = footer;
+        }
+
+        int size() {
+            return (mHeader != null ? 1 : 0) + mItems.size() + (mFooter != null ? 1 : 0);
+        }
+    }
+
+    @Override
+    public int size() {
+        return mSizes.sum();
+    }
+
+    @Override
+    public BEAN get(int position) {
+        int section = sectionOf(position);
+        int index = indexInSection(position, section);
+        return index >= 0 ? mSections.get(section).mItems.get(index) : null;
+    }
+
+    int getSectionCount() {
+        return mSections.size();
+    }
+
+    /**
+     * 位置所在的组，没有条目的组会被跳过。
+     */
+    int sectionOf(int position) {
+        if (position < 0 || position >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + position + ", Size: " + size());
+        }
+        return mSizes.indexOf(position);
+    }
+
+    /**
+     * 位置在组内的位置。
+     *
+     * @return 条目在组内的位置，或者{@link #HEADER}、{@link #FOOTER}。
+     */
+    int indexInSection(int position, int section) {
+        Section<BEAN> s = mSections.get(section);
+        int offset = position - mSizes.prefixSum(section);
+        if (s.mHeader != null) {
+            if (offset == 0) {
+                return HEADER;
+            }
+            offset--;
+        }
+        return offset < s.mItems.size() ? offset : FOOTER;
+    }
+
+    /**
+     * 组内位置对应的列表位置。
+     *
+     * @param index 条目在组内的位置，或者{@link #HEADER}、{@link #FOOTER}。
+     * @return 列表中的位置，该组没有对应的头部或尾部时返回-1。
+     */
+    int positionOf(int section, int index) {
+        Section<BEAN> s = mSections.get(section);
+        int start = mSizes.prefixSum(section);
+        int headerCount = s.mHeader != null ? 1 : 0;
+        if (index == HEADER) {
+            return headerCount == 1 ? start : -1;
+        }
+        if (index == FOOTER) {
+            return s.mFooter != null ? start + headerCount + s.mItems.size() : -1;
+        }
+        if (index < 0 || index >= s.mItems.size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + s.mItems.size());
+        }
+        return start + headerCount + index;
+    }
+
+    Object getHeader(int section) {
+        return mSections.get(section).mHeader;
+    }
+
+    Object getFooter(int section) {
+        return mSections.get(section).mFooter;
+    }
+
+    int getItemCount(int section) {
+        return mSections.get(section).mItems.size();
+    }
+
+    BEAN getItem(int section, int index) {
+        return mSections.get(section).mItems.get(index);
+    }
+
+    /**
+     * 在末尾添加一组。
+     *
+     * @return 新的一组在列表中的起始位置。
+     */
+    int addSection(Object header, List<BEAN> items, Object footer) {
+        int start = size();
+        Section<BEAN> s = new Section<>(header, items, footer);
+        mSections.add(s);
+        mSizes.add(s.size());
+        return start;
+    }
+
+    /**
+     * 在指定位置插入一组，需要O(组数)重建树状数组。
+     *
+     * @return 新的一组在列表中的起始位置。
+     */
+    int addSection(int section, Object header, List<BEAN> items, Object footer) {
+        if (section == mSections.size()) {
+            return addSection(header, items, footer);
+        }
+        int start = mSizes.prefixSum(section);
+        Section<BEAN> s = new Section<>(header, items, footer);
+        mSections.add(section, s);
+        mSizes.add(section, s.size());
+        return start;
+    }
+
+    /**
+     * 删除一组，需要O(组数)重建树状数组。
+     *
+     * @return 被删除的一组原来在列表中的起始位置。
+     */
+    int removeSection(int section) {
+        int start = mSizes.prefixSum(section);
+        mSections.remove(section);
+        mSizes.remove(section);
+        return start;
+    }
+
+    /**
+     * 修改头部，调用前先用{@link #positionOf(int, int)}取得原来的位置。
+     */
+    void setHeader(int section, Object header) {
+        Section<BEAN> s = mSections.get(section);
+        s.mHeader = header;
+        mSizes.set(section, s.size());
+    }
+
+    void setFooter(int section, Object footer) {
+        Section<BEAN> s = mSections.get(section);
+        s.mFooter = footer;
+        mSizes.set(section, s.size());
+    }
+
+    /**
+     * 在组内插入条目。
+     *
+     * @return 新条目在列表中的位置。
+     */
+    int addItem(int section, int index, BEAN data) {
+        Section<BEAN> s = mSections.get(section);
+        s.mItems.add(index, data);
+        mSizes.update(section, 1);
+        return positionOf(section, index);
+    }
+
+    /**
+     * 在组内末尾插入多个条目。
+     *
+     * @return 第一个新条目在列表中的位置。
+     */
+    int addItems(int section, List<BEAN> datas) {
+        Section<BEAN> s = mSections.get(section);
+        int index = s.mItems.size();
+        s.mItems.addAll(datas);
+        mSizes.update(section, datas.size());
+        return mSizes.prefixSum(section) + (s.mHeader != null ? 1 : 0) + index;
+    }
+
+    /**
+     * 删除组内的条目。
+     *
+     * @return 被删除的条目原来在列表中的位置。
+     */
+    int removeItem(int section, int index) {
+        int position = positionOf(section, index);
+        mSections.get(section).mItems.remove(index);
+        mSizes.update(section, -1);
+        return position;
+    }
+
+    /**
+     * 替换组内的条目。
+     *
+     * @return 条目在列表中的位置。
+     */
+    int setItem(int section, int index, BEAN data) {
+        mSections.get(section).mItems.set(index, data);
+        return positionOf(section, index);
+    }
+
+    /**
+     * 删除所有的组。
+     */
+    void clearSections() {
+        mSections.clear();
+        mSizes.clear();
+    }
+}
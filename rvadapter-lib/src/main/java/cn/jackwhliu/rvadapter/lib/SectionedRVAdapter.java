@@ -0,0 +1,453 @@
+package cn.jackwhliu.rvadapter.lib;
+
+import android.support.v7.util.BatchingListUpdateCallback;
+import android.support.v7.util.ListUpdateCallback;
+import android.support.v7.widget.RecyclerView;
+import android.view.ViewGroup;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 分组显示的适配器，每组可以有一个头部和一个尾部，分别使用各自的布局和viewType，组内的条目交给一个
+ * {@link BaseRVAdapter}创建和绑定。和{@link ConcatRVAdapter}一样直接设置给RecyclerView，条目适配器自己的数据不会显示，
+ * 不分组的修改方法在这里不存在，不需要在运行时检查模式。每组占用的条数保存在树状数组中，
+ * 位置和（组，组内位置）之间的换算以及在某一组中增删条目都是O(log n)，不会逐个重新计算后面各组的位置。
+ * <p>
+ * 条目适配器绑定和点击事件中的位置都是在整个列表中的位置，包括头部和尾部，可以用{@link #getIndexInSection(int)}区分，
+ * 头部和尾部的点击也交给条目适配器的监听器。头部和尾部的布局不能和条目的布局相同。
+ * 只能在主线程使用，不支持稳定id，不能加入{@link ConcatRVAdapter}。
+ *
+ * @author lwh
+ * @param <BEAN> 组内条目的数据类型。
+ */
+public class SectionedRVAdapter<BEAN> extends RecyclerView.Adapter<BaseRVAdapter.ViewHolder> {
+
+    /**
+     * {@link #getIndexInSection(int)}表示组的头部和尾部。
+     */
+    public static final int SECTION_HEADER = SectionList.HEADER;
+    public static final int SECTION_FOOTER = SectionList.FOOTER;
+
+    private final BaseRVAdapter<BEAN> mItemAdapter;
+
+    private final SectionList<BEAN> mSections = new SectionList<>();
+
+    /**
+     * 头部和尾部的布局文件id，同时作为它们的viewType。
+     */
+    private final int mHeaderLayoutId;
+    private final int mFooterLayoutId;
+
+    /**
+     * 直接通知RecyclerView的回调。
+     */
+    private final ListUpdateCallback mAdapterCallback = new ListUpdateCallback() {
+
+        @Override
+        public void onInserted(int position, int count) {
+            notifyItemRangeInserted(position, count);
+        }
+
+        @Override
+        public void onRemoved(int position, int count) {
+            notifyItemRangeRemoved(position, count);
+        }
+
+        @Override
+        public void onMoved(int fromPosition, int toPosition) {
+            notifyItemMoved(fromPosition, toPosition);
+        }
+
+        @Override
+        public void onChanged(int position, int count, Object payload) {
+            notifyItemRangeChanged(position, count, payload);
+        }
+    };
+
+    /**
+     * 批量修改时记录通知的回调，不在批量修改中时为null。
+     */
+    private BatchingListUpdateCallback mBatchCallback;
+
+    private int mBatchDepth;
+
+    /**
+     * @param itemAdapter 创建和绑定组内条目的适配器，同时只能用于一个分组适配器，也不能再直接设置给RecyclerView。
+     * @param headerLayoutId 头部的布局文件id，为0时不能添加头部，不能和条目的布局相同。
+     * @param footerLayoutId 尾部的布局文件id，为0时不能添加尾部，不能和条目的布局相同。
+     */
+    public SectionedRVAdapter(BaseRVAdapter<BEAN> itemAdapter, int headerLayoutId, int footerLayoutId) {
+        if (itemAdapter.mConcatParent != null || itemAdapter.mSectionedParent != null) {
+            throw new IllegalArgumentException("The adapter is already added to a ConcatRVAdapter or a SectionedRVAdapter");
+        }
+        if (headerLayoutId != 0 && headerLayoutId == footerLayoutId) {
+            throw new IllegalArgumentException("Headers and footers must use different layouts");
+        }
+        this.mItemAdapter = itemAdapter;
+        this.mHeaderLayoutId = headerLayoutId;
+        this.mFooterLayoutId = footerLayoutId;
+        itemAdapter.mSectionedParent = this;
+    }
+
+    public BaseRVAdapter<BEAN> getItemAdapter() {
+        return mItemAdapter;
+    }
+
+    @Override
+    public int getItemCount() {
+        return mSections.size();
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        int section = mSections.sectionOf(position);
+        int index = mSections.indexInSection(position, section);
+        if (index == SECTION_HEADER) {
+            return mHeaderLayoutId;
+        }
+        if (index == SECTION_FOOTER) {
+            return mFooterLayoutId;
+        }
+        return mItemAdapter.getItemViewType(mSections.getItem(section, index), position);
+    }
+
+    @Override
+    public BaseRVAdapter.ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+        if (isDecorViewType(viewType)) {
+            return mItemAdapter.createDecorViewHolder(parent, viewType);
+        }
+        return mItemAdapter.onCreateViewHolder(parent, viewType);
+    }
+
+    @Override
+    public void onBindViewHolder(BaseRVAdapter.ViewHolder holder, int position) {
+        onBindViewHolder(holder, position, Collections.<Object>emptyList());
+    }
+
+    @Override
+    public void onBindViewHolder(BaseRVAdapter.ViewHolder holder, int position, List<Object> payloads) {
+        int section = mSections.sectionOf(position);
+        int index = mSections.indexInSection(position, section);
+        if (index == SECTION_HEADER) {
+            onBindSectionHeader(holder, section, mSections.getHeader(section));
+            mItemAdapter.ensureListeners(holder);
+        } else if (index == SECTION_FOOTER) {
+            onBindSectionFooter(holder, section, mSections.getFooter(section));
+            mItemAdapter.ensureListeners(holder);
+        } else {
+            mItemAdapter.bindItem(holder, position, mSections.getItem(section, index), payloads);
+        }
+    }
+
+    @Override
+    public void onViewRecycled(BaseRVAdapter.ViewHolder holder) {
+        super.onViewRecycled(holder);
+        mItemAdapter.onViewRecycled(holder);
+    }
+
+    @Override
+    public void onAttachedToRecyclerView(RecyclerView recyclerView) {
+        super.onAttachedToRecyclerView(recyclerView);
+        mItemAdapter.onAttachedToRecyclerView(recyclerView);
+    }
+
+    @Override
+    public void onDetachedFromRecyclerView(RecyclerView recyclerView) {
+        super.onDetachedFromRecyclerView(recyclerView);
+        mItemAdapter.onDetachedFromRecyclerView(recyclerView);
+    }
+
+    /**
+     * 绑定组的头部。
+     *
+     * @param holder View缓存对象。
+     * @param section 第几组。
+     * @param header {@link #addSection(Object, List, Object)}时传入的头部数据。
+     */
+    protected void onBindSectionHeader(BaseRVAdapter.ViewHolder holder, int section, Object header) {
+    }
+
+    /**
+     * 绑定组的尾部。
+     *
+     * @param holder View缓存对象。
+     * @param section 第几组。
+     * @param footer {@link #addSection(Object, List, Object)}时传入的尾部数据。
+     */
+    protected void onBindSectionFooter(BaseRVAdapter.ViewHolder holder, int section, Object footer) {
+    }
+
+    /**
+     * 开始批量修改。之后连续的同类修改如果位置相接或重叠会合并成一个通知，例如在同一处连续插入、
+     * 从同一处连续删除、用同一个payload刷新相邻的条目；其他修改仍然按顺序各自通知，只是最后一个通知会等到
+     * {@link #commit()}时才发出。可以嵌套，最外层的{@link #commit()}才会提交。
+     * 修改可能抛出异常时要在finally中提交，否则适配器会一直处于批量修改中：
+     * <pre>
+     * adapter.beginBatch();
+     * try {
+     *     ...
+     * } finally {
+     *     adapter.commit();
+     * }
+     * </pre>
+     */
+    public void beginBatch() {
+        if (mBatchDepth++ == 0) {
+            mBatchCallback = new BatchingListUpdateCallback(mAdapterCallback);
+        }
+    }
+
+    /**
+     * 提交批量修改，发出还没有发出的通知。不在批量修改中时什么也不做，多调用一次不会出错。
+     */
+    public void commit() {
+        if (mBatchDepth == 0) {
+            return;
+        }
+        if (--mBatchDepth == 0) {
+            mBatchCallback.dispatchLastEvent();
+            mBatchCallback = null;
+        }
+    }
+
+    private ListUpdateCallback getUpdateCallback() {
+        return mBatchCallback != null ? mBatchCallback : mAdapterCallback;
+    }
+
+    /**
+     * 在末尾添加一组。
+     *
+     * @param header 头部的数据，为null时没有头部。
+     * @param items 组内的条目，会被复制，可以为null。
+     * @param footer 尾部的数据，为null时没有尾部。
+     * @return 新的一组是第几组。
+     */
+    public int addSection(Object header, List<BEAN> items, Object footer) {
+        return addSection(mSections.getSectionCount(), header, items, footer);
+    }
+
+    /**
+     * 在指定位置插入一组，不在末尾时需要按组数重建树状数组。
+     *
+     * @param section 插入后是第几组。
+     * @param header 头部的数据，为null时没有头部。
+     * @param items 组内的条目，会被复制，可以为null。
+     * @param footer 尾部的数据，为null时没有尾部。
+     * @return 新的一组是第几组。
+     */
+    public int addSection(int section, Object header, List<BEAN> items, Object footer) {
+        checkDecor(header, footer);
+        int oldCount = mSections.size();
+        int start = mSections.addSection(section, header, items, footer);
+        int count = mSections.size() - oldCount;
+        if (count > 0) {
+            getUpdateCallback().onInserted(start, count);
+        }
+        return section;
+    }
+
+    /**
+     * 移除一组以及它的头部和尾部。
+     *
+     * @param section 第几组。
+     */
+    public void removeSection(int section) {
+        int oldCount = mSections.size();
+        int start = mSections.removeSection(section);
+        int count = oldCount - mSections.size();
+        if (count > 0) {
+            getUpdateCallback().onRemoved(start, count);
+        }
+    }
+
+    /**
+     * 移除所有的组。
+     */
+    public void clearSections() {
+        int count = mSections.size();
+        mSections.clearSections();
+        if (count > 0) {
+            getUpdateCallback().onRemoved(0, count);
+        }
+    }
+
+    /**
+     * 设置组的头部，从无到有时插入，从有到无时移除，否则刷新。
+     *
+     * @param section 第几组。
+     * @param header 头部的数据，为null时移除头部。
+     */
+    public void setSectionHeader(int section, Object header) {
+        checkDecor(header, null);
+        int oldPosition = mSections.positionOf(section, SECTION_HEADER);
+        mSections.setHeader(section, header);
+        notifyDecorChanged(oldPosition, mSections.positionOf(section, SECTION_HEADER));
+    }
+
+    /**
+     * 设置组的尾部，从无到有时插入，从有到无时移除，否则刷新。
+     *
+     * @param section 第几组。
+     * @param footer 尾部的数据，为null时移除尾部。
+     */
+    public void setSectionFooter(int section, Object footer) {
+        checkDecor(null, footer);
+        int oldPosition = mSections.positionOf(section, SECTION_FOOTER);
+        mSections.setFooter(section, footer);
+        notifyDecorChanged(oldPosition, mSections.positionOf(section, SECTION_FOOTER));
+    }
+
+    /**
+     * @param oldPosition 头部或尾部原来的位置，原来没有时为-1。
+     * @param newPosition 头部或尾部现在的位置，现在没有时为-1。
+     */
+    private void notifyDecorChanged(int oldPosition, int newPosition) {
+        if (oldPosition < 0 && newPosition >= 0) {
+            getUpdateCallback().onInserted(newPosition, 1);
+        } else if (oldPosition >= 0 && newPosition < 0) {
+            getUpdateCallback().onRemoved(oldPosition, 1);
+        } else if (oldPosition >= 0) {
+            getUpdateCallback().onChanged(oldPosition, 1, null);
+        }
+    }
+
+    /**
+     * 在组内末尾添加条目。
+     *
+     * @param section 第几组。
+     * @param data 新的数据。
+     */
+    public void addSectionItem(int section, BEAN data) {
+        addSectionItem(section, mSections.getItemCount(section), data);
+    }
+
+    /**
+     * 在组内插入条目，后面各组的位置在O(log n)内更新。
+     *
+     * @param section 第几组。
+     * @param index 插入后在组内的位置。
+     * @param data 新的数据。
+     */
+    public void addSectionItem(int section, int index, BEAN data) {
+        int position = mSections.addItem(section, index, data);
+        getUpdateCallback().onInserted(position, 1);
+    }
+
+    /**
+     * 在组内末尾添加多个条目，只通知一次。
+     *
+     * @param section 第几组。
+     * @param datas 新的数据。
+     */
+    public void addSectionItems(int section, List<BEAN> datas) {
+        if (datas.isEmpty()) {
+            return;
+        }
+        int position = mSections.addItems(section, datas);
+        getUpdateCallback().onInserted(position, datas.size());
+    }
+
+    /**
+     * 移除组内的条目，组内没有条目后仍然保留头部和尾部。
+     *
+     * @param section 第几组。
+     * @param index 条目在组内的位置。
+     */
+    public void removeSectionItem(int section, int index) {
+        int position = mSections.removeItem(section, index);
+        getUpdateCallback().onRemoved(position, 1);
+    }
+
+    /**
+     * 替换组内的条目。
+     *
+     * @param section 第几组。
+     * @param index 条目在组内的位置。
+     * @param data 新的数据。
+     */
+    public void setSectionItem(int section, int index, BEAN data) {
+        int position = mSections.setItem(section, index, data);
+        getUpdateCallback().onChanged(position, 1, null);
+    }
+
+    public int getSectionCount() {
+        return mSections.getSectionCount();
+    }
+
+    /**
+     * @return 组内条目的数量，不包括头部和尾部。
+     */
+    public int getSectionItemCount(int section) {
+        return mSections.getItemCount(section);
+    }
+
+    public BEAN getSectionItem(int section, int index) {
+        return mSections.getItem(section, index);
+    }
+
+    public Object getSectionHeader(int section) {
+        return mSections.getHeader(section);
+    }
+
+    public Object getSectionFooter(int section) {
+        return mSections.getFooter(section);
+    }
+
+    /**
+     * 获取指定位置的条目。
+     *
+     * @param position 在整个列表中的位置。
+     * @return 条目的数据，是组的头部或尾部时返回null。
+     */
+    public BEAN getData(int position) {
+        return mSections.get(position);
+    }
+
+    /**
+     * 获取位置所在的组，O(log n)。
+     *
+     * @param position 条目在列表中的位置。
+     * @return 第几组。
+     */
+    public int getSectionForPosition(int position) {
+        return mSections.sectionOf(position);
+    }
+
+    /**
+     * 获取位置在组内的位置，O(log n)。
+     *
+     * @param position 条目在列表中的位置。
+     * @return 条目在组内的位置，是头部或尾部时返回{@link #SECTION_HEADER}或{@link #SECTION_FOOTER}。
+     */
+    public int getIndexInSection(int position) {
+        return mSections.indexInSection(position, mSections.sectionOf(position));
+    }
+
+    /**
+     * 获取组内条目在列表中的位置，O(log n)。
+     *
+     * @param section 第几组。
+     * @param index 条目在组内的位置，或者{@link #SECTION_HEADER}、{@link #SECTION_FOOTER}。
+     * @return 条目在列表中的位置，该组没有头部或尾部时返回-1。
+     */
+    public int getPositionForSectionItem(int section, int index) {
+        return mSections.positionOf(section, index);
+    }
+
+    /**
+     * 头部和尾部需要有对应的布局。
+     */
+    private void checkDecor(Object header, Object footer) {
+        if (header != null && mHeaderLayoutId == 0) {
+            throw new IllegalArgumentException("No header layout was given to the constructor");
+        }
+        if (footer != null && mFooterLayoutId == 0) {
+            throw new IllegalArgumentException("No footer layout was given to the constructor");
+        }
+    }
+
+    private boolean isDecorViewType(int viewType) {
+        return viewType != 0 && (viewType == mHeaderLayoutId || viewType == mFooterLayoutId);
+    }
+}
@@ -0,0 +1,253 @@
+package cn.jackwhliu.rvadapter.lib;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+import cn.jackwhliu.rvadapter.lib.collection.ChunkedList;
+
+/**
+ * 从快照文件恢复的列表，条目在第一次{@link #get(int)}时才解码，之后缓存起来，
+ * 所以恢复的耗时和条目数量无关，只有显示过的条目才会解码。
+ * <p>
+ * 第一次修改时转成一个按位置排列的槽位列表，还没解码的条目在槽位中只记录它在快照中的序号，
+ * 插入、删除和移动都只搬动槽位，不会解码其他条目，被删除的条目也不会解码。所有条目都解码后由
+ * {@link BaseRVAdapter#materialize(List)}换成普通的列表。只能在主线程使用。
+ *
+ * @author lwh
+ * @param <BEAN> 适配的数据类型。
+ */
+final class SnapshotList<BEAN> extends AbstractList<BEAN> implements RandomAccess {
+
+    /**
+     * 每块缓存的条数，必须是2的幂。
+     */
+    private static final int CHUNK_SHIFT = 8;
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+
+    /**
+     * 槽位中还没解码的条目。
+     */
+    private static final class Encoded {
+
+        /**
+         * 在快照中的序号。
+         */
+        final int mIndex;
+
+        Encoded(int index) {
+            this.mIndex = index;
+        }
+    }
+
+    private final ByteBuffer mBuffer;
+
+    private final BaseRVAdapter.SnapshotCodec<BEAN> mCodec;
+
+    private final int mSize;
+
+    /**
+     * 偏移表的位置，共mSize + 1个int，第i条数据在[offset(i), offset(i + 1))。
+     */
+    private final int mTableOffset;
+
+    /**
+     * 解码后的条目，按块分配，只有访问过的块才会分配。转成槽位后为null。
+     */
+    private Object[][] mDecoded;
+
+    /**
+     * 修改后按位置排列的条目，还没解码的是{@link Encoded}，还没修改过时为null。
+     */
+    private List<Object> mSlots;
+
+    /**
+     * 槽位中还没解码的条数。
+     */
+    private int mPendingCount;
+
+    private final ByteBufferInput mInput;
+
+    /**
+     * 已解码的条数。
+     */
+    private int mDecodedCount;
+
+    /**
+     * 恢复前的适配器是否使用{@link ChunkedList}，槽位和转成的普通列表都沿用。
+     */
+    boolean mChunkedStorage;
+
+    SnapshotList(ByteBuffer buffer, BaseRVAdapter.SnapshotCodec<BEAN> codec, int size, int tableOffset) {
+        this.mBuffer = buffer;
+        this.mCodec = codec;
+        this.mSize = size;
+        this.mTableOffset = tableOffset;
+        this.mDecoded = new Object[(size + CHUNK_SIZE - 1) >>> CHUNK_SHIFT][];
+        this.mInput = new ByteBufferInput(buffer);
+    }
+
+    @Override
+    public int size() {
+        return mSlots != null ? mSlots.size() : mSize;
+    }
+
+    /**
+     * 获取条目，第一次访问时解码。
+     *
+     * @throws IllegalStateException 快照的内容损坏。
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public BEAN get(int position) {
+        if (mSlots != null) {
+            Object slot = mSlots.get(position);
+            if (slot instanceof Encoded) {
+                BEAN data = decode(((Encoded) slot).mIndex);
+                mSlots.set(position, data);
+                mPendingCount--;
+                return data;
+            }
+            return (BEAN) slot;
+        }
+        if (position < 0 || position >= mSize) {
+            throw new IndexOutOfBoundsException("Index: " + position + ", Size: " + mSize);
+        }
+        Object[] chunk = mDecoded[position >>> CHUNK_SHIFT];
+        if (chunk == null) {
+            chunk = new Object[CHUNK_SIZE];
+            mDecoded[position >>> CHUNK_SHIFT] = chunk;
+        }
+        int index = position & (CHUNK_SIZE - 1);
+        Object data = chunk[index];
+        if (data == null) {
+            data = decode(position);
+            // 解码出null时用列表自身占位，避免每次都重新解码
+            chunk[index] = data != null ? data : this;
+        }
+        return data != this ? (BEAN) data : null;
+    }
+
+    @Override
+    public BEAN set(int position, BEAN data) {
+        slots();
+        BEAN old = get(position);
+        mSlots.set(position, data);
+        return old;
+    }
+
+    @Override
+    public void add(int position, BEAN data) {
+        slots().add(position, data);
+        modCount++;
+    }
+
+    @Override
+    public boolean addAll(int position, Collection<? extends BEAN> datas) {
+        modCount++;
+        return slots().addAll(position, datas);
+    }
+
+    @Override
+    public BEAN remove(int position) {
+        slots();
+        BEAN old = get(position);
+        mSlots.remove(position);
+        modCount++;
+        return old;
+    }
+
+    /**
+     * 删除一段条目，被删除的条目不会解码，用于{@code subList(from, to).clear()}。
+     */
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        List<Object> range = slots().subList(fromIndex, toIndex);
+        for (int i = 0, size = range.size(); i < size; i++) {
+            if (range.get(i) instanceof Encoded) {
+                mPendingCount--;
+            }
+        }
+        range.clear();
+        modCount++;
+    }
+
+    @Override
+    public void clear() {
+        mDecoded = null;
+        mSlots = newSlots(0);
+        mPendingCount = 0;
+        modCount++;
+    }
+
+    /**
+     * 之后用{@link ChunkedList}保存槽位，已经转成槽位时直接复制槽位，不解码。
+     */
+    void useChunkedStorage() {
+        mChunkedStorage = true;
+        if (mSlots != null && !(mSlots instanceof ChunkedList)) {
+            mSlots = new ChunkedList<>(mSlots);
+        }
+    }
+
+    /**
+     * 所有条目是否都已经解码，此时转成普通的列表不需要再解码。
+     */
+    boolean isFullyDecoded() {
+        return mSlots != null ? mPendingCount == 0 : mDecodedCount == mSize;
+    }
+
+    /**
+     * 已解码的条数。
+     */
+    int getDecodedCount() {
+        return mDecodedCount;
+    }
+
+    /**
+     * 第一次修改时把已解码的条目和其余条目的序号按位置排成槽位，只需要O(n)的复制，不解码。
+     */
+    private List<Object> slots() {
+        if (mSlots == null) {
+            List<Object> slots = newSlots(mSize);
+            for (int i = 0; i < mSize; i++) {
+                Object[] chunk = mDecoded[i >>> CHUNK_SHIFT];
+                Object data = chunk != null ? chunk[i & (CHUNK_SIZE - 1)] : null;
+                if (data == null) {
+                    slots.add(new Encoded(i));
+                    mPendingCount++;
+                } else {
+                    slots.add(data != this ? data : null);
+                }
+            }
+            mSlots = slots;
+            mDecoded = null;
+        }
+        return mSlots;
+    }
+
+    private List<Object> newSlots(int capacity) {
+        return mChunkedStorage ? new ChunkedList<>() : new ArrayList<>(capacity);
+    }
+
+    private BEAN decode(int position) {
+        int start = mBuffer.getInt(mTableOffset + position * 4);
+        int end = mBuffer.getInt(mTableOffset + position * 4 + 4);
+        if (start < AdapterSnapshot.HEADER_SIZE || start > end || end > mTableOffset) {
+            throw new IllegalStateException("Corrupt snapshot entry " + position + ": [" + start + ", " + end + ")");
+        }
+        mInput.reset(start, end);
+        BEAN data;
+        try {
+            data = mCodec.decode(mInput);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to decode snapshot entry " + position, e);
+        }
+        mDecodedCount++;
+        return data;
+    }
+}
@@ -0,0 +1,162 @@
+package cn.jackwhliu.rvadapter.lib;
+
+import java.util.Locale;
+
+import cn.jackwhliu.rvadapter.lib.collection.LongIntMap;
+
+/**
+ * 条目文字的三元组（连续三个字符）倒排索引，用来快速找出包含某段文字的条目。
+ * 查询先取查询中每个三元组的条目列表求交集，再逐个确认是否真的包含，不区分大小写。
+ * 建好之后只读，可以在任意线程使用。
+ *
+ * @author lwh
+ */
+final class TextIndex {
+
+    private static final int[] EMPTY = new int[0];
+
+    /**
+     * 小写后的文字，下标为条目在建索引时的位置。
+     */
+    private final String[] mTexts;
+
+    /**
+     * 三元组到条目列表下标的映射。
+     */
+    private final LongIntMap mGrams = new LongIntMap();
+
+    /**
+     * 每个三元组的条目列表，升序且不重复，数组可能比实际长度长。
+     */
+    private int[][] mPostings = new int[64][];
+
+    private int[] mPostingSizes = new int[64];
+
+    private int mGramCount;
+
+    /**
+     * @param texts 条目的文字，已经用{@link #normalize(String)}处理过。
+     */
+    TextIndex(String[] texts) {
+        mTexts = texts;
+        for (int item = 0; item < texts.length; item++) {
+            String text = texts[item];
+            for (int i = 0; i + 3 <= text.length(); i++) {
+                add(gramAt(text, i), item);
+            }
+        }
+    }
+
+    /**
+     * 统一转成小写，null当作空字符串。
+     */
+    static String normalize(CharSequence text) {
+        return text == null ? "" : text.toString().toLowerCase(Locale.ROOT);
+    }
+
+    int size() {
+        return mTexts.length;
+    }
+
+    /**
+     * 条目是否包含查询的文字。
+     *
+     * @param item 条目在建索引时的位置。
+     * @param query 经过{@link #normalize(CharSequence)}的查询。
+     */
+    boolean matches(int item, String query) {
+        return mTexts[item].contains(query);
+    }
+
+    /**
+     * 可能包含查询文字的条目，还需要用{@link #matches(int, String)}确认。
+     *
+     * @param query 经过{@link #normalize(CharSequence)}的查询。
+     * @return 升序的条目位置，查询不足三个字符无法使用索引时返回null。
+     */
+    int[] candidates(String query) {
+        if (query.length() < 3) {
+            return null;
+        }
+        int smallest = -1;
+        for (int i = 0; i + 3 <= query.length(); i++) {
+            int gram = mGrams.get(gramAt(query, i), -1);
+            if (gram < 0) {
+                return EMPTY;
+            }
+            if (smallest < 0 || mPostingSizes[gram] < mPostingSizes[smallest]) {
+                smallest = gram;
+            }
+        }
+        int size = mPostingSizes[smallest];
+        int[] result = new int[size];
+        System.arraycopy(mPostings[smallest], 0, result, 0, size);
+        for (int i = 0; i + 3 <= query.length() && size > 0; i++) {
+            int gram = mGrams.get(gramAt(query, i), -1);
+            if (gram != smallest) {
+                size = retain(result, size, mPostings[gram], mPostingSizes[gram]);
+            }
+        }
+        if (size == result.length) {
+            return result;
+        }
+        int[] trimmed = new int[size];
+        System.arraycopy(result, 0, trimmed, 0, size);
+        return trimmed;
+    }
+
+    /**
+     * 只保留同时在另一个升序列表中的条目。
+     *
+     * @return 保留的数量。
+     */
+    private static int retain(int[] items, int size, int[] other, int otherSize) {
+        int kept = 0;
+        int j = 0;
+        for (int i = 0; i < size && j < otherSize; i++) {
+            int item = items[i];
+            while (j < otherSize && other[j] < item) {
+                j++;
+            }
+            if (j < otherSize && other[j] == item) {
+                items[kept++] = item;
+            }
+        }
+        return kept;
+    }
+
+    private void add(long key, int item) {
+        int gram = mGrams.get(key, -1);
+        if (gram < 0) {
+            gram = mGramCount++;
+            if (gram == mPostings.length) {
+                int[][] postings = new int[gram * 2][];
+                System.arraycopy(mPostings, 0, postings, 0, gram);
+                mPostings = postings;
+                int[] sizes = new int[gram * 2];
+                System.arraycopy(mPostingSizes, 0, sizes, 0, gram);
+                mPostingSizes = sizes;
+            }
+            mPostings[gram] = new int[4];
+            mGrams.put(key, gram);
+        }
+        int[] posting = mPostings[gram];
+        int size = mPostingSizes[gram];
+        // 同一条目中重复的三元组只记一次，条目按顺序加入，只需要和最后一个比较
+        if (size > 0 && posting[size - 1] == item) {
+            return;
+        }
+        if (size == posting.length) {
+            int[] grown = new int[size * 2];
+            System.arraycopy(posting, 0, grown, 0, size);
+            mPostings[gram] = posting = grown;
+        }
+        posting[size] = item;
+        mPostingSizes[gram] = size + 1;
+    }
+
+    private static long gramAt(String text, int index) {
+        return ((long) text.charAt(index) << 32) | ((long) text.charAt(index + 1) << 16)
+                | text.charAt(index + 2);
+    }
+}
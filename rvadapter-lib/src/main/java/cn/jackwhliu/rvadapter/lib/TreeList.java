@@ -0,0 +1,176 @@
+package cn.jackwhliu.rvadapter.lib;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+import cn.jackwhliu.rvadapter.lib.collection.WeightedList;
+
+/**
+ * 树形模式下的只读列表，按先序排列所有可见的节点。每个节点用{@link WeightedList}
+ * 保存各个子节点展开时占用的条数，位置和节点之间的换算、插入和删除节点、展开和折叠都只需要沿着祖先节点走一遍，
+ * 每层期望O(log 子节点数)，不需要重新展开整棵树，也不会按兄弟节点的数量重建或重新编号。只能在主线程使用。
+ *
+ * @author lwh
+ * @param <BEAN> 适配的数据类型。
+ */
+final class TreeList<BEAN> extends AbstractList<BEAN> implements RandomAccess {
+
+    /**
+     * 不显示的根节点，第一层节点是它的子节点。
+     */
+    private final TreeNode<BEAN> mRoot = new TreeNode<>(null, null, -1);
+
+    TreeList() {
+        mRoot.mExpanded = true;
+    }
+
+    @Override
+    public int size() {
+        return mRoot.childrenSize();
+    }
+
+    @Override
+    public BEAN get(int position) {
+        return nodeAt(position).mData;
+    }
+
+    TreeNode<BEAN> getRoot() {
+        return mRoot;
+    }
+
+    /**
+     * 获取位置上的节点，每层在子节点的树中查找一次。
+     */
+    TreeNode<BEAN> nodeAt(int position) {
+        if (position < 0 || position >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + position + ", Size: " + size());
+        }
+        TreeNode<BEAN> node = mRoot;
+        int offset = position;
+        while (true) {
+            WeightedList.Entry<TreeNode<BEAN>> entry = node.mChildren.entryAtOffset(offset);
+            TreeNode<BEAN> child = entry.getValue();
+            offset -= node.mChildren.prefixSum(entry);
+            if (offset == 0) {
+                return child;
+            }
+            // 跳过子节点本身，落在它展开的子孙中
+            offset--;
+            node = child;
+        }
+    }
+
+    /**
+     * 获取节点的位置。
+     *
+     * @return 节点的位置，有祖先节点折叠时返回-1。
+     */
+    int positionOf(TreeNode<BEAN> node) {
+        int position = 0;
+        TreeNode<BEAN> child = node;
+        TreeNode<BEAN> parent = node.mParent;
+        while (parent != null) {
+            if (!parent.mExpanded) {
+                return -1;
+            }
+            position += parent.mChildren.prefixSum(child.mEntry);
+            if (parent != mRoot) {
+                position++;
+            }
+            child = parent;
+            parent = parent.mParent;
+        }
+        return position;
+    }
+
+    /**
+     * 节点是否在这棵树中。
+     */
+    boolean contains(TreeNode<?> node) {
+        TreeNode<?> n = node;
+        while (n.mParent != null) {
+            n = n.mParent;
+        }
+        return n == mRoot;
+    }
+
+    /**
+     * 插入子节点。
+     *
+     * @param parent 父节点，为null时插入到第一层。
+     */
+    TreeNode<BEAN> addNode(TreeNode<BEAN> parent, int index, BEAN data) {
+        TreeNode<BEAN> p = parent != null ? parent : mRoot;
+        TreeNode<BEAN> node = new TreeNode<>(data, p, p.mDepth + 1);
+        p.addChild(index, node);
+        if (p.mExpanded) {
+            propagate(p, 1);
+        }
+        return node;
+    }
+
+    /**
+     * 移除节点和它的所有子孙节点。
+     *
+     * @return 移除前节点自身和展开的子孙节点占用的条数。
+     */
+    int removeNode(TreeNode<BEAN> node) {
+        TreeNode<BEAN> parent = node.mParent;
+        int size = node.size();
+        parent.removeChild(node);
+        node.mParent = null;
+        if (parent.mExpanded) {
+            propagate(parent, -size);
+        }
+        return size;
+    }
+
+    /**
+     * 展开节点。
+     *
+     * @return 新显示的子孙节点的数量，已经展开时返回0。
+     */
+    int expand(TreeNode<BEAN> node) {
+        if (node.mExpanded) {
+            return 0;
+        }
+        node.mExpanded = true;
+        int count = node.childrenSize();
+        propagate(node, count);
+        return count;
+    }
+
+    /**
+     * 折叠节点，子孙节点各自的展开状态保留。
+     *
+     * @return 被隐藏的子孙节点的数量，已经折叠时返回0。
+     */
+    int collapse(TreeNode<BEAN> node) {
+        if (!node.mExpanded) {
+            return 0;
+        }
+        int count = node.childrenSize();
+        node.mExpanded = false;
+        propagate(node, -count);
+        return count;
+    }
+
+    /**
+     * 节点占用的条数变化后更新祖先节点中记录的大小，遇到折叠的祖先节点时停止，因为再往上的大小不受影响。
+     *
+     * @param node 占用的条数发生变化的节点。
+     * @param delta 变化量。
+     */
+    private void propagate(TreeNode<BEAN> node, int delta) {
+        TreeNode<BEAN> child = node;
+        TreeNode<BEAN> parent = node.mParent;
+        while (delta != 0 && parent != null) {
+            parent.mChildren.update(child.mEntry, delta);
+            if (!parent.mExpanded) {
+                return;
+            }
+            child = parent;
+            parent = parent.mParent;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package cn.jackwhliu.rvadapter.lib;
+
+import cn.jackwhliu.rvadapter.lib.collection.WeightedList;
+
+/**
+ * 树形模式下的节点，通过{@link BaseRVAdapter#addTreeNode(TreeNode, Object)}创建，
+ * 只能通过适配器修改，以便维护每个节点可见子树的大小。只能在主线程使用。
+ *
+ * @author lwh
+ * @param <BEAN> 适配的数据类型。
+ */
+public final class TreeNode<BEAN> {
+
+    BEAN mData;
+
+    /**
+     * 父节点，第一层节点的父节点是不显示的根节点，为null表示已从树中移除或本身就是根节点。
+     */
+    TreeNode<BEAN> mParent;
+
+    /**
+     * 在父节点的子节点中对应的元素，用来在O(log 子节点数)内求出位置和前面的子节点占用的条数，
+     * 前面插入或删除子节点时不需要重新编号。
+     */
+    WeightedList.Entry<TreeNode<BEAN>> mEntry;
+
+    final int mDepth;
+
+    boolean mExpanded;
+
+    /**
+     * 子节点，权重是每个子节点展开时占用的条数（包括子节点本身），没有子节点时为null。
+     * 子节点折叠后仍然保留，再展开时不用重新计算。
+     */
+    WeightedList<TreeNode<BEAN>> mChildren;
+
+    TreeNode(BEAN data, TreeNode<BEAN> parent, int depth) {
+        this.mData = data;
+        this.mParent = parent;
+        this.mDepth = depth;
+    }
+
+    public BEAN getData() {
+        return mData;
+    }
+
+    /**
+     * @return 父节点，第一层节点返回null。
+     */
+    public TreeNode<BEAN> getParent() {
+        return mParent != null && mParent.mParent != null ? mParent : null;
+    }
+
+    /**
+     * @return 节点的层级，第一层为0，可以用来计算缩进。
+     */
+    public int getDepth() {
+        return mDepth;
+    }
+
+    public boolean isExpanded() {
+        return mExpanded;
+    }
+
+    public int getChildCount() {
+        return mChildren != null ? mChildren.size() : 0;
+    }
+
+    /**
+     * 获取子节点，O(log 子节点数)。
+     */
+    public TreeNode<BEAN> getChild(int index) {
+        if (mChildren == null) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: 0");
+        }
+        return mChildren.get(index);
+    }
+
+    public boolean isLeaf() {
+        return getChildCount() == 0;
+    }
+
+    /**
+     * 节点自身和展开的子孙节点占用的条数。
+     */
+    int size() {
+        return 1 + (mExpanded ? childrenSize() : 0);
+    }
+
+    /**
+     * 子节点展开时占用的条数之和。
+     */
+    int childrenSize() {
+        return mChildren != null ? mChildren.sum() : 0;
+    }
+
+    /**
+     * 在子节点中插入，期望O(log 子节点数)，后面的子节点不需要重新编号。
+     */
+    void addChild(int index, TreeNode<BEAN> child) {
+        if (mChildren == null) {
+            mChildren = new WeightedList<>();
+        }
+        child.mEntry = mChildren.add(index, child, child.size());
+    }
+
+    void removeChild(TreeNode<BEAN> child) {
+        mChildren.remove(child.mEntry);
+        child.mEntry = null;
+    }
+}
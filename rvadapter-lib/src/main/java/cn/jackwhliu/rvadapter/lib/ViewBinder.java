@@ -0,0 +1,36 @@
+package cn.jackwhliu.rvadapter.lib;
+
+import android.view.View;
+
+/**
+ * 条目布局和控件的绑定器，由rvadapter-compiler根据{@link BaseRVAdapter.ItemId}和
+ * {@link BaseRVAdapter.ItemViewIds}在编译期生成，类名为“适配器类名_ViewBinder”。
+ *
+ * @author lwh
+ */
+public interface ViewBinder {
+
+    /**
+     * 条目布局文件的id。
+     *
+     * @return 没有声明{@link BaseRVAdapter.ItemId}时返回0。
+     */
+    int getItemId();
+
+    /**
+     * 条目控件的id。
+     *
+     * @return 没有声明{@link BaseRVAdapter.ItemViewIds}时返回null。
+     */
+    int[] getItemViewIds();
+
+    /**
+     * 创建ViewHolder并查找条目的控件。生成的ViewHolder用字段保存{@link BaseRVAdapter.ItemViewIds}中的控件，
+     * {@link BaseRVAdapter.ViewHolder#findViewById(int)}直接返回字段，不经过稀疏数组。
+     *
+     * @param adapter 创建ViewHolder的适配器。
+     * @param itemView 条目的布局。
+     * @return View缓存对象。
+     */
+    BaseRVAdapter.ViewHolder createViewHolder(BaseRVAdapter<?> adapter, View itemView);
+}
@@ -0,0 +1,90 @@
+package cn.jackwhliu.rvadapter.lib;
+
+import android.view.View;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 查找适配器对应的{@link ViewBinder}，每个适配器类只查找一次。
+ *
+ * @author lwh
+ */
+final class ViewBinders {
+
+    /**
+     * 生成类的后缀。
+     */
+    static final String SUFFIX = "_ViewBinder";
+
+    /**
+     * 已经查找过的绑定器。
+     */
+    private static final Map<Class<?>, ViewBinder> BINDERS = new ConcurrentHashMap<>();
+
+    private ViewBinders() {
+    }
+
+    /**
+     * 优先使用编译期生成的绑定器，找不到时才退回到运行时读取注解。
+     *
+     * @param adapterClass 适配器的类。
+     * @return 绑定器，不会为null。
+     */
+    static ViewBinder find(Class<?> adapterClass) {
+        ViewBinder binder = BINDERS.get(adapterClass);
+        if (binder == null) {
+            binder = newGeneratedBinder(adapterClass);
+            if (binder == null) {
+                binder = new AnnotationViewBinder(adapterClass);
+            }
+            BINDERS.put(adapterClass, binder);
+        }
+        return binder;
+    }
+
+    private static ViewBinder newGeneratedBinder(Class<?> adapterClass) {
+        try {
+            Class<?> binderClass = Class.forName(adapterClass.getName() + SUFFIX, true,
+                    adapterClass.getClassLoader());
+            return (ViewBinder) binderClass.newInstance();
+        } catch (ClassNotFoundException e) {
+            return null;
+        } catch (InstantiationException e) {
+            throw new RuntimeException("Unable to create view binder for " + adapterClass, e);
+        } catch (IllegalAccessException e) {
+            throw new RuntimeException("Unable to create view binder for " + adapterClass, e);
+        }
+    }
+
+    /**
+     * 运行时读取注解的绑定器，没有使用rvadapter-compiler时的后备方案。
+     */
+    private static final class AnnotationViewBinder implements ViewBinder {
+
+        private final int mItemId;
+        private final int[] mItemViewIds;
+
+        AnnotationViewBinder(Class<?> adapterClass) {
+            BaseRVAdapter.ItemId itemId = adapterClass.getAnnotation(BaseRVAdapter.ItemId.class);
+            BaseRVAdapter.ItemViewIds itemViewIds = adapterClass.getAnnotation(BaseRVAdapter.ItemViewIds.class);
+            mItemId = itemId != null ? itemId.value() : 0;
+            mItemViewIds = itemViewIds != null ? itemViewIds.value() : null;
+        }
+
+        @Override
+        public int getItemId() {
+            return mItemId;
+        }
+
+        @Override
+        public int[] getItemViewIds() {
+            return mItemViewIds;
+        }
+
+        @Override
+        public BaseRVAdapter.ViewHolder createViewHolder(BaseRVAdapter<?> adapter, View itemView) {
+            return ((BaseRVAdapter) adapter).new ViewHolder(itemView, mItemViewIds);
+        }
+    }
+}
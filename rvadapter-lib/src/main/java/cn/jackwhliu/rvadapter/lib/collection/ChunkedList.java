@@ -0,0 +1,425 @@
+package cn.jackwhliu.rvadapter.lib.collection;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+/**
+ * 分块存储的列表，数据分散在若干个定长的块中，插入、删除和移动只需要搬动一个块内的数据和块的索引，
+ * 而不是像{@link java.util.ArrayList}那样搬动后面所有的数据，适合频繁在头部或中间插入、移动的列表。
+ * 块的起始位置按需重新计算，按位置查找时在块的起始位置上二分查找。非线程安全。
+ * <p>
+ * 块的容量c是固定的，不会随数据量调整。插入和删除的开销是O(c + n/c)：搬动一个块内的数据，再重新计算后面块的起始位置。
+ * 默认的c为512，数据量在c²（约26万）以内时接近O(√n)，更多时按O(n/512)增长，这时可以用{@link #ChunkedList(int)}传入更大的容量。
+ *
+ * @author lwh
+ * @param <E> 元素的类型。
+ */
+public class ChunkedList<E> extends AbstractList<E> implements RandomAccess {
+
+    /**
+     * 默认每块的容量。
+     */
+    private static final int DEFAULT_CHUNK_CAPACITY = 512;
+
+    /**
+     * 每块的容量。
+     */
+    private final int mChunkCapacity;
+
+    /**
+     * 所有的块。
+     */
+    private Object[][] mChunks;
+
+    /**
+     * 每块中元素的数量。
+     */
+    private int[] mSizes;
+
+    /**
+     * 每块第一个元素在列表中的位置，只有前{@link #mValidStarts}个是有效的。
+     */
+    private int[] mStarts;
+
+    /**
+     * 块的数量。
+     */
+    private int mChunkCount;
+
+    /**
+     * 起始位置有效的块的数量。
+     */
+    private int mValidStarts;
+
+    /**
+     * 最近一次查找到的块，顺序访问时可以省去二分查找。
+     */
+    private int mLastChunk;
+
+    /**
+     * 元素的数量。
+     */
+    private int mSize;
+
+    public ChunkedList() {
+        this(DEFAULT_CHUNK_CAPACITY);
+    }
+
+    /**
+     * @param chunkCapacity 每块的容量，取预计最大数据量的平方根附近时插入和删除最快。
+     */
+    public ChunkedList(int chunkCapacity) {
+        if (chunkCapacity < 4) {
+            throw new IllegalArgumentException("chunkCapacity must be at least 4: " + chunkCapacity);
+        }
+        this.mChunkCapacity = chunkCapacity;
+        this.mChunks = new Object[8][];
+        this.mSizes = new int[8];
+        this.mStarts = new int[8];
+    }
+
+    public ChunkedList(Collection<? extends E> datas) {
+        this();
+        addAll(datas);
+    }
+
+    @Override
+    public int size() {
+        return mSize;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        checkElementIndex(index);
+        int chunk = chunkOf(index);
+        return (E) mChunks[chunk][index - mStarts[chunk]];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E set(int index, E element) {
+        checkElementIndex(index);
+        int chunk = chunkOf(index);
+        Object[] data = mChunks[chunk];
+        int offset = index - mStarts[chunk];
+        E old = (E) data[offset];
+        data[offset] = element;
+        return old;
+    }
+
+    @Override
+    public boolean add(E element) {
+        add(mSize, element);
+        return true;
+    }
+
+    @Override
+    public void add(int index, E element) {
+        checkPositionIndex(index);
+        int chunk;
+        int offset;
+        if (index == mSize) {
+            if (mChunkCount == 0 || mSizes[mChunkCount - 1] == mChunkCapacity) {
+                insertChunk(mChunkCount, new Object[mChunkCapacity], 0);
+            }
+            chunk = mChunkCount - 1;
+            offset = mSizes[chunk];
+        } else {
+            chunk = chunkOf(index);
+            offset = index - mStarts[chunk];
+            if (mSizes[chunk] == mChunkCapacity) {
+                splitChunk(chunk);
+                if (offset > mSizes[chunk]) {
+                    offset -= mSizes[chunk];
+                    chunk++;
+                }
+            }
+        }
+        Object[] data = mChunks[chunk];
+        System.arraycopy(data, offset, data, offset + 1, mSizes[chunk] - offset);
+        data[offset] = element;
+        mSizes[chunk]++;
+        mSize++;
+        invalidateStarts(chunk + 1);
+        modCount++;
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends E> datas) {
+        return addAll(mSize, datas);
+    }
+
+    /**
+     * 批量插入，中间插入时只拆分一个块，新数据直接组成新的块。
+     */
+    @Override
+    public boolean addAll(int index, Collection<? extends E> datas) {
+        checkPositionIndex(index);
+        Object[] elements = datas.toArray();
+        int count = elements.length;
+        if (count == 0) {
+            return false;
+        }
+        int chunk;
+        int read = 0;
+        if (index == mSize) {
+            chunk = mChunkCount;
+            if (chunk > 0) {
+                int last = chunk - 1;
+                int n = Math.min(count, mChunkCapacity - mSizes[last]);
+                System.arraycopy(elements, 0, mChunks[last], mSizes[last], n);
+                mSizes[last] += n;
+                read = n;
+            }
+        } else {
+            chunk = chunkOf(index);
+            int offset = index - mStarts[chunk];
+            if (offset > 0) {
+                splitChunkAt(chunk, offset);
+                chunk++;
+            }
+        }
+        int newChunks = (count - read + mChunkCapacity - 1) / mChunkCapacity;
+        ensureChunkCapacity(mChunkCount + newChunks);
+        shiftChunks(chunk, newChunks);
+        for (int i = 0; i < newChunks; i++) {
+            int n = Math.min(mChunkCapacity, count - read);
+            Object[] data = new Object[mChunkCapacity];
+            System.arraycopy(elements, read, data, 0, n);
+            mChunks[chunk + i] = data;
+            mSizes[chunk + i] = n;
+            read += n;
+        }
+        mSize += count;
+        invalidateStarts(Math.max(0, chunk - 1));
+        modCount++;
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E remove(int index) {
+        checkElementIndex(index);
+        int chunk = chunkOf(index);
+        Object[] data = mChunks[chunk];
+        int offset = index - mStarts[chunk];
+        E old = (E) data[offset];
+        int size = mSizes[chunk];
+        System.arraycopy(data, offset + 1, data, offset, size - offset - 1);
+        data[size - 1] = null;
+        mSizes[chunk] = size - 1;
+        mSize--;
+        if (mSizes[chunk] == 0) {
+            removeChunks(chunk, 1);
+        } else {
+            invalidateStarts(chunk + 1);
+            mergeIfSparse(chunk);
+        }
+        modCount++;
+        return old;
+    }
+
+    /**
+     * 移动一个元素，相当于先移除再插入，但只需要搬动两个块内的数据。
+     *
+     * @param fromIndex 元素原来的位置。
+     * @param toIndex 元素移动后的位置。
+     */
+    public void move(int fromIndex, int toIndex) {
+        checkElementIndex(fromIndex);
+        checkElementIndex(toIndex);
+        if (fromIndex != toIndex) {
+            add(toIndex, remove(fromIndex));
+        }
+    }
+
+    /**
+     * 批量移除，中间被整块移除的块只在最后统一整理一次。
+     */
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > mSize || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("fromIndex: " + fromIndex + ", toIndex: " + toIndex
+                    + ", size: " + mSize);
+        }
+        if (fromIndex == toIndex) {
+            return;
+        }
+        int first = chunkOf(fromIndex);
+        int offset = fromIndex - mStarts[first];
+        int remaining = toIndex - fromIndex;
+        int chunk = first;
+        while (remaining > 0) {
+            Object[] data = mChunks[chunk];
+            int size = mSizes[chunk];
+            int n = Math.min(remaining, size - offset);
+            System.arraycopy(data, offset + n, data, offset, size - offset - n);
+            Arrays.fill(data, size - n, size, null);
+            mSizes[chunk] = size - n;
+            remaining -= n;
+            offset = 0;
+            chunk++;
+        }
+        mSize -= toIndex - fromIndex;
+        int write = first;
+        for (int read = first; read < mChunkCount; read++) {
+            if (mSizes[read] > 0) {
+                mChunks[write] = mChunks[read];
+                mSizes[write] = mSizes[read];
+                write++;
+            }
+        }
+        Arrays.fill(mChunks, write, mChunkCount, null);
+        mChunkCount = write;
+        invalidateStarts(first);
+        if (first < mChunkCount) {
+            mergeIfSparse(first);
+        }
+        modCount++;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(mChunks, 0, mChunkCount, null);
+        mChunkCount = 0;
+        mSize = 0;
+        mValidStarts = 0;
+        mLastChunk = 0;
+        modCount++;
+    }
+
+    /**
+     * 查找位置所在的块，调用后该块的起始位置一定有效。
+     */
+    private int chunkOf(int index) {
+        ensureStarts();
+        int last = mLastChunk;
+        if (last < mChunkCount && index >= mStarts[last] && index < mStarts[last] + mSizes[last]) {
+            return last;
+        }
+        int low = 0;
+        int high = mChunkCount - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (mStarts[mid] <= index) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        mLastChunk = low;
+        return low;
+    }
+
+    private void ensureStarts() {
+        int chunk = mValidStarts;
+        if (chunk >= mChunkCount) {
+            return;
+        }
+        if (chunk == 0) {
+            mStarts[0] = 0;
+            chunk = 1;
+        }
+        for (; chunk < mChunkCount; chunk++) {
+            mStarts[chunk] = mStarts[chunk - 1] + mSizes[chunk - 1];
+        }
+        mValidStarts = mChunkCount;
+    }
+
+    private void invalidateStarts(int chunk) {
+        if (mValidStarts > chunk) {
+            mValidStarts = chunk;
+        }
+    }
+
+    /**
+     * 把一个满的块拆成两个各一半的块。
+     */
+    private void splitChunk(int chunk) {
+        splitChunkAt(chunk, mSizes[chunk] / 2);
+    }
+
+    /**
+     * 把一个块从offset处拆成两个块。
+     */
+    private void splitChunkAt(int chunk, int offset) {
+        Object[] data = mChunks[chunk];
+        int size = mSizes[chunk];
+        Object[] right = new Object[mChunkCapacity];
+        System.arraycopy(data, offset, right, 0, size - offset);
+        Arrays.fill(data, offset, size, null);
+        mSizes[chunk] = offset;
+        insertChunk(chunk + 1, right, size - offset);
+    }
+
+    /**
+     * 块中的元素少于容量的四分之一时，尝试和相邻的块合并，避免块越来越碎。
+     */
+    private void mergeIfSparse(int chunk) {
+        if (mSizes[chunk] >= mChunkCapacity / 4) {
+            return;
+        }
+        if (chunk + 1 < mChunkCount && mSizes[chunk] + mSizes[chunk + 1] <= mChunkCapacity) {
+            mergeWithNext(chunk);
+        } else if (chunk > 0 && mSizes[chunk - 1] + mSizes[chunk] <= mChunkCapacity) {
+            mergeWithNext(chunk - 1);
+        }
+    }
+
+    private void mergeWithNext(int chunk) {
+        System.arraycopy(mChunks[chunk + 1], 0, mChunks[chunk], mSizes[chunk], mSizes[chunk + 1]);
+        mSizes[chunk] += mSizes[chunk + 1];
+        removeChunks(chunk + 1, 1);
+    }
+
+    private void insertChunk(int chunk, Object[] data, int size) {
+        ensureChunkCapacity(mChunkCount + 1);
+        shiftChunks(chunk, 1);
+        mChunks[chunk] = data;
+        mSizes[chunk] = size;
+    }
+
+    /**
+     * 从chunk开始的块整体后移count个位置。
+     */
+    private void shiftChunks(int chunk, int count) {
+        int moved = mChunkCount - chunk;
+        System.arraycopy(mChunks, chunk, mChunks, chunk + count, moved);
+        System.arraycopy(mSizes, chunk, mSizes, chunk + count, moved);
+        mChunkCount += count;
+        invalidateStarts(chunk);
+    }
+
+    private void removeChunks(int chunk, int count) {
+        int moved = mChunkCount - chunk - count;
+        System.arraycopy(mChunks, chunk + count, mChunks, chunk, moved);
+        System.arraycopy(mSizes, chunk + count, mSizes, chunk, moved);
+        mChunkCount -= count;
+        Arrays.fill(mChunks, mChunkCount, mChunkCount + count, null);
+        invalidateStarts(chunk);
+    }
+
+    private void ensureChunkCapacity(int capacity) {
+        if (capacity > mChunks.length) {
+            int newCapacity = Math.max(capacity, mChunks.length * 2);
+            mChunks = Arrays.copyOf(mChunks, newCapacity);
+            mSizes = Arrays.copyOf(mSizes, newCapacity);
+            mStarts = Arrays.copyOf(mStarts, newCapacity);
+        }
+    }
+
+    private void checkElementIndex(int index) {
+        if (index < 0 || index >= mSize) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + mSize);
+        }
+    }
+
+    private void checkPositionIndex(int index) {
+        if (index < 0 || index > mSize) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + mSize);
+        }
+    }
+}
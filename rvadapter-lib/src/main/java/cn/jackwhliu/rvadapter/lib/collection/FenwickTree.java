@@ -0,0 +1,183 @@
+package cn.jackwhliu.rvadapter.lib.collection;
+
+/**
+ * 树状数组（Fenwick树），保存一列非负整数，修改某一个数、求前缀和以及按前缀和查找所在的位置都是O(log n)。
+ * 在末尾追加也是O(log n)，在中间插入或删除需要O(n)重建。非线程安全。
+ *
+ * @author lwh
+ */
+public class FenwickTree {
+
+    /**
+     * 树状数组，下标从1开始，mTree[i]是(i - lowbit(i), i]范围内的和。
+     */
+    private int[] mTree;
+
+    /**
+     * 每个数本身。
+     */
+    private int[] mValues;
+
+    private int mSize;
+
+    public FenwickTree() {
+        this(16);
+    }
+
+    public FenwickTree(int capacity) {
+        mTree = new int[Math.max(capacity, 1) + 1];
+        mValues = new int[Math.max(capacity, 1)];
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    public int get(int index) {
+        checkIndex(index);
+        return mValues[index];
+    }
+
+    /**
+     * 在末尾追加一个数。
+     *
+     * @param value 非负整数。
+     */
+    public void add(int value) {
+        checkValue(value);
+        ensureCapacity(mSize + 1);
+        int i = ++mSize;
+        mValues[i - 1] = value;
+        // 新节点覆盖(i - lowbit(i), i]，前面部分的和可以由已有的前缀和算出
+        mTree[i] = value + prefixSum(i - 1) - prefixSum(i - (i & -i));
+    }
+
+    /**
+     * 在指定位置插入一个数，需要重建。
+     */
+    public void add(int index, int value) {
+        if (index == mSize) {
+            add(value);
+            return;
+        }
+        checkIndex(index);
+        checkValue(value);
+        ensureCapacity(mSize + 1);
+        System.arraycopy(mValues, index, mValues, index + 1, mSize - index);
+        mValues[index] = value;
+        mSize++;
+        rebuild();
+    }
+
+    /**
+     * 删除指定位置的数，需要重建。
+     *
+     * @return 删除的数。
+     */
+    public int remove(int index) {
+        checkIndex(index);
+        int value = mValues[index];
+        System.arraycopy(mValues, index + 1, mValues, index, mSize - index - 1);
+        mSize--;
+        rebuild();
+        return value;
+    }
+
+    public void set(int index, int value) {
+        checkValue(value);
+        update(index, value - get(index));
+    }
+
+    /**
+     * 给指定位置的数加上delta。
+     */
+    public void update(int index, int delta) {
+        checkIndex(index);
+        checkValue(mValues[index] + delta);
+        mValues[index] += delta;
+        for (int i = index + 1; i <= mSize; i += i & -i) {
+            mTree[i] += delta;
+        }
+    }
+
+    /**
+     * 前count个数的和。
+     */
+    public int prefixSum(int count) {
+        if (count < 0 || count > mSize) {
+            throw new IndexOutOfBoundsException("count: " + count + ", size: " + mSize);
+        }
+        int sum = 0;
+        for (int i = count; i > 0; i -= i & -i) {
+            sum += mTree[i];
+        }
+        return sum;
+    }
+
+    /**
+     * 所有数的和。
+     */
+    public int sum() {
+        return prefixSum(mSize);
+    }
+
+    /**
+     * 把每个数看成一段长度，查找第offset个单位落在哪一段中，为0的段会被跳过。
+     *
+     * @param offset 从0开始。
+     * @return 满足prefixSum(i) <= offset < prefixSum(i + 1)的i，offset不小于总和时返回{@link #size()}。
+     */
+    public int indexOf(int offset) {
+        int index = 0;
+        int remaining = offset;
+        for (int step = Integer.highestOneBit(Math.max(mSize, 1)); step > 0; step >>= 1) {
+            int next = index + step;
+            if (next <= mSize && mTree[next] <= remaining) {
+                index = next;
+                remaining -= mTree[next];
+            }
+        }
+        return index;
+    }
+
+    public void clear() {
+        mSize = 0;
+    }
+
+    private void rebuild() {
+        for (int i = 1; i <= mSize; i++) {
+            mTree[i] = mValues[i - 1];
+        }
+        for (int i = 1; i <= mSize; i++) {
+            int parent = i + (i & -i);
+            if (parent <= mSize) {
+                mTree[parent] += mTree[i];
+            }
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= mValues.length) {
+            return;
+        }
+        int newCapacity = Math.max(capacity, mValues.length * 2);
+        int[] values = new int[newCapacity];
+        System.arraycopy(mValues, 0, values, 0, mSize);
+        mValues = values;
+        int[] tree = new int[newCapacity + 1];
+        System.arraycopy(mTree, 0, tree, 0, mSize + 1);
+        mTree = tree;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= mSize) {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + mSize);
+        }
+    }
+
+    private static void checkValue(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Values must not be negative: " + value);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package cn.jackwhliu.rvadapter.lib.collection;
+
+import java.util.Arrays;
+
+/**
+ * long到int的开放寻址哈希表，键和值都直接存在基本类型数组里，不会装箱。非线程安全。
+ *
+ * @author lwh
+ */
+public class LongIntMap {
+
+    /**
+     * 装载因子的上限。
+     */
+    private static final float LOAD_FACTOR = 0.5f;
+
+    /**
+     * 键，和{@link #mUsed}一起标记槽位是否被占用。
+     */
+    private long[] mKeys;
+
+    private int[] mValues;
+
+    private boolean[] mUsed;
+
+    /**
+     * 槽位数量减一，槽位数量总是2的幂。
+     */
+    private int mMask;
+
+    private int mSize;
+
+    /**
+     * 超过该数量时扩容。
+     */
+    private int mThreshold;
+
+    public LongIntMap() {
+        this(16);
+    }
+
+    public LongIntMap(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    /**
+     * 获取键对应的值。
+     *
+     * @param key 键。
+     * @param missingValue 不存在该键时的返回值。
+     * @return 值。
+     */
+    public int get(long key, int missingValue) {
+        int slot = hash(key) & mMask;
+        while (mUsed[slot]) {
+            if (mKeys[slot] == key) {
+                return mValues[slot];
+            }
+            slot = (slot + 1) & mMask;
+        }
+        return missingValue;
+    }
+
+    public void put(long key, int value) {
+        int slot = hash(key) & mMask;
+        while (mUsed[slot]) {
+            if (mKeys[slot] == key) {
+                mValues[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mMask;
+        }
+        mUsed[slot] = true;
+        mKeys[slot] = key;
+        mValues[slot] = value;
+        if (++mSize > mThreshold) {
+            rehash(mKeys.length * 2);
+        }
+    }
+
+    /**
+     * 移除键，后面同一探测链上的键会前移，不留下删除标记。
+     *
+     * @param key 键。
+     * @return 是否存在该键。
+     */
+    public boolean remove(long key) {
+        int slot = hash(key) & mMask;
+        while (mUsed[slot]) {
+            if (mKeys[slot] == key) {
+                shiftBack(slot);
+                mSize--;
+                return true;
+            }
+            slot = (slot + 1) & mMask;
+        }
+        return false;
+    }
+
+    public void clear() {
+        Arrays.fill(mUsed, false);
+        mSize = 0;
+    }
+
+    private void shiftBack(int slot) {
+        int hole = slot;
+        int next = (hole + 1) & mMask;
+        while (mUsed[next]) {
+            int home = hash(mKeys[next]) & mMask;
+            // 只有当next的理想位置不在(hole, next]之间时才能移到hole
+            if (((next - home) & mMask) >= ((next - hole) & mMask)) {
+                mKeys[hole] = mKeys[next];
+                mValues[hole] = mValues[next];
+                hole = next;
+            }
+            next = (next + 1) & mMask;
+        }
+        mUsed[hole] = false;
+    }
+
+    private void rehash(int capacity) {
+        long[] keys = mKeys;
+        int[] values = mValues;
+        boolean[] used = mUsed;
+        allocate(capacity);
+        mSize = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (used[i]) {
+                put(keys[i], values[i]);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        mKeys = new long[capacity];
+        mValues = new int[capacity];
+        mUsed = new boolean[capacity];
+        mMask = capacity - 1;
+        mThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        int capacity = 16;
+        while (capacity * LOAD_FACTOR < expectedSize) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,302 @@
+package cn.jackwhliu.rvadapter.lib.collection;
+
+/**
+ * 带权重的列表，每个元素有一个非负整数的权重。用随机优先级的平衡二叉树（treap）保存，每个节点记录子树的元素数和权重之和，
+ * 按位置插入、删除、查找，修改权重，求某个元素前面的权重之和以及按权重之和查找所在的元素都是期望O(log n)，
+ * 不会像{@link FenwickTree}那样在中间插入时重建。插入时返回的{@link Entry}可以一直用来定位元素，
+ * 不需要在前面插入或删除后重新编号。非线程安全。
+ *
+ * @author lwh
+ * @param <E> 元素的类型。
+ */
+public class WeightedList<E> {
+
+    /**
+     * 列表中的一个元素，同时是树的节点。
+     *
+     * @param <E> 元素的类型。
+     */
+    public static final class Entry<E> {
+
+        final E mValue;
+
+        int mWeight;
+
+        final int mPriority;
+
+        Entry<E> mLeft;
+
+        Entry<E> mRight;
+
+        Entry<E> mParent;
+
+        /**
+         * 子树中元素的数量。
+         */
+        int mCount;
+
+        /**
+         * 子树中所有元素的权重之和。
+         */
+        int mSum;
+
+        Entry(E value, int weight, int priority) {
+            this.mValue = value;
+            this.mWeight = weight;
+            this.mPriority = priority;
+            this.mCount = 1;
+            this.mSum = weight;
+        }
+
+        public E getValue() {
+            return mValue;
+        }
+
+        public int getWeight() {
+            return mWeight;
+        }
+    }
+
+    private Entry<E> mRoot;
+
+    /**
+     * 生成优先级的随机数种子（xorshift）。
+     */
+    private int mSeed = 0x2545F491;
+
+    /**
+     * 拆分的结果，避免每次拆分都创建数组。
+     */
+    private Entry<E> mSplitLeft;
+    private Entry<E> mSplitRight;
+
+    public int size() {
+        return count(mRoot);
+    }
+
+    /**
+     * 所有元素的权重之和。
+     */
+    public int sum() {
+        return sum(mRoot);
+    }
+
+    public E get(int index) {
+        return entryAt(index).mValue;
+    }
+
+    /**
+     * 获取指定位置的元素。
+     */
+    public Entry<E> entryAt(int index) {
+        checkIndex(index, false);
+        Entry<E> t = mRoot;
+        int i = index;
+        while (true) {
+            int left = count(t.mLeft);
+            if (i < left) {
+                t = t.mLeft;
+            } else if (i == left) {
+                return t;
+            } else {
+                i -= left + 1;
+                t = t.mRight;
+            }
+        }
+    }
+
+    /**
+     * 在指定位置插入一个元素。
+     *
+     * @param weight 非负整数。
+     * @return 新元素，之后可以用来修改权重和定位。
+     */
+    public Entry<E> add(int index, E value, int weight) {
+        checkIndex(index, true);
+        checkWeight(weight);
+        Entry<E> entry = new Entry<>(value, weight, nextPriority());
+        split(mRoot, index);
+        Entry<E> right = mSplitRight;
+        mRoot = merge(merge(mSplitLeft, entry), right);
+        mRoot.mParent = null;
+        return entry;
+    }
+
+    /**
+     * 删除一个元素，删除后不能再使用这个{@link Entry}。
+     */
+    public void remove(Entry<E> entry) {
+        Entry<E> child = merge(entry.mLeft, entry.mRight);
+        Entry<E> parent = entry.mParent;
+        if (child != null) {
+            child.mParent = parent;
+        }
+        if (parent == null) {
+            mRoot = child;
+        } else if (parent.mLeft == entry) {
+            parent.mLeft = child;
+        } else {
+            parent.mRight = child;
+        }
+        for (Entry<E> p = parent; p != null; p = p.mParent) {
+            pull(p);
+        }
+        entry.mLeft = entry.mRight = entry.mParent = null;
+    }
+
+    /**
+     * 给元素的权重加上delta，沿着祖先节点更新。
+     */
+    public void update(Entry<E> entry, int delta) {
+        checkWeight(entry.mWeight + delta);
+        entry.mWeight += delta;
+        for (Entry<E> p = entry; p != null; p = p.mParent) {
+            p.mSum += delta;
+        }
+    }
+
+    /**
+     * 元素在列表中的位置。
+     */
+    public int indexOf(Entry<E> entry) {
+        int index = count(entry.mLeft);
+        for (Entry<E> t = entry; t.mParent != null; t = t.mParent) {
+            if (t.mParent.mRight == t) {
+                index += count(t.mParent.mLeft) + 1;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * 元素前面所有元素的权重之和。
+     */
+    public int prefixSum(Entry<E> entry) {
+        int sum = sum(entry.mLeft);
+        for (Entry<E> t = entry; t.mParent != null; t = t.mParent) {
+            if (t.mParent.mRight == t) {
+                sum += sum(t.mParent.mLeft) + t.mParent.mWeight;
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * 把每个元素看成一段长度，查找第offset个单位落在哪一个元素中，权重为0的元素会被跳过。
+     *
+     * @param offset 从0开始。
+     * @return 满足prefixSum(e) <= offset < prefixSum(e) + e.getWeight()的元素，offset不小于总和时返回null。
+     */
+    public Entry<E> entryAtOffset(int offset) {
+        Entry<E> t = mRoot;
+        int remaining = offset;
+        while (t != null) {
+            int left = sum(t.mLeft);
+            if (remaining < left) {
+                t = t.mLeft;
+            } else if (remaining < left + t.mWeight) {
+                return t;
+            } else {
+                remaining -= left + t.mWeight;
+                t = t.mRight;
+            }
+        }
+        return null;
+    }
+
+    public void clear() {
+        mRoot = null;
+    }
+
+    /**
+     * 把子树拆成前count个元素和其余的元素，结果保存在{@link #mSplitLeft}和{@link #mSplitRight}中。
+     */
+    private void split(Entry<E> t, int count) {
+        if (t == null) {
+            mSplitLeft = mSplitRight = null;
+            return;
+        }
+        int left = count(t.mLeft);
+        if (count <= left) {
+            split(t.mLeft, count);
+            t.mLeft = mSplitRight;
+            pull(t);
+            mSplitRight = t;
+        } else {
+            split(t.mRight, count - left - 1);
+            t.mRight = mSplitLeft;
+            pull(t);
+            mSplitLeft = t;
+        }
+        if (mSplitLeft != null) {
+            mSplitLeft.mParent = null;
+        }
+        if (mSplitRight != null) {
+            mSplitRight.mParent = null;
+        }
+    }
+
+    /**
+     * 合并两棵子树，a中的元素都在b的前面。
+     */
+    private Entry<E> merge(Entry<E> a, Entry<E> b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        if (a.mPriority > b.mPriority) {
+            a.mRight = merge(a.mRight, b);
+            pull(a);
+            return a;
+        }
+        b.mLeft = merge(a, b.mLeft);
+        pull(b);
+        return b;
+    }
+
+    /**
+     * 根据子节点重新计算节点的元素数和权重之和，并设置子节点的父节点。
+     */
+    private static <E> void pull(Entry<E> t) {
+        t.mCount = 1 + count(t.mLeft) + count(t.mRight);
+        t.mSum = t.mWeight + sum(t.mLeft) + sum(t.mRight);
+        if (t.mLeft != null) {
+            t.mLeft.mParent = t;
+        }
+        if (t.mRight != null) {
+            t.mRight.mParent = t;
+        }
+    }
+
+    private static int count(Entry<?> t) {
+        return t != null ? t.mCount : 0;
+    }
+
+    private static int sum(Entry<?> t) {
+        return t != null ? t.mSum : 0;
+    }
+
+    private int nextPriority() {
+        int x = mSeed;
+        x ^= x << 13;
+        x ^= x >>> 17;
+        x ^= x << 5;
+        mSeed = x;
+        return x;
+    }
+
+    private void checkIndex(int index, boolean inclusive) {
+        int size = size();
+        if (index < 0 || index > size || (index == size && !inclusive)) {
+            throw new IndexOutOfBoundsException("index: " + index + ", size: " + size);
+        }
+    }
+
+    private static void checkWeight(int weight) {
+        if (weight < 0) {
+            throw new IllegalArgumentException("Weights must not be negative: " + weight);
+        }
+    }
+}
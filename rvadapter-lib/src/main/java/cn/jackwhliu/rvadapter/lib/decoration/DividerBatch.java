@@ -0,0 +1,187 @@
+package cn.jackwhliu.rvadapter.lib.decoration;
+
+/**
+ * 收集一帧中所有粗细相同的分割线，合并在同一直线上相接或重叠的线段，最后转换成
+ * {@link android.graphics.Canvas#drawLines(float[], int, int, android.graphics.Paint)}需要的坐标，
+ * 一次绘制完成。缓冲区可以重复使用，容量足够后不再分配内存。
+ *
+ * @author lwh
+ */
+final class DividerBatch {
+
+    /**
+     * 每条线段占用的float数：方向、所在直线的起点、终点、线段的起点、终点。
+     */
+    private static final int FIELDS = 5;
+
+    private static final float HORIZONTAL = 0f;
+    private static final float VERTICAL = 1f;
+
+    /**
+     * 小于该数量时使用插入排序。
+     */
+    private static final int INSERTION_SORT_THRESHOLD = 12;
+
+    private float[] mSegments = new float[FIELDS * 64];
+
+    private int mCount;
+
+    private float[] mLines = new float[4 * 64];
+
+    /**
+     * 分割线的粗细。
+     */
+    private float mThickness;
+
+    /**
+     * 开始新的一帧。
+     *
+     * @param thickness 分割线的粗细。
+     */
+    void reset(float thickness) {
+        mCount = 0;
+        mThickness = thickness;
+    }
+
+    /**
+     * 添加一个分割线的矩形，高等于粗细的是横线，否则是竖线。
+     */
+    void addRect(float left, float top, float right, float bottom) {
+        if (right <= left || bottom <= top) {
+            return;
+        }
+        if (mSegments.length < (mCount + 1) * FIELDS) {
+            float[] segments = new float[mSegments.length * 2];
+            System.arraycopy(mSegments, 0, segments, 0, mCount * FIELDS);
+            mSegments = segments;
+        }
+        int i = mCount * FIELDS;
+        if (bottom - top == mThickness) {
+            mSegments[i] = HORIZONTAL;
+            mSegments[i + 1] = top;
+            mSegments[i + 2] = bottom;
+            mSegments[i + 3] = left;
+            mSegments[i + 4] = right;
+        } else {
+            mSegments[i] = VERTICAL;
+            mSegments[i + 1] = left;
+            mSegments[i + 2] = right;
+            mSegments[i + 3] = top;
+            mSegments[i + 4] = bottom;
+        }
+        mCount++;
+    }
+
+    /**
+     * 合并线段并生成直线的坐标。
+     *
+     * @return 坐标的数量，每条直线4个。
+     */
+    int build() {
+        if (mCount == 0) {
+            return 0;
+        }
+        sort(0, mCount - 1);
+        if (mLines.length < mCount * 4) {
+            mLines = new float[Math.max(mCount * 4, mLines.length * 2)];
+        }
+        int lineFloats = 0;
+        float[] s = mSegments;
+        float kind = s[0];
+        float lineStart = s[1];
+        float lineEnd = s[2];
+        float start = s[3];
+        float end = s[4];
+        for (int n = 1; n <= mCount; n++) {
+            int i = n * FIELDS;
+            if (n < mCount && s[i] == kind && s[i + 1] == lineStart && s[i + 2] == lineEnd
+                    && s[i + 3] <= end) {
+                end = Math.max(end, s[i + 4]);
+                continue;
+            }
+            float center = (lineStart + lineEnd) / 2f;
+            if (kind == HORIZONTAL) {
+                mLines[lineFloats] = start;
+                mLines[lineFloats + 1] = center;
+                mLines[lineFloats + 2] = end;
+                mLines[lineFloats + 3] = center;
+            } else {
+                mLines[lineFloats] = center;
+                mLines[lineFloats + 1] = start;
+                mLines[lineFloats + 2] = center;
+                mLines[lineFloats + 3] = end;
+            }
+            lineFloats += 4;
+            if (n < mCount) {
+                kind = s[i];
+                lineStart = s[i + 1];
+                lineEnd = s[i + 2];
+                start = s[i + 3];
+                end = s[i + 4];
+            }
+        }
+        return lineFloats;
+    }
+
+    /**
+     * 合并后的直线坐标，依次为起点x、起点y、终点x、终点y。
+     */
+    float[] getLines() {
+        return mLines;
+    }
+
+    /**
+     * 按方向、所在直线、线段起点排序，原地快速排序。
+     */
+    private void sort(int low, int high) {
+        while (high - low > INSERTION_SORT_THRESHOLD) {
+            int pivot = (low + high) >>> 1;
+            swap(pivot, high);
+            int store = low;
+            for (int i = low; i < high; i++) {
+                if (compare(i, high) < 0) {
+                    swap(i, store++);
+                }
+            }
+            swap(store, high);
+            // 先递归较短的一边，控制栈的深度
+            if (store - low < high - store) {
+                sort(low, store - 1);
+                low = store + 1;
+            } else {
+                sort(store + 1, high);
+                high = store - 1;
+            }
+        }
+        for (int i = low + 1; i <= high; i++) {
+            for (int j = i; j > low && compare(j - 1, j) > 0; j--) {
+                swap(j - 1, j);
+            }
+        }
+    }
+
+    private int compare(int a, int b) {
+        int i = a * FIELDS;
+        int j = b * FIELDS;
+        for (int k = 0; k < 4; k++) {
+            int result = Float.compare(mSegments[i + k], mSegments[j + k]);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return 0;
+    }
+
+    private void swap(int a, int b) {
+        if (a == b) {
+            return;
+        }
+        int i = a * FIELDS;
+        int j = b * FIELDS;
+        for (int k = 0; k < FIELDS; k++) {
+            float tmp = mSegments[i + k];
+            mSegments[i + k] = mSegments[j + k];
+            mSegments[j + k] = tmp;
+        }
+    }
+}
@@ -9,14 +9,158 @@ import android.support.v7.widget.LinearLayoutManager;
 import android.support.v7.widget.RecyclerView;
 import android.view.View;
 
+/**
+ * 线性列表和网格的分割线。线性列表默认在每个条目前后都留出并画出分割线的宽度，
+ * {@link #setLinearBetweenItemsOnly(boolean)}开启后只在相邻条目之间留一条分割线；网格按条目所在的行列留出空间，
+ * type为0时只画内部的分割线，否则四周都画满。
+ */
 public class GridItemDecoration extends RecyclerView.ItemDecoration {
 
+    /**
+     * 纵向的线性列表。
+     */
+    private static final int LAYOUT_VERTICAL = 0;
+
+    /**
+     * 横向的线性列表。
+     */
+    private static final int LAYOUT_HORIZONTAL = 1;
+
+    /**
+     * 纵向的网格。
+     */
+    private static final int LAYOUT_GRID_VERTICAL = 2;
+
+    /**
+     * 横向的网格。
+     */
+    private static final int LAYOUT_GRID_HORIZONTAL = 3;
+
     private int mSpace;
     private int mColor = -1;
     private Drawable mDivider;
     private Paint mPaint;
     private int mType;
 
+    /**
+     * 是否把一帧的分割线合并后一次绘制，只对颜色分割线有效。
+     */
+    private boolean mBatchDraw;
+
+    /**
+     * 收集和合并一帧的分割线。
+     */
+    private DividerBatch mBatch;
+
+    /**
+     * 合并绘制时使用的画笔，线宽等于分割线的粗细。
+     */
+    private Paint mLinePaint;
+
+    /**
+     * 当前是否在收集分割线。
+     */
+    private boolean mCollecting;
+
+    /**
+     * 上次使用的布局管理器，变化时才重新判断布局的类型。
+     */
+    private RecyclerView.LayoutManager mLayoutManager;
+
+    /**
+     * 布局管理器是否是{@link GridLayoutManager}。
+     */
+    private boolean mGrid;
+
+    /**
+     * 布局管理器是否是{@link LinearLayoutManager}。
+     */
+    private boolean mLinear;
+
+    /**
+     * 布局的类型。
+     */
+    private int mLayout;
+
+    /**
+     * 线性列表是否只在相邻条目之间留出分割线。
+     */
+    private boolean mLinearBetweenItemsOnly;
+
+    /**
+     * {@link GridLayoutManager.SpanSizeLookup}是否依赖条目的数据。
+     */
+    private boolean mSpanSizeDependsOnData;
+
+    /**
+     * 适配器的条目数。
+     */
+    private int mItemCount;
+
+    /**
+     * 网格中每个位置的行、列和边缘标志，线性列表不使用。
+     */
+    private final SpanLayoutCache mSpanCache = new SpanLayoutCache();
+
+    /**
+     * 监听数据变化的适配器。
+     */
+    private RecyclerView.Adapter mAdapter;
+
+    /**
+     * 使用该分割线的RV。
+     */
+    private RecyclerView mRecyclerView;
+
+    /**
+     * 数据变化时让变化位置之后的缓存失效。
+     */
+    private final RecyclerView.AdapterDataObserver mObserver = new RecyclerView.AdapterDataObserver() {
+
+        @Override
+        public void onChanged() {
+            mSpanCache.invalidate();
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount) {
+            // 局部刷新和图片加载完成很频繁，span数不依赖数据时行列不会变
+            if (mSpanSizeDependsOnData) {
+                mSpanCache.invalidateFrom(positionStart);
+            }
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            mSpanCache.invalidateFrom(positionStart);
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            mSpanCache.invalidateFrom(positionStart);
+        }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            mSpanCache.invalidateFrom(Math.min(fromPosition, toPosition));
+        }
+    };
+
+    /**
+     * RV从窗口移除时注销数据监听，适配器比RV活得久时不会一直引用分割线，重新显示时再注册。
+     */
+    private final View.OnAttachStateChangeListener mAttachListener = new View.OnAttachStateChangeListener() {
+
+        @Override
+        public void onViewAttachedToWindow(View v) {
+        }
+
+        @Override
+        public void onViewDetachedFromWindow(View v) {
+            setAdapter(null);
+        }
+    };
+
     public GridItemDecoration(int space) {
         this.mSpace = space;
     }
@@ -51,205 +195,348 @@ public class GridItemDecoration extends RecyclerView.ItemDecoration {
 
     public void setColor(int color) {
         this.mColor = color;
+        if (mPaint != null) {
+            mPaint.setColor(color);
+        }
+        if (mLinePaint != null) {
+            mLinePaint.setColor(color);
+        }
+    }
+
+    /**
+     * 设置是否合并绘制分割线。开启后一帧中所有的分割线会先收集起来，合并同一直线上相接的线段，
+     * 再通过一次{@link Canvas#drawLines(float[], int, int, Paint)}画出来，绘制过程中不分配内存。
+     * 使用{@link Drawable}作为分割线时不生效。
+     *
+     * @param batchDraw 是否合并绘制。
+     */
+    public void setBatchDrawEnabled(boolean batchDraw) {
+        this.mBatchDraw = batchDraw;
+        if (batchDraw && mBatch == null) {
+            mBatch = new DividerBatch();
+            mLinePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+            mLinePaint.setColor(mColor);
+            mLinePaint.setStyle(Paint.Style.STROKE);
+            mLinePaint.setStrokeCap(Paint.Cap.BUTT);
+            mLinePaint.setStrokeWidth(mSpace);
+        }
+    }
+
+    public boolean isBatchDrawEnabled() {
+        return mBatchDraw;
     }
 
+    /**
+     * 设置线性列表是否只在相邻的条目之间留出并画出分割线，最后一个条目后面不留。
+     * 默认关闭，和以前一样每个条目前后各留一条分割线的宽度，相邻条目之间是两条的宽度。
+     *
+     * @param betweenItemsOnly 是否只在相邻条目之间。
+     */
+    public void setLinearBetweenItemsOnly(boolean betweenItemsOnly) {
+        this.mLinearBetweenItemsOnly = betweenItemsOnly;
+    }
+
+    public boolean isLinearBetweenItemsOnly() {
+        return mLinearBetweenItemsOnly;
+    }
+
+    /**
+     * {@link GridLayoutManager.SpanSizeLookup}按条目的数据返回span数时需要开启，条目刷新后重新计算网格的行列。
+     * 默认只在条目增删和移动后重新计算，局部刷新不会引起重新计算。
+     *
+     * @param dependsOnData span数是否依赖条目的数据。
+     */
+    public void setSpanSizeDependsOnData(boolean dependsOnData) {
+        this.mSpanSizeDependsOnData = dependsOnData;
+        mSpanCache.invalidate();
+    }
+
+    public boolean isSpanSizeDependsOnData() {
+        return mSpanSizeDependsOnData;
+    }
+
+    /**
+     * 线性列表见{@link #setLinearBetweenItemsOnly(boolean)}。网格按条目所在的行列留出分割线的空间，
+     * 和绘制的分割线一致：相邻条目之间正好是一条分割线的宽度，只画内部分割线时外边缘不留空间，
+     * 四周都画满时外边缘也留一条分割线的宽度。同一行中每个条目左右留出的空间加起来相同，各列的宽度不会因为分割线而不同。
+     */
     @Override
     public void getItemOffsets(Rect outRect, View view,
                                RecyclerView parent, RecyclerView.State state) {
-        if (parent.getLayoutManager() != null) {
-            if (parent.getLayoutManager() instanceof LinearLayoutManager && !(parent.getLayoutManager() instanceof GridLayoutManager)) {
-                if (((LinearLayoutManager) parent.getLayoutManager()).getOrientation() == LinearLayoutManager.HORIZONTAL) {
-                    outRect.set(mSpace, 0, mSpace, 0);
-                } else {
-                    outRect.set(0, mSpace, 0, mSpace);
-                }
-            } else {
-                outRect.set(mSpace, mSpace, mSpace, mSpace);
+        outRect.set(0, 0, 0, 0);
+        if (!ensureLayout(parent)) {
+            return;
+        }
+        if (!mLinearBetweenItemsOnly) {
+            if (mLayout == LAYOUT_VERTICAL) {
+                outRect.set(0, mSpace, 0, mSpace);
+                return;
+            }
+            if (mLayout == LAYOUT_HORIZONTAL) {
+                outRect.set(mSpace, 0, mSpace, 0);
+                return;
             }
         }
+        int position = parent.getChildAdapterPosition(view);
+        if (position == RecyclerView.NO_POSITION) {
+            // 正在被移除的条目，保持原来的位置
+            position = parent.getChildLayoutPosition(view);
+        }
+        if (mLayout == LAYOUT_VERTICAL) {
+            outRect.bottom = position == mItemCount - 1 ? 0 : mSpace;
+            return;
+        }
+        if (mLayout == LAYOUT_HORIZONTAL) {
+            outRect.right = position == mItemCount - 1 ? 0 : mSpace;
+            return;
+        }
+        if (!mSpanCache.contains(position)) {
+            return;
+        }
+        boolean lastRow = (mSpanCache.getFlags(position) & SpanLayoutCache.LAST_ROW) != 0;
+        boolean full = mType != 0;
+        int spanCount = mSpanCache.getSpanCount();
+        int column = mSpanCache.getColumn(position);
+        int columnEnd = column + mSpanCache.getSpanSize(position);
+        // 列方向上按span下标分摊分割线的宽度
+        int start = full ? mSpace - column * mSpace / spanCount : column * mSpace / spanCount;
+        int end = full ? columnEnd * mSpace / spanCount : mSpace - columnEnd * mSpace / spanCount;
+        // 行方向上每个条目只负责后面的分割线，四周都画满时第一行再负责前面的
+        int before = full && mSpanCache.getRow(position) == 0 ? mSpace : 0;
+        int after = full || !lastRow ? mSpace : 0;
+        if (mLayout == LAYOUT_GRID_VERTICAL) {
+            outRect.set(start, before, end, after);
+        } else {
+            outRect.set(before, start, after, end);
+        }
     }
 
     @Override
     public void onDraw(Canvas c, RecyclerView parent, RecyclerView.State state) {
-        if (parent.getLayoutManager() != null) {
-            if (parent.getLayoutManager() instanceof LinearLayoutManager && !(parent.getLayoutManager() instanceof GridLayoutManager)) {
-                if (((LinearLayoutManager) parent.getLayoutManager()).getOrientation() == LinearLayoutManager.HORIZONTAL) {
-                    drawHorizontal(c, parent);
-                } else {
-                    drawVertical(c, parent);
-                }
-            } else {
-                if (mType == 0) {
-                    drawGridDivideLine(c, parent);
-                } else {
-                    drawGridFullDivideLine(c, parent);
-                }
+        if (!ensureLayout(parent)) {
+            return;
+        }
+        mCollecting = mBatchDraw && mPaint != null && mDivider == null;
+        if (mCollecting) {
+            mBatch.reset(mSpace);
+        }
+        if (mLayout == LAYOUT_VERTICAL) {
+            drawVertical(c, parent);
+        } else if (mLayout == LAYOUT_HORIZONTAL) {
+            drawHorizontal(c, parent);
+        } else if (mType == 0) {
+            drawGridDivideLine(c, parent);
+        } else {
+            drawGridFullDivideLine(c, parent);
+        }
+        if (mCollecting) {
+            mCollecting = false;
+            int count = mBatch.build();
+            if (count > 0) {
+                c.drawLines(mBatch.getLines(), 0, count, mLinePaint);
             }
         }
     }
 
     /**
-     * 绘制纵向 item 分割线。
+     * 布局管理器变化时重新判断布局的类型，网格的数据或span变化时重新计算每个位置的行列。
+     *
+     * @param parent RV。
+     * @return 是否有布局管理器。
+     */
+    private boolean ensureLayout(RecyclerView parent) {
+        RecyclerView.LayoutManager layoutManager = parent.getLayoutManager();
+        if (layoutManager == null) {
+            return false;
+        }
+        if (layoutManager != mLayoutManager) {
+            mLayoutManager = layoutManager;
+            mGrid = layoutManager instanceof GridLayoutManager;
+            mLinear = layoutManager instanceof LinearLayoutManager;
+            mSpanCache.invalidate();
+        }
+        if (parent != mRecyclerView) {
+            if (mRecyclerView != null) {
+                mRecyclerView.removeOnAttachStateChangeListener(mAttachListener);
+            }
+            mRecyclerView = parent;
+            parent.addOnAttachStateChangeListener(mAttachListener);
+        }
+        RecyclerView.Adapter adapter = parent.getAdapter();
+        setAdapter(adapter);
+        mItemCount = adapter != null ? adapter.getItemCount() : 0;
+        if (mGrid) {
+            GridLayoutManager gridLayoutManager = (GridLayoutManager) layoutManager;
+            mLayout = gridLayoutManager.getOrientation() == LinearLayoutManager.HORIZONTAL
+                    ? LAYOUT_GRID_HORIZONTAL : LAYOUT_GRID_VERTICAL;
+            mSpanCache.ensure(mItemCount, gridLayoutManager.getSpanCount(),
+                    gridLayoutManager.getSpanSizeLookup());
+        } else if (mLinear && ((LinearLayoutManager) layoutManager).getOrientation()
+                == LinearLayoutManager.HORIZONTAL) {
+            mLayout = LAYOUT_HORIZONTAL;
+        } else {
+            mLayout = LAYOUT_VERTICAL;
+        }
+        return true;
+    }
+
+    /**
+     * 适配器变化时把数据监听转到新的适配器上。
+     *
+     * @param adapter 新的适配器，为null时只注销监听。
+     */
+    private void setAdapter(RecyclerView.Adapter adapter) {
+        if (adapter == mAdapter) {
+            return;
+        }
+        if (mAdapter != null) {
+            mAdapter.unregisterAdapterDataObserver(mObserver);
+        }
+        mAdapter = adapter;
+        if (adapter != null) {
+            adapter.registerAdapterDataObserver(mObserver);
+        }
+        mSpanCache.invalidate();
+    }
+
+    /**
+     * 获取子控件在缓存中的位置。
+     *
+     * @return 不在缓存中时返回{@link RecyclerView#NO_POSITION}。
+     */
+    private int getCachedPosition(RecyclerView parent, View child) {
+        int position = parent.getChildAdapterPosition(child);
+        return mSpanCache.contains(position) ? position : RecyclerView.NO_POSITION;
+    }
+
+    /**
+     * 绘制纵向列表的分割线，和{@link #getItemOffsets(Rect, View, RecyclerView, RecyclerView.State)}留出的空间一致。
      *
      * @param canvas 画布。
      * @param parent RV。
      */
     private void drawVertical(Canvas canvas, RecyclerView parent) {
-        final int top = parent.getPaddingTop();
-        final int bottom = parent.getMeasuredHeight() - parent.getPaddingBottom();
+        int left = parent.getPaddingLeft();
+        int right = parent.getMeasuredWidth() - parent.getPaddingRight();
         final int childSize = parent.getChildCount();
         for (int i = 0; i < childSize; i++) {
             final View child = parent.getChildAt(i);
             RecyclerView.LayoutParams layoutParams = (RecyclerView.LayoutParams) child.getLayoutParams();
-            final int left = child.getRight() + layoutParams.rightMargin;
-            final int right = left + mSpace;
-            if (mDivider != null) {
-                mDivider.setBounds(left, top, right, bottom);
-                mDivider.draw(canvas);
-            }
-            if (mPaint != null) {
-                canvas.drawRect(left, top, right, bottom, mPaint);
+            int bottom = child.getBottom() + layoutParams.bottomMargin;
+            if (!mLinearBetweenItemsOnly) {
+                int top = child.getTop() - layoutParams.topMargin;
+                drawDivider(canvas, left, top - mSpace, right, top);
+                drawDivider(canvas, left, bottom, right, bottom + mSpace);
+            } else if (!isLastLinearItem(parent, child)) {
+                drawDivider(canvas, left, bottom, right, bottom + mSpace);
             }
         }
     }
 
     /**
-     * 绘制横向item分割线。
+     * 绘制横向列表的分割线，和{@link #getItemOffsets(Rect, View, RecyclerView, RecyclerView.State)}留出的空间一致。
      *
      * @param canvas 画布。
      * @param parent RV。
      */
     private void drawHorizontal(Canvas canvas, RecyclerView parent) {
-        int left = parent.getPaddingLeft();
-        int right = parent.getMeasuredWidth() - parent.getPaddingRight();
+        final int top = parent.getPaddingTop();
+        final int bottom = parent.getMeasuredHeight() - parent.getPaddingBottom();
         final int childSize = parent.getChildCount();
         for (int i = 0; i < childSize; i++) {
             final View child = parent.getChildAt(i);
             RecyclerView.LayoutParams layoutParams = (RecyclerView.LayoutParams) child.getLayoutParams();
-            int top = child.getBottom() + layoutParams.bottomMargin;
-            int bottom = top + mSpace;
-            if (mDivider != null) {
-                mDivider.setBounds(left, top, right, bottom);
-                mDivider.draw(canvas);
-            }
-            if (mPaint != null) {
-                canvas.drawRect(left, top, right, bottom, mPaint);
+            int right = child.getRight() + layoutParams.rightMargin;
+            if (!mLinearBetweenItemsOnly) {
+                int left = child.getLeft() - layoutParams.leftMargin;
+                drawDivider(canvas, left - mSpace, top, left, bottom);
+                drawDivider(canvas, right, top, right + mSpace, bottom);
+            } else if (!isLastLinearItem(parent, child)) {
+                drawDivider(canvas, right, top, right + mSpace, bottom);
             }
         }
     }
 
     /**
-     * 绘制item分割线，不是填充满的。
+     * 线性列表中的条目后面是否没有其他条目，正在被移除的条目不画分割线。
+     */
+    private boolean isLastLinearItem(RecyclerView parent, View child) {
+        int position = parent.getChildAdapterPosition(child);
+        return position == RecyclerView.NO_POSITION || position == mItemCount - 1;
+    }
+
+    /**
+     * 绘制item分割线，不是填充满的，只画在相邻的条目之间，支持占多个span的条目。
      *
      * @param canvas 画布。
      * @param parent RV。
      */
     private void drawGridDivideLine(Canvas canvas, RecyclerView parent) {
-        GridLayoutManager linearLayoutManager = (GridLayoutManager) parent.getLayoutManager();
+        boolean horizontal = mLayout == LAYOUT_GRID_HORIZONTAL;
         int childSize = parent.getChildCount();
-        int other = parent.getChildCount() / linearLayoutManager.getSpanCount() - 1;
-        if (other < 1) {
-            other = 1;
-        }
-        other = other * linearLayoutManager.getSpanCount();
-        if (parent.getChildCount() < linearLayoutManager.getSpanCount()) {
-            other = parent.getChildCount();
-        }
-        int top, bottom, left, right, spancount;
-        spancount = linearLayoutManager.getSpanCount() - 1;
         for (int i = 0; i < childSize; i++) {
             final View child = parent.getChildAt(i);
+            int position = getCachedPosition(parent, child);
+            if (position == RecyclerView.NO_POSITION) {
+                continue;
+            }
+            int flags = mSpanCache.getFlags(position);
+            boolean lastRow = (flags & SpanLayoutCache.LAST_ROW) != 0;
+            boolean lastColumn = (flags & SpanLayoutCache.LAST_COLUMN) != 0;
+            boolean hasBottom = horizontal ? !lastColumn : !lastRow;
+            boolean hasRight = horizontal ? !lastRow : !lastColumn;
             RecyclerView.LayoutParams layoutParams = (RecyclerView.LayoutParams) child.getLayoutParams();
-            if (i < other) {
-                top = child.getBottom() + layoutParams.bottomMargin;
-                bottom = top + mSpace;
-                left = (layoutParams.leftMargin + mSpace) * (i + 1);
-                right = child.getMeasuredWidth() * (i + 1) + left + mSpace * i;
-                if (mDivider != null) {
-                    mDivider.setBounds(left, top, right, bottom);
-                    mDivider.draw(canvas);
-                }
-                if (mPaint != null) {
-                    canvas.drawRect(left, top, right, bottom, mPaint);
-                }
+            int left = child.getLeft() - layoutParams.leftMargin;
+            int top = child.getTop() - layoutParams.topMargin;
+            int right = child.getRight() + layoutParams.rightMargin;
+            int bottom = child.getBottom() + layoutParams.bottomMargin;
+            if (hasBottom) {
+                drawDivider(canvas, left, bottom, hasRight ? right + mSpace : right, bottom + mSpace);
             }
-            if (i != spancount) {
-                top = (layoutParams.topMargin + mSpace) * (i / linearLayoutManager.getSpanCount() + 1);
-                bottom = (child.getMeasuredHeight() + mSpace) * (i / linearLayoutManager.getSpanCount() + 1) + mSpace;
-                left = child.getRight() + layoutParams.rightMargin;
-                right = left + mSpace;
-                if (mDivider != null) {
-                    mDivider.setBounds(left, top, right, bottom);
-                    mDivider.draw(canvas);
-                }
-                if (mPaint != null) {
-                    canvas.drawRect(left, top, right, bottom, mPaint);
-                }
-            } else {
-                spancount += 4;
+            if (hasRight) {
+                drawDivider(canvas, right, top, right + mSpace, bottom);
             }
         }
     }
 
+    /**
+     * 绘制item分割线，每个条目四周都画满。
+     *
+     * @param canvas 画布。
+     * @param parent RV。
+     */
     private void drawGridFullDivideLine(Canvas canvas, RecyclerView parent) {
-        GridLayoutManager linearLayoutManager = (GridLayoutManager) parent.getLayoutManager();
         int childSize = parent.getChildCount();
-        int top, bottom, left, right,spancount;
-        spancount=linearLayoutManager.getSpanCount();
         for (int i = 0; i < childSize; i++) {
             final View child = parent.getChildAt(i);
-            // 画横线
-            RecyclerView.LayoutParams layoutParams = (RecyclerView.LayoutParams) child.getLayoutParams();
-            top = child.getBottom() + layoutParams.bottomMargin;
-            bottom = top + mSpace;
-            left = layoutParams.leftMargin+child.getPaddingLeft()+mSpace;
-            right = child.getMeasuredWidth() * (i + 1) + left + mSpace * i;
-            if (mDivider != null) {
-                mDivider.setBounds(left, top, right, bottom);
-                mDivider.draw(canvas);
-            }
-            if (mPaint != null) {
-                canvas.drawRect(left, top, right, bottom, mPaint);
-            }
-            // 画竖线
-            top = (layoutParams.topMargin + mSpace) * (i / linearLayoutManager.getSpanCount() + 1);
-            bottom = (child.getMeasuredHeight() + mSpace) * (i / linearLayoutManager.getSpanCount() + 1) + mSpace;
-            left = child.getRight() + layoutParams.rightMargin;
-            right = left + mSpace;
-            if (mDivider != null) {
-                mDivider.setBounds(left, top, right, bottom);
-                mDivider.draw(canvas);
-            }
-            if (mPaint != null) {
-                canvas.drawRect(left, top, right, bottom, mPaint);
-            }
-            // 画上缺失的线框
-            if(i<spancount){
-                top = child.getTop() + layoutParams.topMargin;
-                bottom = top + mSpace;
-                left = (layoutParams.leftMargin + mSpace) * (i + 1);
-                right = child.getMeasuredWidth() * (i + 1) + left + mSpace * i;
-                if (mDivider != null) {
-                    mDivider.setBounds(left, top, right, bottom);
-                    mDivider.draw(canvas);
-                }
-                if (mPaint != null) {
-                    canvas.drawRect(left, top, right, bottom, mPaint);
-                }
-            }
-            if (i%spancount==0) {
-                top = (layoutParams.topMargin + mSpace) * (i / linearLayoutManager.getSpanCount() + 1);
-                bottom = (child.getMeasuredHeight() + mSpace) * (i / linearLayoutManager.getSpanCount() + 1) + mSpace;
-                left = child.getLeft() + layoutParams.leftMargin;
-                right = left + mSpace;
-                if (mDivider != null) {
-                    mDivider.setBounds(left, top, right, bottom);
-                    mDivider.draw(canvas);
-                }
-                if (mPaint != null) {
-                    canvas.drawRect(left, top, right, bottom, mPaint);
-                }
+            if (getCachedPosition(parent, child) == RecyclerView.NO_POSITION) {
+                continue;
             }
+            RecyclerView.LayoutParams layoutParams = (RecyclerView.LayoutParams) child.getLayoutParams();
+            int left = child.getLeft() - layoutParams.leftMargin;
+            int top = child.getTop() - layoutParams.topMargin;
+            int right = child.getRight() + layoutParams.rightMargin;
+            int bottom = child.getBottom() + layoutParams.bottomMargin;
+            // 上下两条横线包含四个角
+            drawDivider(canvas, left - mSpace, top - mSpace, right + mSpace, top);
+            drawDivider(canvas, left - mSpace, bottom, right + mSpace, bottom + mSpace);
+            // 左右两条竖线
+            drawDivider(canvas, left - mSpace, top, left, bottom);
+            drawDivider(canvas, right, top, right + mSpace, bottom);
+        }
+    }
+
+    private void drawDivider(Canvas canvas, int left, int top, int right, int bottom) {
+        if (mCollecting) {
+            mBatch.addRect(left, top, right, bottom);
+            return;
+        }
+        if (mDivider != null) {
+            mDivider.setBounds(left, top, right, bottom);
+            mDivider.draw(canvas);
+        }
+        if (mPaint != null) {
+            canvas.drawRect(left, top, right, bottom, mPaint);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,162 @@
+package cn.jackwhliu.rvadapter.lib.decoration;
+
+import android.support.v7.widget.GridLayoutManager;
+
+import java.util.Arrays;
+
+/**
+ * 缓存每个位置在网格中的行、列和占的span数，考虑了{@link GridLayoutManager.SpanSizeLookup}。
+ * 行指的是span分组，列指的是span下标，横向的网格中两者对调。条目的行列只取决于它和前面条目的span数，
+ * 所以数据变化后只从变化的位置开始重新计算，在末尾追加一页时只计算新的条目。数组按容量复用，只在条目变多时扩容。
+ *
+ * @author lwh
+ */
+final class SpanLayoutCache {
+
+    /**
+     * 在第一行。
+     */
+    static final int FIRST_ROW = 1;
+
+    /**
+     * 在最后一行。
+     */
+    static final int LAST_ROW = 1 << 1;
+
+    /**
+     * 在行首。
+     */
+    static final int FIRST_COLUMN = 1 << 2;
+
+    /**
+     * 右边没有其他条目。
+     */
+    static final int LAST_COLUMN = 1 << 3;
+
+    private int[] mRows = new int[0];
+    private int[] mColumns = new int[0];
+    private int[] mSpanSizes = new int[0];
+
+    /**
+     * 前面已经计算过的条目数，从这里开始需要重新计算。
+     */
+    private int mValidCount;
+
+    private int mItemCount;
+
+    private int mSpanCount;
+
+    private GridLayoutManager.SpanSizeLookup mSpanSizeLookup;
+
+    private int mRowCount;
+
+    /**
+     * 所有位置都需要重新计算。
+     */
+    void invalidate() {
+        mValidCount = 0;
+    }
+
+    /**
+     * 从指定位置开始重新计算，前面的条目不受影响。
+     *
+     * @param position 第一个变化的位置。
+     */
+    void invalidateFrom(int position) {
+        mValidCount = Math.max(0, Math.min(mValidCount, position));
+    }
+
+    /**
+     * 需要时重新计算。
+     *
+     * @param itemCount 条目数。
+     * @param spanCount 每行的span数。
+     * @param spanSizeLookup 每个条目占的span数。
+     */
+    void ensure(int itemCount, int spanCount, GridLayoutManager.SpanSizeLookup spanSizeLookup) {
+        if (spanCount != mSpanCount || spanSizeLookup != mSpanSizeLookup) {
+            mValidCount = 0;
+            mSpanCount = spanCount;
+            mSpanSizeLookup = spanSizeLookup;
+        }
+        int start = Math.min(mValidCount, itemCount);
+        if (mRows.length < itemCount) {
+            int capacity = Math.max(itemCount, mRows.length * 2);
+            mRows = Arrays.copyOf(mRows, capacity);
+            mColumns = Arrays.copyOf(mColumns, capacity);
+            mSpanSizes = Arrays.copyOf(mSpanSizes, capacity);
+        }
+        int row = 0;
+        int column = 0;
+        if (start > 0) {
+            // 接着前一个条目继续排
+            row = mRows[start - 1];
+            column = mColumns[start - 1] + mSpanSizes[start - 1];
+        }
+        for (int position = start; position < itemCount; position++) {
+            int spanSize = spanSizeLookup != null
+                    ? Math.min(spanSizeLookup.getSpanSize(position), spanCount) : 1;
+            if (column + spanSize > spanCount) {
+                row++;
+                column = 0;
+            }
+            mRows[position] = row;
+            mColumns[position] = column;
+            mSpanSizes[position] = spanSize;
+            column += spanSize;
+        }
+        mValidCount = itemCount;
+        mItemCount = itemCount;
+        mRowCount = itemCount > 0 ? mRows[itemCount - 1] + 1 : 0;
+    }
+
+    /**
+     * 位置是否在已计算的范围内。
+     */
+    boolean contains(int position) {
+        return position >= 0 && position < mItemCount;
+    }
+
+    int getRow(int position) {
+        return mRows[position];
+    }
+
+    int getColumn(int position) {
+        return mColumns[position];
+    }
+
+    int getSpanSize(int position) {
+        return mSpanSizes[position];
+    }
+
+    /**
+     * 获取位置的边缘标志，由行列直接算出。
+     */
+    int getFlags(int position) {
+        int row = mRows[position];
+        int column = mColumns[position];
+        int flags = 0;
+        if (row == 0) {
+            flags |= FIRST_ROW;
+        }
+        if (row == mRowCount - 1) {
+            flags |= LAST_ROW;
+        }
+        if (column == 0) {
+            flags |= FIRST_COLUMN;
+        }
+        if (column + mSpanSizes[position] == mSpanCount || position == mItemCount - 1
+                || mRows[position + 1] != row) {
+            flags |= LAST_COLUMN;
+        }
+        return flags;
+    }
+
+    int getSpanCount() {
+        return mSpanCount;
+    }
+
+    int getRowCount() {
+        return mRowCount;
+    }
+}